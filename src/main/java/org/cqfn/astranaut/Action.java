@@ -38,5 +38,39 @@ public enum Action {
     /**
      * Load a syntax tree from file, apply the transformation rules and save the result.
      */
-    CONVERT
+    CONVERT,
+
+    /**
+     * Load a set of syntax trees from files, apply the transformation rules to each tree
+     * and save the results to the output folder.
+     */
+    BATCH,
+
+    /**
+     * Read syntax trees as newline-delimited JSON documents, apply the transformation rules
+     * to each tree and write the results in the same format.
+     */
+    STREAM,
+
+    /**
+     * Start the conversion server that keeps parsed DSL programs in memory.
+     */
+    SERVE,
+
+    /**
+     * Send a request to convert a file to the conversion server.
+     */
+    CLIENT,
+
+    /**
+     * Split a large set of syntax trees into shards and convert them by several
+     * worker processes.
+     */
+    COORDINATE,
+
+    /**
+     * Convert shards from the spool directory, the worker process is launched
+     * by the coordinator.
+     */
+    WORKER
 }
@@ -27,21 +27,53 @@ package org.cqfn.astranaut;
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Logger;
 import org.cqfn.astranaut.analyzer.EnvironmentPreparator;
+import org.cqfn.astranaut.api.CompressedFiles;
+import org.cqfn.astranaut.api.NdjsonPipeline;
+import org.cqfn.astranaut.api.ResultCache;
+import org.cqfn.astranaut.api.TreeDelta;
 import org.cqfn.astranaut.codegen.java.Environment;
 import org.cqfn.astranaut.codegen.java.License;
 import org.cqfn.astranaut.codegen.java.ProgramGenerator;
 import org.cqfn.astranaut.codegen.java.TaggedChild;
 import org.cqfn.astranaut.core.base.CoreException;
+import org.cqfn.astranaut.core.base.DefaultFactory;
+import org.cqfn.astranaut.core.base.Node;
 import org.cqfn.astranaut.core.utils.FilesReader;
+import org.cqfn.astranaut.exceptions.BatchConversionFailed;
+import org.cqfn.astranaut.exceptions.CacheNotAccessible;
+import org.cqfn.astranaut.exceptions.CouldNotConvertStream;
+import org.cqfn.astranaut.exceptions.DestinationNotSpecified;
+import org.cqfn.astranaut.exceptions.InputNotSpecified;
+import org.cqfn.astranaut.exceptions.ServerRequestFailed;
+import org.cqfn.astranaut.exceptions.SourceNotSpecified;
+import org.cqfn.astranaut.interpreter.Adapter;
+import org.cqfn.astranaut.interpreter.BatchConverter;
+import org.cqfn.astranaut.interpreter.BatchReport;
 import org.cqfn.astranaut.interpreter.Interpreter;
+import org.cqfn.astranaut.interpreter.ShardCoordinator;
+import org.cqfn.astranaut.interpreter.ShardWorker;
+import org.cqfn.astranaut.parser.LazyProgram;
 import org.cqfn.astranaut.parser.ProgramParser;
+import org.cqfn.astranaut.parser.SnapshotParser;
+import org.cqfn.astranaut.rules.Instruction;
 import org.cqfn.astranaut.rules.Program;
+import org.cqfn.astranaut.rules.Transformation;
+import org.cqfn.astranaut.server.ConversionClient;
+import org.cqfn.astranaut.server.ConversionServer;
 import org.cqfn.astranaut.utils.cli.ActionConverter;
 import org.cqfn.astranaut.utils.cli.DestinationFileConverter;
 import org.cqfn.astranaut.utils.cli.LicenseValidator;
@@ -62,6 +94,11 @@ public final class Main {
      */
     private static final Logger LOG = Logger.getLogger(Main.class.getName());
 
+    /**
+     * The maximum number of DSL programs kept by the conversion server.
+     */
+    private static final int RULE_SETS = 16;
+
     /**
      * The action.
      */
@@ -69,7 +106,8 @@ public final class Main {
         names = { "--action", "-a" },
         converter = ActionConverter.class,
         required = true,
-        description = "The action: 'generate' or 'convert'"
+        description = "The action: 'generate', 'convert', 'batch', 'stream', 'serve',"
+            + " 'client' or 'coordinate'"
     )
     private Action action;
 
@@ -147,6 +185,213 @@ public final class Main {
     )
     private File destination;
 
+    /**
+     * The set of source files for the batch conversion.
+     */
+    @Parameter(
+        names = { "--input", "-i" },
+        arity = 1,
+        description = "The set of source files for the batch conversion: a folder,"
+            + " a glob pattern or a manifest file with one path per line"
+    )
+    private String input;
+
+    /**
+     * The number of threads for the batch conversion, for parsing the DSL code
+     *  and for reading a single source file in the parallel mode.
+     */
+    @Parameter(
+        names = "--threads",
+        arity = 1,
+        description = "The number of threads for the batch conversion, for parsing the DSL code"
+            + " and for reading a single source file with --parallel-read"
+    )
+    private int threads;
+
+    /**
+     * The spool directory of the sharded conversion.
+     */
+    @Parameter(
+        names = "--spool",
+        arity = 1,
+        description = "The spool directory of the sharded conversion,"
+            + " by default the output path with the '.spool' suffix"
+    )
+    private String spool;
+
+    /**
+     * The number of worker processes of the sharded conversion.
+     */
+    @Parameter(
+        names = "--workers",
+        arity = 1,
+        description = "The number of worker processes of the sharded conversion"
+    )
+    private int workers;
+
+    /**
+     * The maximum number of files in a shard.
+     */
+    @Parameter(
+        names = "--shard-size",
+        arity = 1,
+        description = "The maximum number of files in a shard"
+    )
+    private int shard;
+
+    /**
+     * The number of retries of failed files.
+     */
+    @Parameter(
+        names = "--retries",
+        arity = 1,
+        description = "The number of retries of files that failed in the sharded conversion"
+    )
+    private int retries;
+
+    /**
+     * The journal of the batch conversion.
+     */
+    @Parameter(
+        names = "--journal",
+        arity = 1,
+        description = "The journal of the batch conversion, files recorded in it as converted"
+            + " are skipped by a restarted conversion"
+    )
+    private String journal;
+
+    /**
+     * The maximum number of attempts to convert a file before it is quarantined.
+     */
+    @Parameter(
+        names = "--attempts",
+        arity = 1,
+        description = "The maximum number of attempts to convert a file before it is quarantined"
+    )
+    private int attempts;
+
+    /**
+     * The directory of the cache of results.
+     */
+    @Parameter(
+        names = "--cache",
+        arity = 1,
+        description = "The directory of the cache of results, files that were already converted"
+            + " by the same rules are copied from it"
+    )
+    private String cache;
+
+    /**
+     * The maximum size of the cache of results, in megabytes.
+     */
+    @Parameter(
+        names = "--cache-size",
+        arity = 1,
+        description = "The maximum size of the cache of results, in megabytes,"
+            + " it is divided between worker processes"
+    )
+    private long capacity;
+
+    /**
+     * The timeout of the transformation of a tree, in milliseconds.
+     */
+    @Parameter(
+        names = "--timeout",
+        arity = 1,
+        description = "The timeout of the transformation of a tree, in milliseconds"
+    )
+    private long timeout;
+
+    /**
+     * The directory of snapshots of parsed DSL programs.
+     */
+    @Parameter(
+        names = "--snapshots",
+        arity = 1,
+        description = "The directory of snapshots of parsed DSL programs, a program whose"
+            + " snapshot exists is loaded from it instead of parsing"
+    )
+    private String snapshots;
+
+    /**
+     * Flag indicating that the whole DSL program is validated before a conversion.
+     */
+    @Parameter(
+        names = "--validate",
+        description = "Parse and check all rules before a conversion, not only transformations"
+    )
+    private boolean validate;
+
+    /**
+     * The port of the conversion server.
+     */
+    @Parameter(
+        names = "--port",
+        arity = 1,
+        description = "The local port of the conversion server"
+    )
+    private int port;
+
+    /**
+     * The access token of the conversion server.
+     */
+    @Parameter(
+        names = "--token",
+        arity = 1,
+        description = "The access token printed by the conversion server at start"
+    )
+    private String token;
+
+    /**
+     * The directory that contains all files the conversion server reads and writes.
+     */
+    @Parameter(
+        names = "--root",
+        arity = 1,
+        description = "The directory that contains all files the conversion server"
+            + " reads and writes"
+    )
+    private String root;
+
+    /**
+     * Lazy loading of the source syntax tree.
+     */
+    @Parameter(
+        names = "--lazy",
+        description = "Memory-map the source JSON file, create nodes on demand"
+            + " and copy unchanged subtrees to the destination as is"
+    )
+    private boolean lazy;
+
+    /**
+     * Reading of a single source file by several threads.
+     */
+    @Parameter(
+        names = "--parallel-read",
+        description = "Read a single uncompressed source JSON file by several threads"
+            + " (see --threads), it pays off only for large files"
+    )
+    private boolean parallel;
+
+    /**
+     * Keeping the source syntax tree in the columnar representation.
+     */
+    @Parameter(
+        names = "--columnar",
+        description = "Keep the source tree in the compact columnar representation"
+            + " instead of an object per node"
+    )
+    private boolean columnar;
+
+    /**
+     * Writing of the edit script instead of the resulting tree.
+     */
+    @Parameter(
+        names = "--delta",
+        description = "Save the edit script against the source tree instead of the resulting tree"
+    )
+    private boolean delta;
+
     /**
      * Test mode.
      */
@@ -171,6 +416,15 @@ public final class Main {
         this.path = "generated";
         this.rootpkg = "org.uast";
         this.version = "";
+        this.threads = Runtime.getRuntime().availableProcessors();
+        this.port = ConversionServer.DEFAULT_PORT;
+        this.token = "";
+        this.root = ".";
+        this.workers = 2;
+        this.shard = 1000;
+        this.retries = 2;
+        this.attempts = 3;
+        this.capacity = 1024;
     }
 
     /**
@@ -196,32 +450,15 @@ public final class Main {
      * @throws CoreException If fails
      */
     private void run() throws CoreException {
-        final String rules = this.dsl.getPath();
         try {
-            final String code = new FilesReader(rules).readAsString(
-                (FilesReader.CustomExceptionCreator<CoreException>) () -> new CoreException() {
-                    private static final long serialVersionUID = 574161461218410655L;
-
-                    @Override
-                    public String getInitiator() {
-                        return "Main";
-                    }
-
-                    @Override
-                    public String getErrorMessage() {
-                        return String.format("Could not read DSL file: %s", rules);
-                    }
-                }
-            );
-            final ProgramParser parser = new ProgramParser(code);
-            final Program program = parser.parse();
-            if (this.action == Action.GENERATE) {
-                final Map<String, Environment> env =
-                    new EnvironmentPreparator(program, new Main.EnvironmentImpl()).prepare();
-                final ProgramGenerator generator = new ProgramGenerator(this.path, program, env);
-                generator.generate();
-            } else if (this.action == Action.CONVERT) {
-                new Interpreter(this.source, this.destination, program).run();
+            if (this.action == Action.CLIENT) {
+                this.sendRequest();
+            } else if (this.action == Action.SERVE) {
+                this.serve(this.readRules());
+            } else if (this.action == Action.COORDINATE) {
+                this.coordinate();
+            } else {
+                this.runProgram(this.parseRules());
             }
         } catch (final CoreException exc) {
             LOG.severe(String.format("%s, %s", exc.getInitiator(), exc.getErrorMessage()));
@@ -229,6 +466,337 @@ public final class Main {
         }
     }
 
+    /**
+     * Parses the DSL code, or loads the snapshot of the parsed program if the directory
+     *  of snapshots is specified. For conversions, only transformations are parsed
+     *  unless the validation of the whole program is requested.
+     * @return The program
+     * @throws CoreException If the file can not be read or the code can not be parsed
+     */
+    private Program parseRules() throws CoreException {
+        final Program program;
+        if (this.snapshots == null && (this.action == Action.GENERATE || this.validate)) {
+            try (Reader reader = Files.newBufferedReader(this.dsl.toPath())) {
+                final ProgramParser parser = new ProgramParser(reader);
+                parser.setThreads(this.threads);
+                program = parser.parse();
+            } catch (final IOException exception) {
+                throw this.couldNotReadRules();
+            }
+        } else if (this.snapshots == null) {
+            program = new LazyProgram(this.readRules()).parseTransformationProgram();
+        } else {
+            program = new SnapshotParser(this.readRules(), Paths.get(this.snapshots)).parse();
+        }
+        return program;
+    }
+
+    /**
+     * Reads the DSL code.
+     * @return The code
+     * @throws CoreException If the file can not be read
+     */
+    private String readRules() throws CoreException {
+        return new FilesReader(this.dsl.getPath()).readAsString(
+            (FilesReader.CustomExceptionCreator<CoreException>) this::couldNotReadRules
+        );
+    }
+
+    /**
+     * Creates the exception "Could not read DSL file".
+     * @return The exception
+     */
+    private CoreException couldNotReadRules() {
+        final String rules = this.dsl.getPath();
+        return new CoreException() {
+            private static final long serialVersionUID = 574161461218410655L;
+
+            @Override
+            public String getInitiator() {
+                return "Main";
+            }
+
+            @Override
+            public String getErrorMessage() {
+                return String.format("Could not read DSL file: %s", rules);
+            }
+        };
+    }
+
+    /**
+     * Performs the action that requires the parsed DSL program.
+     * @param program The DSL program
+     * @throws CoreException If fails
+     */
+    private void runProgram(final Program program) throws CoreException {
+        if (this.action == Action.GENERATE) {
+            final Map<String, Environment> env =
+                new EnvironmentPreparator(program, new Main.EnvironmentImpl()).prepare();
+            final ProgramGenerator generator = new ProgramGenerator(this.path, program, env);
+            generator.generate();
+        } else if (this.action == Action.CONVERT) {
+            final Interpreter interpreter =
+                new Interpreter(this.source, this.destination, program);
+            interpreter.setLazy(this.lazy);
+            interpreter.setColumnar(this.columnar);
+            if (this.parallel) {
+                interpreter.setThreads(this.threads);
+            }
+            interpreter.setDelta(this.delta);
+            interpreter.setTimeout(this.getTimeout());
+            final ResultCache results = this.openCache();
+            interpreter.setCache(results);
+            interpreter.run();
+            LOG.info(
+                String.format(
+                    "Data strings of the source tree deduplicated, %d bytes saved",
+                    interpreter.getSavedBytes()
+                )
+            );
+            if (results != null) {
+                LOG.info(results.toString());
+            }
+        } else if (this.action == Action.BATCH) {
+            this.convertBatch(program);
+        } else if (this.action == Action.STREAM) {
+            this.convertStream(program);
+        } else if (this.action == Action.WORKER) {
+            final ShardWorker worker =
+                new ShardWorker(this.getSpool(), program, Paths.get(this.path));
+            worker.setThreads(this.threads);
+            worker.setLazy(this.lazy);
+            worker.setColumnar(this.columnar);
+            worker.setDelta(this.delta);
+            worker.setTimeout(this.getTimeout());
+            worker.setAttempts(this.attempts);
+            worker.setCache(this.openCache());
+            worker.run();
+        }
+    }
+
+    /**
+     * Converts the set of source files by several worker processes and logs the report.
+     * @throws CoreException If the set of files can not be collected, the spool directory
+     *  can not be accessed or some files were not converted
+     */
+    private void coordinate() throws CoreException {
+        if (this.input == null) {
+            throw InputNotSpecified.INSTANCE;
+        }
+        final ShardCoordinator coordinator =
+            new ShardCoordinator(this.getSpool(), this.dsl, Paths.get(this.path));
+        final int count = Math.max(1, this.workers);
+        coordinator.setWorkers(count);
+        coordinator.setThreads(Math.max(1, this.threads / count));
+        coordinator.setAttempts(this.attempts);
+        if (this.cache != null) {
+            coordinator.setCache(Paths.get(this.cache), this.capacity);
+        }
+        coordinator.setShardSize(this.shard);
+        coordinator.setRetries(this.retries);
+        coordinator.setLazy(this.lazy);
+        coordinator.setColumnar(this.columnar);
+        coordinator.setDelta(this.delta);
+        coordinator.setValidate(this.validate);
+        coordinator.setTimeout(this.timeout);
+        if (this.snapshots != null) {
+            coordinator.setSnapshots(Paths.get(this.snapshots));
+        }
+        final BatchReport report = coordinator.run(this.input);
+        LOG.info(report.toString());
+        final int failed = report.getFailureCount();
+        if (failed > 0) {
+            throw new BatchConversionFailed(failed, report.getEntries().size());
+        }
+    }
+
+    /**
+     * Returns the timeout of the transformation of a tree.
+     * @return The timeout, or {@code null} if the transformation time is not limited
+     */
+    private Duration getTimeout() {
+        Duration result = null;
+        if (this.timeout > 0) {
+            result = Duration.ofMillis(this.timeout);
+        }
+        return result;
+    }
+
+    /**
+     * Opens the cache of results.
+     * @return The cache, or {@code null} if results are not cached
+     * @throws CacheNotAccessible If the cache directory can not be accessed
+     */
+    private ResultCache openCache() throws CacheNotAccessible {
+        ResultCache result = null;
+        if (this.cache != null) {
+            try {
+                result = new ResultCache(Paths.get(this.cache), this.capacity << 20);
+            } catch (final IOException exception) {
+                throw new CacheNotAccessible(this.cache);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the spool directory of the sharded conversion.
+     * @return The path to the directory
+     */
+    private Path getSpool() {
+        final Path result;
+        if (this.spool == null) {
+            result = Paths.get(this.path.concat(".spool"));
+        } else {
+            result = Paths.get(this.spool);
+        }
+        return result;
+    }
+
+    /**
+     * Starts the conversion server, the server keeps running after this method returns.
+     * @param code The DSL code that is parsed in advance
+     * @throws CoreException If the code can not be parsed or the port can not be opened
+     */
+    private void serve(final String code) throws CoreException {
+        final ConversionServer server;
+        try {
+            server = new ConversionServer(
+                this.port, this.threads, Main.RULE_SETS, Paths.get(this.root)
+            );
+        } catch (final IOException exception) {
+            throw new ServerRequestFailed(exception.toString());
+        }
+        server.preload(code);
+        server.start();
+        LOG.info(
+            String.format(
+                "The conversion server listens on port %d, the access token is %s",
+                server.getPort(),
+                server.getToken()
+            )
+        );
+    }
+
+    /**
+     * Sends the request to convert the source file to the conversion server.
+     * @throws CoreException If the source or the destination is not specified,
+     *  or the request fails
+     */
+    private void sendRequest() throws CoreException {
+        if (this.source == null) {
+            throw SourceNotSpecified.INSTANCE;
+        }
+        if (this.destination == null) {
+            throw DestinationNotSpecified.INSTANCE;
+        }
+        try {
+            LOG.info(
+                new ConversionClient(this.port, this.token).convert(
+                    this.dsl.toPath(), this.source.toPath(), this.destination.toPath()
+                )
+            );
+        } catch (final IOException exception) {
+            throw new ServerRequestFailed(exception.getMessage());
+        }
+    }
+
+    /**
+     * Converts the set of source files and logs the report.
+     * @param program The DSL program
+     * @throws CoreException If the set of files can not be collected or some files
+     *  were not converted
+     */
+    private void convertBatch(final Program program) throws CoreException {
+        if (this.input == null) {
+            throw InputNotSpecified.INSTANCE;
+        }
+        final BatchConverter converter = new BatchConverter(program, Paths.get(this.path));
+        converter.setThreads(this.threads);
+        converter.setLazy(this.lazy);
+        converter.setColumnar(this.columnar);
+        converter.setDelta(this.delta);
+        converter.setTimeout(this.getTimeout());
+        if (this.journal != null) {
+            converter.setJournal(Paths.get(this.journal));
+            converter.setAttempts(this.attempts);
+        }
+        final ResultCache results = this.openCache();
+        converter.setCache(results);
+        final BatchReport report = converter.convert(this.input);
+        LOG.info(report.toString());
+        if (results != null) {
+            LOG.info(results.toString());
+        }
+        final int failed = report.getFailureCount();
+        if (failed > 0) {
+            throw new BatchConversionFailed(failed, report.getEntries().size());
+        }
+    }
+
+    /**
+     * Converts the stream of trees, one JSON document per line, from the source file
+     *  (or the standard input) to the destination file (or the standard output).
+     * @param program The DSL program
+     * @throws CoreException If the stream can not be read or written
+     */
+    private void convertStream(final Program program) throws CoreException {
+        final List<Instruction<Transformation>> rules = program.getTransformations();
+        final boolean diff = this.delta;
+        final NdjsonPipeline pipeline = new NdjsonPipeline(
+            root -> {
+                Node result = new Adapter(rules, DefaultFactory.EMPTY).convert(root);
+                if (diff) {
+                    result = TreeDelta.diff(root, result).getRoot();
+                }
+                return result;
+            }
+        );
+        pipeline.setThreads(this.threads);
+        try (
+            InputStream file = this.openSource();
+            OutputStream target = this.openDestination()
+        ) {
+            InputStream input = System.in;
+            if (file != null) {
+                input = file;
+            }
+            OutputStream output = System.out;
+            if (target != null) {
+                output = target;
+            }
+            pipeline.run(input, output);
+        } catch (final IOException exception) {
+            throw new CouldNotConvertStream(exception.toString());
+        }
+    }
+
+    /**
+     * Opens the source file.
+     * @return The stream, or {@code null} if the source file is not specified
+     * @throws IOException If the file can not be opened
+     */
+    private InputStream openSource() throws IOException {
+        InputStream stream = null;
+        if (this.source != null) {
+            stream = CompressedFiles.newInputStream(this.source.toPath());
+        }
+        return stream;
+    }
+
+    /**
+     * Opens the destination file.
+     * @return The stream, or {@code null} if the destination file is not specified
+     * @throws IOException If the file can not be opened
+     */
+    private OutputStream openDestination() throws IOException {
+        OutputStream stream = null;
+        if (this.destination != null) {
+            stream = CompressedFiles.newOutputStream(this.destination.toPath());
+        }
+        return stream;
+    }
+
     /**
      * Environment implementation.
      *
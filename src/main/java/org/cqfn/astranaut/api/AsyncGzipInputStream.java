@@ -0,0 +1,207 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Stream that reads a GZIP file, the file is decompressed on a separate thread
+ * into a bounded queue of chunks.
+ *
+ * @since 0.2.22
+ */
+final class AsyncGzipInputStream extends InputStream {
+    /**
+     * The chunk that marks the end of the data.
+     */
+    private static final byte[] END = new byte[0];
+
+    /**
+     * The maximum number of decompressed chunks waiting to be read.
+     */
+    private static final int QUEUE_SIZE = 4;
+
+    /**
+     * The queue of decompressed chunks.
+     */
+    private final BlockingQueue<byte[]> queue;
+
+    /**
+     * The thread that decompresses the file.
+     */
+    private final Thread thread;
+
+    /**
+     * The error that occurred while decompressing, or {@code null}.
+     */
+    private volatile IOException error;
+
+    /**
+     * Flag indicating that the stream is closed.
+     */
+    private volatile boolean closed;
+
+    /**
+     * The chunk being read.
+     */
+    private byte[] chunk;
+
+    /**
+     * The position in the chunk.
+     */
+    private int position;
+
+    /**
+     * Constructor.
+     * @param path The path to the file
+     * @throws IOException If the file can not be opened
+     */
+    AsyncGzipInputStream(final Path path) throws IOException {
+        super();
+        final InputStream source = Files.newInputStream(path);
+        this.queue = new ArrayBlockingQueue<>(AsyncGzipInputStream.QUEUE_SIZE);
+        this.thread = new Thread(
+            () -> this.inflate(source),
+            "gzip-reader-".concat(String.valueOf(path.getFileName()))
+        );
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public int read() throws IOException {
+        int result = -1;
+        if (this.fetch()) {
+            result = this.chunk[this.position] & 0xff;
+            this.position = this.position + 1;
+        }
+        return result;
+    }
+
+    @Override
+    public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+        int result = 0;
+        if (length > 0) {
+            if (this.fetch()) {
+                result = Math.min(length, this.chunk.length - this.position);
+                System.arraycopy(this.chunk, this.position, buffer, offset, result);
+                this.position = this.position + result;
+            } else {
+                result = -1;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!this.closed) {
+            this.closed = true;
+            this.thread.interrupt();
+            try {
+                this.thread.join();
+            } catch (final InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+    }
+
+    /**
+     * Takes the next chunk from the queue if the current one is exhausted.
+     * @return {@code true} if there is data to read, {@code false} at the end of the data
+     * @throws IOException If the file can not be decompressed
+     */
+    private boolean fetch() throws IOException {
+        if (this.closed) {
+            throw new IOException("Stream closed");
+        }
+        if (this.chunk == null || this.chunk != AsyncGzipInputStream.END
+            && this.position == this.chunk.length) {
+            try {
+                this.chunk = this.queue.take();
+            } catch (final InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            this.position = 0;
+        }
+        if (this.chunk == AsyncGzipInputStream.END && this.error != null) {
+            throw this.error;
+        }
+        return this.chunk != AsyncGzipInputStream.END;
+    }
+
+    /**
+     * Decompresses the file, this method is executed by the separate thread.
+     * @param source The compressed file
+     */
+    private void inflate(final InputStream source) {
+        try (InputStream stream = new GZIPInputStream(source, CompressedFiles.BUFFER_SIZE)) {
+            int count = 0;
+            while (count >= 0 && !this.closed) {
+                final byte[] buffer = new byte[CompressedFiles.BUFFER_SIZE];
+                int size = 0;
+                count = stream.read(buffer, 0, buffer.length);
+                while (count > 0) {
+                    size = size + count;
+                    count = stream.read(buffer, size, buffer.length - size);
+                }
+                if (size == buffer.length) {
+                    this.put(buffer);
+                } else if (size > 0) {
+                    this.put(Arrays.copyOf(buffer, size));
+                }
+            }
+        } catch (final IOException exception) {
+            this.error = exception;
+        } finally {
+            this.put(AsyncGzipInputStream.END);
+        }
+    }
+
+    /**
+     * Puts a chunk into the queue, waiting for free space unless the stream is closed.
+     * @param item The chunk
+     */
+    private void put(final byte[] item) {
+        boolean done = false;
+        while (!done && !this.closed) {
+            try {
+                done = this.queue.offer(item, 100, TimeUnit.MILLISECONDS);
+            } catch (final InterruptedException ignored) {
+                done = this.closed;
+            }
+        }
+    }
+}
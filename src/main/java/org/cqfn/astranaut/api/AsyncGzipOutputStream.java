@@ -0,0 +1,244 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stream that writes a GZIP file, the data is compressed on a separate thread
+ * that receives chunks through a bounded queue.
+ *
+ * @since 0.2.22
+ */
+final class AsyncGzipOutputStream extends OutputStream {
+    /**
+     * The chunk that marks the end of the data.
+     */
+    private static final byte[] END = new byte[0];
+
+    /**
+     * The maximum number of chunks waiting to be compressed.
+     */
+    private static final int QUEUE_SIZE = 4;
+
+    /**
+     * The queue of chunks.
+     */
+    private final BlockingQueue<byte[]> queue;
+
+    /**
+     * The thread that compresses the data.
+     */
+    private final Thread thread;
+
+    /**
+     * The error that occurred while compressing, or {@code null}.
+     */
+    private volatile IOException error;
+
+    /**
+     * The chunk being filled.
+     */
+    private byte[] chunk;
+
+    /**
+     * The number of bytes in the chunk.
+     */
+    private int size;
+
+    /**
+     * Flag indicating that the stream is closed.
+     */
+    private boolean closed;
+
+    /**
+     * Constructor.
+     * @param path The path to the file
+     * @throws IOException If the file can not be created
+     */
+    AsyncGzipOutputStream(final Path path) throws IOException {
+        super();
+        final OutputStream target = Files.newOutputStream(path);
+        this.queue = new ArrayBlockingQueue<>(AsyncGzipOutputStream.QUEUE_SIZE);
+        this.chunk = new byte[CompressedFiles.BUFFER_SIZE];
+        this.thread = new Thread(
+            () -> this.deflate(target),
+            "gzip-writer-".concat(String.valueOf(path.getFileName()))
+        );
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public void write(final int value) throws IOException {
+        if (this.size == this.chunk.length) {
+            this.submit();
+        }
+        this.chunk[this.size] = (byte) value;
+        this.size = this.size + 1;
+    }
+
+    @Override
+    public void write(final byte[] buffer, final int offset, final int length)
+        throws IOException {
+        int done = 0;
+        while (done < length) {
+            if (this.size == this.chunk.length) {
+                this.submit();
+            }
+            final int count = Math.min(length - done, this.chunk.length - this.size);
+            System.arraycopy(buffer, offset + done, this.chunk, this.size, count);
+            this.size = this.size + count;
+            done = done + count;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (this.size > 0) {
+            this.submit();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!this.closed) {
+            try {
+                this.flush();
+            } finally {
+                this.finish();
+            }
+            this.check();
+        }
+    }
+
+    /**
+     * Passes the filled part of the chunk to the compressing thread.
+     * @throws IOException If the data can not be compressed or written
+     */
+    private void submit() throws IOException {
+        if (this.closed) {
+            throw new IOException("Stream closed");
+        }
+        this.check();
+        final byte[] item;
+        if (this.size == this.chunk.length) {
+            item = this.chunk;
+            this.chunk = new byte[CompressedFiles.BUFFER_SIZE];
+        } else {
+            item = Arrays.copyOf(this.chunk, this.size);
+        }
+        this.put(item);
+        this.size = 0;
+    }
+
+    /**
+     * Marks the stream as closed, passes the end of the data to the compressing thread
+     *  and waits until the thread closes the file. If the current thread is interrupted,
+     *  the compressing thread is interrupted as well, so it closes the file anyway.
+     * @throws IOException If the current thread is interrupted
+     */
+    private void finish() throws IOException {
+        this.closed = true;
+        try {
+            this.queue.put(AsyncGzipOutputStream.END);
+            this.thread.join();
+        } catch (final InterruptedException exception) {
+            this.thread.interrupt();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    /**
+     * Puts a chunk into the queue.
+     * @param item The chunk
+     * @throws IOException If the current thread is interrupted
+     */
+    private void put(final byte[] item) throws IOException {
+        try {
+            this.queue.put(item);
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    /**
+     * Rethrows the error of the compressing thread, if any.
+     * @throws IOException The error
+     */
+    private void check() throws IOException {
+        if (this.error != null) {
+            throw this.error;
+        }
+    }
+
+    /**
+     * Compresses the data, this method is executed by the separate thread.
+     *  After an error, the remaining chunks are taken and dropped,
+     *  so that the writing thread is never blocked.
+     * @param target The file
+     */
+    private void deflate(final OutputStream target) {
+        OutputStream stream = target;
+        try {
+            stream = new GZIPOutputStream(target, CompressedFiles.BUFFER_SIZE);
+        } catch (final IOException exception) {
+            this.error = exception;
+        }
+        boolean done = false;
+        while (!done) {
+            byte[] item;
+            try {
+                item = this.queue.take();
+            } catch (final InterruptedException ignored) {
+                item = AsyncGzipOutputStream.END;
+            }
+            done = item == AsyncGzipOutputStream.END;
+            if (!done && this.error == null) {
+                try {
+                    stream.write(item);
+                } catch (final IOException exception) {
+                    this.error = exception;
+                }
+            }
+        }
+        try {
+            stream.close();
+        } catch (final IOException exception) {
+            if (this.error == null) {
+                this.error = exception;
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+/**
+ * Constants of the binary tree format.
+ * The file starts with the 4-byte signature "ASTB" and the version byte.
+ * Then goes the dictionary: the number of strings followed by the strings themselves
+ * (the length in bytes and UTF-8 encoded characters), and the index of the tree
+ * language in the dictionary plus one (zero if the language is not specified).
+ * Then go the nodes in pre-order, each node is:
+ * <ul>
+ *   <li>the index of the type name in the dictionary shifted left by one bit,
+ *     the lowest bit is set if the node has data;</li>
+ *   <li>the index of the data in the dictionary (only if the node has data);</li>
+ *   <li>the number of children.</li>
+ * </ul>
+ * All numbers are unsigned variable-length integers: 7 bits per byte,
+ * the highest bit is set in all bytes except the last.
+ *
+ * @since 0.2.22
+ */
+final class BinaryFormat {
+    /**
+     * The signature.
+     */
+    static final byte[] SIGNATURE = {'A', 'S', 'T', 'B'};
+
+    /**
+     * The version of the format.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Private constructor.
+     */
+    private BinaryFormat() {
+    }
+}
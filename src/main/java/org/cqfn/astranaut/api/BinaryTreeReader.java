@@ -0,0 +1,406 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import org.cqfn.astranaut.core.base.DefaultFactory;
+import org.cqfn.astranaut.core.base.EmptyTree;
+import org.cqfn.astranaut.core.base.Factory;
+import org.cqfn.astranaut.core.base.Tree;
+import org.cqfn.astranaut.utils.StringPool;
+
+/**
+ * Reads a tree in the compact binary format (see {@link BinaryFormat}) from a stream.
+ * The source is read through a fixed buffer, and each node is built by the factory
+ * as soon as all its children are read (or stored in a {@link ColumnarTree}).
+ * The reader does not use recursion, so the depth of the tree is not limited
+ * by the thread stack.
+ *
+ * @since 0.2.22
+ */
+public final class BinaryTreeReader {
+    /**
+     * The size of the read buffer.
+     */
+    private static final int BUFFER_SIZE = 65_536;
+
+    /**
+     * The source stream, or {@code null} if the source is a file.
+     */
+    private final InputStream stream;
+
+    /**
+     * The source file, or {@code null} if the source is a stream.
+     */
+    private final Path path;
+
+    /**
+     * The node factory.
+     */
+    private Factory factory;
+
+    /**
+     * Constructor.
+     * @param stream The stream the tree is read from, it is not closed by the reader
+     */
+    public BinaryTreeReader(final InputStream stream) {
+        this(stream, null);
+    }
+
+    /**
+     * Constructor.
+     * @param path The path to a file the tree is read from, a file whose name ends
+     *  with .gz is decompressed
+     */
+    public BinaryTreeReader(final Path path) {
+        this(null, path);
+    }
+
+    /**
+     * Constructor.
+     * @param stream The stream
+     * @param path The path
+     */
+    private BinaryTreeReader(final InputStream stream, final Path path) {
+        this.stream = stream;
+        this.path = path;
+        this.factory = DefaultFactory.EMPTY;
+    }
+
+    /**
+     * Replaces the default node factory.
+     * @param obj The factory
+     */
+    public void setFactory(final Factory obj) {
+        this.factory = obj;
+    }
+
+    /**
+     * Reads the tree.
+     * @return Resulting syntax tree, or an empty tree if the source is not a valid
+     *  binary tree
+     * @throws IOException If the source can not be read
+     */
+    public Tree read() throws IOException {
+        final NodeAssembler assembler = new NodeAssembler(this.factory);
+        final Tree tree;
+        if (this.read(assembler)) {
+            tree = new Tree(assembler.result());
+        } else {
+            tree = EmptyTree.INSTANCE;
+        }
+        return tree;
+    }
+
+    /**
+     * Reads the tree into the compact columnar representation.
+     * @param direct Flag indicating that columns are placed outside the Java heap
+     * @return Resulting syntax tree, or a tree without nodes if the source is not a valid
+     *  binary tree
+     * @throws IOException If the source can not be read
+     */
+    public ColumnarTree readColumnar(final boolean direct) throws IOException {
+        ColumnarTree.Assembler assembler = new ColumnarTree.Assembler(this.factory, direct);
+        if (!this.read(assembler)) {
+            assembler = new ColumnarTree.Assembler(this.factory, direct);
+        }
+        return assembler.result();
+    }
+
+    /**
+     * Reads the source, passing nodes to the assembler.
+     * @param assembler The assembler
+     * @return {@code true} if the source is a valid binary tree
+     * @throws IOException If the source can not be read
+     */
+    private boolean read(final TreeAssembler<?> assembler) throws IOException {
+        final boolean success;
+        if (this.path == null) {
+            success = new Parser(this.stream, assembler).parse();
+        } else {
+            try (InputStream file = CompressedFiles.newInputStream(this.path)) {
+                success = new Parser(file, assembler).parse();
+            }
+        }
+        return success;
+    }
+
+    /**
+     * The parser itself, it contains the state of a single reading.
+     *
+     * @since 0.2.22
+     */
+    private static final class Parser {
+        /**
+         * The source stream.
+         */
+        private final InputStream stream;
+
+        /**
+         * The assembler that receives nodes.
+         */
+        private final TreeAssembler<?> assembler;
+
+        /**
+         * The read buffer.
+         */
+        private final byte[] buffer;
+
+        /**
+         * Position of the next byte in the buffer.
+         */
+        private int position;
+
+        /**
+         * The number of bytes in the buffer.
+         */
+        private int limit;
+
+        /**
+         * Constructor.
+         * @param stream The source stream
+         * @param assembler The assembler that receives nodes
+         */
+        Parser(final InputStream stream, final TreeAssembler<?> assembler) {
+            this.stream = stream;
+            this.assembler = assembler;
+            this.buffer = new byte[BinaryTreeReader.BUFFER_SIZE];
+        }
+
+        /**
+         * Parses the whole source.
+         * @return {@code true} if the source is a valid binary tree
+         * @throws IOException If the source can not be read
+         */
+        boolean parse() throws IOException {
+            boolean success = false;
+            try {
+                for (final byte expected : BinaryFormat.SIGNATURE) {
+                    if (this.next() != expected) {
+                        throw Malformed.INSTANCE;
+                    }
+                }
+                if (this.number() != BinaryFormat.VERSION) {
+                    throw Malformed.INSTANCE;
+                }
+                final String[] strings = new String[this.number()];
+                for (int index = 0; index < strings.length; index = index + 1) {
+                    strings[index] = this.string();
+                }
+                final int language = this.number();
+                if (language > strings.length) {
+                    throw Malformed.INSTANCE;
+                }
+                this.nodes(strings);
+                success = true;
+            } catch (final Malformed ignored) {
+                success = false;
+            }
+            return success;
+        }
+
+        /**
+         * Reads nodes.
+         * @param strings The dictionary
+         * @throws IOException If the source can not be read
+         * @throws Malformed If the source is malformed
+         */
+        private void nodes(final String[] strings) throws IOException, Malformed {
+            final Deque<Frame> stack = new ArrayDeque<>();
+            boolean done = false;
+            while (!done) {
+                final int header = this.number();
+                final String type = StringPool.intern(Parser.lookup(strings, header >>> 1));
+                String data = null;
+                if ((header & 1) == 1) {
+                    data = Parser.lookup(strings, this.number());
+                }
+                final int count = this.number();
+                if (count == 0) {
+                    this.assembler.node(type, data, 0);
+                    boolean completed = true;
+                    while (completed && !stack.isEmpty()) {
+                        final Frame top = stack.peek();
+                        top.received = top.received + 1;
+                        completed = top.received == top.count;
+                        if (completed) {
+                            stack.pop();
+                            this.assembler.node(top.type, top.data, top.count);
+                        }
+                    }
+                    done = completed;
+                } else {
+                    stack.push(new Frame(type, data, count));
+                }
+            }
+        }
+
+        /**
+         * Reads a string.
+         * @return The string
+         * @throws IOException If the source can not be read
+         * @throws Malformed If the source is malformed
+         */
+        private String string() throws IOException, Malformed {
+            final int length = this.number();
+            final String result;
+            if (length <= this.limit - this.position) {
+                result = new String(this.buffer, this.position, length, StandardCharsets.UTF_8);
+                this.position = this.position + length;
+            } else {
+                final byte[] bytes = new byte[length];
+                for (int index = 0; index < length; index = index + 1) {
+                    bytes[index] = (byte) this.next();
+                }
+                result = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return result;
+        }
+
+        /**
+         * Reads an unsigned variable-length integer.
+         * @return The value
+         * @throws IOException If the source can not be read
+         * @throws Malformed If the source is malformed
+         */
+        private int number() throws IOException, Malformed {
+            int value = 0;
+            int shift = 0;
+            int chunk = 0x80;
+            while ((chunk & 0x80) != 0) {
+                if (shift > 28) {
+                    throw Malformed.INSTANCE;
+                }
+                chunk = this.next();
+                value = value | (chunk & 0x7f) << shift;
+                shift = shift + 7;
+            }
+            if (value < 0) {
+                throw Malformed.INSTANCE;
+            }
+            return value;
+        }
+
+        /**
+         * Reads the next byte.
+         * @return The byte (as an unsigned number)
+         * @throws IOException If the source can not be read
+         * @throws Malformed If there are no more bytes
+         */
+        private int next() throws IOException, Malformed {
+            if (this.position == this.limit) {
+                this.limit = this.stream.read(this.buffer);
+                this.position = 0;
+                if (this.limit <= 0) {
+                    this.limit = 0;
+                    throw Malformed.INSTANCE;
+                }
+            }
+            final int value = this.buffer[this.position] & 0xff;
+            this.position = this.position + 1;
+            return value;
+        }
+
+        /**
+         * Looks up a string in the dictionary.
+         * @param strings The dictionary
+         * @param index The index of the string
+         * @return The string
+         * @throws Malformed If the index is out of bounds
+         */
+        private static String lookup(final String[] strings, final int index)
+            throws Malformed {
+            if (index >= strings.length) {
+                throw Malformed.INSTANCE;
+            }
+            return strings[index];
+        }
+    }
+
+    /**
+     * A node whose children have not been read yet.
+     *
+     * @since 0.2.22
+     */
+    private static final class Frame {
+        /**
+         * The type name.
+         */
+        private final String type;
+
+        /**
+         * The data, or {@code null} if the node has no data.
+         */
+        private final String data;
+
+        /**
+         * The number of children.
+         */
+        private final int count;
+
+        /**
+         * The number of children already read.
+         */
+        private int received;
+
+        /**
+         * Constructor.
+         * @param type The type name
+         * @param data The data
+         * @param count The number of children
+         */
+        Frame(final String type, final String data, final int count) {
+            this.type = type;
+            this.data = data;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Signal that the source is malformed. It is caught inside the reader.
+     *
+     * @since 0.2.22
+     */
+    private static final class Malformed extends Exception {
+        /**
+         * The instance.
+         */
+        private static final Malformed INSTANCE = new Malformed();
+
+        private static final long serialVersionUID = -5216839310441127470L;
+
+        /**
+         * Constructor.
+         */
+        private Malformed() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.cqfn.astranaut.core.base.Node;
+import org.cqfn.astranaut.core.base.Tree;
+
+/**
+ * Writes a tree in the compact binary format (see {@link BinaryFormat}).
+ * The tree is traversed twice: the first pass collects the dictionary of strings,
+ * the second one writes the nodes.
+ *
+ * @since 0.2.22
+ */
+public final class BinaryTreeWriter {
+    /**
+     * The size of the output buffer.
+     */
+    private static final int BUFFER_SIZE = 65_536;
+
+    /**
+     * The tree to be written.
+     */
+    private final Tree tree;
+
+    /**
+     * Constructor.
+     * @param tree The tree to be written
+     */
+    public BinaryTreeWriter(final Tree tree) {
+        this.tree = tree;
+    }
+
+    /**
+     * Writes the tree to a stream.
+     * @param stream The stream, it is not closed by the writer
+     * @throws IOException If the stream can not be written
+     */
+    public void write(final OutputStream stream) throws IOException {
+        final Map<String, Integer> indexes = new HashMap<>();
+        final List<String> strings = new ArrayList<>();
+        final Node root = this.tree.getRoot();
+        final Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        String language = "";
+        while (!stack.isEmpty()) {
+            final Node node = stack.pop();
+            if (language.isEmpty()) {
+                language = BinaryTreeWriter.getLanguage(node);
+            }
+            BinaryTreeWriter.register(node.getTypeName(), indexes, strings);
+            BinaryTreeWriter.register(node.getData(), indexes, strings);
+            for (int index = node.getChildCount() - 1; index >= 0; index = index - 1) {
+                stack.push(node.getChild(index));
+            }
+        }
+        BinaryTreeWriter.register(language, indexes, strings);
+        final Output output = new Output(stream);
+        output.bytes(BinaryFormat.SIGNATURE, BinaryFormat.SIGNATURE.length);
+        output.number(BinaryFormat.VERSION);
+        output.number(strings.size());
+        for (final String str : strings) {
+            final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+            output.number(bytes.length);
+            output.bytes(bytes, bytes.length);
+        }
+        if (language.isEmpty()) {
+            output.number(0);
+        } else {
+            output.number(indexes.get(language) + 1);
+        }
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            final Node node = stack.pop();
+            final String data = node.getData();
+            final int type = indexes.get(node.getTypeName()) << 1;
+            if (data.isEmpty()) {
+                output.number(type);
+            } else {
+                output.number(type | 1);
+                output.number(indexes.get(data));
+            }
+            final int count = node.getChildCount();
+            output.number(count);
+            for (int index = count - 1; index >= 0; index = index - 1) {
+                stack.push(node.getChild(index));
+            }
+        }
+        output.flush();
+    }
+
+    /**
+     * Writes the tree to a file.
+     * @param path The path to the file, it is GZIP-compressed if its name ends with .gz
+     * @throws IOException If the file can not be written
+     */
+    public void write(final Path path) throws IOException {
+        try (OutputStream stream = CompressedFiles.newOutputStream(path)) {
+            this.write(stream);
+        }
+    }
+
+    /**
+     * Returns the language of a node.
+     * @param node The node
+     * @return The language, or an empty string if the language is not specified
+     */
+    private static String getLanguage(final Node node) {
+        String language = node.getProperties().getOrDefault("language", "");
+        if ("common".equals(language)) {
+            language = "";
+        }
+        return language;
+    }
+
+    /**
+     * Adds a non-empty string to the dictionary if it is not there yet.
+     * @param str The string
+     * @param indexes Indexes of strings in the dictionary
+     * @param strings The dictionary
+     */
+    private static void register(final String str, final Map<String, Integer> indexes,
+        final List<String> strings) {
+        if (!str.isEmpty() && !indexes.containsKey(str)) {
+            indexes.put(str, strings.size());
+            strings.add(str);
+        }
+    }
+
+    /**
+     * Buffered output.
+     *
+     * @since 0.2.22
+     */
+    private static final class Output {
+        /**
+         * The target stream.
+         */
+        private final OutputStream stream;
+
+        /**
+         * The buffer.
+         */
+        private final byte[] buffer;
+
+        /**
+         * The number of bytes in the buffer.
+         */
+        private int size;
+
+        /**
+         * Constructor.
+         * @param stream The target stream
+         */
+        Output(final OutputStream stream) {
+            this.stream = stream;
+            this.buffer = new byte[BinaryTreeWriter.BUFFER_SIZE];
+        }
+
+        /**
+         * Writes an unsigned variable-length integer.
+         * @param value The value
+         * @throws IOException If the stream can not be written
+         */
+        void number(final int value) throws IOException {
+            if (this.size > this.buffer.length - 5) {
+                this.drain();
+            }
+            int rest = value;
+            while ((rest & ~0x7f) != 0) {
+                this.buffer[this.size] = (byte) (rest & 0x7f | 0x80);
+                this.size = this.size + 1;
+                rest = rest >>> 7;
+            }
+            this.buffer[this.size] = (byte) rest;
+            this.size = this.size + 1;
+        }
+
+        /**
+         * Writes bytes.
+         * @param bytes The array that contains bytes
+         * @param length The number of bytes, starting from the beginning of the array
+         * @throws IOException If the stream can not be written
+         */
+        void bytes(final byte[] bytes, final int length) throws IOException {
+            if (length > this.buffer.length - this.size) {
+                this.drain();
+            }
+            if (length > this.buffer.length) {
+                this.stream.write(bytes, 0, length);
+            } else {
+                System.arraycopy(bytes, 0, this.buffer, this.size, length);
+                this.size = this.size + length;
+            }
+        }
+
+        /**
+         * Writes all the buffered data to the stream and flushes the stream.
+         * @throws IOException If the stream can not be written
+         */
+        void flush() throws IOException {
+            this.drain();
+            this.stream.flush();
+        }
+
+        /**
+         * Writes all the buffered data to the stream.
+         * @throws IOException If the stream can not be written
+         */
+        private void drain() throws IOException {
+            this.stream.write(this.buffer, 0, this.size);
+            this.size = 0;
+        }
+    }
+}
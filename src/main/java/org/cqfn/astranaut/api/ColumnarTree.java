@@ -0,0 +1,487 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.cqfn.astranaut.core.base.DraftNode;
+import org.cqfn.astranaut.core.base.DummyNode;
+import org.cqfn.astranaut.core.base.Factory;
+import org.cqfn.astranaut.core.base.Node;
+import org.cqfn.astranaut.core.base.Tree;
+import org.cqfn.astranaut.core.base.Type;
+
+/**
+ * Compact representation of a syntax tree: instead of an object per node,
+ * all the nodes are stored in a few primitive columns (struct of arrays).
+ * Nodes are numbered in post-order. For each node the columns contain
+ * the index of its type in the table of types, the index of its data
+ * in the table of strings (or -1 if the node has no data), and the offset
+ * of its children in the pool of child indexes. Children of a node occupy
+ * a contiguous range of the pool, the range ends where the range of the next node
+ * starts, so both the number of children and access to a child by index
+ * take constant time. Equal type names and data strings are stored once.
+ * All that takes about 16 bytes per node. The columns can be placed
+ * outside the Java heap (in direct buffers), then they are not scanned by the
+ * garbage collector at all.
+ * The tree is accessed through lightweight {@link Node} views, which are created
+ * on demand and hold only a reference to the tree and an index, so the tree
+ * can be processed by the interpreter and written by the serializers as is.
+ * The tree is immutable.
+ *
+ * @since 0.2.22
+ */
+public final class ColumnarTree {
+    /**
+     * The table of types.
+     */
+    private final Type[] types;
+
+    /**
+     * The table of strings.
+     */
+    private final String[] strings;
+
+    /**
+     * The column of type indexes.
+     */
+    private final IntBuffer type;
+
+    /**
+     * The column of data indexes.
+     */
+    private final IntBuffer data;
+
+    /**
+     * The column of offsets in the pool of children, it contains one extra element
+     *  at the end (the size of the pool).
+     */
+    private final IntBuffer offset;
+
+    /**
+     * The pool of child indexes.
+     */
+    private final IntBuffer pool;
+
+    /**
+     * The number of nodes.
+     */
+    private final int size;
+
+    /**
+     * Constructor.
+     * @param assembler The assembler that contains all columns
+     * @param direct Flag indicating that columns are placed outside the Java heap
+     */
+    private ColumnarTree(final Assembler assembler, final boolean direct) {
+        this.types = assembler.types.toArray(new Type[0]);
+        this.strings = assembler.strings.toArray(new String[0]);
+        this.type = assembler.type.toBuffer(direct);
+        this.data = assembler.data.toBuffer(direct);
+        this.offset = assembler.offset.toBuffer(direct);
+        this.pool = assembler.pool.toBuffer(direct);
+        this.size = assembler.type.size;
+    }
+
+    /**
+     * Creates a columnar copy of a tree.
+     * @param root The root node of the tree
+     * @param direct Flag indicating that columns are placed outside the Java heap
+     * @return The columnar tree
+     */
+    public static ColumnarTree copyOf(final Node root, final boolean direct) {
+        final Assembler assembler = new Assembler(null, direct);
+        final Deque<Node> nodes = new ArrayDeque<>();
+        final Deque<Integer> indexes = new ArrayDeque<>();
+        nodes.push(root);
+        indexes.push(0);
+        while (!nodes.isEmpty()) {
+            final Node node = nodes.peek();
+            final int index = indexes.pop();
+            if (index < node.getChildCount()) {
+                indexes.push(index + 1);
+                nodes.push(node.getChild(index));
+                indexes.push(0);
+            } else {
+                nodes.pop();
+                assembler.add(node.getType(), node.getData(), index);
+            }
+        }
+        return assembler.result();
+    }
+
+    /**
+     * Returns the number of nodes.
+     * @return The number of nodes
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the root node.
+     * @return The root node, or a dummy node if the tree has no nodes
+     */
+    public Node getRoot() {
+        final Node root;
+        if (this.size == 0) {
+            root = DummyNode.INSTANCE;
+        } else {
+            root = new View(this, this.size - 1);
+        }
+        return root;
+    }
+
+    /**
+     * Returns the tree whose root is the root node of this columnar tree.
+     * @return The tree
+     */
+    public Tree toTree() {
+        return new Tree(this.getRoot());
+    }
+
+    /**
+     * Calculates the approximate size of the columns, in bytes
+     *  (tables of types and strings are not included).
+     * @return The size of the columns
+     */
+    public long getColumnsSize() {
+        return 4L * (this.type.capacity() + this.data.capacity()
+            + this.offset.capacity() + this.pool.capacity());
+    }
+
+    /**
+     * View of a node of the columnar tree.
+     *
+     * @since 0.2.22
+     */
+    private static final class View implements Node {
+        /**
+         * The tree.
+         */
+        private final ColumnarTree tree;
+
+        /**
+         * The index of the node.
+         */
+        private final int index;
+
+        /**
+         * Constructor.
+         * @param tree The tree
+         * @param index The index of the node
+         */
+        View(final ColumnarTree tree, final int index) {
+            this.tree = tree;
+            this.index = index;
+        }
+
+        @Override
+        public Type getType() {
+            return this.tree.types[this.tree.type.get(this.index)];
+        }
+
+        @Override
+        public String getData() {
+            final int value = this.tree.data.get(this.index);
+            final String result;
+            if (value < 0) {
+                result = "";
+            } else {
+                result = this.tree.strings[value];
+            }
+            return result;
+        }
+
+        @Override
+        public int getChildCount() {
+            return this.tree.offset.get(this.index + 1) - this.tree.offset.get(this.index);
+        }
+
+        @Override
+        public Node getChild(final int position) {
+            if (position < 0 || position >= this.getChildCount()) {
+                throw new IndexOutOfBoundsException();
+            }
+            return new View(
+                this.tree,
+                this.tree.pool.get(this.tree.offset.get(this.index) + position)
+            );
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            final boolean result;
+            if (obj instanceof View) {
+                final View other = (View) obj;
+                result = this.tree == other.tree && this.index == other.index;
+            } else {
+                result = false;
+            }
+            return result;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this.tree) * 31 + this.index;
+        }
+
+        @Override
+        public String toString() {
+            return Node.toString(this);
+        }
+    }
+
+    /**
+     * Assembler of columnar trees.
+     *
+     * @since 0.2.22
+     */
+    static final class Assembler implements TreeAssembler<ColumnarTree> {
+        /**
+         * The node factory, or {@code null} if types are passed directly.
+         */
+        private final Factory factory;
+
+        /**
+         * Flag indicating that columns are placed outside the Java heap.
+         */
+        private final boolean direct;
+
+        /**
+         * The table of types.
+         */
+        private final List<Type> types;
+
+        /**
+         * Indexes of types by type names.
+         */
+        private final Map<String, Integer> typeids;
+
+        /**
+         * The table of strings.
+         */
+        private final List<String> strings;
+
+        /**
+         * Indexes of strings.
+         */
+        private final Map<String, Integer> stringids;
+
+        /**
+         * The column of type indexes.
+         */
+        private final Column type;
+
+        /**
+         * The column of data indexes.
+         */
+        private final Column data;
+
+        /**
+         * The column of offsets in the pool of children.
+         */
+        private final Column offset;
+
+        /**
+         * The pool of child indexes.
+         */
+        private final Column pool;
+
+        /**
+         * Indexes of nodes that are not taken as children yet.
+         */
+        private final Column pending;
+
+        /**
+         * Constructor.
+         * @param factory The node factory
+         * @param direct Flag indicating that columns are placed outside the Java heap
+         */
+        Assembler(final Factory factory, final boolean direct) {
+            this.factory = factory;
+            this.direct = direct;
+            this.types = new ArrayList<>(64);
+            this.typeids = new HashMap<>();
+            this.strings = new ArrayList<>(64);
+            this.stringids = new HashMap<>();
+            this.type = new Column();
+            this.data = new Column();
+            this.offset = new Column();
+            this.pool = new Column();
+            this.pending = new Column();
+        }
+
+        @Override
+        public void node(final String name, final String value, final int count) {
+            Integer index = this.typeids.get(name);
+            if (index == null) {
+                Type obj = null;
+                if (name == null) {
+                    obj = DummyNode.INSTANCE.getType();
+                } else if (this.factory != null) {
+                    obj = this.factory.getType(name);
+                }
+                if (obj == null) {
+                    final DraftNode.Constructor ctor = new DraftNode.Constructor();
+                    ctor.setName(name);
+                    obj = ctor.createNode().getType();
+                }
+                index = this.types.size();
+                this.types.add(obj);
+                this.typeids.put(name, index);
+            }
+            this.append(index, value, count);
+        }
+
+        @Override
+        public ColumnarTree result() {
+            this.offset.add(this.pool.size);
+            return new ColumnarTree(this, this.direct);
+        }
+
+        /**
+         * Adds a node whose type is known.
+         * @param obj The type
+         * @param value The data
+         * @param count The number of children
+         */
+        void add(final Type obj, final String value, final int count) {
+            final String name = obj.getName();
+            Integer index = this.typeids.get(name);
+            if (index == null) {
+                index = this.types.size();
+                this.types.add(obj);
+                this.typeids.put(name, index);
+            }
+            this.append(index, value, count);
+        }
+
+        /**
+         * Appends a node to the columns.
+         * @param index The index of the node type
+         * @param value The data
+         * @param count The number of children
+         */
+        private void append(final int index, final String value, final int count) {
+            final int node = this.type.size;
+            this.type.add(index);
+            if (value == null || value.isEmpty()) {
+                this.data.add(-1);
+            } else {
+                Integer str = this.stringids.get(value);
+                if (str == null) {
+                    str = this.strings.size();
+                    this.strings.add(value);
+                    this.stringids.put(value, str);
+                }
+                this.data.add(str);
+            }
+            this.offset.add(this.pool.size);
+            final int start = this.pending.size - count;
+            for (int child = start; child < this.pending.size; child = child + 1) {
+                this.pool.add(this.pending.values[child]);
+            }
+            this.pending.size = start;
+            this.pending.add(node);
+        }
+    }
+
+    /**
+     * Growable column of integers.
+     *
+     * @since 0.2.22
+     */
+    private static final class Column {
+        /**
+         * The maximal number of values, so that the size of a buffer in bytes fits in an int.
+         */
+        private static final int MAX_SIZE = Integer.MAX_VALUE / Integer.BYTES;
+
+        /**
+         * The values.
+         */
+        private int[] values;
+
+        /**
+         * The number of values.
+         */
+        private int size;
+
+        /**
+         * Constructor.
+         */
+        Column() {
+            this.values = new int[64];
+        }
+
+        /**
+         * Adds a value.
+         * @param value The value
+         * @throws IllegalStateException If the column already contains the maximal
+         *  number of values
+         */
+        void add(final int value) {
+            if (this.size == this.values.length) {
+                if (this.size == Column.MAX_SIZE) {
+                    throw new IllegalStateException(
+                        "The tree is too large for the columnar representation"
+                    );
+                }
+                this.values = Arrays.copyOf(
+                    this.values, (int) Math.min(2L * this.size, Column.MAX_SIZE)
+                );
+            }
+            this.values[this.size] = value;
+            this.size = this.size + 1;
+        }
+
+        /**
+         * Creates a buffer of exactly the required size that contains all the values.
+         * @param direct Flag indicating that the buffer is placed outside the Java heap
+         * @return The buffer
+         */
+        IntBuffer toBuffer(final boolean direct) {
+            final IntBuffer buffer;
+            if (direct) {
+                buffer = ByteBuffer.allocateDirect(this.size * Integer.BYTES)
+                    .order(ByteOrder.nativeOrder()).asIntBuffer();
+                buffer.put(this.values, 0, this.size);
+                ((Buffer) buffer).flip();
+            } else {
+                buffer = IntBuffer.wrap(Arrays.copyOf(this.values, this.size));
+            }
+            return buffer;
+        }
+    }
+}
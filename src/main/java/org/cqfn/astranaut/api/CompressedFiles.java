@@ -0,0 +1,119 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Opens files that may be compressed. A file whose name ends with {@code .gz} is treated
+ * as a GZIP file: it is decompressed or compressed on a separate thread, so that
+ * (de)compression overlaps with parsing, conversion and printing of the tree.
+ *
+ * @since 0.2.22
+ */
+public final class CompressedFiles {
+    /**
+     * The extension of compressed files.
+     */
+    public static final String EXTENSION = ".gz";
+
+    /**
+     * The size of buffers.
+     */
+    static final int BUFFER_SIZE = 65_536;
+
+    /**
+     * Private constructor.
+     */
+    private CompressedFiles() {
+    }
+
+    /**
+     * Checks whether a file is compressed, judging by its name.
+     * @param path The path to the file
+     * @return Checking result
+     */
+    public static boolean isCompressed(final Path path) {
+        return path.toString().endsWith(CompressedFiles.EXTENSION);
+    }
+
+    /**
+     * Returns the name of a file without the extension of compressed files.
+     * @param path The path to the file
+     * @return The name, for example, {@code tree.json} for {@code tree.json.gz}
+     */
+    public static String getUncompressedName(final Path path) {
+        final String name = String.valueOf(path.getFileName());
+        final String result;
+        if (name.endsWith(CompressedFiles.EXTENSION)) {
+            result = name.substring(0, name.length() - CompressedFiles.EXTENSION.length());
+        } else {
+            result = name;
+        }
+        return result;
+    }
+
+    /**
+     * Opens a file for reading, the content of a compressed file is decompressed.
+     * @param path The path to the file
+     * @return The stream, it must be closed by the caller
+     * @throws IOException If the file can not be opened
+     */
+    public static InputStream newInputStream(final Path path) throws IOException {
+        final InputStream stream;
+        if (CompressedFiles.isCompressed(path)) {
+            stream = new AsyncGzipInputStream(path);
+        } else {
+            stream = new BufferedInputStream(
+                Files.newInputStream(path), CompressedFiles.BUFFER_SIZE
+            );
+        }
+        return stream;
+    }
+
+    /**
+     * Opens a file for writing, the content of a compressed file is compressed.
+     * @param path The path to the file
+     * @return The stream, it must be closed by the caller; for a compressed file,
+     *  closing waits until all the data is compressed and written
+     * @throws IOException If the file can not be opened
+     */
+    public static OutputStream newOutputStream(final Path path) throws IOException {
+        final OutputStream stream;
+        if (CompressedFiles.isCompressed(path)) {
+            stream = new AsyncGzipOutputStream(path);
+        } else {
+            stream = new BufferedOutputStream(
+                Files.newOutputStream(path), CompressedFiles.BUFFER_SIZE
+            );
+        }
+        return stream;
+    }
+}
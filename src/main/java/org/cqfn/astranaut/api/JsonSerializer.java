@@ -23,6 +23,9 @@
  */
 package org.cqfn.astranaut.api;
 
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
 import org.cqfn.astranaut.core.base.Tree;
 import org.cqfn.astranaut.exceptions.ProcessorCouldNotWriteFile;
 
@@ -63,10 +66,34 @@ public class JsonSerializer {
      */
     public void serializeToJsonFile(final String filename)
         throws ProcessorCouldNotWriteFile {
-        final org.cqfn.astranaut.core.utils.JsonSerializer serializer =
-            new org.cqfn.astranaut.core.utils.JsonSerializer(this.tree);
-        if (!serializer.serializeToFile(filename)) {
+        try {
+            new JsonStreamSerializer(this.tree).serialize(Paths.get(filename));
+        } catch (final IOException | InvalidPathException exception) {
             throw new ProcessorCouldNotWriteFile(filename);
         }
     }
+
+    /**
+     * Converts the edit script that turns the source tree into the tree of this serializer
+     * to a string that contains a JSON object, see {@link TreeDelta}.
+     * @param source The source tree
+     * @return The edit script represented as a string
+     */
+    public String serializeDeltaToJsonString(final Tree source) {
+        return new JsonSerializer(TreeDelta.diff(source.getRoot(), this.tree.getRoot()))
+            .serializeToJsonString();
+    }
+
+    /**
+     * Writes the edit script that turns the source tree into the tree of this serializer
+     * to a file in JSON format, see {@link TreeDelta}.
+     * @param source The source tree
+     * @param filename The file name
+     * @throws ProcessorCouldNotWriteFile In case the operation fails
+     */
+    public void serializeDeltaToJsonFile(final Tree source, final String filename)
+        throws ProcessorCouldNotWriteFile {
+        new JsonSerializer(TreeDelta.diff(source.getRoot(), this.tree.getRoot()))
+            .serializeToJsonFile(filename);
+    }
 }
@@ -0,0 +1,607 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import org.cqfn.astranaut.core.base.DefaultFactory;
+import org.cqfn.astranaut.core.base.EmptyTree;
+import org.cqfn.astranaut.core.base.Factory;
+import org.cqfn.astranaut.core.base.Tree;
+import org.cqfn.astranaut.utils.StringPool;
+
+/**
+ * Reads a tree in JSON format ({@code {"root": NODE_DESCRIPTOR}}) from a stream.
+ * Unlike {@link JsonDeserializer}, the source is never loaded into memory as a whole:
+ * it is read through a small fixed buffer, and each node is built by the factory
+ * as soon as its descriptor is closed (or stored in a {@link ColumnarTree}).
+ * The parser does not use recursion, so the depth of the tree is not limited
+ * by the thread stack.
+ * Unknown keys are skipped, the "language" key is ignored (nodes are always created
+ * by the factory set for this deserializer).
+ * Type names are interned by {@link StringPool#intern(String)}; data strings
+ * are deduplicated if a pool is set by {@link #setStringPool(StringPool)}.
+ *
+ * @since 0.2.22
+ */
+public final class JsonStreamDeserializer {
+    /**
+     * The size of the read buffer, in characters.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * The source reader, or {@code null} if the source is a file.
+     */
+    private final Reader reader;
+
+    /**
+     * The source file, or {@code null} if the source is a reader.
+     */
+    private final Path path;
+
+    /**
+     * The node factory.
+     */
+    private Factory factory;
+
+    /**
+     * The pool that deduplicates data strings, or {@code null}.
+     */
+    private StringPool pool;
+
+    /**
+     * Constructor.
+     * @param reader The reader the tree is read from, it is not closed by the deserializer
+     */
+    public JsonStreamDeserializer(final Reader reader) {
+        this(reader, null);
+    }
+
+    /**
+     * Constructor.
+     * @param stream The stream (UTF-8 encoded) the tree is read from,
+     *  it is not closed by the deserializer
+     */
+    public JsonStreamDeserializer(final InputStream stream) {
+        this(new InputStreamReader(stream, StandardCharsets.UTF_8), null);
+    }
+
+    /**
+     * Constructor.
+     * @param path The path to a file (UTF-8 encoded) the tree is read from,
+     *  a file whose name ends with .gz is decompressed
+     */
+    public JsonStreamDeserializer(final Path path) {
+        this(null, path);
+    }
+
+    /**
+     * Constructor.
+     * @param reader The reader
+     * @param path The path
+     */
+    private JsonStreamDeserializer(final Reader reader, final Path path) {
+        this.reader = reader;
+        this.path = path;
+        this.factory = DefaultFactory.EMPTY;
+    }
+
+    /**
+     * Replaces the default node factory.
+     * @param obj The factory
+     */
+    public void setFactory(final Factory obj) {
+        this.factory = obj;
+    }
+
+    /**
+     * Sets the pool that deduplicates data strings of nodes. The same pool can be shared
+     *  by several deserializers, it also collects statistics on saved memory.
+     * @param obj The pool, or {@code null} to keep data strings as is (default)
+     */
+    public void setStringPool(final StringPool obj) {
+        this.pool = obj;
+    }
+
+    /**
+     * Reads the tree.
+     * @return Resulting syntax tree, or an empty tree if the source is not a valid
+     *  JSON document describing a tree
+     * @throws IOException If the source can not be read
+     */
+    public Tree deserialize() throws IOException {
+        final NodeAssembler assembler = new NodeAssembler(this.factory);
+        final Tree tree;
+        if (this.read(assembler)) {
+            tree = new Tree(assembler.result());
+        } else {
+            tree = EmptyTree.INSTANCE;
+        }
+        return tree;
+    }
+
+    /**
+     * Reads the tree into the compact columnar representation.
+     * @param direct Flag indicating that columns are placed outside the Java heap
+     * @return Resulting syntax tree, or a tree without nodes if the source is not a valid
+     *  JSON document describing a tree
+     * @throws IOException If the source can not be read
+     */
+    public ColumnarTree deserializeColumnar(final boolean direct) throws IOException {
+        ColumnarTree.Assembler assembler = new ColumnarTree.Assembler(this.factory, direct);
+        if (!this.read(assembler)) {
+            assembler = new ColumnarTree.Assembler(this.factory, direct);
+        }
+        return assembler.result();
+    }
+
+    /**
+     * Reads the source, passing nodes to the assembler.
+     * @param assembler The assembler
+     * @return {@code true} if the source is a valid JSON document describing a tree
+     * @throws IOException If the source can not be read
+     */
+    private boolean read(final TreeAssembler<?> assembler) throws IOException {
+        final boolean success;
+        if (this.path == null) {
+            success = new Parser(this.reader, assembler, this.pool).parse();
+        } else {
+            try (Reader file = new InputStreamReader(
+                CompressedFiles.newInputStream(this.path), StandardCharsets.UTF_8
+            )) {
+                success = new Parser(file, assembler, this.pool).parse();
+            }
+        }
+        return success;
+    }
+
+    /**
+     * The parser itself, it contains the state of a single reading.
+     *
+     * @since 0.2.22
+     */
+    private static final class Parser {
+        /**
+         * The "end of stream" marker.
+         */
+        private static final int EOF = -1;
+
+        /**
+         * The source reader.
+         */
+        private final Reader reader;
+
+        /**
+         * The assembler that receives nodes.
+         */
+        private final TreeAssembler<?> assembler;
+
+        /**
+         * The pool that deduplicates data strings, or {@code null}.
+         */
+        private final StringPool pool;
+
+        /**
+         * The read buffer.
+         */
+        private final char[] buffer;
+
+        /**
+         * Reusable builder for strings.
+         */
+        private final StringBuilder string;
+
+        /**
+         * Position of the next character in the buffer.
+         */
+        private int position;
+
+        /**
+         * The number of characters in the buffer.
+         */
+        private int limit;
+
+        /**
+         * Constructor.
+         * @param reader The source reader
+         * @param assembler The assembler that receives nodes
+         * @param pool The pool that deduplicates data strings, or {@code null}
+         */
+        Parser(final Reader reader, final TreeAssembler<?> assembler, final StringPool pool) {
+            this.reader = reader;
+            this.pool = pool;
+            this.assembler = assembler;
+            this.buffer = new char[JsonStreamDeserializer.BUFFER_SIZE];
+            this.string = new StringBuilder();
+        }
+
+        /**
+         * Parses the whole document.
+         * @return {@code true} if the document is a valid JSON document describing a tree
+         * @throws IOException If the source can not be read
+         */
+        boolean parse() throws IOException {
+            boolean success = false;
+            try {
+                boolean root = false;
+                this.expect('{');
+                boolean first = true;
+                while (this.skipSpaces() != '}') {
+                    if (!first) {
+                        this.expect(',');
+                    }
+                    first = false;
+                    final String key = this.readString();
+                    this.expect(':');
+                    if ("root".equals(key)) {
+                        this.parseNode();
+                        root = true;
+                    } else {
+                        this.skipValue();
+                    }
+                }
+                this.next();
+                success = root && this.skipSpaces() == Parser.EOF;
+            } catch (final Malformed ignored) {
+                success = false;
+            }
+            return success;
+        }
+
+        /**
+         * Parses a node descriptor and all its descendants.
+         * @throws IOException If the source can not be read
+         * @throws Malformed If the descriptor is malformed
+         */
+        private void parseNode() throws IOException, Malformed {
+            final Deque<Frame> stack = new ArrayDeque<>();
+            this.expect('{');
+            Frame frame = new Frame();
+            while (frame != null) {
+                final int chr = this.skipSpaces();
+                if (frame.array && !frame.closed) {
+                    if (chr == ']') {
+                        this.next();
+                        frame.closed = true;
+                    } else {
+                        if (frame.count > 0) {
+                            this.expect(',');
+                        }
+                        frame.count = frame.count + 1;
+                        this.expect('{');
+                        stack.push(frame);
+                        frame = new Frame();
+                    }
+                } else if (chr == '}') {
+                    this.next();
+                    this.assembler.node(frame.type, frame.data, frame.count);
+                    frame = stack.poll();
+                } else {
+                    this.parseMember(frame);
+                }
+            }
+        }
+
+        /**
+         * Parses a member of a node descriptor.
+         * @param frame The descriptor being parsed
+         * @throws IOException If the source can not be read
+         * @throws Malformed If the descriptor is malformed
+         */
+        private void parseMember(final Frame frame) throws IOException, Malformed {
+            if (frame.started) {
+                this.expect(',');
+            }
+            frame.started = true;
+            final String key = this.readString();
+            this.expect(':');
+            switch (key) {
+                case "type":
+                    frame.type = StringPool.intern(this.readString());
+                    break;
+                case "data":
+                    frame.data = this.readString();
+                    if (this.pool != null) {
+                        frame.data = this.pool.deduplicate(frame.data);
+                    }
+                    break;
+                case "children":
+                    if (frame.array) {
+                        throw Malformed.INSTANCE;
+                    }
+                    this.expect('[');
+                    frame.array = true;
+                    break;
+                default:
+                    this.skipValue();
+                    break;
+            }
+        }
+
+        /**
+         * Skips any JSON value.
+         * @throws IOException If the source can not be read
+         * @throws Malformed If the value is malformed
+         */
+        private void skipValue() throws IOException, Malformed {
+            int depth = 0;
+            do {
+                final int chr = this.skipSpaces();
+                if (chr == '"') {
+                    this.readString();
+                } else if (chr == '{' || chr == '[') {
+                    this.next();
+                    depth = depth + 1;
+                } else if (chr == '}' || chr == ']') {
+                    if (depth == 0) {
+                        throw Malformed.INSTANCE;
+                    }
+                    this.next();
+                    depth = depth - 1;
+                } else if (chr == ',' || chr == ':') {
+                    if (depth == 0) {
+                        throw Malformed.INSTANCE;
+                    }
+                    this.next();
+                } else {
+                    this.skipLiteral();
+                }
+            } while (depth > 0);
+        }
+
+        /**
+         * Skips a literal, that is, a number, {@code true}, {@code false} or {@code null}.
+         * @throws IOException If the source can not be read
+         * @throws Malformed If there is no literal
+         */
+        private void skipLiteral() throws IOException, Malformed {
+            int count = 0;
+            int chr = this.peek();
+            while (chr == '-' || chr == '+' || chr == '.' || chr >= '0' && chr <= '9'
+                || chr >= 'a' && chr <= 'z' || chr >= 'A' && chr <= 'Z') {
+                this.next();
+                count = count + 1;
+                chr = this.peek();
+            }
+            if (count == 0) {
+                throw Malformed.INSTANCE;
+            }
+        }
+
+        /**
+         * Reads a string in double quotes and decodes escape sequences.
+         * @return The string
+         * @throws IOException If the source can not be read
+         * @throws Malformed If there is no string
+         */
+        private String readString() throws IOException, Malformed {
+            this.expect('"');
+            this.string.setLength(0);
+            int chr = this.next();
+            while (chr != '"') {
+                if (chr == Parser.EOF) {
+                    throw Malformed.INSTANCE;
+                }
+                if (chr == '\\') {
+                    chr = this.readEscape();
+                }
+                this.string.append((char) chr);
+                chr = this.next();
+            }
+            return this.string.toString();
+        }
+
+        /**
+         * Reads the rest of an escape sequence (after the backslash).
+         * @return The decoded character
+         * @throws IOException If the source can not be read
+         * @throws Malformed If the escape sequence is malformed
+         */
+        private int readEscape() throws IOException, Malformed {
+            final int chr = this.next();
+            final int result;
+            switch (chr) {
+                case '"':
+                case '\\':
+                case '/':
+                    result = chr;
+                    break;
+                case 'b':
+                    result = '\b';
+                    break;
+                case 'f':
+                    result = '\f';
+                    break;
+                case 'n':
+                    result = '\n';
+                    break;
+                case 'r':
+                    result = '\r';
+                    break;
+                case 't':
+                    result = '\t';
+                    break;
+                case 'u':
+                    result = this.readHexCode();
+                    break;
+                default:
+                    throw Malformed.INSTANCE;
+            }
+            return result;
+        }
+
+        /**
+         * Reads four hexadecimal digits of a unicode escape sequence.
+         * @return The character code
+         * @throws IOException If the source can not be read
+         * @throws Malformed If a digit is malformed
+         */
+        private int readHexCode() throws IOException, Malformed {
+            int code = 0;
+            for (int index = 0; index < 4; index = index + 1) {
+                final int digit = Character.digit(this.next(), 16);
+                if (digit < 0) {
+                    throw Malformed.INSTANCE;
+                }
+                code = code * 16 + digit;
+            }
+            return code;
+        }
+
+        /**
+         * Skips whitespace characters and consumes the expected character.
+         * @param expected The expected character
+         * @throws IOException If the source can not be read
+         * @throws Malformed If there is another character
+         */
+        private void expect(final char expected) throws IOException, Malformed {
+            if (this.skipSpaces() != expected) {
+                throw Malformed.INSTANCE;
+            }
+            this.next();
+        }
+
+        /**
+         * Skips whitespace characters.
+         * @return The next non-whitespace character (not consumed)
+         *  or {@link Parser#EOF} at the end of the source
+         * @throws IOException If the source can not be read
+         */
+        private int skipSpaces() throws IOException {
+            int chr = this.peek();
+            while (chr == ' ' || chr == '\n' || chr == '\r' || chr == '\t') {
+                this.next();
+                chr = this.peek();
+            }
+            return chr;
+        }
+
+        /**
+         * Returns the next character without consuming it.
+         * @return The character or {@link Parser#EOF} at the end of the source
+         * @throws IOException If the source can not be read
+         */
+        private int peek() throws IOException {
+            int chr = Parser.EOF;
+            if (this.position < this.limit || this.fill()) {
+                chr = this.buffer[this.position];
+            }
+            return chr;
+        }
+
+        /**
+         * Consumes the next character.
+         * @return The character or {@link Parser#EOF} at the end of the source
+         * @throws IOException If the source can not be read
+         */
+        private int next() throws IOException {
+            final int chr = this.peek();
+            if (chr != Parser.EOF) {
+                this.position = this.position + 1;
+            }
+            return chr;
+        }
+
+        /**
+         * Refills the buffer.
+         * @return {@code true} if at least one character was read
+         * @throws IOException If the source can not be read
+         */
+        private boolean fill() throws IOException {
+            int count = 0;
+            while (count == 0) {
+                count = this.reader.read(this.buffer);
+            }
+            this.position = 0;
+            this.limit = Math.max(count, 0);
+            return count > 0;
+        }
+    }
+
+    /**
+     * A node descriptor whose parsing has not been completed.
+     *
+     * @since 0.2.22
+     */
+    private static final class Frame {
+        /**
+         * The type name.
+         */
+        private String type;
+
+        /**
+         * The data, or {@code null} if not specified.
+         */
+        private String data;
+
+        /**
+         * The number of children.
+         */
+        private int count;
+
+        /**
+         * Flag indicating that at least one member of the descriptor is parsed.
+         */
+        private boolean started;
+
+        /**
+         * Flag indicating that the list of children is specified.
+         */
+        private boolean array;
+
+        /**
+         * Flag indicating that the list of children is closed.
+         */
+        private boolean closed;
+    }
+
+    /**
+     * Signal that the source is malformed. It is caught inside the deserializer.
+     *
+     * @since 0.2.22
+     */
+    private static final class Malformed extends Exception {
+        /**
+         * The instance.
+         */
+        private static final Malformed INSTANCE = new Malformed();
+
+        private static final long serialVersionUID = 3261790044285174105L;
+
+        /**
+         * Constructor.
+         */
+        private Malformed() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,768 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import org.cqfn.astranaut.core.base.Hole;
+import org.cqfn.astranaut.core.base.Node;
+import org.cqfn.astranaut.core.base.Tree;
+
+/**
+ * Writes a tree in JSON format directly to a stream, a writer or a channel.
+ * Unlike {@link JsonSerializer}, the document is never built in memory as a whole:
+ * nodes are encoded on the fly into a reusable buffer, which is flushed to the target
+ * when full. In the pretty mode (default), the output is identical to the output
+ * of {@link JsonSerializer}; in the compact mode, no whitespace is written at all.
+ * Nodes are traversed without recursion, so the depth of the tree is not limited
+ * by the thread stack.
+ * Unchanged nodes of a {@link LazyJsonTree} are written by copying bytes of the source
+ * file, so these fragments keep their original formatting.
+ * An instance is not thread-safe because of the reusable buffer.
+ *
+ * @since 0.2.22
+ */
+public final class JsonStreamSerializer {
+    /**
+     * The size of the output buffer.
+     */
+    private static final int BUFFER_SIZE = 65_536;
+
+    /**
+     * Hexadecimal digits.
+     */
+    private static final String HEX = "0123456789abcdef";
+
+    /**
+     * The type name of a hole.
+     */
+    private static final String STR_HOLE = "Hole";
+
+    /**
+     * The 'language' property.
+     */
+    private static final String STR_LANGUAGE = "language";
+
+    /**
+     * The language that is not written to the output.
+     */
+    private static final String STR_COMMON = "common";
+
+    /**
+     * The tree to be written.
+     */
+    private final Tree tree;
+
+    /**
+     * Flag indicating that the output is pretty printed.
+     */
+    private boolean pretty;
+
+    /**
+     * The byte buffer, reused between calls.
+     */
+    private byte[] bytes;
+
+    /**
+     * The char buffer, reused between calls.
+     */
+    private char[] chars;
+
+    /**
+     * Constructor.
+     * @param tree The tree to be written
+     */
+    public JsonStreamSerializer(final Tree tree) {
+        this.tree = tree;
+        this.pretty = true;
+    }
+
+    /**
+     * Sets the output mode.
+     * @param value {@code true} for pretty printed output (default),
+     *  {@code false} for compact output
+     */
+    public void setPretty(final boolean value) {
+        this.pretty = value;
+    }
+
+    /**
+     * Writes the tree to a stream in UTF-8 encoding.
+     * @param stream The stream, it is not closed by the serializer
+     * @throws IOException If the stream can not be written
+     */
+    public void serialize(final OutputStream stream) throws IOException {
+        this.write(
+            new ByteOutput(this.getBytes(), (array, length) -> stream.write(array, 0, length))
+        );
+        stream.flush();
+    }
+
+    /**
+     * Writes the tree to a channel in UTF-8 encoding.
+     * @param channel The channel, it is not closed by the serializer
+     * @throws IOException If the channel can not be written
+     */
+    public void serialize(final WritableByteChannel channel) throws IOException {
+        this.write(
+            new ByteOutput(
+                this.getBytes(),
+                (array, length) -> {
+                    final ByteBuffer buffer = ByteBuffer.wrap(array, 0, length);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+            )
+        );
+    }
+
+    /**
+     * Writes the tree to a writer.
+     * @param writer The writer, it is not closed by the serializer
+     * @throws IOException If the writer can not be written
+     */
+    public void serialize(final Writer writer) throws IOException {
+        if (this.chars == null) {
+            this.chars = new char[JsonStreamSerializer.BUFFER_SIZE];
+        }
+        this.write(new CharOutput(this.chars, writer));
+    }
+
+    /**
+     * Writes the tree to a file in UTF-8 encoding.
+     * @param path The path to the file, it is GZIP-compressed if its name ends with .gz
+     * @throws IOException If the file can not be written
+     */
+    public void serialize(final Path path) throws IOException {
+        try (OutputStream stream = CompressedFiles.newOutputStream(path)) {
+            this.serialize(stream);
+        }
+    }
+
+    /**
+     * Returns the byte buffer, creates it if necessary.
+     * @return The byte buffer
+     */
+    private byte[] getBytes() {
+        if (this.bytes == null) {
+            this.bytes = new byte[JsonStreamSerializer.BUFFER_SIZE];
+        }
+        return this.bytes;
+    }
+
+    /**
+     * Writes the whole document.
+     * @param output The output
+     * @throws IOException If the output can not be written
+     */
+    private void write(final Output output) throws IOException {
+        final Printer printer = new Printer(output, this.pretty);
+        output.write('{');
+        printer.newline(1);
+        printer.key("root");
+        printer.node(this.tree.getRoot(), 1);
+        if (!printer.language.isEmpty()) {
+            output.write(',');
+            printer.newline(1);
+            printer.key(JsonStreamSerializer.STR_LANGUAGE);
+            printer.string(printer.language);
+        }
+        printer.newline(0);
+        output.write('}');
+        output.flush();
+    }
+
+    /**
+     * Prints nodes to the output.
+     *
+     * @since 0.2.22
+     */
+    private static final class Printer {
+        /**
+         * The output.
+         */
+        private final Output output;
+
+        /**
+         * Flag indicating that the output is pretty printed.
+         */
+        private final boolean pretty;
+
+        /**
+         * The line separator.
+         */
+        private final String separator;
+
+        /**
+         * The language of the tree, the first non-empty one found.
+         */
+        private String language;
+
+        /**
+         * Constructor.
+         * @param output The output
+         * @param pretty Flag indicating that the output is pretty printed
+         */
+        Printer(final Output output, final boolean pretty) {
+            this.output = output;
+            this.pretty = pretty;
+            this.separator = System.lineSeparator();
+            this.language = "";
+        }
+
+        /**
+         * Prints a node with all its descendants.
+         * @param root The node
+         * @param level The indentation level of the node
+         * @throws IOException If the output can not be written
+         */
+        void node(final Node root, final int level) throws IOException {
+            final Deque<Frame> stack = new ArrayDeque<>();
+            this.begin(root, level, stack);
+            while (!stack.isEmpty()) {
+                final Frame top = stack.peek();
+                if (top.index < top.count) {
+                    if (top.index > 0) {
+                        this.output.write(',');
+                    }
+                    this.newline(top.level + 2);
+                    final Node child = top.node.getChild(top.index);
+                    top.index = top.index + 1;
+                    this.begin(child, top.level + 2, stack);
+                } else {
+                    stack.pop();
+                    this.end(top);
+                }
+            }
+        }
+
+        /**
+         * Prints the beginning of a node. If the node can not be printed at once,
+         *  pushes it to the stack.
+         * @param node The node
+         * @param level The indentation level of the node
+         * @param stack The stack of unfinished nodes
+         * @throws IOException If the output can not be written
+         */
+        private void begin(final Node node, final int level, final Deque<Frame> stack)
+            throws IOException {
+            if (node instanceof RawJsonNode) {
+                final RawJsonNode raw = (RawJsonNode) node;
+                this.output.copy(raw.getSource(), raw.getStart(), raw.getEnd());
+                this.detectLanguageDeep(raw);
+                return;
+            }
+            this.output.write('{');
+            if (node instanceof Hole) {
+                final Hole hole = (Hole) node;
+                this.newline(level + 1);
+                this.key("type");
+                this.string(JsonStreamSerializer.STR_HOLE);
+                this.output.write(',');
+                this.newline(level + 1);
+                this.key("number");
+                this.output.write(Integer.toString(hole.getNumber()));
+                this.output.write(',');
+                this.newline(level + 1);
+                this.key("prototype");
+                stack.push(new Frame(hole, level, 0));
+                this.begin(hole.getPrototype(), level + 1, stack);
+            } else {
+                final String data = node.getData();
+                final int count = node.getChildCount();
+                if (data.isEmpty() && count == 0) {
+                    this.key("type");
+                    this.string(node.getTypeName());
+                    this.output.write('}');
+                    this.detectLanguage(node);
+                } else {
+                    this.newline(level + 1);
+                    this.key("type");
+                    this.string(node.getTypeName());
+                    if (!data.isEmpty()) {
+                        this.output.write(',');
+                        this.newline(level + 1);
+                        this.key("data");
+                        this.string(data);
+                    }
+                    if (count > 0) {
+                        this.output.write(',');
+                        this.newline(level + 1);
+                        this.key("children");
+                        this.output.write('[');
+                    }
+                    stack.push(new Frame(node, level, count));
+                }
+            }
+        }
+
+        /**
+         * Prints the end of a node.
+         * @param frame The node being printed
+         * @throws IOException If the output can not be written
+         */
+        private void end(final Frame frame) throws IOException {
+            if (frame.count > 0) {
+                this.newline(frame.level + 1);
+                this.output.write(']');
+            }
+            this.newline(frame.level);
+            this.output.write('}');
+            if (!(frame.node instanceof Hole)) {
+                this.detectLanguage(frame.node);
+            }
+        }
+
+        /**
+         * Remembers the language of the node if the language of the tree
+         *  is not known yet.
+         * @param node The node
+         */
+        private void detectLanguage(final Node node) {
+            if (this.language.isEmpty()) {
+                final String value = node.getProperties()
+                    .getOrDefault(JsonStreamSerializer.STR_LANGUAGE, "");
+                if (!value.equals(JsonStreamSerializer.STR_COMMON)) {
+                    this.language = value;
+                }
+            }
+        }
+
+        /**
+         * Remembers the language of the first node of the subtree that has it
+         *  if the language of the tree is not known yet.
+         * @param root The root of the subtree
+         */
+        private void detectLanguageDeep(final Node root) {
+            final Deque<Node> nodes = new ArrayDeque<>();
+            nodes.push(root);
+            while (this.language.isEmpty() && !nodes.isEmpty()) {
+                final Node node = nodes.pop();
+                this.detectLanguage(node);
+                for (int index = node.getChildCount() - 1; index >= 0; index = index - 1) {
+                    nodes.push(node.getChild(index));
+                }
+            }
+        }
+
+        /**
+         * Prints a key followed by a colon.
+         * @param name The key
+         * @throws IOException If the output can not be written
+         */
+        private void key(final String name) throws IOException {
+            this.output.write('"');
+            this.output.write(name);
+            this.output.write('"');
+            this.output.write(':');
+            if (this.pretty) {
+                this.output.write(' ');
+            }
+        }
+
+        /**
+         * Prints a line separator and an indentation (pretty mode only).
+         * @param level The indentation level
+         * @throws IOException If the output can not be written
+         */
+        private void newline(final int level) throws IOException {
+            if (this.pretty) {
+                this.output.write(this.separator);
+                for (int index = level * 2; index > 0; index = index - 1) {
+                    this.output.write(' ');
+                }
+            }
+        }
+
+        /**
+         * Prints a string literal, escaping special characters.
+         * @param value The string
+         * @throws IOException If the output can not be written
+         */
+        private void string(final String value) throws IOException {
+            this.output.write('"');
+            final int length = value.length();
+            for (int index = 0; index < length; index = index + 1) {
+                final char chr = value.charAt(index);
+                switch (chr) {
+                    case '"':
+                    case '\\':
+                        this.output.write('\\');
+                        this.output.write(chr);
+                        break;
+                    case '\b':
+                        this.output.write("\\b");
+                        break;
+                    case '\f':
+                        this.output.write("\\f");
+                        break;
+                    case '\n':
+                        this.output.write("\\n");
+                        break;
+                    case '\r':
+                        this.output.write("\\r");
+                        break;
+                    case '\t':
+                        this.output.write("\\t");
+                        break;
+                    default:
+                        if (chr < ' ') {
+                            this.output.write("\\u00");
+                            this.output.write(JsonStreamSerializer.HEX.charAt(chr >> 4));
+                            this.output.write(JsonStreamSerializer.HEX.charAt(chr & 15));
+                        } else {
+                            this.output.write(chr);
+                        }
+                        break;
+                }
+            }
+            this.output.write('"');
+        }
+    }
+
+    /**
+     * A node whose printing has not been completed.
+     *
+     * @since 0.2.22
+     */
+    private static final class Frame {
+        /**
+         * The node.
+         */
+        private final Node node;
+
+        /**
+         * The indentation level of the node.
+         */
+        private final int level;
+
+        /**
+         * The number of children to be printed.
+         */
+        private final int count;
+
+        /**
+         * The index of the next child to be printed.
+         */
+        private int index;
+
+        /**
+         * Constructor.
+         * @param node The node
+         * @param level The indentation level of the node
+         * @param count The number of children to be printed
+         */
+        Frame(final Node node, final int level, final int count) {
+            this.node = node;
+            this.level = level;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Buffered output of characters.
+     *
+     * @since 0.2.22
+     */
+    private abstract static class Output {
+        /**
+         * Writes a character.
+         * @param chr The character
+         * @throws IOException If the target can not be written
+         */
+        abstract void write(char chr) throws IOException;
+
+        /**
+         * Writes all the buffered data to the target.
+         * @throws IOException If the target can not be written
+         */
+        abstract void flush() throws IOException;
+
+        /**
+         * Copies a fragment of a mapped file, that contains UTF-8 encoded text.
+         * @param file The file
+         * @param start The offset of the first byte of the fragment
+         * @param end The offset of the end of the fragment
+         * @throws IOException If the target can not be written
+         */
+        abstract void copy(MappedFile file, long start, long end) throws IOException;
+
+        /**
+         * Writes a string.
+         * @param str The string
+         * @throws IOException If the target can not be written
+         */
+        void write(final String str) throws IOException {
+            final int length = str.length();
+            for (int index = 0; index < length; index = index + 1) {
+                this.write(str.charAt(index));
+            }
+        }
+    }
+
+    /**
+     * Receiver of encoded bytes.
+     *
+     * @since 0.2.22
+     */
+    @FunctionalInterface
+    private interface Drain {
+        /**
+         * Receives bytes.
+         * @param array The array that contains bytes
+         * @param length The number of bytes, starting from the beginning of the array
+         * @throws IOException If the bytes can not be written
+         */
+        void accept(byte[] array, int length) throws IOException;
+    }
+
+    /**
+     * Output that encodes characters in UTF-8 directly into a byte buffer.
+     *
+     * @since 0.2.22
+     */
+    private static final class ByteOutput extends Output {
+        /**
+         * The buffer.
+         */
+        private final byte[] buffer;
+
+        /**
+         * The receiver of encoded bytes.
+         */
+        private final Drain drain;
+
+        /**
+         * The number of bytes in the buffer.
+         */
+        private int size;
+
+        /**
+         * The high surrogate waiting for the low one, or zero.
+         */
+        private char high;
+
+        /**
+         * Constructor.
+         * @param buffer The buffer
+         * @param drain The receiver of encoded bytes
+         */
+        ByteOutput(final byte[] buffer, final Drain drain) {
+            this.buffer = buffer;
+            this.drain = drain;
+        }
+
+        @Override
+        void write(final char chr) throws IOException {
+            if (this.size > this.buffer.length - 4) {
+                this.flush();
+            }
+            if (this.high != 0) {
+                final char first = this.high;
+                this.high = 0;
+                if (Character.isLowSurrogate(chr)) {
+                    this.encode(Character.toCodePoint(first, chr));
+                } else {
+                    this.put('?');
+                    this.write(chr);
+                }
+            } else if (Character.isHighSurrogate(chr)) {
+                this.high = chr;
+            } else if (Character.isLowSurrogate(chr)) {
+                this.put('?');
+            } else {
+                this.encode(chr);
+            }
+        }
+
+        @Override
+        void flush() throws IOException {
+            if (this.high != 0) {
+                this.high = 0;
+                this.put('?');
+            }
+            if (this.size > 0) {
+                this.drain.accept(this.buffer, this.size);
+                this.size = 0;
+            }
+        }
+
+        @Override
+        void copy(final MappedFile file, final long start, final long end)
+            throws IOException {
+            if (this.high != 0) {
+                this.high = 0;
+                this.put('?');
+            }
+            long position = start;
+            while (position < end) {
+                if (this.size == this.buffer.length) {
+                    this.flush();
+                }
+                final int count = (int) Math.min(end - position, this.buffer.length - this.size);
+                file.read(position, this.buffer, this.size, count);
+                this.size = this.size + count;
+                position = position + count;
+            }
+        }
+
+        /**
+         * Encodes a code point, there must be at least 4 free bytes in the buffer.
+         * @param code The code point
+         */
+        private void encode(final int code) {
+            if (code < 0x80) {
+                this.put(code);
+            } else if (code < 0x800) {
+                this.put(0xc0 | code >> 6);
+                this.put(0x80 | code & 0x3f);
+            } else if (code < 0x10000) {
+                this.put(0xe0 | code >> 12);
+                this.put(0x80 | code >> 6 & 0x3f);
+                this.put(0x80 | code & 0x3f);
+            } else {
+                this.put(0xf0 | code >> 18);
+                this.put(0x80 | code >> 12 & 0x3f);
+                this.put(0x80 | code >> 6 & 0x3f);
+                this.put(0x80 | code & 0x3f);
+            }
+        }
+
+        /**
+         * Puts a byte into the buffer.
+         * @param value The byte
+         */
+        private void put(final int value) {
+            this.buffer[this.size] = (byte) value;
+            this.size = this.size + 1;
+        }
+    }
+
+    /**
+     * Output that copies characters into a char buffer.
+     *
+     * @since 0.2.22
+     */
+    private static final class CharOutput extends Output {
+        /**
+         * The buffer.
+         */
+        private final char[] buffer;
+
+        /**
+         * The target writer.
+         */
+        private final Writer writer;
+
+        /**
+         * The number of characters in the buffer.
+         */
+        private int size;
+
+        /**
+         * Constructor.
+         * @param buffer The buffer
+         * @param writer The target writer
+         */
+        CharOutput(final char[] buffer, final Writer writer) {
+            this.buffer = buffer;
+            this.writer = writer;
+        }
+
+        @Override
+        void write(final char chr) throws IOException {
+            if (this.size == this.buffer.length) {
+                this.flush();
+            }
+            this.buffer[this.size] = chr;
+            this.size = this.size + 1;
+        }
+
+        @Override
+        void flush() throws IOException {
+            if (this.size > 0) {
+                this.writer.write(this.buffer, 0, this.size);
+                this.size = 0;
+            }
+            this.writer.flush();
+        }
+
+        @Override
+        void copy(final MappedFile file, final long start, final long end)
+            throws IOException {
+            final byte[] bytes = new byte[this.buffer.length];
+            long position = start;
+            while (position < end) {
+                int count = (int) Math.min(end - position, bytes.length);
+                file.read(position, bytes, 0, count);
+                if (position + count < end) {
+                    count = CharOutput.complete(bytes, count);
+                }
+                this.write(new String(bytes, 0, count, StandardCharsets.UTF_8));
+                position = position + count;
+            }
+        }
+
+        /**
+         * Calculates the length of the longest prefix of a byte sequence
+         *  that does not end with an incomplete UTF-8 character.
+         * @param bytes The bytes
+         * @param length The length of the sequence
+         * @return The length of the prefix
+         */
+        private static int complete(final byte[] bytes, final int length) {
+            int lead = length - 1;
+            while (lead > 0 && length - lead < 4 && (bytes[lead] & 0xc0) == 0x80) {
+                lead = lead - 1;
+            }
+            final int value = bytes[lead] & 0xff;
+            final int expected;
+            if (value >= 0xf0) {
+                expected = 4;
+            } else if (value >= 0xe0) {
+                expected = 3;
+            } else if (value >= 0xc0) {
+                expected = 2;
+            } else {
+                expected = 1;
+            }
+            final int result;
+            if (length - lead < expected) {
+                result = lead;
+            } else {
+                result = length;
+            }
+            return result;
+        }
+    }
+}
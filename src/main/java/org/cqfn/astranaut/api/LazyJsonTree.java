@@ -0,0 +1,1081 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.cqfn.astranaut.core.base.Builder;
+import org.cqfn.astranaut.core.base.ChildDescriptor;
+import org.cqfn.astranaut.core.base.DraftNode;
+import org.cqfn.astranaut.core.base.DummyNode;
+import org.cqfn.astranaut.core.base.Factory;
+import org.cqfn.astranaut.core.base.Fragment;
+import org.cqfn.astranaut.core.base.Node;
+import org.cqfn.astranaut.core.base.Tree;
+import org.cqfn.astranaut.core.base.Type;
+
+/**
+ * Tree backed by a memory-mapped JSON file ({@code {"root": NODE_DESCRIPTOR}} format).
+ * Loading does not create node objects: the file is scanned once to build
+ * a structural index that contains, for each node, offsets of its descriptor
+ * and its data in the file, its type and its children. Nodes are accessed
+ * through views that are created on demand; data strings are decoded from the file
+ * only when they are requested.
+ * A view is rebuilt to itself if neither its data nor its children have changed,
+ * so subtrees that were not modified by a transformation remain views, and
+ * {@link JsonStreamSerializer} writes them by copying bytes from the mapped file.
+ * The check does not decode data or create views: the data is compared by reference
+ * with the string the view has returned, and children are compared by reference with
+ * views the node has returned, since a view returns the same child view every time.
+ * Files larger than 2 GB are supported.
+ *
+ * @since 0.2.22
+ */
+public final class LazyJsonTree {
+    /**
+     * The mapped file.
+     */
+    private final MappedFile file;
+
+    /**
+     * The table of types.
+     */
+    private final Type[] types;
+
+    /**
+     * The structural index.
+     */
+    private final Index index;
+
+    /**
+     * Constructor.
+     * @param file The mapped file
+     * @param types The table of types
+     * @param index The structural index
+     */
+    private LazyJsonTree(final MappedFile file, final Type[] types, final Index index) {
+        this.file = file;
+        this.types = types;
+        this.index = index;
+    }
+
+    /**
+     * Maps a file and builds its structural index.
+     * @param path The path to the file
+     * @param factory The node factory, it provides types of nodes
+     * @return The tree, it has no nodes if the file is not a valid JSON document
+     *  describing a tree
+     * @throws IOException If the file can not be read
+     */
+    public static LazyJsonTree load(final Path path, final Factory factory) throws IOException {
+        final MappedFile file = MappedFile.map(path);
+        final Indexer indexer = new Indexer(file, factory);
+        Index index = indexer.index;
+        if (!indexer.parse()) {
+            index = new Index();
+        }
+        index.trim();
+        return new LazyJsonTree(file, indexer.types.toArray(new Type[0]), index);
+    }
+
+    /**
+     * Returns the number of nodes.
+     * @return The number of nodes
+     */
+    public int size() {
+        return this.index.size;
+    }
+
+    /**
+     * Returns the root node.
+     * @return The root node, or a dummy node if the tree has no nodes
+     */
+    public Node getRoot() {
+        final Node root;
+        if (this.index.size == 0) {
+            root = DummyNode.INSTANCE;
+        } else {
+            root = new View(this, this.index.size - 1);
+        }
+        return root;
+    }
+
+    /**
+     * Returns the tree whose root is the root node of this lazy tree.
+     * @return The tree
+     */
+    public Tree toTree() {
+        return new Tree(this.getRoot());
+    }
+
+    /**
+     * Decodes a JSON string (without quotes).
+     * @param file The file
+     * @param start The offset of the first byte of the string
+     * @param length The length of the string in bytes
+     * @return The decoded string
+     */
+    static String decode(final MappedFile file, final long start, final int length) {
+        final byte[] raw = new byte[length];
+        file.read(start, raw, 0, length);
+        int first = 0;
+        while (first < length && raw[first] != '\\') {
+            first = first + 1;
+        }
+        final String result;
+        if (first == length) {
+            result = new String(raw, StandardCharsets.UTF_8);
+        } else {
+            final StringBuilder builder = new StringBuilder(length);
+            int from = 0;
+            int pos = first;
+            while (pos < length) {
+                if (raw[pos] == '\\') {
+                    builder.append(new String(raw, from, pos - from, StandardCharsets.UTF_8));
+                    pos = LazyJsonTree.unescape(raw, pos + 1, builder);
+                    from = pos;
+                } else {
+                    pos = pos + 1;
+                }
+            }
+            builder.append(new String(raw, from, length - from, StandardCharsets.UTF_8));
+            result = builder.toString();
+        }
+        return result;
+    }
+
+    /**
+     * Decodes an escape sequence.
+     * @param raw The bytes
+     * @param pos The offset of the first byte after the backslash
+     * @param builder Builder of the decoded string
+     * @return The offset of the first byte after the escape sequence
+     */
+    private static int unescape(final byte[] raw, final int pos, final StringBuilder builder) {
+        int next = pos + 1;
+        switch (raw[pos]) {
+            case 'b':
+                builder.append('\b');
+                break;
+            case 'f':
+                builder.append('\f');
+                break;
+            case 'n':
+                builder.append('\n');
+                break;
+            case 'r':
+                builder.append('\r');
+                break;
+            case 't':
+                builder.append('\t');
+                break;
+            case 'u':
+                builder.append(
+                    (char) Integer.parseInt(
+                        new String(raw, next, 4, StandardCharsets.US_ASCII), 16
+                    )
+                );
+                next = next + 4;
+                break;
+            default:
+                builder.append((char) raw[pos]);
+                break;
+        }
+        return next;
+    }
+
+    /**
+     * The structural index: columns that describe nodes, nodes are numbered in post-order.
+     *
+     * @since 0.2.22
+     */
+    private static final class Index {
+        /**
+         * Offsets of node descriptors.
+         */
+        private long[] start;
+
+        /**
+         * Offsets of ends of node descriptors.
+         */
+        private long[] end;
+
+        /**
+         * Offsets of data (without quotes), -1 if a node has no data.
+         */
+        private long[] data;
+
+        /**
+         * Lengths of data, in bytes.
+         */
+        private int[] length;
+
+        /**
+         * Indexes of types in the table of types.
+         */
+        private int[] type;
+
+        /**
+         * Offsets of children in the pool, it contains one extra element
+         *  at the end (the size of the pool).
+         */
+        private int[] offset;
+
+        /**
+         * The pool of child indexes.
+         */
+        private int[] pool;
+
+        /**
+         * The number of nodes.
+         */
+        private int size;
+
+        /**
+         * The size of the pool.
+         */
+        private int used;
+
+        /**
+         * Constructor.
+         */
+        Index() {
+            final int capacity = 64;
+            this.start = new long[capacity];
+            this.end = new long[capacity];
+            this.data = new long[capacity];
+            this.length = new int[capacity];
+            this.type = new int[capacity];
+            this.offset = new int[capacity + 1];
+            this.pool = new int[capacity];
+        }
+
+        /**
+         * Adds a node.
+         * @param frame The node descriptor
+         * @param finish The offset of the end of the node descriptor
+         * @param pending Indexes of nodes that are not taken as children yet
+         * @return The index of the node
+         */
+        int add(final Frame frame, final long finish, final Pending pending) {
+            if (this.size == this.start.length) {
+                final int capacity = this.size * 2;
+                this.start = Arrays.copyOf(this.start, capacity);
+                this.end = Arrays.copyOf(this.end, capacity);
+                this.data = Arrays.copyOf(this.data, capacity);
+                this.length = Arrays.copyOf(this.length, capacity);
+                this.type = Arrays.copyOf(this.type, capacity);
+                this.offset = Arrays.copyOf(this.offset, capacity + 1);
+            }
+            if (this.used + frame.count > this.pool.length) {
+                this.pool = Arrays.copyOf(
+                    this.pool, Math.max(this.pool.length * 2, this.used + frame.count)
+                );
+            }
+            final int node = this.size;
+            this.start[node] = frame.start;
+            this.end[node] = finish;
+            this.data[node] = frame.data;
+            this.length[node] = frame.length;
+            this.type[node] = frame.type;
+            this.offset[node] = this.used;
+            System.arraycopy(
+                pending.values, pending.size - frame.count, this.pool, this.used, frame.count
+            );
+            this.used = this.used + frame.count;
+            pending.size = pending.size - frame.count;
+            this.size = node + 1;
+            this.offset[this.size] = this.used;
+            return node;
+        }
+
+        /**
+         * Releases unused capacity.
+         */
+        void trim() {
+            this.start = Arrays.copyOf(this.start, this.size);
+            this.end = Arrays.copyOf(this.end, this.size);
+            this.data = Arrays.copyOf(this.data, this.size);
+            this.length = Arrays.copyOf(this.length, this.size);
+            this.type = Arrays.copyOf(this.type, this.size);
+            this.offset = Arrays.copyOf(this.offset, this.size + 1);
+            this.pool = Arrays.copyOf(this.pool, this.used);
+        }
+    }
+
+    /**
+     * Stack of indexes of nodes that are not taken as children yet.
+     *
+     * @since 0.2.22
+     */
+    private static final class Pending {
+        /**
+         * The indexes.
+         */
+        private int[] values;
+
+        /**
+         * The number of indexes.
+         */
+        private int size;
+
+        /**
+         * Constructor.
+         */
+        Pending() {
+            this.values = new int[64];
+        }
+
+        /**
+         * Pushes an index.
+         * @param value The index
+         */
+        void push(final int value) {
+            if (this.size == this.values.length) {
+                this.values = Arrays.copyOf(this.values, this.size * 2);
+            }
+            this.values[this.size] = value;
+            this.size = this.size + 1;
+        }
+    }
+
+    /**
+     * A node descriptor whose scanning has not been completed.
+     *
+     * @since 0.2.22
+     */
+    private static final class Frame {
+        /**
+         * The offset of the descriptor.
+         */
+        private final long start;
+
+        /**
+         * The index of the type, -1 if not specified.
+         */
+        private int type;
+
+        /**
+         * The offset of the data, -1 if not specified.
+         */
+        private long data;
+
+        /**
+         * The length of the data.
+         */
+        private int length;
+
+        /**
+         * The number of children.
+         */
+        private int count;
+
+        /**
+         * Flag indicating that at least one member of the descriptor is scanned.
+         */
+        private boolean started;
+
+        /**
+         * Flag indicating that the list of children is specified.
+         */
+        private boolean array;
+
+        /**
+         * Flag indicating that the list of children is closed.
+         */
+        private boolean closed;
+
+        /**
+         * Constructor.
+         * @param start The offset of the descriptor
+         */
+        Frame(final long start) {
+            this.start = start;
+            this.type = -1;
+            this.data = -1;
+        }
+    }
+
+    /**
+     * Scanner that builds the structural index.
+     *
+     * @since 0.2.22
+     */
+    private static final class Indexer {
+        /**
+         * The "end of file" marker.
+         */
+        private static final int EOF = -1;
+
+        /**
+         * The mapped file.
+         */
+        private final MappedFile file;
+
+        /**
+         * The node factory.
+         */
+        private final Factory factory;
+
+        /**
+         * The structural index.
+         */
+        private final Index index;
+
+        /**
+         * The table of types.
+         */
+        private final List<Type> types;
+
+        /**
+         * Indexes of types by type names.
+         */
+        private final Map<String, Integer> typeids;
+
+        /**
+         * The current offset.
+         */
+        private long position;
+
+        /**
+         * Constructor.
+         * @param file The mapped file
+         * @param factory The node factory
+         */
+        Indexer(final MappedFile file, final Factory factory) {
+            this.file = file;
+            this.factory = factory;
+            this.index = new Index();
+            this.types = new ArrayList<>(64);
+            this.typeids = new HashMap<>();
+        }
+
+        /**
+         * Scans the whole file.
+         * @return {@code true} if the file is a valid JSON document describing a tree
+         */
+        boolean parse() {
+            boolean success = false;
+            try {
+                boolean root = false;
+                this.expect('{');
+                boolean first = true;
+                while (this.skipSpaces() != '}') {
+                    if (!first) {
+                        this.expect(',');
+                    }
+                    first = false;
+                    final boolean key = this.isRootKey(this.skipString());
+                    this.expect(':');
+                    if (key) {
+                        this.parseNode();
+                        root = true;
+                    } else {
+                        this.skipValue();
+                    }
+                }
+                this.next();
+                success = root && this.skipSpaces() == Indexer.EOF
+                    && this.index.size > 0;
+            } catch (final Malformed ignored) {
+                success = false;
+            }
+            return success;
+        }
+
+        /**
+         * Scans a node descriptor and all its descendants.
+         * @throws Malformed If the descriptor is malformed
+         */
+        private void parseNode() throws Malformed {
+            final Deque<Frame> stack = new ArrayDeque<>();
+            final Pending pending = new Pending();
+            this.skipSpaces();
+            Frame frame = new Frame(this.position);
+            this.expect('{');
+            while (frame != null) {
+                final int chr = this.skipSpaces();
+                if (frame.array && !frame.closed) {
+                    if (chr == ']') {
+                        this.next();
+                        frame.closed = true;
+                    } else {
+                        if (frame.count > 0) {
+                            this.expect(',');
+                        }
+                        frame.count = frame.count + 1;
+                        this.skipSpaces();
+                        stack.push(frame);
+                        frame = new Frame(this.position);
+                        this.expect('{');
+                    }
+                } else if (chr == '}') {
+                    this.next();
+                    pending.push(this.index.add(frame, this.position, pending));
+                    frame = stack.poll();
+                } else {
+                    this.parseMember(frame);
+                }
+            }
+        }
+
+        /**
+         * Scans a member of a node descriptor.
+         * @param frame The descriptor being scanned
+         * @throws Malformed If the descriptor is malformed
+         */
+        private void parseMember(final Frame frame) throws Malformed {
+            if (frame.started) {
+                this.expect(',');
+            }
+            frame.started = true;
+            final long key = this.skipString();
+            final int size = (int) (this.position - key - 1);
+            this.expect(':');
+            final String name = LazyJsonTree.decode(this.file, key, size);
+            if ("type".equals(name)) {
+                final long str = this.skipString();
+                frame.type = this.registerType(
+                    LazyJsonTree.decode(this.file, str, (int) (this.position - str - 1))
+                );
+            } else if ("data".equals(name)) {
+                frame.data = this.skipString();
+                frame.length = (int) (this.position - frame.data - 1);
+            } else if ("children".equals(name)) {
+                if (frame.array) {
+                    throw Malformed.INSTANCE;
+                }
+                this.expect('[');
+                frame.array = true;
+            } else {
+                this.skipValue();
+            }
+        }
+
+        /**
+         * Checks whether the key that was just scanned is "root".
+         * @param key The offset of the key
+         * @return Checking result
+         */
+        private boolean isRootKey(final long key) {
+            final int size = (int) (this.position - key - 1);
+            return size == 4 && "root".equals(LazyJsonTree.decode(this.file, key, size));
+        }
+
+        /**
+         * Adds a type name to the table of types if it is not there yet.
+         * @param name The type name
+         * @return The index of the type
+         */
+        private int registerType(final String name) {
+            Integer result = this.typeids.get(name);
+            if (result == null) {
+                Type obj = this.factory.getType(name);
+                if (obj == null) {
+                    final DraftNode.Constructor ctor = new DraftNode.Constructor();
+                    ctor.setName(name);
+                    obj = ctor.createNode().getType();
+                }
+                result = this.types.size();
+                this.types.add(obj);
+                this.typeids.put(name, result);
+            }
+            return result;
+        }
+
+        /**
+         * Skips any JSON value.
+         * @throws Malformed If the value is malformed
+         */
+        private void skipValue() throws Malformed {
+            int depth = 0;
+            do {
+                final int chr = this.skipSpaces();
+                if (chr == '"') {
+                    this.skipString();
+                } else if (chr == '{' || chr == '[') {
+                    this.next();
+                    depth = depth + 1;
+                } else if (chr == '}' || chr == ']') {
+                    if (depth == 0) {
+                        throw Malformed.INSTANCE;
+                    }
+                    this.next();
+                    depth = depth - 1;
+                } else if (chr == ',' || chr == ':') {
+                    if (depth == 0) {
+                        throw Malformed.INSTANCE;
+                    }
+                    this.next();
+                } else {
+                    this.skipLiteral();
+                }
+            } while (depth > 0);
+        }
+
+        /**
+         * Skips a literal, that is, a number, {@code true}, {@code false} or {@code null}.
+         * @throws Malformed If there is no literal
+         */
+        private void skipLiteral() throws Malformed {
+            int count = 0;
+            int chr = this.peek();
+            while (chr == '-' || chr == '+' || chr == '.' || chr >= '0' && chr <= '9'
+                || chr >= 'a' && chr <= 'z' || chr >= 'A' && chr <= 'Z') {
+                this.next();
+                count = count + 1;
+                chr = this.peek();
+            }
+            if (count == 0) {
+                throw Malformed.INSTANCE;
+            }
+        }
+
+        /**
+         * Skips a string in double quotes.
+         * @return The offset of the first byte of the string (after the opening quote),
+         *  the closing quote is right before the current position
+         * @throws Malformed If there is no string
+         */
+        private long skipString() throws Malformed {
+            this.expect('"');
+            final long first = this.position;
+            int chr = this.next();
+            while (chr != '"') {
+                if (chr == Indexer.EOF) {
+                    throw Malformed.INSTANCE;
+                }
+                if (chr == '\\') {
+                    chr = this.next();
+                    if (chr == 'u') {
+                        for (int count = 0; count < 4; count = count + 1) {
+                            if (Character.digit(this.next(), 16) < 0) {
+                                throw Malformed.INSTANCE;
+                            }
+                        }
+                    } else if ("\"\\/bfnrt".indexOf(chr) < 0) {
+                        throw Malformed.INSTANCE;
+                    }
+                }
+                chr = this.next();
+            }
+            return first;
+        }
+
+        /**
+         * Skips whitespace characters and consumes the expected character.
+         * @param expected The expected character
+         * @throws Malformed If there is another character
+         */
+        private void expect(final char expected) throws Malformed {
+            if (this.skipSpaces() != expected) {
+                throw Malformed.INSTANCE;
+            }
+            this.next();
+        }
+
+        /**
+         * Skips whitespace characters.
+         * @return The next non-whitespace character (not consumed)
+         *  or {@link Indexer#EOF} at the end of the file
+         */
+        private int skipSpaces() {
+            int chr = this.peek();
+            while (chr == ' ' || chr == '\n' || chr == '\r' || chr == '\t') {
+                this.next();
+                chr = this.peek();
+            }
+            return chr;
+        }
+
+        /**
+         * Returns the next byte without consuming it.
+         * @return The byte or {@link Indexer#EOF} at the end of the file
+         */
+        private int peek() {
+            int chr = Indexer.EOF;
+            if (this.position < this.file.size()) {
+                chr = this.file.get(this.position) & 0xff;
+            }
+            return chr;
+        }
+
+        /**
+         * Consumes the next byte.
+         * @return The byte or {@link Indexer#EOF} at the end of the file
+         */
+        private int next() {
+            final int chr = this.peek();
+            if (chr != Indexer.EOF) {
+                this.position = this.position + 1;
+            }
+            return chr;
+        }
+    }
+
+    /**
+     * View of a node of the lazy tree.
+     *
+     * @since 0.2.22
+     */
+    private static final class View implements RawJsonNode {
+        /**
+         * The tree.
+         */
+        private final LazyJsonTree tree;
+
+        /**
+         * The index of the node.
+         */
+        private final int index;
+
+        /**
+         * The decoded data, {@code null} if not decoded yet.
+         */
+        private String data;
+
+        /**
+         * Views of children that are already created, or {@code null} if no child view
+         *  is created yet.
+         */
+        private View[] children;
+
+        /**
+         * Constructor.
+         * @param tree The tree
+         * @param index The index of the node
+         */
+        View(final LazyJsonTree tree, final int index) {
+            this.tree = tree;
+            this.index = index;
+        }
+
+        @Override
+        public Type getType() {
+            return new LazyType(this);
+        }
+
+        @Override
+        public String getTypeName() {
+            return this.getBaseType().getName();
+        }
+
+        @Override
+        public boolean belongsToGroup(final String type) {
+            return this.getBaseType().belongsToGroup(type);
+        }
+
+        @Override
+        public Map<String, String> getProperties() {
+            return this.getBaseType().getProperties();
+        }
+
+        @Override
+        public String getData() {
+            if (this.data == null) {
+                final long offset = this.tree.index.data[this.index];
+                if (offset < 0) {
+                    this.data = "";
+                } else {
+                    this.data = LazyJsonTree.decode(
+                        this.tree.file, offset, this.tree.index.length[this.index]
+                    );
+                }
+            }
+            return this.data;
+        }
+
+        @Override
+        public int getChildCount() {
+            return this.tree.index.offset[this.index + 1] - this.tree.index.offset[this.index];
+        }
+
+        @Override
+        public Node getChild(final int position) {
+            final int count = this.getChildCount();
+            if (position < 0 || position >= count) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (this.children == null) {
+                this.children = new View[count];
+            }
+            View child = this.children[position];
+            if (child == null) {
+                child = new View(
+                    this.tree,
+                    this.tree.index.pool[this.tree.index.offset[this.index] + position]
+                );
+                this.children[position] = child;
+            }
+            return child;
+        }
+
+        @Override
+        public MappedFile getSource() {
+            return this.tree.file;
+        }
+
+        @Override
+        public long getStart() {
+            return this.tree.index.start[this.index];
+        }
+
+        @Override
+        public long getEnd() {
+            return this.tree.index.end[this.index];
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            final boolean result;
+            if (obj instanceof View) {
+                final View other = (View) obj;
+                result = this.tree == other.tree && this.index == other.index;
+            } else {
+                result = false;
+            }
+            return result;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this.tree) * 31 + this.index;
+        }
+
+        @Override
+        public String toString() {
+            return Node.toString(this);
+        }
+
+        /**
+         * Checks whether the data is the data of the node, without decoding it.
+         * @param value The data
+         * @return {@code true} if the node has no data and the value is empty,
+         *  or the value is the very string returned by {@link View#getData()}
+         */
+        @SuppressWarnings("PMD.UseEqualsToCompareStrings")
+        boolean hasData(final String value) {
+            final boolean result;
+            if (this.tree.index.data[this.index] < 0) {
+                result = value.isEmpty();
+            } else {
+                result = value == this.data;
+            }
+            return result;
+        }
+
+        /**
+         * Checks whether the node is the child of this node, without creating views.
+         * @param position The position of the child
+         * @param node The node
+         * @return {@code true} if the node is the view returned by
+         *  {@link View#getChild(int)} for the position
+         */
+        boolean hasChild(final int position, final Node node) {
+            return this.children != null && this.children[position] == node;
+        }
+
+        /**
+         * Returns the type provided by the factory.
+         * @return The type
+         */
+        private Type getBaseType() {
+            final int type = this.tree.index.type[this.index];
+            final Type result;
+            if (type < 0) {
+                result = DummyNode.INSTANCE.getType();
+            } else {
+                result = this.tree.types[type];
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Type of a view, it delegates everything to the type provided by the factory,
+     * but its builder returns the view itself if the node has not changed.
+     *
+     * @since 0.2.22
+     */
+    private static final class LazyType implements Type {
+        /**
+         * The view.
+         */
+        private final View view;
+
+        /**
+         * Constructor.
+         * @param view The view
+         */
+        LazyType(final View view) {
+            this.view = view;
+        }
+
+        @Override
+        public String getName() {
+            return this.view.getBaseType().getName();
+        }
+
+        @Override
+        public List<ChildDescriptor> getChildTypes() {
+            return this.view.getBaseType().getChildTypes();
+        }
+
+        @Override
+        public List<String> getHierarchy() {
+            return this.view.getBaseType().getHierarchy();
+        }
+
+        @Override
+        public boolean belongsToGroup(final String type) {
+            return this.view.getBaseType().belongsToGroup(type);
+        }
+
+        @Override
+        public Map<String, String> getProperties() {
+            return this.view.getBaseType().getProperties();
+        }
+
+        @Override
+        public Builder createBuilder() {
+            return new Passthrough(this.view, this.view.getBaseType().createBuilder());
+        }
+    }
+
+    /**
+     * Builder that returns the original view if the node has not changed,
+     * otherwise creates a new node by the builder provided by the factory.
+     *
+     * @since 0.2.22
+     */
+    private static final class Passthrough implements Builder {
+        /**
+         * The original view.
+         */
+        private final View view;
+
+        /**
+         * The builder provided by the factory.
+         */
+        private final Builder base;
+
+        /**
+         * The data.
+         */
+        private String data;
+
+        /**
+         * The children.
+         */
+        private List<Node> children;
+
+        /**
+         * Constructor.
+         * @param view The original view
+         * @param base The builder provided by the factory
+         */
+        Passthrough(final View view, final Builder base) {
+            this.view = view;
+            this.base = base;
+            this.data = "";
+            this.children = new ArrayList<>(0);
+        }
+
+        @Override
+        public void setFragment(final Fragment fragment) {
+            this.base.setFragment(fragment);
+        }
+
+        @Override
+        public boolean setData(final String str) {
+            this.data = str;
+            return this.base.setData(str);
+        }
+
+        @Override
+        public boolean setChildrenList(final List<Node> list) {
+            this.children = list;
+            return this.base.setChildrenList(list);
+        }
+
+        @Override
+        public boolean isValid() {
+            return this.isUnchanged() || this.base.isValid();
+        }
+
+        @Override
+        public Node createNode() {
+            final Node node;
+            if (this.isUnchanged()) {
+                node = this.view;
+            } else {
+                node = this.base.createNode();
+            }
+            return node;
+        }
+
+        /**
+         * Checks whether the node has not changed, without decoding data or creating views.
+         * @return Checking result
+         */
+        private boolean isUnchanged() {
+            final int count = this.children.size();
+            boolean result = this.view.getChildCount() == count
+                && this.view.hasData(this.data);
+            for (int position = 0; result && position < count; position = position + 1) {
+                result = this.view.hasChild(position, this.children.get(position));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Signal that the file is malformed. It is caught inside the indexer.
+     *
+     * @since 0.2.22
+     */
+    private static final class Malformed extends Exception {
+        /**
+         * The instance.
+         */
+        private static final Malformed INSTANCE = new Malformed();
+
+        private static final long serialVersionUID = -8131254478962431077L;
+
+        /**
+         * Constructor.
+         */
+        private Malformed() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only file mapped into memory. Files larger than 2 GB are mapped
+ * in several segments, so the file is addressed by {@code long} offsets.
+ *
+ * @since 0.2.22
+ */
+final class MappedFile {
+    /**
+     * Binary logarithm of the segment size.
+     */
+    private static final int SHIFT = 30;
+
+    /**
+     * Mask that extracts an offset inside a segment.
+     */
+    private static final long MASK = (1L << MappedFile.SHIFT) - 1;
+
+    /**
+     * The segments.
+     */
+    private final MappedByteBuffer[] segments;
+
+    /**
+     * The size of the file.
+     */
+    private final long size;
+
+    /**
+     * Constructor.
+     * @param segments The segments
+     * @param size The size of the file
+     */
+    private MappedFile(final MappedByteBuffer[] segments, final long size) {
+        this.segments = segments;
+        this.size = size;
+    }
+
+    /**
+     * Maps a file into memory.
+     * @param path The path to the file
+     * @return The mapped file
+     * @throws IOException If the file can not be mapped
+     */
+    static MappedFile map(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final int count = (int) ((size + MappedFile.MASK) >>> MappedFile.SHIFT);
+            final MappedByteBuffer[] segments = new MappedByteBuffer[count];
+            for (int index = 0; index < count; index = index + 1) {
+                final long start = (long) index << MappedFile.SHIFT;
+                segments[index] = channel.map(
+                    FileChannel.MapMode.READ_ONLY,
+                    start,
+                    Math.min(size - start, MappedFile.MASK + 1)
+                );
+            }
+            return new MappedFile(segments, size);
+        }
+    }
+
+    /**
+     * Returns the size of the file.
+     * @return The size
+     */
+    long size() {
+        return this.size;
+    }
+
+    /**
+     * Reads a byte.
+     * @param position The offset of the byte in the file
+     * @return The byte
+     */
+    byte get(final long position) {
+        return this.segments[(int) (position >>> MappedFile.SHIFT)]
+            .get((int) (position & MappedFile.MASK));
+    }
+
+    /**
+     * Reads a sequence of bytes.
+     * @param position The offset of the first byte in the file
+     * @param target The array where bytes are copied
+     * @param offset The offset in the array
+     * @param length The number of bytes
+     */
+    void read(final long position, final byte[] target, final int offset, final int length) {
+        long source = position;
+        int done = 0;
+        while (done < length) {
+            final ByteBuffer segment =
+                this.segments[(int) (source >>> MappedFile.SHIFT)].duplicate();
+            final int start = (int) (source & MappedFile.MASK);
+            final int count = Math.min(length - done, segment.limit() - start);
+            ((Buffer) segment).position(start);
+            segment.get(target, offset + done, count);
+            done = done + count;
+            source = source + count;
+        }
+    }
+}
@@ -0,0 +1,356 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+import org.cqfn.astranaut.core.base.DefaultFactory;
+import org.cqfn.astranaut.core.base.EmptyTree;
+import org.cqfn.astranaut.core.base.Factory;
+import org.cqfn.astranaut.core.base.Node;
+import org.cqfn.astranaut.core.base.Tree;
+
+/**
+ * Converts a stream of newline-delimited JSON documents, one syntax tree per line
+ * (each line is a document like {@code {"root": ...}}), and writes the converted trees
+ * in compact JSON, one per line and in the same order.
+ * The conversion is a pipeline of three stages connected by bounded queues:
+ * a reader thread splits the input into lines, worker threads deserialize, convert
+ * and serialize trees, and the calling thread writes results in the input order.
+ * When the writer (or the consumer of the output) is slower than the reader, the queues
+ * fill up and the reader waits, so the amount of memory used does not depend on
+ * the length of the stream.
+ * Empty lines are skipped. A line that is not a valid tree (or whose conversion fails,
+ * including a stack overflow on a too deep tree) is replaced by an error document like
+ * {@code {"error":"malformed document","line":3}}, so the output still contains one line
+ * per input document. Other errors of a worker, such as {@link OutOfMemoryError},
+ * stop the pipeline and are rethrown by {@link #run(InputStream, OutputStream)}.
+ *
+ * @since 0.2.22
+ */
+public final class NdjsonPipeline {
+    /**
+     * The error document written instead of a malformed tree.
+     */
+    private static final String MALFORMED = "{\"error\":\"malformed document\",\"line\":%d}";
+
+    /**
+     * The error document written when the conversion fails.
+     */
+    private static final String FAILED = "{\"error\":\"conversion failed\",\"line\":%d}";
+
+    /**
+     * The function that converts the root of each tree.
+     */
+    private final UnaryOperator<Node> converter;
+
+    /**
+     * The node factory.
+     */
+    private Factory factory;
+
+    /**
+     * The number of worker threads.
+     */
+    private int threads;
+
+    /**
+     * The capacity of queues between stages.
+     */
+    private int capacity;
+
+    /**
+     * Constructor.
+     * @param converter The function that converts the root of each tree, for example,
+     *  {@code TreeProcessor::transform}; it is called from several threads at once
+     */
+    public NdjsonPipeline(final UnaryOperator<Node> converter) {
+        this.converter = converter;
+        this.factory = DefaultFactory.EMPTY;
+        this.threads = Runtime.getRuntime().availableProcessors();
+        this.capacity = 64;
+    }
+
+    /**
+     * Replaces the default node factory.
+     * @param obj The factory
+     */
+    public void setFactory(final Factory obj) {
+        this.factory = obj;
+    }
+
+    /**
+     * Sets the number of worker threads (by default, the number of available processors).
+     * @param value The number of threads
+     */
+    public void setThreads(final int value) {
+        this.threads = Math.max(1, value);
+    }
+
+    /**
+     * Sets the maximum number of documents that have been read but not written yet.
+     * @param value The capacity of queues between stages
+     */
+    public void setCapacity(final int value) {
+        this.capacity = Math.max(1, value);
+    }
+
+    /**
+     * Converts all documents from the input stream and writes them to the output stream.
+     * Streams are not closed, the output stream is flushed whenever the writer has
+     *  no ready results, so that each result reaches the consumer without delay.
+     * @param input The input stream, UTF-8
+     * @param output The output stream, UTF-8
+     * @return The number of written documents
+     * @throws IOException If the input can not be read or the output can not be written
+     */
+    public long run(final InputStream input, final OutputStream output) throws IOException {
+        final BlockingQueue<Job> work = new ArrayBlockingQueue<>(this.capacity);
+        final BlockingQueue<Job> pending = new ArrayBlockingQueue<>(this.capacity);
+        final AtomicReference<IOException> failure = new AtomicReference<>();
+        final Thread[] stages = new Thread[this.threads + 1];
+        stages[0] = new Thread(
+            () -> NdjsonPipeline.read(input, work, pending, this.threads, failure),
+            "ndjson-reader"
+        );
+        for (int index = 1; index < stages.length; index = index + 1) {
+            stages[index] = new Thread(() -> this.work(work), "ndjson-worker-" + index);
+        }
+        for (final Thread stage : stages) {
+            stage.setDaemon(true);
+            stage.start();
+        }
+        final long count;
+        try {
+            count = NdjsonPipeline.write(
+                pending,
+                new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))
+            );
+        } finally {
+            for (final Thread stage : stages) {
+                stage.interrupt();
+            }
+        }
+        final IOException exception = failure.get();
+        if (exception != null) {
+            throw exception;
+        }
+        return count;
+    }
+
+    /**
+     * The reader stage: splits the input into lines and passes them to the workers
+     *  and, in the same order, to the writer.
+     * @param input The input stream
+     * @param work The queue of jobs for the workers
+     * @param pending The queue of jobs for the writer
+     * @param workers The number of workers
+     * @param failure Storage for an input error
+     */
+    private static void read(final InputStream input, final BlockingQueue<Job> work,
+        final BlockingQueue<Job> pending, final int workers,
+        final AtomicReference<IOException> failure) {
+        try {
+            try {
+                final BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(input, StandardCharsets.UTF_8)
+                );
+                int number = 0;
+                String line = reader.readLine();
+                while (line != null) {
+                    number = number + 1;
+                    if (!line.trim().isEmpty()) {
+                        final Job job = new Job(number, line);
+                        pending.put(job);
+                        work.put(job);
+                    }
+                    line = reader.readLine();
+                }
+            } catch (final IOException exception) {
+                failure.set(exception);
+            }
+            pending.put(Job.END);
+            for (int index = 0; index < workers; index = index + 1) {
+                work.put(Job.END);
+            }
+        } catch (final InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The worker stage: converts documents until the end of the stream.
+     * @param work The queue of jobs
+     */
+    @SuppressWarnings("PMD.AvoidCatchingThrowable")
+    private void work(final BlockingQueue<Job> work) {
+        try {
+            Job job = work.take();
+            while (job.text != null) {
+                try {
+                    job.result.complete(this.convert(job));
+                } catch (final Throwable error) {
+                    job.result.completeExceptionally(error);
+                }
+                job = work.take();
+            }
+        } catch (final InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The writer stage: writes results in the input order. The results written before
+     *  an error are flushed anyway.
+     * @param pending The queue of jobs
+     * @param writer The writer
+     * @return The number of written documents
+     * @throws IOException If the output can not be written
+     */
+    private static long write(final BlockingQueue<Job> pending, final Writer writer)
+        throws IOException {
+        long count = 0;
+        try {
+            Job job = pending.take();
+            while (job.text != null) {
+                writer.write(NdjsonPipeline.await(job));
+                writer.write('\n');
+                count = count + 1;
+                if (pending.isEmpty() || !pending.peek().result.isDone()) {
+                    writer.flush();
+                }
+                job = pending.take();
+            }
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } finally {
+            writer.flush();
+        }
+        return count;
+    }
+
+    /**
+     * Waits for the resulting document of a job.
+     * @param job The job
+     * @return The resulting document
+     * @throws Error The error that stopped the worker converting the document
+     */
+    private static String await(final Job job) {
+        final String result;
+        try {
+            result = job.result.join();
+        } catch (final CompletionException exception) {
+            final Throwable cause = exception.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw exception;
+        }
+        return result;
+    }
+
+    /**
+     * Converts a single document.
+     * @param job The job containing the document
+     * @return The resulting document
+     */
+    private String convert(final Job job) {
+        String result;
+        try {
+            final JsonStreamDeserializer deserializer =
+                new JsonStreamDeserializer(new StringReader(job.text));
+            deserializer.setFactory(this.factory);
+            final Tree tree = deserializer.deserialize();
+            if (tree instanceof EmptyTree) {
+                result = String.format(Locale.ROOT, NdjsonPipeline.MALFORMED, job.number);
+            } else {
+                final JsonStreamSerializer serializer =
+                    new JsonStreamSerializer(new Tree(this.converter.apply(tree.getRoot())));
+                serializer.setPretty(false);
+                final StringWriter writer = new StringWriter(job.text.length());
+                serializer.serialize(writer);
+                result = writer.toString();
+            }
+        } catch (final IOException | RuntimeException | StackOverflowError exception) {
+            result = String.format(Locale.ROOT, NdjsonPipeline.FAILED, job.number);
+        }
+        return result;
+    }
+
+    /**
+     * A document passing through the pipeline.
+     *
+     * @since 0.2.22
+     */
+    private static final class Job {
+        /**
+         * The marker of the end of the stream.
+         */
+        private static final Job END = new Job(0, null);
+
+        /**
+         * The line number.
+         */
+        private final int number;
+
+        /**
+         * The source document, or {@code null} for the marker of the end of the stream.
+         */
+        private final String text;
+
+        /**
+         * The resulting document.
+         */
+        private final CompletableFuture<String> result;
+
+        /**
+         * Constructor.
+         * @param number The line number
+         * @param text The source document
+         */
+        Job(final int number, final String text) {
+            this.number = number;
+            this.text = text;
+            this.result = new CompletableFuture<>();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.cqfn.astranaut.core.base.Builder;
+import org.cqfn.astranaut.core.base.DummyNode;
+import org.cqfn.astranaut.core.base.Factory;
+import org.cqfn.astranaut.core.base.Node;
+
+/**
+ * Assembler that builds nodes by the factory.
+ * If a node can not be built, a dummy node is created instead.
+ *
+ * @since 0.2.22
+ */
+final class NodeAssembler implements TreeAssembler<Node> {
+    /**
+     * The node factory.
+     */
+    private final Factory factory;
+
+    /**
+     * Nodes that are not taken as children yet.
+     */
+    private final List<Node> pending;
+
+    /**
+     * Constructor.
+     * @param factory The node factory
+     */
+    NodeAssembler(final Factory factory) {
+        this.factory = factory;
+        this.pending = new ArrayList<>(64);
+    }
+
+    @Override
+    public void node(final String type, final String data, final int count) {
+        final int size = this.pending.size();
+        final List<Node> tail = this.pending.subList(size - count, size);
+        Node node = DummyNode.INSTANCE;
+        final Builder builder;
+        if (type == null) {
+            builder = null;
+        } else {
+            builder = this.factory.createBuilder(type);
+        }
+        if (builder != null) {
+            if (data != null) {
+                builder.setData(data);
+            }
+            final boolean success = count == 0
+                || builder.setChildrenList(new ArrayList<>(tail));
+            if (success && builder.isValid()) {
+                node = builder.createNode();
+            }
+        }
+        tail.clear();
+        this.pending.add(node);
+    }
+
+    @Override
+    public Node result() {
+        return this.pending.get(this.pending.size() - 1);
+    }
+}
@@ -0,0 +1,528 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import org.cqfn.astranaut.core.base.Builder;
+import org.cqfn.astranaut.core.base.DefaultFactory;
+import org.cqfn.astranaut.core.base.DummyNode;
+import org.cqfn.astranaut.core.base.EmptyTree;
+import org.cqfn.astranaut.core.base.Factory;
+import org.cqfn.astranaut.core.base.Node;
+import org.cqfn.astranaut.core.base.Tree;
+import org.cqfn.astranaut.utils.StringPool;
+
+/**
+ * Reads a tree in JSON format ({@code {"root": NODE_DESCRIPTOR}}) from a file using
+ * all available processors. The file is memory-mapped and parsed in two stages.
+ * At the first stage, a {@link StructuralIndex} is built over chunks of the file
+ * in parallel. At the second stage, nodes are built from the index: a subtree whose
+ * descriptor is large enough is built by a separate fork/join task, so sibling subtrees
+ * are built concurrently. Neither stage uses recursion over the depth of the tree.
+ * As well as {@link JsonStreamDeserializer}, this deserializer skips unknown keys
+ * and ignores the "language" key, interns type names and deduplicates data strings
+ * if a pool is set. The factory must be thread-safe (the factories
+ * generated from DSL descriptions are).
+ *
+ * @since 0.2.22
+ */
+public final class ParallelJsonDeserializer {
+    /**
+     * The default size of a chunk.
+     */
+    private static final int CHUNK_SIZE = 1 << 22;
+
+    /**
+     * The minimal size of a node descriptor, in bytes, that is built by a separate task.
+     */
+    private static final long THRESHOLD = 1 << 16;
+
+    /**
+     * The maximal nesting of tasks, subtrees that are nested deeper are built
+     *  by the task of their ancestor.
+     */
+    private static final int MAX_NESTING = 64;
+
+    /**
+     * The source file.
+     */
+    private final Path path;
+
+    /**
+     * The node factory.
+     */
+    private Factory factory;
+
+    /**
+     * The pool that deduplicates data strings, or {@code null}.
+     */
+    private StringPool strings;
+
+    /**
+     * The pool.
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * The size of a chunk of the first stage.
+     */
+    private int chunk;
+
+    /**
+     * Constructor.
+     * @param path The path to a file (UTF-8 encoded) the tree is read from
+     */
+    public ParallelJsonDeserializer(final Path path) {
+        this.path = path;
+        this.factory = DefaultFactory.EMPTY;
+        this.pool = ForkJoinPool.commonPool();
+        this.chunk = ParallelJsonDeserializer.CHUNK_SIZE;
+    }
+
+    /**
+     * Replaces the default node factory.
+     * @param obj The factory
+     */
+    public void setFactory(final Factory obj) {
+        this.factory = obj;
+    }
+
+    /**
+     * Sets the pool that deduplicates data strings of nodes.
+     * @param obj The pool, or {@code null} to keep data strings as is (default)
+     */
+    public void setStringPool(final StringPool obj) {
+        this.strings = obj;
+    }
+
+    /**
+     * Replaces the pool where the file is parsed, by default it is the common pool.
+     * @param obj The pool
+     */
+    public void setPool(final ForkJoinPool obj) {
+        this.pool = obj;
+    }
+
+    /**
+     * Sets the size of chunks the file is split into at the first stage
+     *  (4 MB by default).
+     * @param size The size, in bytes
+     */
+    public void setChunkSize(final int size) {
+        this.chunk = Math.max(1, size);
+    }
+
+    /**
+     * Reads the tree.
+     * @return Resulting syntax tree, or an empty tree if the file is not a valid
+     *  JSON document describing a tree
+     * @throws IOException If the file can not be read
+     */
+    public Tree deserialize() throws IOException {
+        final MappedFile file = MappedFile.map(this.path);
+        final StructuralIndex index = StructuralIndex.build(file, this.chunk, this.pool);
+        Tree tree = EmptyTree.INSTANCE;
+        if (index != null) {
+            try {
+                tree = new Tree(this.parseDocument(index));
+            } catch (final Malformed ignored) {
+                tree = EmptyTree.INSTANCE;
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * Parses the document: the outer object that contains the "root" key.
+     * @param index The structural index
+     * @return The root node
+     */
+    private Node parseDocument(final StructuralIndex index) {
+        final Cursor cursor = new Cursor(index);
+        cursor.blank(0L, index.position(cursor.ref));
+        cursor.expect('{');
+        Node root = null;
+        boolean first = true;
+        while (cursor.kind() != '}') {
+            if (!first) {
+                cursor.expect(',');
+            }
+            first = false;
+            final String key = cursor.string();
+            cursor.expect(':');
+            if ("root".equals(key)) {
+                cursor.check(cursor.kind() == '{');
+                final long open = cursor.ref;
+                root = this.pool.invoke(new Subtree(index, open, 0));
+                cursor.ref = index.partner(open);
+                cursor.step();
+            } else {
+                cursor.skipValue();
+            }
+        }
+        final long last = cursor.ref;
+        cursor.step();
+        cursor.check(cursor.ref == StructuralIndex.END && root != null);
+        cursor.blank(index.position(last) + 1, index.getFile().size());
+        return root;
+    }
+
+    /**
+     * Task that builds a subtree.
+     *
+     * @since 0.2.22
+     */
+    private final class Subtree extends RecursiveTask<Node> {
+        private static final long serialVersionUID = -2735181476109531275L;
+
+        /**
+         * The structural index.
+         */
+        private final transient StructuralIndex index;
+
+        /**
+         * The reference to the opening brace of the root of the subtree.
+         */
+        private final long open;
+
+        /**
+         * The nesting of the task.
+         */
+        private final int nesting;
+
+        /**
+         * Constructor.
+         * @param index The structural index
+         * @param open The reference to the opening brace of the root of the subtree
+         * @param nesting The nesting of the task
+         */
+        Subtree(final StructuralIndex index, final long open, final int nesting) {
+            super();
+            this.index = index;
+            this.open = open;
+            this.nesting = nesting;
+        }
+
+        @Override
+        protected Node compute() {
+            final Cursor cursor = new Cursor(this.index);
+            cursor.ref = this.open;
+            cursor.step();
+            final Deque<Frame> stack = new ArrayDeque<>();
+            Frame frame = new Frame();
+            Node result = null;
+            while (result == null) {
+                final int chr = cursor.kind();
+                if (frame.array && !frame.closed) {
+                    if (chr == ']') {
+                        cursor.step();
+                        frame.closed = true;
+                    } else {
+                        if (!frame.children.isEmpty()) {
+                            cursor.expect(',');
+                        }
+                        cursor.check(cursor.kind() == '{');
+                        final long child = cursor.ref;
+                        final long close = this.index.partner(child);
+                        if (this.nesting < ParallelJsonDeserializer.MAX_NESTING
+                            && this.index.position(close) - this.index.position(child)
+                            >= ParallelJsonDeserializer.THRESHOLD) {
+                            final Subtree task = new Subtree(this.index, child, this.nesting + 1);
+                            task.fork();
+                            frame.children.add(task);
+                            cursor.ref = close;
+                        } else {
+                            stack.push(frame);
+                            frame = new Frame();
+                        }
+                        cursor.step();
+                    }
+                } else if (chr == '}') {
+                    cursor.step();
+                    final Node node = this.create(frame);
+                    frame = stack.poll();
+                    if (frame == null) {
+                        result = node;
+                    } else {
+                        frame.children.add(node);
+                    }
+                } else {
+                    this.parseMember(cursor, frame);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Parses a member of a node descriptor.
+         * @param cursor The cursor
+         * @param frame The descriptor being parsed
+         */
+        private void parseMember(final Cursor cursor, final Frame frame) {
+            if (frame.started) {
+                cursor.expect(',');
+            }
+            frame.started = true;
+            final String key = cursor.string();
+            cursor.expect(':');
+            if ("type".equals(key)) {
+                frame.type = StringPool.intern(cursor.string());
+            } else if ("data".equals(key)) {
+                frame.data = cursor.string();
+                if (ParallelJsonDeserializer.this.strings != null) {
+                    frame.data = ParallelJsonDeserializer.this.strings.deduplicate(frame.data);
+                }
+            } else if ("children".equals(key)) {
+                cursor.check(!frame.array);
+                cursor.expect('[');
+                frame.array = true;
+            } else {
+                cursor.skipValue();
+            }
+        }
+
+        /**
+         * Creates a node by the factory, waiting for children that are built
+         *  by other tasks.
+         * @param frame The node descriptor
+         * @return The node, or a dummy node if the node can not be built
+         */
+        private Node create(final Frame frame) {
+            final List<Node> children = new ArrayList<>(frame.children.size());
+            for (final Object child : frame.children) {
+                if (child instanceof Subtree) {
+                    children.add(((Subtree) child).join());
+                } else {
+                    children.add((Node) child);
+                }
+            }
+            Node node = DummyNode.INSTANCE;
+            final Builder builder;
+            if (frame.type == null) {
+                builder = null;
+            } else {
+                builder = ParallelJsonDeserializer.this.factory.createBuilder(frame.type);
+            }
+            if (builder != null) {
+                if (frame.data != null) {
+                    builder.setData(frame.data);
+                }
+                final boolean success = children.isEmpty()
+                    || builder.setChildrenList(children);
+                if (success && builder.isValid()) {
+                    node = builder.createNode();
+                }
+            }
+            return node;
+        }
+    }
+
+    /**
+     * A node descriptor whose parsing has not been completed.
+     *
+     * @since 0.2.22
+     */
+    private static final class Frame {
+        /**
+         * Children: nodes or tasks that build them.
+         */
+        private final List<Object> children;
+
+        /**
+         * The type name.
+         */
+        private String type;
+
+        /**
+         * The data.
+         */
+        private String data;
+
+        /**
+         * Flag indicating that at least one member of the descriptor is parsed.
+         */
+        private boolean started;
+
+        /**
+         * Flag indicating that the list of children is specified.
+         */
+        private boolean array;
+
+        /**
+         * Flag indicating that the list of children is closed.
+         */
+        private boolean closed;
+
+        /**
+         * Constructor.
+         */
+        Frame() {
+            this.children = new ArrayList<>(2);
+        }
+    }
+
+    /**
+     * Cursor that walks through entries of the structural index.
+     *
+     * @since 0.2.22
+     */
+    private static final class Cursor {
+        /**
+         * The structural index.
+         */
+        private final StructuralIndex index;
+
+        /**
+         * The reference to the current entry.
+         */
+        private long ref;
+
+        /**
+         * Flag indicating that the last step passed over a literal.
+         */
+        private boolean literal;
+
+        /**
+         * Constructor.
+         * @param index The structural index
+         */
+        Cursor(final StructuralIndex index) {
+            this.index = index;
+            this.ref = index.first();
+        }
+
+        /**
+         * Returns the character of the current entry.
+         * @return The character
+         */
+        int kind() {
+            return this.index.kind(this.ref);
+        }
+
+        /**
+         * Moves to the next entry, checking that there are only whitespace characters
+         *  between the entries.
+         */
+        void step() {
+            final long from = this.index.position(this.ref) + 1;
+            this.ref = this.index.next(this.ref);
+            this.blank(from, this.index.position(this.ref));
+        }
+
+        /**
+         * Checks the character of the current entry and moves to the next entry.
+         * @param expected The expected character
+         */
+        void expect(final char expected) {
+            this.check(this.kind() == expected);
+            this.step();
+        }
+
+        /**
+         * Reads a string and moves to the entry after it.
+         * @return The decoded string
+         */
+        String string() {
+            this.check(this.kind() == '"');
+            final long start = this.index.position(this.ref) + 1;
+            this.ref = this.index.next(this.ref);
+            final long end = this.index.position(this.ref);
+            final String result = LazyJsonTree.decode(
+                this.index.getFile(), start, (int) (end - start)
+            );
+            this.step();
+            return result;
+        }
+
+        /**
+         * Skips any value and moves to the entry after it.
+         */
+        void skipValue() {
+            final int chr = this.kind();
+            if (chr == '{' || chr == '[') {
+                this.ref = this.index.partner(this.ref);
+                this.step();
+            } else if (chr == '"') {
+                this.string();
+            } else {
+                this.check(this.literal);
+            }
+        }
+
+        /**
+         * Checks that a fragment of the document contains only whitespace characters.
+         * If there is a literal (a number, {@code true}, {@code false} or {@code null})
+         * right after a colon, it is accepted too, only {@link Cursor#skipValue()} accepts it.
+         * @param from The offset of the first byte of the fragment
+         * @param to The offset of the end of the fragment
+         */
+        void blank(final long from, final long to) {
+            final MappedFile file = this.index.getFile();
+            boolean found = false;
+            for (long pos = from; pos < to; pos = pos + 1) {
+                final byte chr = file.get(pos);
+                if (chr != ' ' && chr != '\n' && chr != '\r' && chr != '\t') {
+                    found = true;
+                }
+            }
+            if (found) {
+                this.check(from > 0 && file.get(from - 1) == ':');
+            }
+            this.literal = found;
+        }
+
+        /**
+         * Checks a condition of the grammar.
+         * @param condition The condition
+         */
+        void check(final boolean condition) {
+            if (!condition) {
+                throw new Malformed();
+            }
+        }
+    }
+
+    /**
+     * Signal that the document is malformed. It is caught by the deserializer.
+     *
+     * @since 0.2.22
+     */
+    private static final class Malformed extends RuntimeException {
+        private static final long serialVersionUID = 6421935521987411303L;
+
+        /**
+         * Constructor.
+         */
+        Malformed() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.cqfn.astranaut.utils.ContentHash;
+
+/**
+ * Persistent content-addressed cache of conversion results.
+ * An entry is a file whose name is the key, that is, the digest of the source content,
+ * of the transformation rules and of the output options (see {@link ResultCache#key}),
+ * so the entry is valid as long as it exists and it never needs to be invalidated.
+ * The total size of entries is limited; when the limit is exceeded, the least recently
+ * used entries are removed. The time of the last use is stored as the modification time
+ * of the file, so the order of eviction survives restarts.
+ * The limit is kept by each instance on its own: several processes that share a directory
+ * do not see entries stored by each other until restart, so the directory may grow up to
+ * the sum of their limits; such processes should divide the desired limit between them.
+ * Entries are written to a temporary file first and then renamed, so a reader (possibly
+ * in another process) never sees a partially written entry.
+ * The cache is thread-safe.
+ *
+ * @since 0.2.22
+ */
+public final class ResultCache {
+    /**
+     * The extension of entry files.
+     */
+    private static final String EXTENSION = ".bin";
+
+    /**
+     * The cache directory.
+     */
+    private final Path directory;
+
+    /**
+     * The maximum total size of entries, in bytes.
+     */
+    private final long capacity;
+
+    /**
+     * Sizes of entries, in the order of use (from the least recently used).
+     */
+    private final LinkedHashMap<String, Long> entries;
+
+    /**
+     * The total size of entries, in bytes.
+     */
+    private long size;
+
+    /**
+     * The number of found entries.
+     */
+    private long hits;
+
+    /**
+     * The number of keys for which no entry was found.
+     */
+    private long misses;
+
+    /**
+     * The number of removed entries.
+     */
+    private long evictions;
+
+    /**
+     * Constructor.
+     * @param directory The cache directory, it is created if it does not exist,
+     *  entries stored by previous runs are reused
+     * @param capacity The maximum total size of entries, in bytes
+     * @throws IOException If the directory can not be created or read
+     */
+    public ResultCache(final Path directory, final long capacity) throws IOException {
+        this.directory = directory;
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(64, 0.75f, true);
+        Files.createDirectories(directory);
+        this.scan();
+    }
+
+    /**
+     * Computes the key of an entry.
+     * @param source The digest of the source content
+     * @param rules The digest of the transformation rules
+     * @param options Options that affect the content of the result, such as its format
+     * @return The key
+     */
+    public static String key(final String source, final String rules, final String options) {
+        return ContentHash.sha256(String.join("\n", source, rules, options));
+    }
+
+    /**
+     * Copies the entry to the file.
+     * @param key The key
+     * @param target The file
+     * @return {@code true} if the entry was found and copied, {@code false} if there
+     *  is no such entry
+     * @throws IOException If the target file can not be written
+     */
+    public boolean load(final String key, final Path target) throws IOException {
+        final Path file = this.getFile(key);
+        boolean found = this.touch(key);
+        if (found) {
+            try {
+                Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            } catch (final NoSuchFileException ignored) {
+                found = false;
+                this.forget(key);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Reads the entry.
+     * @param key The key
+     * @return The content of the entry, or {@code null} if there is no such entry
+     */
+    public byte[] load(final String key) {
+        final Path file = this.getFile(key);
+        byte[] content = null;
+        if (this.touch(key)) {
+            try {
+                content = Files.readAllBytes(file);
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            } catch (final IOException ignored) {
+                content = null;
+                this.forget(key);
+            }
+        }
+        return content;
+    }
+
+    /**
+     * Stores a copy of the file as the entry.
+     * @param key The key
+     * @param source The file
+     * @throws IOException If the entry can not be written
+     */
+    public void store(final String key, final Path source) throws IOException {
+        final Path temp = this.createTemp();
+        try {
+            Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+            this.publish(key, temp);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Stores the content as the entry.
+     * @param key The key
+     * @param content The content
+     * @throws IOException If the entry can not be written
+     */
+    public void store(final String key, final byte[] content) throws IOException {
+        final Path temp = this.createTemp();
+        try {
+            Files.write(temp, content);
+            this.publish(key, temp);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Returns the number of found entries.
+     * @return The number of hits
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Returns the number of keys for which no entry was found.
+     * @return The number of misses
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Returns the number of entries removed to keep the size within the limit.
+     * @return The number of evictions
+     */
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    /**
+     * Returns the number of entries.
+     * @return The number of entries
+     */
+    public synchronized int getEntryCount() {
+        return this.entries.size();
+    }
+
+    /**
+     * Returns the total size of entries.
+     * @return The size, in bytes
+     */
+    public synchronized long getSize() {
+        return this.size;
+    }
+
+    @Override
+    public synchronized String toString() {
+        final long total = this.hits + this.misses;
+        double ratio = 0;
+        if (total > 0) {
+            ratio = 100.0 * this.hits / total;
+        }
+        return String.format(
+            Locale.ROOT,
+            "Result cache: %d hits, %d misses (%.1f%% hit rate), %d evictions,"
+                + " %d entries, %d bytes",
+            this.hits, this.misses, ratio, this.evictions, this.entries.size(), this.size
+        );
+    }
+
+    /**
+     * Checks whether the entry exists, marks it as recently used and updates statistics.
+     * @param key The key
+     * @return {@code true} if the entry exists
+     */
+    private synchronized boolean touch(final String key) {
+        final boolean found = this.entries.get(key) != null;
+        if (found) {
+            this.hits = this.hits + 1;
+        } else {
+            this.misses = this.misses + 1;
+        }
+        return found;
+    }
+
+    /**
+     * Removes an entry that was deleted by another process from the index.
+     * @param key The key
+     */
+    private synchronized void forget(final String key) {
+        final Long removed = this.entries.remove(key);
+        if (removed != null) {
+            this.size = this.size - removed;
+            this.hits = this.hits - 1;
+            this.misses = this.misses + 1;
+        }
+    }
+
+    /**
+     * Creates a temporary file in the cache directory.
+     * @return The path to the file
+     */
+    private Path createTemp() {
+        return this.directory.resolve(String.format(".%s.tmp", UUID.randomUUID()));
+    }
+
+    /**
+     * Renames the temporary file to the entry file and evicts old entries if necessary.
+     * @param key The key
+     * @param temp The temporary file
+     * @throws IOException If the file can not be renamed
+     */
+    private void publish(final String key, final Path temp) throws IOException {
+        final long length = Files.size(temp);
+        Files.move(
+            temp,
+            this.getFile(key),
+            StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING
+        );
+        final List<String> evicted = new ArrayList<>(0);
+        synchronized (this) {
+            final Long previous = this.entries.put(key, length);
+            if (previous != null) {
+                this.size = this.size - previous;
+            }
+            this.size = this.size + length;
+            final Iterator<Map.Entry<String, Long>> iterator =
+                this.entries.entrySet().iterator();
+            while (this.size > this.capacity && iterator.hasNext()) {
+                final Map.Entry<String, Long> eldest = iterator.next();
+                if (!eldest.getKey().equals(key)) {
+                    evicted.add(eldest.getKey());
+                    this.size = this.size - eldest.getValue();
+                    this.evictions = this.evictions + 1;
+                    iterator.remove();
+                }
+            }
+        }
+        for (final String name : evicted) {
+            Files.deleteIfExists(this.getFile(name));
+        }
+    }
+
+    /**
+     * Returns the path to the entry file.
+     * @param key The key
+     * @return The path
+     */
+    private Path getFile(final String key) {
+        return this.directory.resolve(key.concat(ResultCache.EXTENSION));
+    }
+
+    /**
+     * Loads the index of entries stored by previous runs, ordered by the time of last use.
+     * @throws IOException If the directory can not be read
+     */
+    private void scan() throws IOException {
+        final List<Path> files;
+        try (Stream<Path> stream = Files.list(this.directory)) {
+            files = stream
+                .filter(path -> path.getFileName().toString().endsWith(ResultCache.EXTENSION))
+                .collect(Collectors.toList());
+        }
+        final Map<Path, FileTime> times = new LinkedHashMap<>();
+        for (final Path file : files) {
+            times.put(file, Files.getLastModifiedTime(file));
+        }
+        files.sort((first, second) -> times.get(first).compareTo(times.get(second)));
+        for (final Path file : files) {
+            final String name = file.getFileName().toString();
+            final long length = Files.size(file);
+            this.entries.put(
+                name.substring(0, name.length() - ResultCache.EXTENSION.length()), length
+            );
+            this.size = this.size + length;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.cqfn.astranaut.rules.Instruction;
+import org.cqfn.astranaut.rules.Program;
+import org.cqfn.astranaut.rules.Transformation;
+
+/**
+ * Immutable version of transformation rules used by {@link TreeProcessor}.
+ * A new version is built completely, including its digest, before it is published,
+ * so threads that are transforming trees keep using the version they started with.
+ *
+ * @since 0.2.22
+ */
+public final class RuleSet {
+    /**
+     * The rule set without rules, its version is zero.
+     */
+    public static final RuleSet EMPTY = new RuleSet(0, Collections.emptyList());
+
+    /**
+     * The version, it is incremented by each publication.
+     */
+    private final long version;
+
+    /**
+     * The rules.
+     */
+    private final List<Instruction<Transformation>> rules;
+
+    /**
+     * The digest of the rules.
+     */
+    private final String digest;
+
+    /**
+     * Constructor.
+     * @param version The version
+     * @param rules The rules
+     */
+    private RuleSet(final long version, final List<Instruction<Transformation>> rules) {
+        this.version = version;
+        this.rules = Collections.unmodifiableList(rules);
+        this.digest = Program.getDigest(rules);
+    }
+
+    /**
+     * Returns the version.
+     * @return The version, zero for the initial empty rule set
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Returns the rules.
+     * @return The unmodifiable list of rules
+     */
+    public List<Instruction<Transformation>> getRules() {
+        return this.rules;
+    }
+
+    /**
+     * Returns the digest of the rules, rule sets with the same rules have the same digest
+     *  regardless of their versions.
+     * @return The SHA-256 digest as a string of hexadecimal digits
+     */
+    public String getDigest() {
+        return this.digest;
+    }
+
+    /**
+     * Creates the next version that contains the rules of this version followed
+     *  by additional rules.
+     * @param additional The additional rules
+     * @return The new rule set
+     */
+    public RuleSet append(final List<Instruction<Transformation>> additional) {
+        final List<Instruction<Transformation>> list =
+            new ArrayList<>(this.rules.size() + additional.size());
+        list.addAll(this.rules);
+        list.addAll(additional);
+        return new RuleSet(this.version + 1, list);
+    }
+
+    /**
+     * Creates the next version that contains only the given rules.
+     * @param replacement The rules
+     * @return The new rule set
+     */
+    public RuleSet replace(final List<Instruction<Transformation>> replacement) {
+        return new RuleSet(this.version + 1, new ArrayList<>(replacement));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Rule set version %d, %d rules", this.version, this.rules.size());
+    }
+}
@@ -0,0 +1,530 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Structural index of a JSON document: positions of unescaped quotes and, outside strings,
+ * of brackets, braces, colons and commas, together with the matching pairs of brackets.
+ * The index is built over chunks of the document in parallel. First, unescaped quotes
+ * are counted in each chunk, and the prefix parity of these counts tells whether each chunk
+ * starts inside a string. Then each chunk is scanned again, structural characters
+ * are collected and brackets are matched locally; brackets that remain unmatched
+ * in their chunks are matched by a short sequential pass at the end.
+ * An entry of the index is addressed by a reference, which is the chunk number
+ * in the high 32 bits and the number of the entry in the chunk in the low 32 bits.
+ *
+ * @since 0.2.22
+ */
+final class StructuralIndex {
+    /**
+     * Reference that points after the last entry.
+     */
+    static final long END = -1L;
+
+    /**
+     * Mask that extracts the number of an entry in a chunk from a reference.
+     */
+    private static final long LOW = 0xffffffffL;
+
+    /**
+     * The document.
+     */
+    private final MappedFile file;
+
+    /**
+     * The size of a chunk.
+     */
+    private final long chunk;
+
+    /**
+     * Offsets of entries relative to the beginning of their chunk.
+     */
+    private final int[][] offsets;
+
+    /**
+     * References to matching brackets, {@link StructuralIndex#END} for other entries.
+     */
+    private final long[][] partners;
+
+    /**
+     * Constructor.
+     * @param file The document
+     * @param chunk The size of a chunk
+     * @param offsets Offsets of entries
+     * @param partners References to matching brackets
+     */
+    private StructuralIndex(final MappedFile file, final long chunk, final int[][] offsets,
+        final long[][] partners) {
+        this.file = file;
+        this.chunk = chunk;
+        this.offsets = offsets;
+        this.partners = partners;
+    }
+
+    /**
+     * Builds the index.
+     * @param file The document
+     * @param chunk The size of a chunk, in bytes
+     * @param pool The pool where chunks are processed
+     * @return The index or {@code null} if brackets or quotes of the document are not balanced
+     */
+    static StructuralIndex build(final MappedFile file, final int chunk, final ForkJoinPool pool) {
+        final int count = (int) ((file.size() + chunk - 1) / chunk);
+        final int[] quotes = new int[count];
+        StructuralIndex.forEach(
+            pool, count, index -> quotes[index] = new Scanner(file, chunk, index).countQuotes()
+        );
+        final boolean[] inside = new boolean[count + 1];
+        for (int index = 0; index < count; index = index + 1) {
+            inside[index + 1] = inside[index] ^ (quotes[index] & 1) == 1;
+        }
+        final Scanner[] scanners = new Scanner[count];
+        StructuralIndex.forEach(
+            pool,
+            count,
+            index -> {
+                final Scanner scanner = new Scanner(file, chunk, index);
+                scanner.collect(inside[index]);
+                scanners[index] = scanner;
+            }
+        );
+        final int[][] offsets = new int[count][];
+        final long[][] partners = new long[count][];
+        for (int index = 0; index < count; index = index + 1) {
+            offsets[index] = scanners[index].offsets;
+            partners[index] = scanners[index].partners;
+        }
+        final StructuralIndex result = new StructuralIndex(file, chunk, offsets, partners);
+        boolean valid = !inside[count];
+        for (int index = 0; valid && index < count; index = index + 1) {
+            valid = scanners[index].valid;
+        }
+        if (valid) {
+            valid = result.matchAcrossChunks(scanners);
+        }
+        return valid ? result : null;
+    }
+
+    /**
+     * Returns the reference to the first entry.
+     * @return The reference or {@link StructuralIndex#END} if there are no entries
+     */
+    long first() {
+        return this.nextChunk(0);
+    }
+
+    /**
+     * Returns the reference to the entry that follows the specified one.
+     * @param ref The reference to the entry
+     * @return The reference or {@link StructuralIndex#END} if it was the last entry
+     */
+    long next(final long ref) {
+        final long result;
+        if (ref == StructuralIndex.END) {
+            result = StructuralIndex.END;
+        } else {
+            final int index = (int) (ref >>> 32);
+            if ((ref & StructuralIndex.LOW) + 1 < this.offsets[index].length) {
+                result = ref + 1;
+            } else {
+                result = this.nextChunk(index + 1);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the offset of the entry in the document.
+     * @param ref The reference to the entry
+     * @return The offset, or the size of the document for {@link StructuralIndex#END}
+     */
+    long position(final long ref) {
+        final long result;
+        if (ref == StructuralIndex.END) {
+            result = this.file.size();
+        } else {
+            final int index = (int) (ref >>> 32);
+            result = index * this.chunk + this.offsets[index][(int) (ref & StructuralIndex.LOW)];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the character of the entry.
+     * @param ref The reference to the entry
+     * @return The character, or -1 for {@link StructuralIndex#END}
+     */
+    int kind(final long ref) {
+        final int result;
+        if (ref == StructuralIndex.END) {
+            result = -1;
+        } else {
+            result = this.file.get(this.position(ref));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the reference to the matching bracket.
+     * @param ref The reference to a bracket
+     * @return The reference to the matching bracket
+     */
+    long partner(final long ref) {
+        return this.partners[(int) (ref >>> 32)][(int) (ref & StructuralIndex.LOW)];
+    }
+
+    /**
+     * Returns the document.
+     * @return The mapped file
+     */
+    MappedFile getFile() {
+        return this.file;
+    }
+
+    /**
+     * Processes a range of indexes in parallel.
+     * @param pool The pool
+     * @param count The number of indexes
+     * @param action The action that processes one index
+     */
+    static void forEach(final ForkJoinPool pool, final int count, final IntConsumer action) {
+        pool.invoke(new Range(0, count, action));
+    }
+
+    /**
+     * Finds the first chunk that contains entries.
+     * @param from The number of the chunk to start searching from
+     * @return The reference to the first entry of the found chunk,
+     *  or {@link StructuralIndex#END} if there is no such chunk
+     */
+    private long nextChunk(final int from) {
+        int index = from;
+        while (index < this.offsets.length && this.offsets[index].length == 0) {
+            index = index + 1;
+        }
+        final long result;
+        if (index < this.offsets.length) {
+            result = (long) index << 32;
+        } else {
+            result = StructuralIndex.END;
+        }
+        return result;
+    }
+
+    /**
+     * Matches brackets that were left unmatched in their chunks.
+     * @param scanners Scanners of all chunks
+     * @return {@code true} if all brackets are matched
+     */
+    private boolean matchAcrossChunks(final Scanner[] scanners) {
+        long[] stack = new long[16];
+        int size = 0;
+        boolean valid = true;
+        for (int index = 0; valid && index < scanners.length; index = index + 1) {
+            final Scanner scanner = scanners[index];
+            final long base = (long) index << 32;
+            for (int close = 0; valid && close < scanner.closes; close = close + 1) {
+                final long ref = base | scanner.unmatched[close];
+                if (size == 0) {
+                    valid = false;
+                } else {
+                    size = size - 1;
+                    valid = this.pair(stack[size], ref);
+                }
+            }
+            final int count = scanner.unmatchedCount;
+            for (int open = scanner.closes; valid && open < count; open = open + 1) {
+                if (size == stack.length) {
+                    stack = Arrays.copyOf(stack, size * 2);
+                }
+                stack[size] = base | scanner.unmatched[open];
+                size = size + 1;
+            }
+        }
+        return valid && size == 0;
+    }
+
+    /**
+     * Links an opening bracket with a closing one.
+     * @param open The reference to the opening bracket
+     * @param close The reference to the closing bracket
+     * @return {@code true} if the brackets are of the same kind
+     */
+    private boolean pair(final long open, final long close) {
+        final boolean result = StructuralIndex.matches(this.kind(open), this.kind(close));
+        if (result) {
+            this.partners[(int) (open >>> 32)][(int) (open & StructuralIndex.LOW)] = close;
+            this.partners[(int) (close >>> 32)][(int) (close & StructuralIndex.LOW)] = open;
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether brackets are of the same kind.
+     * @param open The opening bracket
+     * @param close The closing bracket
+     * @return Checking result
+     */
+    private static boolean matches(final int open, final int close) {
+        return open == '{' && close == '}' || open == '[' && close == ']';
+    }
+
+    /**
+     * Scanner of one chunk.
+     *
+     * @since 0.2.22
+     */
+    private static final class Scanner {
+        /**
+         * The document.
+         */
+        private final MappedFile file;
+
+        /**
+         * The number of the chunk.
+         */
+        private final int index;
+
+        /**
+         * The offset of the chunk.
+         */
+        private final long start;
+
+        /**
+         * The offset of the end of the chunk.
+         */
+        private final long end;
+
+        /**
+         * Offsets of entries relative to the beginning of the chunk.
+         */
+        private int[] offsets;
+
+        /**
+         * References to matching brackets.
+         */
+        private long[] partners;
+
+        /**
+         * Numbers of entries of unmatched brackets: closing ones first, then opening ones.
+         */
+        private int[] unmatched;
+
+        /**
+         * The number of unmatched closing brackets.
+         */
+        private int closes;
+
+        /**
+         * The number of unmatched brackets.
+         */
+        private int unmatchedCount;
+
+        /**
+         * Flag indicating that brackets matched in the chunk are of the same kind.
+         */
+        private boolean valid;
+
+        /**
+         * Constructor.
+         * @param file The document
+         * @param chunk The size of a chunk
+         * @param index The number of the chunk
+         */
+        Scanner(final MappedFile file, final int chunk, final int index) {
+            this.file = file;
+            this.index = index;
+            this.start = (long) index * chunk;
+            this.end = Math.min(file.size(), this.start + chunk);
+            this.valid = true;
+        }
+
+        /**
+         * Counts unescaped quotes.
+         * @return The number of quotes
+         */
+        int countQuotes() {
+            int count = 0;
+            boolean escaped = this.isEscapedAtStart();
+            for (long pos = this.start; pos < this.end; pos = pos + 1) {
+                final byte chr = this.file.get(pos);
+                if (escaped) {
+                    escaped = false;
+                } else if (chr == '\\') {
+                    escaped = true;
+                } else if (chr == '"') {
+                    count = count + 1;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Collects entries and matches brackets inside the chunk.
+         * @param string Flag indicating that the chunk starts inside a string
+         */
+        void collect(final boolean string) {
+            int[] entries = new int[1024];
+            int size = 0;
+            int[] stack = new int[64];
+            int depth = 0;
+            int[] closed = new int[16];
+            int closing = 0;
+            boolean inside = string;
+            boolean escaped = this.isEscapedAtStart();
+            long[] pairs = new long[entries.length];
+            for (long pos = this.start; pos < this.end; pos = pos + 1) {
+                final byte chr = this.file.get(pos);
+                boolean structural = false;
+                if (escaped) {
+                    escaped = false;
+                } else if (chr == '\\') {
+                    escaped = true;
+                } else if (chr == '"') {
+                    inside = !inside;
+                    structural = true;
+                } else if (!inside) {
+                    structural = chr == '{' || chr == '}' || chr == '[' || chr == ']'
+                        || chr == ':' || chr == ',';
+                }
+                if (structural) {
+                    if (size == entries.length) {
+                        entries = Arrays.copyOf(entries, size * 2);
+                        pairs = Arrays.copyOf(pairs, size * 2);
+                    }
+                    entries[size] = (int) (pos - this.start);
+                    pairs[size] = StructuralIndex.END;
+                    if (chr == '{' || chr == '[') {
+                        if (depth == stack.length) {
+                            stack = Arrays.copyOf(stack, depth * 2);
+                        }
+                        stack[depth] = size;
+                        depth = depth + 1;
+                    } else if (chr == '}' || chr == ']') {
+                        if (depth == 0) {
+                            if (closing == closed.length) {
+                                closed = Arrays.copyOf(closed, closing * 2);
+                            }
+                            closed[closing] = size;
+                            closing = closing + 1;
+                        } else {
+                            depth = depth - 1;
+                            final int open = stack[depth];
+                            this.valid = this.valid && StructuralIndex.matches(
+                                this.file.get(this.start + entries[open]), chr
+                            );
+                            pairs[open] = this.reference(size);
+                            pairs[size] = this.reference(open);
+                        }
+                    }
+                    size = size + 1;
+                }
+            }
+            this.offsets = Arrays.copyOf(entries, size);
+            this.partners = Arrays.copyOf(pairs, size);
+            this.closes = closing;
+            this.unmatchedCount = closing + depth;
+            this.unmatched = Arrays.copyOf(closed, closing + depth);
+            System.arraycopy(stack, 0, this.unmatched, closing, depth);
+        }
+
+        /**
+         * Makes a reference to an entry of this chunk.
+         * @param entry The number of the entry
+         * @return The reference
+         */
+        private long reference(final int entry) {
+            return (long) this.index << 32 | entry;
+        }
+
+        /**
+         * Checks whether the first byte of the chunk is escaped, that is, it is preceded
+         *  by an odd number of backslashes.
+         * @return Checking result
+         */
+        private boolean isEscapedAtStart() {
+            long pos = this.start - 1;
+            while (pos >= 0 && this.file.get(pos) == '\\') {
+                pos = pos - 1;
+            }
+            return (this.start - 1 - pos) % 2 == 1;
+        }
+    }
+
+    /**
+     * Action that processes a range of indexes, splitting it in halves.
+     *
+     * @since 0.2.22
+     */
+    private static final class Range extends RecursiveAction {
+        private static final long serialVersionUID = 3125871943529751097L;
+
+        /**
+         * The first index.
+         */
+        private final int from;
+
+        /**
+         * The index after the last one.
+         */
+        private final int to;
+
+        /**
+         * The action that processes one index.
+         */
+        private final transient IntConsumer action;
+
+        /**
+         * Constructor.
+         * @param from The first index
+         * @param to The index after the last one
+         * @param action The action that processes one index
+         */
+        Range(final int from, final int to, final IntConsumer action) {
+            super();
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from == 1) {
+                this.action.accept(this.from);
+            } else if (this.to > this.from) {
+                final int middle = (this.from + this.to) >>> 1;
+                ForkJoinTask.invokeAll(
+                    new Range(this.from, middle, this.action),
+                    new Range(middle, this.to, this.action)
+                );
+            }
+        }
+    }
+}
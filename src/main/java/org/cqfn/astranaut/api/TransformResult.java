@@ -0,0 +1,139 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import org.cqfn.astranaut.core.base.Node;
+
+/**
+ * The result of the transformation of one tree of a collection,
+ * see {@link TreeProcessor#transformAll}, or of a single tree,
+ * see {@link TreeProcessor#transformVersioned}. A failure of a transformation
+ * is stored in the result and does not affect other trees.
+ *
+ * @since 0.2.22
+ */
+public final class TransformResult {
+    /**
+     * The index of the initial tree in the collection.
+     */
+    private final int index;
+
+    /**
+     * The initial tree.
+     */
+    private final Node input;
+
+    /**
+     * The transformed tree, or {@code null} if the transformation failed.
+     */
+    private final Node output;
+
+    /**
+     * The reason of the failure, or {@code null} if the transformation succeeded.
+     */
+    private final Throwable failure;
+
+    /**
+     * The version of rules that performed the transformation.
+     */
+    private final long version;
+
+    /**
+     * Constructor.
+     * @param index The index of the initial tree in the collection
+     * @param input The initial tree
+     * @param output The transformed tree, or {@code null} if the transformation failed
+     * @param failure The reason of the failure, or {@code null} if the transformation
+     *  succeeded
+     * @param version The version of rules that performed the transformation
+     */
+    TransformResult(final int index, final Node input, final Node output,
+        final Throwable failure, final long version) {
+        this.index = index;
+        this.input = input;
+        this.output = output;
+        this.failure = failure;
+        this.version = version;
+    }
+
+    /**
+     * Returns the index of the initial tree in the collection.
+     * @return The index
+     */
+    public int getIndex() {
+        return this.index;
+    }
+
+    /**
+     * Returns the initial tree.
+     * @return The initial tree
+     */
+    public Node getInput() {
+        return this.input;
+    }
+
+    /**
+     * Returns the transformed tree.
+     * @return The transformed tree, or {@code null} if the transformation failed
+     */
+    public Node getResult() {
+        return this.output;
+    }
+
+    /**
+     * Returns the reason of the failure.
+     * @return The exception, or {@code null} if the transformation succeeded
+     */
+    public Throwable getFailure() {
+        return this.failure;
+    }
+
+    /**
+     * Returns the version of rules that performed the transformation,
+     *  see {@link RuleSet#getVersion()}.
+     * @return The version, or -1 if the transformation was not started
+     */
+    public long getRuleSetVersion() {
+        return this.version;
+    }
+
+    /**
+     * Checks whether the transformation succeeded.
+     * @return {@code true} if the transformed tree is available
+     */
+    public boolean isSuccessful() {
+        return this.failure == null;
+    }
+
+    @Override
+    public String toString() {
+        final String result;
+        if (this.failure == null) {
+            result = String.format("#%d: %s", this.index, this.output.getTypeName());
+        } else {
+            result = String.format("#%d: failed, %s", this.index, this.failure);
+        }
+        return result;
+    }
+}
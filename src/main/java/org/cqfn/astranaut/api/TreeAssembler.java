@@ -0,0 +1,49 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+/**
+ * Receiver of nodes read by a streaming reader. Nodes are passed in post-order,
+ * each node takes as its children the nodes that were passed before it
+ * and have not been taken yet.
+ * @param <T> Type of the result
+ *
+ * @since 0.2.22
+ */
+interface TreeAssembler<T> {
+    /**
+     * Adds a node.
+     * @param type The type name, or {@code null} if not specified
+     * @param data The data, or {@code null} if not specified
+     * @param count The number of children, they are the last {@code count} nodes
+     *  that were added and have not been taken yet
+     */
+    void node(String type, String data, int count);
+
+    /**
+     * Returns the result of assembling, that is, the root node.
+     * @return The result
+     */
+    T result();
+}
@@ -0,0 +1,556 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+import org.cqfn.astranaut.core.base.DefaultFactory;
+import org.cqfn.astranaut.core.base.Factory;
+import org.cqfn.astranaut.core.base.Node;
+
+/**
+ * In-memory cache of transformation results.
+ * An entry is found by a structural hash of the initial tree, the identity of the rules
+ * and the node factory used by the transformation, and then the initial tree is compared
+ * with the stored one node by node, so a hash collision never returns a wrong result.
+ * Factories are compared by reference, so results obtained with different factories
+ * are never mixed up. The total size of entries is limited by the estimated
+ * retained size of both trees; when the limit is exceeded, the least recently used entries
+ * are removed. Entries are distributed among independently locked segments, so threads
+ * rarely wait for each other.
+ * Resulting trees are shared by all callers that receive them, so they must not be modified.
+ *
+ * @since 0.2.22
+ */
+public final class TreeCache {
+    /**
+     * The number of segments, a power of two.
+     */
+    private static final int SEGMENTS = 16;
+
+    /**
+     * The estimated size of a node without data, in bytes.
+     */
+    private static final long NODE_SIZE = 48;
+
+    /**
+     * The estimated size of a string without characters, in bytes.
+     */
+    private static final long STRING_SIZE = 40;
+
+    /**
+     * The estimated size of an entry of the cache itself, in bytes.
+     */
+    private static final long ENTRY_SIZE = 96;
+
+    /**
+     * The multiplier used to mix hashes of nodes.
+     */
+    private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Segments.
+     */
+    private final Segment[] segments;
+
+    /**
+     * The number of found entries.
+     */
+    private final LongAdder hits;
+
+    /**
+     * The number of entries that were not found.
+     */
+    private final LongAdder misses;
+
+    /**
+     * Constructor.
+     * @param capacity The maximum estimated size of entries, in bytes
+     */
+    public TreeCache(final long capacity) {
+        this.segments = new Segment[TreeCache.SEGMENTS];
+        for (int index = 0; index < TreeCache.SEGMENTS; index = index + 1) {
+            this.segments[index] = new Segment(capacity / TreeCache.SEGMENTS);
+        }
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    /**
+     * Looks for the result of the transformation of the tree performed with
+     *  the default node factory.
+     * @param rules The identity of the transformation rules
+     * @param tree The initial tree
+     * @return The resulting tree, or {@code null} if the cache does not contain it
+     */
+    public Node get(final String rules, final Node tree) {
+        return this.get(rules, DefaultFactory.EMPTY, tree);
+    }
+
+    /**
+     * Looks for the result of the transformation of the tree.
+     * @param rules The identity of the transformation rules
+     * @param factory The node factory used by the transformation
+     * @param tree The initial tree
+     * @return The resulting tree, or {@code null} if the cache does not contain it
+     */
+    public Node get(final String rules, final Factory factory, final Node tree) {
+        final Key key = new Key(rules, factory, tree);
+        final Node result = this.getSegment(key).get(key);
+        if (result == null) {
+            this.misses.increment();
+        } else {
+            this.hits.increment();
+        }
+        return result;
+    }
+
+    /**
+     * Stores the result of the transformation of the tree performed with
+     *  the default node factory.
+     * @param rules The identity of the transformation rules
+     * @param tree The initial tree
+     * @param result The resulting tree
+     */
+    public void put(final String rules, final Node tree, final Node result) {
+        this.put(rules, DefaultFactory.EMPTY, tree, result);
+    }
+
+    /**
+     * Stores the result of the transformation of the tree.
+     * @param rules The identity of the transformation rules
+     * @param factory The node factory used by the transformation
+     * @param tree The initial tree
+     * @param result The resulting tree
+     */
+    public void put(final String rules, final Factory factory, final Node tree,
+        final Node result) {
+        final Key key = new Key(rules, factory, tree);
+        this.getSegment(key).put(
+            key,
+            result,
+            key.bytes + TreeCache.estimate(result).bytes + TreeCache.ENTRY_SIZE
+        );
+    }
+
+    /**
+     * Looks for the result of the transformation of the tree performed with
+     *  the default node factory, and if the cache does not contain it, performs
+     *  the transformation and stores the result.
+     * @param rules The identity of the transformation rules
+     * @param tree The initial tree
+     * @param transformation The transformation
+     * @return The resulting tree
+     */
+    public Node computeIfAbsent(final String rules, final Node tree,
+        final UnaryOperator<Node> transformation) {
+        return this.computeIfAbsent(rules, DefaultFactory.EMPTY, tree, transformation);
+    }
+
+    /**
+     * Looks for the result of the transformation of the tree, and if the cache does
+     *  not contain it, performs the transformation and stores the result.
+     * @param rules The identity of the transformation rules
+     * @param factory The node factory used by the transformation
+     * @param tree The initial tree
+     * @param transformation The transformation
+     * @return The resulting tree
+     */
+    public Node computeIfAbsent(final String rules, final Factory factory, final Node tree,
+        final UnaryOperator<Node> transformation) {
+        final Key key = new Key(rules, factory, tree);
+        final Segment segment = this.getSegment(key);
+        Node result = segment.get(key);
+        if (result == null) {
+            this.misses.increment();
+            result = transformation.apply(tree);
+            segment.put(
+                key,
+                result,
+                key.bytes + TreeCache.estimate(result).bytes + TreeCache.ENTRY_SIZE
+            );
+        } else {
+            this.hits.increment();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of found entries.
+     * @return The number of hits
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Returns the number of entries that were not found.
+     * @return The number of misses
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * Returns the number of entries removed to free space.
+     * @return The number of evictions
+     */
+    public long getEvictions() {
+        long result = 0;
+        for (final Segment segment : this.segments) {
+            result = result + segment.getEvictions();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of entries.
+     * @return The number of entries
+     */
+    public int getEntryCount() {
+        int result = 0;
+        for (final Segment segment : this.segments) {
+            result = result + segment.getEntryCount();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the estimated size of entries.
+     * @return The size, in bytes
+     */
+    public long getSize() {
+        long result = 0;
+        for (final Segment segment : this.segments) {
+            result = result + segment.getSize();
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            Locale.ROOT,
+            "Tree cache: %d hits, %d misses, %d evictions, %d entries, %d bytes",
+            this.getHits(),
+            this.getMisses(),
+            this.getEvictions(),
+            this.getEntryCount(),
+            this.getSize()
+        );
+    }
+
+    /**
+     * Selects the segment that contains the entry.
+     * @param key The key of the entry
+     * @return The segment
+     */
+    private Segment getSegment(final Key key) {
+        final int hash = (int) (key.hash ^ key.hash >>> 32);
+        return this.segments[(hash ^ hash >>> 16) & TreeCache.SEGMENTS - 1];
+    }
+
+    /**
+     * Computes the structural hash and the estimated size of a tree.
+     * The tree is traversed without recursion.
+     * @param root The root of the tree
+     * @return The hash and the size
+     */
+    private static Estimation estimate(final Node root) {
+        final Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        long hash = 0;
+        long bytes = 0;
+        while (!stack.isEmpty()) {
+            final Node node = stack.pop();
+            final String data = node.getData();
+            final int count = node.getChildCount();
+            int value = node.getTypeName().hashCode() * 31 + count;
+            bytes = bytes + TreeCache.NODE_SIZE;
+            if (data != null && !data.isEmpty()) {
+                value = value * 31 + data.hashCode();
+                bytes = bytes + TreeCache.STRING_SIZE + 2L * data.length();
+            }
+            hash = (hash + value) * TreeCache.MULTIPLIER;
+            for (int index = count - 1; index >= 0; index = index - 1) {
+                stack.push(node.getChild(index));
+            }
+        }
+        return new Estimation(hash, bytes);
+    }
+
+    /**
+     * Checks whether trees have the same structure, that is, nodes have the same types,
+     *  data and children. The trees are traversed without recursion, identical subtrees
+     *  are not traversed.
+     * @param first The root of the first tree
+     * @param second The root of the second tree
+     * @return Checking result
+     */
+    private static boolean compare(final Node first, final Node second) {
+        final Deque<Node> stack = new ArrayDeque<>();
+        stack.push(second);
+        stack.push(first);
+        boolean equal = true;
+        while (equal && !stack.isEmpty()) {
+            final Node left = stack.pop();
+            final Node right = stack.pop();
+            if (left != right) {
+                final int count = left.getChildCount();
+                equal = count == right.getChildCount()
+                    && left.getTypeName().equals(right.getTypeName())
+                    && left.getData().equals(right.getData());
+                for (int index = count - 1; equal && index >= 0; index = index - 1) {
+                    stack.push(right.getChild(index));
+                    stack.push(left.getChild(index));
+                }
+            }
+        }
+        return equal;
+    }
+
+    /**
+     * The structural hash and the estimated size of a tree.
+     *
+     * @since 0.2.22
+     */
+    private static final class Estimation {
+        /**
+         * The structural hash.
+         */
+        private final long hash;
+
+        /**
+         * The estimated size, in bytes.
+         */
+        private final long bytes;
+
+        /**
+         * Constructor.
+         * @param hash The structural hash
+         * @param bytes The estimated size, in bytes
+         */
+        Estimation(final long hash, final long bytes) {
+            this.hash = hash;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * The key of an entry.
+     *
+     * @since 0.2.22
+     */
+    private static final class Key {
+        /**
+         * The identity of the transformation rules.
+         */
+        private final String rules;
+
+        /**
+         * The node factory used by the transformation.
+         */
+        private final Factory factory;
+
+        /**
+         * The initial tree.
+         */
+        private final Node tree;
+
+        /**
+         * The structural hash of the initial tree.
+         */
+        private final long hash;
+
+        /**
+         * The estimated size of the initial tree, in bytes.
+         */
+        private final long bytes;
+
+        /**
+         * Constructor.
+         * @param rules The identity of the transformation rules
+         * @param factory The node factory used by the transformation
+         * @param tree The initial tree
+         */
+        Key(final String rules, final Factory factory, final Node tree) {
+            this.rules = rules;
+            this.factory = factory;
+            this.tree = tree;
+            final Estimation estimation = TreeCache.estimate(tree);
+            this.hash = (estimation.hash * 31 + rules.hashCode()) * 31
+                + System.identityHashCode(factory);
+            this.bytes = estimation.bytes;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            boolean equal = this == obj;
+            if (!equal && obj instanceof Key) {
+                final Key other = (Key) obj;
+                equal = this.hash == other.hash
+                    && this.rules.equals(other.rules)
+                    && this.factory == other.factory
+                    && TreeCache.compare(this.tree, other.tree);
+            }
+            return equal;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(this.hash);
+        }
+    }
+
+    /**
+     * A part of the cache with its own lock and its own share of the capacity.
+     *
+     * @since 0.2.22
+     */
+    private static final class Segment {
+        /**
+         * Entries in the order of access, the eldest one first.
+         */
+        private final Map<Key, Entry> entries;
+
+        /**
+         * The maximum estimated size of entries, in bytes.
+         */
+        private final long capacity;
+
+        /**
+         * The estimated size of entries, in bytes.
+         */
+        private long size;
+
+        /**
+         * The number of entries removed to free space.
+         */
+        private long evictions;
+
+        /**
+         * Constructor.
+         * @param capacity The maximum estimated size of entries, in bytes
+         */
+        Segment(final long capacity) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        /**
+         * Looks for the entry and marks it as recently used.
+         * @param key The key
+         * @return The resulting tree, or {@code null} if there is no such entry
+         */
+        synchronized Node get(final Key key) {
+            final Entry entry = this.entries.get(key);
+            Node result = null;
+            if (entry != null) {
+                result = entry.result;
+            }
+            return result;
+        }
+
+        /**
+         * Stores the entry and removes the least recently used entries if the segment
+         *  is full. An entry that is larger than the segment itself is not stored.
+         * @param key The key
+         * @param result The resulting tree
+         * @param bytes The estimated size of the entry, in bytes
+         */
+        synchronized void put(final Key key, final Node result, final long bytes) {
+            if (bytes <= this.capacity) {
+                final Entry previous = this.entries.put(key, new Entry(result, bytes));
+                this.size = this.size + bytes;
+                if (previous != null) {
+                    this.size = this.size - previous.bytes;
+                }
+                final Iterator<Entry> iterator = this.entries.values().iterator();
+                while (this.size > this.capacity) {
+                    final Entry eldest = iterator.next();
+                    iterator.remove();
+                    this.size = this.size - eldest.bytes;
+                    this.evictions = this.evictions + 1;
+                }
+            }
+        }
+
+        /**
+         * Returns the number of entries removed to free space.
+         * @return The number of evictions
+         */
+        synchronized long getEvictions() {
+            return this.evictions;
+        }
+
+        /**
+         * Returns the number of entries.
+         * @return The number of entries
+         */
+        synchronized int getEntryCount() {
+            return this.entries.size();
+        }
+
+        /**
+         * Returns the estimated size of entries.
+         * @return The size, in bytes
+         */
+        synchronized long getSize() {
+            return this.size;
+        }
+    }
+
+    /**
+     * An entry of the cache.
+     *
+     * @since 0.2.22
+     */
+    private static final class Entry {
+        /**
+         * The resulting tree.
+         */
+        private final Node result;
+
+        /**
+         * The estimated size of the entry, in bytes.
+         */
+        private final long bytes;
+
+        /**
+         * Constructor.
+         * @param result The resulting tree
+         * @param bytes The estimated size of the entry, in bytes
+         */
+        Entry(final Node result, final long bytes) {
+            this.result = result;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.cqfn.astranaut.core.base.Builder;
+import org.cqfn.astranaut.core.base.DraftNode;
+import org.cqfn.astranaut.core.base.Node;
+import org.cqfn.astranaut.core.base.Tree;
+
+/**
+ * Edit script between a source tree and a tree converted from it.
+ * The script is itself a tree, so it is written and read by any serializer
+ * and deserializer of trees: the root node has the {@code Delta} type,
+ * and each child is an {@code Edit} node whose data is the path to the replaced
+ * node of the source tree (indexes of children separated by slashes, the empty string
+ * for the root) and whose only child is the replacement subtree.
+ * Only subtrees that differ from the source are included, so the size of the script
+ * is proportional to the changes made by the rules.
+ *
+ * @since 0.2.22
+ */
+public final class TreeDelta {
+    /**
+     * The type of the root node of an edit script.
+     */
+    public static final String DELTA = "Delta";
+
+    /**
+     * The type of an edit.
+     */
+    public static final String EDIT = "Edit";
+
+    /**
+     * The separator of indexes in a path.
+     */
+    private static final char SEPARATOR = '/';
+
+    /**
+     * Private constructor.
+     */
+    private TreeDelta() {
+    }
+
+    /**
+     * Computes the edit script. Nodes that have the same type, data and number
+     *  of children are compared child by child, other nodes are replaced as a whole.
+     * @param source The root node of the source tree
+     * @param result The root node of the converted tree
+     * @return The edit script
+     */
+    public static Tree diff(final Node source, final Node result) {
+        final List<Node> edits = new ArrayList<>(16);
+        final Deque<Pair> stack = new ArrayDeque<>();
+        if (TreeDelta.isSameShell(source, result)) {
+            stack.push(new Pair(source, result));
+        } else {
+            edits.add(TreeDelta.createEdit("", result));
+        }
+        while (!stack.isEmpty()) {
+            final Pair top = stack.peek();
+            if (top.index == top.source.getChildCount()) {
+                stack.pop();
+            } else {
+                final Node first = top.source.getChild(top.index);
+                final Node second = top.result.getChild(top.index);
+                top.index = top.index + 1;
+                if (TreeDelta.isSameShell(first, second)) {
+                    stack.push(new Pair(first, second));
+                } else {
+                    edits.add(TreeDelta.createEdit(TreeDelta.getPath(stack), second));
+                }
+            }
+        }
+        final DraftNode.Constructor root = new DraftNode.Constructor();
+        root.setName(TreeDelta.DELTA);
+        root.setChildrenList(edits);
+        return new Tree(root.createNode());
+    }
+
+    /**
+     * Applies an edit script to the source tree. Subtrees that are not affected
+     *  by the script are reused as is.
+     * @param source The root node of the source tree
+     * @param delta The edit script
+     * @return The root node of the converted tree
+     * @throws IllegalArgumentException If the script is malformed or does not match
+     *  the source tree
+     */
+    public static Node apply(final Node source, final Tree delta) {
+        final Step root = TreeDelta.parse(delta.getRoot());
+        final Node result;
+        if (root.replacement == null) {
+            result = TreeDelta.rebuild(source, root);
+        } else {
+            result = root.replacement;
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether nodes have the same type, data and number of children.
+     * @param first The first node
+     * @param second The second node
+     * @return Checking result
+     */
+    private static boolean isSameShell(final Node first, final Node second) {
+        return first.getChildCount() == second.getChildCount()
+            && first.getTypeName().equals(second.getTypeName())
+            && first.getData().equals(second.getData());
+    }
+
+    /**
+     * Builds the path to the child that was taken last from the top of the stack.
+     * @param stack The stack of compared pairs
+     * @return The path
+     */
+    private static String getPath(final Deque<Pair> stack) {
+        final StringBuilder builder = new StringBuilder();
+        final Iterator<Pair> iterator = stack.descendingIterator();
+        while (iterator.hasNext()) {
+            if (builder.length() > 0) {
+                builder.append(TreeDelta.SEPARATOR);
+            }
+            builder.append(iterator.next().index - 1);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Creates an edit.
+     * @param path The path to the replaced node
+     * @param replacement The replacement
+     * @return The edit node
+     */
+    private static Node createEdit(final String path, final Node replacement) {
+        final DraftNode.Constructor ctor = new DraftNode.Constructor();
+        ctor.setName(TreeDelta.EDIT);
+        ctor.setData(path);
+        ctor.addChild(replacement);
+        return ctor.createNode();
+    }
+
+    /**
+     * Parses an edit script into a trie of paths.
+     * @param delta The root node of the script
+     * @return The root of the trie
+     */
+    private static Step parse(final Node delta) {
+        if (!TreeDelta.DELTA.equals(delta.getTypeName())) {
+            throw new IllegalArgumentException("The tree is not an edit script");
+        }
+        final Step root = new Step();
+        final int count = delta.getChildCount();
+        for (int index = 0; index < count; index = index + 1) {
+            final Node edit = delta.getChild(index);
+            if (!TreeDelta.EDIT.equals(edit.getTypeName()) || edit.getChildCount() != 1) {
+                throw new IllegalArgumentException("Malformed edit: ".concat(edit.toString()));
+            }
+            Step step = root;
+            final String path = edit.getData();
+            if (!path.isEmpty()) {
+                for (final String part : path.split(String.valueOf(TreeDelta.SEPARATOR))) {
+                    step = step.children.computeIfAbsent(Integer.valueOf(part), key -> new Step());
+                }
+            }
+            step.replacement = edit.getChild(0);
+        }
+        return root;
+    }
+
+    /**
+     * Rebuilds the nodes of the source tree that are on paths of edits.
+     * @param source The root node of the source tree
+     * @param trie The root of the trie of paths
+     * @return The root node of the converted tree
+     */
+    private static Node rebuild(final Node source, final Step trie) {
+        final Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(source, trie));
+        Node result = null;
+        while (result == null) {
+            final Frame top = stack.peek();
+            final Map.Entry<Integer, Step> next = top.step.children.ceilingEntry(top.index);
+            if (next == null) {
+                stack.pop();
+                final Node node = TreeDelta.create(top.node, top.children);
+                if (stack.isEmpty()) {
+                    result = node;
+                } else {
+                    stack.peek().children.add(node);
+                }
+            } else {
+                final int position = next.getKey();
+                if (position >= top.node.getChildCount()) {
+                    throw new IllegalArgumentException(
+                        String.format("No child #%d in %s", position, top.node.getTypeName())
+                    );
+                }
+                for (int index = top.index; index < position; index = index + 1) {
+                    top.children.add(top.node.getChild(index));
+                }
+                top.index = position + 1;
+                final Step step = next.getValue();
+                if (step.replacement == null) {
+                    stack.push(new Frame(top.node.getChild(position), step));
+                } else {
+                    top.children.add(step.replacement);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates a copy of a node with new children.
+     * @param prototype The node
+     * @param head The new children, the rest of children is taken from the node
+     * @return The new node
+     */
+    private static Node create(final Node prototype, final List<Node> head) {
+        final List<Node> children = new ArrayList<>(head);
+        final int count = prototype.getChildCount();
+        for (int index = children.size(); index < count; index = index + 1) {
+            children.add(prototype.getChild(index));
+        }
+        final Builder builder = prototype.getType().createBuilder();
+        builder.setFragment(prototype.getFragment());
+        builder.setData(prototype.getData());
+        builder.setChildrenList(children);
+        final Node node;
+        if (builder.isValid()) {
+            node = builder.createNode();
+        } else {
+            final DraftNode.Constructor ctor = new DraftNode.Constructor();
+            ctor.setName(prototype.getTypeName());
+            ctor.setFragment(prototype.getFragment());
+            ctor.setData(prototype.getData());
+            ctor.setChildrenList(children);
+            node = ctor.createNode();
+        }
+        return node;
+    }
+
+    /**
+     * A pair of compared nodes.
+     *
+     * @since 0.2.22
+     */
+    private static final class Pair {
+        /**
+         * The node of the source tree.
+         */
+        private final Node source;
+
+        /**
+         * The node of the converted tree.
+         */
+        private final Node result;
+
+        /**
+         * The index of the next pair of children to be compared.
+         */
+        private int index;
+
+        /**
+         * Constructor.
+         * @param source The node of the source tree
+         * @param result The node of the converted tree
+         */
+        Pair(final Node source, final Node result) {
+            this.source = source;
+            this.result = result;
+        }
+    }
+
+    /**
+     * A node of the trie of paths.
+     *
+     * @since 0.2.22
+     */
+    private static final class Step {
+        /**
+         * Steps by child indexes.
+         */
+        private final TreeMap<Integer, Step> children;
+
+        /**
+         * The replacement, or {@code null} if the node is not replaced.
+         */
+        private Node replacement;
+
+        /**
+         * Constructor.
+         */
+        Step() {
+            this.children = new TreeMap<>();
+        }
+    }
+
+    /**
+     * A node of the source tree being rebuilt.
+     *
+     * @since 0.2.22
+     */
+    private static final class Frame {
+        /**
+         * The node.
+         */
+        private final Node node;
+
+        /**
+         * The step of the trie that corresponds to the node.
+         */
+        private final Step step;
+
+        /**
+         * The new children collected so far.
+         */
+        private final List<Node> children;
+
+        /**
+         * The index of the next child to be processed.
+         */
+        private int index;
+
+        /**
+         * Constructor.
+         * @param node The node
+         * @param step The step of the trie
+         */
+        Frame(final Node node, final Step step) {
+            this.node = node;
+            this.step = step;
+            this.children = new ArrayList<>(node.getChildCount());
+        }
+    }
+}
@@ -23,21 +23,47 @@
  */
 package org.cqfn.astranaut.api;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.cqfn.astranaut.core.base.CoreException;
 import org.cqfn.astranaut.core.base.DefaultFactory;
 import org.cqfn.astranaut.core.base.DummyNode;
 import org.cqfn.astranaut.core.base.Factory;
 import org.cqfn.astranaut.core.base.Node;
+import org.cqfn.astranaut.core.base.Tree;
 import org.cqfn.astranaut.core.utils.FilesReader;
 import org.cqfn.astranaut.exceptions.ProcessorException;
+import org.cqfn.astranaut.exceptions.TransformationInterrupted;
 import org.cqfn.astranaut.interpreter.Adapter;
-import org.cqfn.astranaut.parser.ProgramParser;
+import org.cqfn.astranaut.parser.LazyProgram;
+import org.cqfn.astranaut.parser.SnapshotParser;
 import org.cqfn.astranaut.rules.Instruction;
-import org.cqfn.astranaut.rules.Program;
 import org.cqfn.astranaut.rules.Transformation;
+import org.cqfn.astranaut.utils.ContentHash;
+import org.cqfn.astranaut.utils.VirtualThreads;
 
 /**
  * API for a tree processing.
@@ -46,23 +72,55 @@ import org.cqfn.astranaut.rules.Transformation;
  */
 public class TreeProcessor {
     /**
-     * Rules of a tree transformation.
+     * The current version of rules of a tree transformation.
      */
-    private final List<Instruction<Transformation>> rules;
+    private final AtomicReference<RuleSet> rules;
 
     /**
      * The node factory.
      */
     private Factory factory;
 
+    /**
+     * The cache of results, or {@code null} if results are not cached.
+     */
+    private ResultCache cache;
+
+    /**
+     * The in-memory cache of results, or {@code null} if results are not cached.
+     */
+    private TreeCache memory;
+
+    /**
+     * The executor that transforms collections of trees, or {@code null} if a pool
+     *  of threads is created for each collection.
+     */
+    private Executor executor;
+
+    /**
+     * The directory of snapshots of parsed DSL programs, or {@code null} if snapshots
+     *  are not used.
+     */
+    private Path snapshots;
+
     /**
      * Constructor.
      */
     public TreeProcessor() {
-        this.rules = new LinkedList<>();
+        this.rules = new AtomicReference<>(RuleSet.EMPTY);
         this.factory = DefaultFactory.EMPTY;
     }
 
+    /**
+     * Sets the directory of snapshots of parsed DSL programs. Rules loaded after that
+     *  are taken from snapshots if the same DSL code was already parsed (by this or
+     *  another process), and the snapshots are written otherwise.
+     * @param directory The directory, or {@code null} if snapshots are not used
+     */
+    public void setSnapshotDirectory(final Path directory) {
+        this.snapshots = directory;
+    }
+
     /**
      * Loads rules of a tree transformation from a DSL file.
      * @param filename The name of a file that contains DSL rules
@@ -70,7 +128,67 @@ public class TreeProcessor {
      * @throws ProcessorException If a file processing fails
      */
     public boolean loadRules(final String filename) throws ProcessorException {
-        final String code = new FilesReader(filename).readAsString(
+        return this.loadRulesFromString(TreeProcessor.read(filename));
+    }
+
+    /**
+     * Loads rules of a tree transformation from the given string. The rules are added
+     *  to the loaded ones, and the new version of rules is published atomically.
+     * @param code DSL rules of a transformation
+     * @return The result, {@code true} if rules were successfully loaded
+     */
+    public boolean loadRulesFromString(final String code) {
+        final List<Instruction<Transformation>> parsed = this.parse(code);
+        if (parsed != null) {
+            this.rules.updateAndGet(current -> current.append(parsed));
+        }
+        return parsed != null;
+    }
+
+    /**
+     * Replaces rules of a tree transformation by rules from a DSL file,
+     *  see {@link TreeProcessor#reloadRulesFromString(String)}.
+     * @param filename The name of a file that contains DSL rules
+     * @return The result, {@code true} if rules were successfully replaced
+     * @throws ProcessorException If a file processing fails
+     */
+    public boolean reloadRules(final String filename) throws ProcessorException {
+        return this.reloadRulesFromString(TreeProcessor.read(filename));
+    }
+
+    /**
+     * Replaces rules of a tree transformation by rules from the given string.
+     * The code is parsed while the current rules are still in use, then the new version
+     *  is published atomically: transformations that have already started finish with
+     *  the previous version, and the following ones use the new version. If the code
+     *  can not be parsed, the current rules are kept.
+     * @param code DSL rules of a transformation
+     * @return The result, {@code true} if rules were successfully replaced
+     */
+    public boolean reloadRulesFromString(final String code) {
+        final List<Instruction<Transformation>> parsed = this.parse(code);
+        if (parsed != null) {
+            this.rules.updateAndGet(current -> current.replace(parsed));
+        }
+        return parsed != null;
+    }
+
+    /**
+     * Returns the current version of rules.
+     * @return The rule set
+     */
+    public RuleSet getRuleSet() {
+        return this.rules.get();
+    }
+
+    /**
+     * Reads DSL code from a file.
+     * @param filename The name of a file that contains DSL rules
+     * @return The code
+     * @throws ProcessorException If the file can not be read
+     */
+    private static String read(final String filename) throws ProcessorException {
+        return new FilesReader(filename).readAsString(
             (FilesReader.CustomExceptionCreator<ProcessorException>)
                 () -> new ProcessorException() {
                     private static final long serialVersionUID = 6082572706459180749L;
@@ -80,42 +198,212 @@ public class TreeProcessor {
                     }
                 }
         );
-        return this.loadRulesFromString(code);
     }
 
     /**
-     * Loads rules of a tree transformation from the given string.
+     * Parses transformation rules of DSL code, other rules are not parsed.
      * @param code DSL rules of a transformation
-     * @return The result, {@code true} if rules were successfully loaded
+     * @return Transformation rules, or {@code null} if the code can not be parsed
      */
-    public boolean loadRulesFromString(final String code) {
-        final ProgramParser parser = new ProgramParser(code);
-        boolean success = true;
+    private List<Instruction<Transformation>> parse(final String code) {
+        List<Instruction<Transformation>> result;
         try {
-            final Program program = parser.parse();
-            this.rules.addAll(program.getTransformations());
+            if (this.snapshots == null) {
+                result = new LazyProgram(code).parseTransformations();
+            } else {
+                result = new SnapshotParser(code, this.snapshots).parse().getTransformations();
+            }
         } catch (final CoreException ignored) {
-            success = false;
+            result = null;
         }
-        return success;
+        return result;
     }
 
     /**
-     * Replaces default node the node factory.
+     * Replaces the default node factory.
      * @param obj The factory
      */
     public void setFactory(final Factory obj) {
         this.factory = obj;
     }
 
+    /**
+     * Sets the cache of results. The key of a result is the digest of the initial tree
+     *  in the binary format and the digest of the rules, so trees that were already
+     *  transformed by the same rules are read from the cache instead.
+     * @param obj The cache, or {@code null} if results are not cached
+     */
+    public void setResultCache(final ResultCache obj) {
+        this.cache = obj;
+    }
+
+    /**
+     * Sets the in-memory cache of results. The key of a result is the structure of
+     *  the initial tree, the rules and the node factory, so a tree equal to one that was
+     *  already transformed gets the same result without transformation. The cache can be
+     *  shared by several processors. Resulting trees taken from the cache are shared
+     *  as well, so they must not be modified.
+     * @param obj The cache, or {@code null} if results are not cached in memory
+     */
+    public void setTreeCache(final TreeCache obj) {
+        this.memory = obj;
+    }
+
     /**
      * Transforms an initial tree with the given rules.
      * @param tree The initial tree to be modified
      * @return Transformed tree
      */
     public Node transform(final Node tree) {
-        final Adapter adapter = new Adapter(this.rules, this.factory);
-        return adapter.convert(tree);
+        return this.transform(this.rules.get(), tree);
+    }
+
+    /**
+     * Transforms an initial tree with the given rules and reports the version of rules
+     *  that produced the result. A failure of the transformation is stored in the result.
+     * @param tree The initial tree to be modified
+     * @return The result
+     */
+    public TransformResult transformVersioned(final Node tree) {
+        return this.transform(0, tree);
+    }
+
+    /**
+     * Transforms an initial tree with the given rules, the transformation
+     * is stopped if it takes longer than the specified timeout.
+     * @param tree The initial tree to be modified
+     * @param timeout The timeout
+     * @return Transformed tree
+     * @throws TransformationInterrupted If the deadline has expired
+     */
+    public Node transform(final Node tree, final Duration timeout)
+        throws TransformationInterrupted {
+        return this.transform(tree, new Watchdog(timeout, new CancellationToken()));
+    }
+
+    /**
+     * Transforms an initial tree with the given rules, the transformation
+     * can be cancelled from another thread.
+     * @param tree The initial tree to be modified
+     * @param token The cancellation token
+     * @return Transformed tree
+     * @throws TransformationInterrupted If the transformation was cancelled
+     */
+    public Node transform(final Node tree, final CancellationToken token)
+        throws TransformationInterrupted {
+        return this.transform(tree, new Watchdog(null, token));
+    }
+
+    /**
+     * Transforms an initial tree with the given rules, the transformation
+     * is stopped if it takes longer than the specified timeout
+     * or if it is cancelled from another thread.
+     * @param tree The initial tree to be modified
+     * @param timeout The timeout
+     * @param token The cancellation token
+     * @return Transformed tree
+     * @throws TransformationInterrupted If the deadline has expired
+     *  or the transformation was cancelled
+     */
+    public Node transform(final Node tree, final Duration timeout,
+        final CancellationToken token) throws TransformationInterrupted {
+        return this.transform(tree, new Watchdog(timeout, token));
+    }
+
+    /**
+     * Sets the executor that performs asynchronous transformations and transformations
+     *  of collections of trees, see {@link TreeProcessor#transformAsync(Node)} and
+     *  {@link TreeProcessor#transformAll(Collection)}. To run transformations on virtual
+     *  threads (Java 21 and later), pass {@link VirtualThreads#newExecutor()}.
+     * @param obj The executor, or {@code null} to use the common pool for asynchronous
+     *  transformations and to create a pool of threads (one per available processor)
+     *  for each collection
+     */
+    public void setExecutor(final Executor obj) {
+        this.executor = obj;
+    }
+
+    /**
+     * Transforms an initial tree with the given rules without blocking the calling thread.
+     * @param tree The initial tree to be modified
+     * @return The future that is completed by the transformed tree, or exceptionally
+     *  if the transformation fails
+     */
+    public CompletableFuture<Node> transformAsync(final Node tree) {
+        final CompletableFuture<Node> future;
+        if (this.executor == null) {
+            future = CompletableFuture.supplyAsync(() -> this.transform(tree));
+        } else {
+            future = CompletableFuture.supplyAsync(() -> this.transform(tree), this.executor);
+        }
+        return future;
+    }
+
+    /**
+     * Transforms a collection of initial trees in parallel. All trees share the rules
+     *  parsed once, and a failure of one transformation does not affect others.
+     * @param trees The initial trees
+     * @return Results in the order of the initial trees
+     */
+    public List<TransformResult> transformAll(final Collection<Node> trees) {
+        final List<CompletableFuture<TransformResult>> futures = this.submit(trees, null);
+        final List<TransformResult> results = new ArrayList<>(futures.size());
+        for (final CompletableFuture<TransformResult> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    /**
+     * Transforms a stream of initial trees in parallel, see
+     *  {@link TreeProcessor#transformAll(Collection)}. The initial stream is read lazily:
+     *  at most two trees per available processor are transformed or wait for their
+     *  results to be taken at any moment, so a long stream is never held in memory.
+     *  If no executor is set, the stream creates its own pool of threads, which is shut
+     *  down when the stream ends or is closed.
+     * @param trees The initial trees
+     * @return The stream of results in the order of the initial trees
+     */
+    public Stream<TransformResult> transformAll(final Stream<Node> trees) {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = null;
+        Executor target = this.executor;
+        if (target == null) {
+            pool = Executors.newFixedThreadPool(
+                processors,
+                runnable -> {
+                    final Thread thread = new Thread(runnable, "tree-processor");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            );
+            target = pool;
+        }
+        final Runnable finish;
+        if (pool == null) {
+            finish = () -> { };
+        } else {
+            finish = pool::shutdown;
+        }
+        return StreamSupport.stream(
+            new WindowSpliterator(this, trees.iterator(), target, 2 * processors, finish),
+            false
+        ).onClose(trees::close).onClose(finish);
+    }
+
+    /**
+     * Transforms a collection of initial trees in parallel and returns results as soon
+     *  as the transformations complete, so a slow tree does not delay the processing
+     *  of others. The original position of a tree is available as
+     *  {@link TransformResult#getIndex()}. If the thread reading the stream is interrupted,
+     *  the stream ends early.
+     * @param trees The initial trees
+     * @return The stream of results in the order of completion
+     */
+    public Stream<TransformResult> transformAsCompleted(final Collection<Node> trees) {
+        final BlockingQueue<TransformResult> queue = new LinkedBlockingQueue<>();
+        final int count = this.submit(trees, queue).size();
+        return StreamSupport.stream(new CompletionSpliterator(queue, count), false);
     }
 
     /**
@@ -123,7 +411,7 @@ public class TreeProcessor {
      * @return Rules amount
      */
     public int countRules() {
-        return this.rules.size();
+        return this.rules.get().getRules().size();
     }
 
     /**
@@ -136,7 +424,7 @@ public class TreeProcessor {
     public int calculateVariants(final int index, final Node tree) {
         int result;
         try {
-            final Instruction<Transformation> rule = this.rules.get(index);
+            final Instruction<Transformation> rule = this.rules.get().getRules().get(index);
             final Adapter adapter = new Adapter(Collections.singletonList(rule), this.factory);
             result =  adapter.calculateConversions(tree);
         } catch (final IndexOutOfBoundsException exception) {
@@ -155,7 +443,7 @@ public class TreeProcessor {
     public Node partialTransform(final int index, final int variant, final Node tree) {
         Node result;
         try {
-            final Instruction<Transformation> rule = this.rules.get(index);
+            final Instruction<Transformation> rule = this.rules.get().getRules().get(index);
             final Adapter adapter = new Adapter(Collections.singletonList(rule), this.factory);
             result =  adapter.partialConvert(variant, tree);
         } catch (final IndexOutOfBoundsException exception) {
@@ -163,4 +451,330 @@ public class TreeProcessor {
         }
         return result;
     }
+
+    /**
+     * Transforms an initial tree with the given rules under the control of a watchdog.
+     * @param tree The initial tree to be modified
+     * @param watchdog The watchdog
+     * @return Transformed tree
+     * @throws TransformationInterrupted If the watchdog has stopped the transformation
+     */
+    private Node transform(final Node tree, final Watchdog watchdog)
+        throws TransformationInterrupted {
+        final Adapter adapter =
+            new Adapter(this.rules.get().getRules(), this.factory, watchdog);
+        return watchdog.watch(adapter, tree);
+    }
+
+    /**
+     * Starts transformations of a collection of trees.
+     * @param trees The initial trees
+     * @param queue The queue that receives results as they complete, or {@code null}
+     * @return Futures of results in the order of the initial trees
+     */
+    private List<CompletableFuture<TransformResult>> submit(final Collection<Node> trees,
+        final BlockingQueue<TransformResult> queue) {
+        ExecutorService pool = null;
+        Executor target = this.executor;
+        if (target == null) {
+            pool = Executors.newFixedThreadPool(
+                Math.min(Math.max(1, trees.size()), Runtime.getRuntime().availableProcessors())
+            );
+            target = pool;
+        }
+        final List<CompletableFuture<TransformResult>> futures = new ArrayList<>(trees.size());
+        int index = 0;
+        for (final Node tree : trees) {
+            CompletableFuture<TransformResult> future = this.start(index, tree, target);
+            if (queue != null) {
+                future = future.thenApply(
+                    result -> {
+                        queue.add(result);
+                        return result;
+                    }
+                );
+            }
+            futures.add(future);
+            index = index + 1;
+        }
+        if (pool != null) {
+            pool.shutdown();
+        }
+        return futures;
+    }
+
+    /**
+     * Starts the transformation of one tree of a collection.
+     * @param index The index of the tree in the collection
+     * @param tree The initial tree
+     * @param target The executor
+     * @return The future result, it is never completed exceptionally
+     */
+    private CompletableFuture<TransformResult> start(final int index, final Node tree,
+        final Executor target) {
+        return CompletableFuture
+            .supplyAsync(() -> this.transform(index, tree), target)
+            .handle((result, error) -> TreeProcessor.wrap(index, tree, result, error));
+    }
+
+    /**
+     * Transforms one tree of a collection with the current version of rules,
+     *  a failure is stored in the result.
+     * @param index The index of the tree in the collection
+     * @param tree The initial tree
+     * @return The result
+     */
+    TransformResult transform(final int index, final Node tree) {
+        final RuleSet snapshot = this.rules.get();
+        TransformResult result;
+        try {
+            result = new TransformResult(
+                index, tree, this.transform(snapshot, tree), null, snapshot.getVersion()
+            );
+        } catch (final RuntimeException | StackOverflowError exception) {
+            result = new TransformResult(index, tree, null, exception, snapshot.getVersion());
+        }
+        return result;
+    }
+
+    /**
+     * Keeps the result of the transformation of one tree of a collection, or creates
+     *  the result if the task has failed before the transformation.
+     * @param index The index of the tree in the collection
+     * @param tree The initial tree
+     * @param result The result, or {@code null} if the task failed
+     * @param error The exception thrown by the task, or {@code null}
+     * @return The result
+     */
+    private static TransformResult wrap(final int index, final Node tree,
+        final TransformResult result, final Throwable error) {
+        final TransformResult wrapped;
+        if (error == null) {
+            wrapped = result;
+        } else {
+            Throwable failure = error;
+            if (failure instanceof CompletionException && failure.getCause() != null) {
+                failure = failure.getCause();
+            }
+            wrapped = new TransformResult(index, tree, null, failure, -1);
+        }
+        return wrapped;
+    }
+
+    /**
+     * Transforms an initial tree with the given version of rules, using caches
+     *  of results if they are set.
+     * @param snapshot The version of rules
+     * @param tree The initial tree to be modified
+     * @return Transformed tree
+     */
+    private Node transform(final RuleSet snapshot, final Node tree) {
+        final Node result;
+        if (this.memory == null) {
+            result = this.convert(snapshot, tree);
+        } else {
+            result = this.memory.computeIfAbsent(
+                snapshot.getDigest(),
+                this.factory,
+                tree,
+                node -> this.convert(snapshot, node)
+            );
+        }
+        return result;
+    }
+
+    /**
+     * Transforms an initial tree with the given version of rules, using the persistent
+     *  cache of results if it is set.
+     * @param snapshot The version of rules
+     * @param tree The initial tree to be modified
+     * @return Transformed tree
+     */
+    private Node convert(final RuleSet snapshot, final Node tree) {
+        Node result = null;
+        if (this.cache != null) {
+            try {
+                result = this.transformCached(snapshot, tree);
+            } catch (final IOException ignored) {
+                result = null;
+            }
+        }
+        if (result == null) {
+            result = new Adapter(snapshot.getRules(), this.factory).convert(tree);
+        }
+        return result;
+    }
+
+    /**
+     * Transforms an initial tree using the persistent cache of results.
+     * @param snapshot The version of rules
+     * @param tree The initial tree to be modified
+     * @return Transformed tree
+     * @throws IOException If the tree can not be encoded
+     */
+    private Node transformCached(final RuleSet snapshot, final Node tree) throws IOException {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        new BinaryTreeWriter(new Tree(tree)).write(stream);
+        final String key = ResultCache.key(
+            ContentHash.sha256(stream.toByteArray()), snapshot.getDigest(), "binary"
+        );
+        final byte[] cached = this.cache.load(key);
+        Node result = DummyNode.INSTANCE;
+        if (cached != null) {
+            final BinaryTreeReader reader =
+                new BinaryTreeReader(new ByteArrayInputStream(cached));
+            reader.setFactory(this.factory);
+            result = reader.read().getRoot();
+        }
+        if (result == DummyNode.INSTANCE) {
+            result = new Adapter(snapshot.getRules(), this.factory).convert(tree);
+            stream.reset();
+            new BinaryTreeWriter(new Tree(result)).write(stream);
+            this.remember(key, stream.toByteArray());
+        }
+        return result;
+    }
+
+    /**
+     * Stores the result in the cache. The result is already obtained, so a failure
+     *  only means that the next transformation of the same tree will not be faster.
+     * @param key The key
+     * @param content The result in the binary format
+     * @return {@code true} if the result was stored
+     */
+    private boolean remember(final String key, final byte[] content) {
+        boolean stored = true;
+        try {
+            this.cache.store(key, content);
+        } catch (final IOException ignored) {
+            stored = false;
+        }
+        return stored;
+    }
+
+    /**
+     * Spliterator that takes results from the queue as they complete.
+     *
+     * @since 0.2.22
+     */
+    private static final class CompletionSpliterator
+        extends Spliterators.AbstractSpliterator<TransformResult> {
+        /**
+         * The queue of results.
+         */
+        private final BlockingQueue<TransformResult> queue;
+
+        /**
+         * The number of results not taken yet.
+         */
+        private int remaining;
+
+        /**
+         * Constructor.
+         * @param queue The queue of results
+         * @param count The number of results
+         */
+        CompletionSpliterator(final BlockingQueue<TransformResult> queue, final int count) {
+            super(count, Spliterator.SIZED | Spliterator.NONNULL);
+            this.queue = queue;
+            this.remaining = count;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super TransformResult> action) {
+            boolean advanced = false;
+            if (this.remaining > 0) {
+                try {
+                    action.accept(this.queue.take());
+                    this.remaining = this.remaining - 1;
+                    advanced = true;
+                } catch (final InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    this.remaining = 0;
+                }
+            }
+            return advanced;
+        }
+    }
+
+    /**
+     * Spliterator that transforms trees taken from an iterator, keeping a limited number
+     *  of transformations in progress, and returns results in the order of the trees.
+     *
+     * @since 0.2.22
+     */
+    private static final class WindowSpliterator
+        extends Spliterators.AbstractSpliterator<TransformResult> {
+        /**
+         * The processor that transforms trees.
+         */
+        private final TreeProcessor processor;
+
+        /**
+         * The initial trees.
+         */
+        private final Iterator<Node> source;
+
+        /**
+         * The executor.
+         */
+        private final Executor target;
+
+        /**
+         * The maximum number of started transformations whose results are not taken yet.
+         */
+        private final int window;
+
+        /**
+         * The action performed when all results are taken.
+         */
+        private final Runnable finish;
+
+        /**
+         * Started transformations in the order of the trees.
+         */
+        private final Deque<CompletableFuture<TransformResult>> pending;
+
+        /**
+         * The index of the next tree.
+         */
+        private int index;
+
+        /**
+         * Constructor.
+         * @param processor The processor that transforms trees
+         * @param source The initial trees
+         * @param target The executor
+         * @param window The maximum number of started transformations whose results
+         *  are not taken yet
+         * @param finish The action performed when all results are taken
+         */
+        WindowSpliterator(final TreeProcessor processor, final Iterator<Node> source,
+            final Executor target, final int window, final Runnable finish) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.processor = processor;
+            this.source = source;
+            this.target = target;
+            this.window = window;
+            this.finish = finish;
+            this.pending = new ArrayDeque<>(window);
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super TransformResult> action) {
+            while (this.pending.size() < this.window && this.source.hasNext()) {
+                this.pending.add(
+                    this.processor.start(this.index, this.source.next(), this.target)
+                );
+                this.index = this.index + 1;
+            }
+            final boolean advanced = !this.pending.isEmpty();
+            if (advanced) {
+                action.accept(this.pending.poll().join());
+            } else {
+                this.finish.run();
+            }
+            return advanced;
+        }
+    }
 }
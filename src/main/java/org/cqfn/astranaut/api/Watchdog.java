@@ -0,0 +1,135 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.time.Duration;
+import org.cqfn.astranaut.core.algorithms.conversion.Converter;
+import org.cqfn.astranaut.core.base.DummyNode;
+import org.cqfn.astranaut.core.base.Factory;
+import org.cqfn.astranaut.core.base.Node;
+import org.cqfn.astranaut.exceptions.TransformationInterrupted;
+import org.cqfn.astranaut.interpreter.Adapter;
+
+/**
+ * Converter that never converts anything, but is placed before all the rules
+ * and therefore is called once for each node of the tree being transformed.
+ * It counts the nodes and stops the transformation when the deadline expires
+ * or the cancellation is requested.
+ *
+ * @since 0.2.22
+ */
+public final class Watchdog implements Converter {
+    /**
+     * Reading the clock is much more expensive than reading a flag,
+     * so the deadline is checked once per this number of nodes.
+     */
+    private static final int PERIOD = 64;
+
+    /**
+     * The deadline, in terms of {@link System#nanoTime()}.
+     */
+    private final long deadline;
+
+    /**
+     * Flag indicating that the deadline is set.
+     */
+    private final boolean timed;
+
+    /**
+     * The cancellation token.
+     */
+    private final CancellationToken token;
+
+    /**
+     * The number of nodes visited.
+     */
+    private int visited;
+
+    /**
+     * Constructor.
+     * @param timeout The timeout, or {@code null} if the transformation has no deadline
+     * @param token The cancellation token
+     */
+    public Watchdog(final Duration timeout, final CancellationToken token) {
+        this.timed = timeout != null;
+        if (this.timed) {
+            this.deadline = System.nanoTime() + timeout.toNanos();
+        } else {
+            this.deadline = 0L;
+        }
+        this.token = token;
+    }
+
+    @Override
+    public Node convert(final Node node, final Factory factory) {
+        this.visited = this.visited + 1;
+        if (this.token.isCancelled()) {
+            throw new Alarm(true);
+        }
+        if (this.timed && this.visited % Watchdog.PERIOD == 1
+            && System.nanoTime() - this.deadline >= 0) {
+            throw new Alarm(false);
+        }
+        return DummyNode.INSTANCE;
+    }
+
+    /**
+     * Runs the adapter, which must be created with this watchdog as a guard.
+     * @param adapter The adapter
+     * @param tree The tree to be transformed
+     * @return Transformed tree
+     * @throws TransformationInterrupted If the deadline has expired
+     *  or the transformation was cancelled
+     */
+    public Node watch(final Adapter adapter, final Node tree) throws TransformationInterrupted {
+        try {
+            return adapter.convert(tree);
+        } catch (final Alarm alarm) {
+            throw new TransformationInterrupted(alarm.cancelled, this.visited - 1);
+        }
+    }
+
+    /**
+     * Unchecked signal that breaks the traversal loop of the adapter.
+     *
+     * @since 0.2.22
+     */
+    private static final class Alarm extends RuntimeException {
+        private static final long serialVersionUID = -2837519380374656823L;
+
+        /**
+         * Flag indicating that the transformation was cancelled.
+         */
+        private final boolean cancelled;
+
+        /**
+         * Constructor.
+         * @param cancelled Flag indicating that the transformation was cancelled
+         */
+        Alarm(final boolean cancelled) {
+            super(null, null, false, false);
+            this.cancelled = cancelled;
+        }
+    }
+}
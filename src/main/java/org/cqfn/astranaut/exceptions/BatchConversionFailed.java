@@ -0,0 +1,58 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.exceptions;
+
+/**
+ * Exception "Some files were not converted" produced by the batch converter.
+ *
+ * @since 0.2.22
+ */
+public final class BatchConversionFailed extends InterpreterException {
+    private static final long serialVersionUID = -5580217746325520893L;
+
+    /**
+     * The number of files that were not converted.
+     */
+    private final int failed;
+
+    /**
+     * The total number of files.
+     */
+    private final int total;
+
+    /**
+     * Constructor.
+     * @param failed The number of files that were not converted
+     * @param total The total number of files
+     */
+    public BatchConversionFailed(final int failed, final int total) {
+        this.failed = failed;
+        this.total = total;
+    }
+
+    @Override
+    public String getErrorMessage() {
+        return String.format("%d of %d files were not converted", this.failed, this.total);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.exceptions;
+
+/**
+ * Exception "Transformation interrupted" produced by the processor when
+ * the deadline has expired or the transformation was cancelled.
+ *
+ * @since 0.2.22
+ */
+public final class TransformationInterrupted extends ProcessorException {
+    private static final long serialVersionUID = 4418053298147720551L;
+
+    /**
+     * Flag indicating that the transformation was cancelled
+     * (and not stopped by the deadline).
+     */
+    private final boolean cancelled;
+
+    /**
+     * The number of nodes processed before the interruption.
+     */
+    private final int processed;
+
+    /**
+     * Constructor.
+     * @param cancelled Flag indicating that the transformation was cancelled
+     * @param processed The number of nodes processed before the interruption
+     */
+    public TransformationInterrupted(final boolean cancelled, final int processed) {
+        this.cancelled = cancelled;
+        this.processed = processed;
+    }
+
+    /**
+     * Checks whether the transformation was cancelled.
+     * @return Checking result, {@code true} if the transformation was cancelled
+     *  and {@code false} if the deadline has expired
+     */
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Returns the number of nodes processed before the interruption.
+     * @return The number of nodes
+     */
+    public int getProcessedNodes() {
+        return this.processed;
+    }
+
+    @Override
+    public String getErrorMessage() {
+        final String reason;
+        if (this.cancelled) {
+            reason = "was cancelled";
+        } else {
+            reason = "deadline exceeded";
+        }
+        return String.format(
+            "Transformation %s after processing %d nodes", reason, this.processed
+        );
+    }
+}
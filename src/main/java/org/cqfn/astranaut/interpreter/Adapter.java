@@ -45,6 +45,19 @@ public class Adapter extends org.cqfn.astranaut.core.algorithms.conversion.Adapt
         super(Collections.unmodifiableList(Adapter.init(instructions)), factory);
     }
 
+    /**
+     * Constructor.
+     * @param instructions The list of transformation instructions
+     * @param factory The node factory
+     * @param guard The converter that is applied to each node before the rules.
+     *  It should never convert anything, but it can inspect the nodes being traversed
+     *  and, for example, interrupt the traversal by throwing an unchecked exception
+     */
+    public Adapter(final List<Instruction<Transformation>> instructions, final Factory factory,
+        final org.cqfn.astranaut.core.algorithms.conversion.Converter guard) {
+        super(Collections.unmodifiableList(Adapter.init(instructions, guard)), factory);
+    }
+
     /**
      * Initialises the list of converters.
      * @param instructions The list of transformation instructions
@@ -60,4 +73,22 @@ public class Adapter extends org.cqfn.astranaut.core.algorithms.conversion.Adapt
         }
         return result;
     }
+
+    /**
+     * Initialises the list of converters, the guard goes first.
+     * @param instructions The list of transformation instructions
+     * @param guard The converter that is applied to each node before the rules
+     * @return List of converters
+     */
+    private static List<org.cqfn.astranaut.core.algorithms.conversion.Converter> init(
+        final List<Instruction<Transformation>> instructions,
+        final org.cqfn.astranaut.core.algorithms.conversion.Converter guard) {
+        final List<org.cqfn.astranaut.core.algorithms.conversion.Converter> rules =
+            Adapter.init(instructions);
+        final List<org.cqfn.astranaut.core.algorithms.conversion.Converter> result =
+            new ArrayList<>(rules.size() + 1);
+        result.add(guard);
+        result.addAll(rules);
+        return result;
+    }
 }
@@ -0,0 +1,615 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.interpreter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.cqfn.astranaut.api.ResultCache;
+import org.cqfn.astranaut.core.base.CoreException;
+import org.cqfn.astranaut.exceptions.CouldNotCollectSources;
+import org.cqfn.astranaut.exceptions.DuplicateDestination;
+import org.cqfn.astranaut.exceptions.InterpreterException;
+import org.cqfn.astranaut.exceptions.JournalNotAccessible;
+import org.cqfn.astranaut.rules.Program;
+import org.cqfn.astranaut.utils.ContentHash;
+
+/**
+ * Converts a set of files by the same DSL program on a pool of threads.
+ * The set of source files is specified by a directory (all files with extensions
+ * of syntax trees, recursively), a glob pattern, or a manifest, that is, a text file
+ * with one path per line (empty lines and lines starting with '#' are skipped,
+ * relative paths are resolved against the folder of the manifest).
+ * Each resulting file is saved in the output directory under the same relative path
+ * as the source file.
+ * If a journal is specified, files that were converted by a previous run (with the same
+ * content and the same rules) are skipped, and files whose conversion failed or crashed
+ * the process several times are quarantined, see {@link Journal}. Files whose conversion
+ * was started but not completed by a previous run are converted one by one before
+ * the others, so if one of them crashes the process again, no other file
+ * is in progress and charged with the failed attempt.
+ *
+ * @since 0.2.22
+ */
+public final class BatchConverter {
+    /**
+     * Extensions of files that contain syntax trees.
+     */
+    private static final List<String> EXTENSIONS =
+        Arrays.asList(".json", ".astb", ".json.gz", ".astb.gz");
+
+    /**
+     * Characters that make a path a glob pattern.
+     */
+    private static final String GLOB = "*?[{";
+
+    /**
+     * The DSL program.
+     */
+    private final Program program;
+
+    /**
+     * The output directory.
+     */
+    private final Path output;
+
+    /**
+     * The number of threads.
+     */
+    private int threads;
+
+    /**
+     * Flag indicating that source files in JSON format are loaded lazily.
+     */
+    private boolean lazy;
+
+    /**
+     * Flag indicating that source trees are kept in the columnar representation.
+     */
+    private boolean columnar;
+
+    /**
+     * Flag indicating that edit scripts are written instead of resulting trees.
+     */
+    private boolean delta;
+
+    /**
+     * The timeout of the transformation of each file, or {@code null} if it is not limited.
+     */
+    private Duration timeout;
+
+    /**
+     * The journal file, or {@code null} if the journal is not used.
+     */
+    private Path journal;
+
+    /**
+     * The cache of results, or {@code null} if results are not cached.
+     */
+    private ResultCache cache;
+
+    /**
+     * The maximum number of attempts to convert a file before it is quarantined.
+     */
+    private int attempts;
+
+    /**
+     * Constructor.
+     * @param program The DSL program, it is parsed once and shared by all conversions
+     * @param output The output directory
+     */
+    public BatchConverter(final Program program, final Path output) {
+        this.program = program;
+        this.output = output;
+        this.threads = Runtime.getRuntime().availableProcessors();
+        this.attempts = 3;
+    }
+
+    /**
+     * Sets the number of threads (by default, the number of available processors).
+     * @param value The number of threads
+     */
+    public void setThreads(final int value) {
+        this.threads = Math.max(1, value);
+    }
+
+    /**
+     * Sets the lazy mode, see {@link Interpreter#setLazy(boolean)}.
+     * @param value {@code true} to enable the lazy mode
+     */
+    public void setLazy(final boolean value) {
+        this.lazy = value;
+    }
+
+    /**
+     * Sets the columnar mode, see {@link Interpreter#setColumnar(boolean)}.
+     * @param value {@code true} to enable the columnar mode
+     */
+    public void setColumnar(final boolean value) {
+        this.columnar = value;
+    }
+
+    /**
+     * Sets the delta mode, see {@link Interpreter#setDelta(boolean)}.
+     * @param value {@code true} to enable the delta mode
+     */
+    public void setDelta(final boolean value) {
+        this.delta = value;
+    }
+
+    /**
+     * Sets the timeout of the transformation of each file.
+     * @param value The timeout, or {@code null} if the transformation time is not limited
+     */
+    public void setTimeout(final Duration value) {
+        this.timeout = value;
+    }
+
+    /**
+     * Sets the journal that records converted files, so that a restarted conversion
+     *  skips them.
+     * @param file The journal file, it is created if it does not exist
+     */
+    public void setJournal(final Path file) {
+        this.journal = file;
+    }
+
+    /**
+     * Sets the cache of results, see {@link Interpreter#setCache(ResultCache)}.
+     * @param value The cache, or {@code null} if results are not cached
+     */
+    public void setCache(final ResultCache value) {
+        this.cache = value;
+    }
+
+    /**
+     * Sets the maximum number of attempts to convert a file before it is quarantined
+     *  (the journal is required).
+     * @param value The number of attempts, 3 by default
+     */
+    public void setAttempts(final int value) {
+        this.attempts = Math.max(1, value);
+    }
+
+    /**
+     * Converts the set of files.
+     * @param input The directory, glob pattern or manifest file
+     * @return The report, failures of individual files are listed in it
+     * @throws InterpreterException If the set of source files can not be collected
+     */
+    public BatchReport convert(final String input) throws InterpreterException {
+        final List<Path[]> jobs;
+        try {
+            jobs = BatchConverter.collect(input);
+        } catch (final IOException | InvalidPathException exception) {
+            throw new CouldNotCollectSources(input);
+        }
+        return this.convert(jobs);
+    }
+
+    /**
+     * Converts the collected set of files.
+     * @param jobs Pairs of paths: the source file and the path of the resulting file
+     *  relative to the output directory
+     * @return The report
+     * @throws JournalNotAccessible If the journal can not be read or written
+     */
+    BatchReport convert(final List<Path[]> jobs) throws JournalNotAccessible {
+        final BatchReport report;
+        if (this.journal == null) {
+            report = this.convert(jobs, null);
+        } else {
+            try (Journal log = new Journal(this.journal, this.attempts)) {
+                report = this.convert(jobs, log);
+            } catch (final IOException exception) {
+                throw new JournalNotAccessible(this.journal.toString());
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Converts the collected set of files on the pool of threads.
+     * @param jobs Pairs of paths: the source file and the path of the resulting file
+     *  relative to the output directory
+     * @param log The journal, or {@code null} if the journal is not used
+     * @return The report
+     */
+    private BatchReport convert(final List<Path[]> jobs, final Journal log) {
+        final long start = System.nanoTime();
+        String rules = this.program.getTransformationsDigest();
+        if (this.delta) {
+            rules = rules.concat(":delta");
+        }
+        final String digest = rules;
+        final ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+        final List<BatchReport.Entry> entries = new ArrayList<>(jobs.size());
+        try {
+            final List<Future<BatchReport.Entry>> futures =
+                new ArrayList<>(Collections.nCopies(jobs.size(), null));
+            for (int index = 0; index < jobs.size(); index = index + 1) {
+                final Path source = jobs.get(index)[0];
+                if (log != null && log.isUnfinished(source)) {
+                    final FutureTask<BatchReport.Entry> task =
+                        new FutureTask<>(this.task(jobs.get(index), log, digest));
+                    task.run();
+                    futures.set(index, task);
+                }
+            }
+            for (int index = 0; index < jobs.size(); index = index + 1) {
+                if (futures.get(index) == null) {
+                    futures.set(index, pool.submit(this.task(jobs.get(index), log, digest)));
+                }
+            }
+            for (int index = 0; index < futures.size(); index = index + 1) {
+                entries.add(BatchConverter.await(futures.get(index), jobs.get(index)[0]));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return new BatchReport(entries, System.nanoTime() - start);
+    }
+
+    /**
+     * Creates the task that converts one file.
+     * @param job The source file and the path of the resulting file relative
+     *  to the output directory
+     * @param log The journal, or {@code null} if the journal is not used
+     * @param rules The digest of the rules
+     * @return The task
+     */
+    private Callable<BatchReport.Entry> task(final Path[] job, final Journal log,
+        final String rules) {
+        final Path destination = this.output.resolve(job[1].toString());
+        return () -> this.convert(job[0], destination, log, rules);
+    }
+
+    /**
+     * Converts one file, consulting the journal.
+     * @param source The source file
+     * @param destination The destination file
+     * @param log The journal, or {@code null} if the journal is not used
+     * @param rules The digest of the rules
+     * @return The result
+     */
+    private BatchReport.Entry convert(final Path source, final Path destination,
+        final Journal log, final String rules) {
+        BatchReport.Entry entry;
+        if (log == null) {
+            entry = this.convert(source, destination, null);
+        } else {
+            final String hash = BatchConverter.hash(source);
+            try {
+                if (log.isQuarantined(source, hash, rules)) {
+                    entry = new BatchReport.Entry(
+                        source, destination, 0, 0, 0,
+                        String.format(
+                            "quarantined after %d failed attempts",
+                            log.getAttempts(source, hash, rules)
+                        )
+                    );
+                } else if (log.isCompleted(source, hash, rules) && Files.exists(destination)) {
+                    entry = BatchReport.Entry.skipped(source, destination);
+                } else {
+                    log.started(source, hash, rules);
+                    entry = this.convert(source, destination, hash);
+                    if (entry.isSuccessful()) {
+                        log.completed(source, hash, rules);
+                    }
+                }
+            } catch (final IOException exception) {
+                entry = new BatchReport.Entry(
+                    source, destination, 0, 0, 0, exception.toString()
+                );
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Converts one file.
+     * @param source The source file
+     * @param destination The destination file
+     * @param hash The digest of the content of the source file if it is already computed
+     *  for the journal, otherwise {@code null} or an empty string
+     * @return The result
+     */
+    private BatchReport.Entry convert(final Path source, final Path destination,
+        final String hash) {
+        final long start = System.nanoTime();
+        int nodes = 0;
+        long bytes = 0;
+        String error = null;
+        try {
+            final Path parent = destination.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            bytes = Files.size(source);
+            final Interpreter interpreter =
+                new Interpreter(source.toFile(), destination.toFile(), this.program);
+            interpreter.setLazy(this.lazy);
+            interpreter.setColumnar(this.columnar);
+            interpreter.setDelta(this.delta);
+            interpreter.setTimeout(this.timeout);
+            interpreter.setCache(this.cache);
+            if (hash != null && !hash.isEmpty()) {
+                interpreter.setSourceHash(hash);
+            }
+            interpreter.run();
+            nodes = interpreter.getNodeCount();
+        } catch (final CoreException exception) {
+            error = exception.getErrorMessage();
+        } catch (final IOException | RuntimeException exception) {
+            error = exception.toString();
+        }
+        return new BatchReport.Entry(
+            source, destination, System.nanoTime() - start, nodes, bytes, error
+        );
+    }
+
+    /**
+     * Computes the digest of the content of a file.
+     * @param source The file
+     * @return The digest, or an empty string if the file can not be read
+     *  (then the conversion fails and the failure is recorded in the journal)
+     */
+    private static String hash(final Path source) {
+        String result;
+        try {
+            result = ContentHash.sha256(source);
+        } catch (final IOException ignored) {
+            result = "";
+        }
+        return result;
+    }
+
+    /**
+     * Waits for the result of the conversion of one file.
+     * @param future The future result
+     * @param source The source file
+     * @return The result
+     */
+    private static BatchReport.Entry await(final Future<BatchReport.Entry> future,
+        final Path source) {
+        BatchReport.Entry entry;
+        try {
+            entry = future.get();
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            entry = new BatchReport.Entry(source, null, 0, 0, 0, "interrupted");
+        } catch (final ExecutionException exception) {
+            entry = new BatchReport.Entry(
+                source, null, 0, 0, 0, String.valueOf(exception.getCause())
+            );
+        }
+        return entry;
+    }
+
+    /**
+     * Collects source files.
+     * @param input The directory, glob pattern or manifest file
+     * @return Pairs of paths: the source file and the path of the resulting file
+     *  relative to the output directory
+     * @throws IOException If the file system can not be read
+     * @throws DuplicateDestination If several source files are converted to the same file
+     */
+    static List<Path[]> collect(final String input) throws IOException, DuplicateDestination {
+        final List<Path[]> result;
+        if (BatchConverter.isGlob(input)) {
+            result = BatchConverter.collectByGlob(input);
+        } else {
+            final Path path = Paths.get(input);
+            if (Files.isDirectory(path)) {
+                result = BatchConverter.collectFromDirectory(path);
+            } else if (BatchConverter.isTree(path)) {
+                result = new ArrayList<>(1);
+                result.add(new Path[] {path, path.getFileName()});
+            } else {
+                result = BatchConverter.collectFromManifest(path);
+            }
+        }
+        BatchConverter.checkDestinations(result);
+        return result;
+    }
+
+    /**
+     * Checks that all the source files are converted to distinct files.
+     * @param jobs Pairs of paths
+     * @throws DuplicateDestination If several source files are converted to the same file
+     */
+    private static void checkDestinations(final List<Path[]> jobs)
+        throws DuplicateDestination {
+        final Set<Path> destinations = new HashSet<>();
+        for (final Path[] job : jobs) {
+            if (!destinations.add(job[1].normalize())) {
+                throw new DuplicateDestination(job[1].toString());
+            }
+        }
+    }
+
+    /**
+     * Collects files that contain syntax trees from a directory and its subdirectories.
+     * @param root The directory
+     * @return Pairs of paths
+     * @throws IOException If the directory can not be read
+     */
+    private static List<Path[]> collectFromDirectory(final Path root) throws IOException {
+        try (Stream<Path> stream = Files.walk(root)) {
+            return stream
+                .filter(Files::isRegularFile)
+                .filter(BatchConverter::isTree)
+                .sorted()
+                .map(path -> new Path[] {path, root.relativize(path)})
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Collects files that match a glob pattern.
+     * @param pattern The pattern
+     * @return Pairs of paths
+     * @throws IOException If the file system can not be read
+     */
+    private static List<Path[]> collectByGlob(final String pattern) throws IOException {
+        final Path prefix = Paths.get(pattern.replaceAll("[*?\\[{].*$", "x")).getParent();
+        final Path base;
+        if (prefix == null) {
+            base = Paths.get(".");
+        } else {
+            base = prefix;
+        }
+        final PathMatcher matcher = FileSystems.getDefault().getPathMatcher(
+            "glob:".concat(pattern)
+        );
+        final boolean current = prefix == null;
+        try (Stream<Path> stream = Files.walk(base)) {
+            return stream
+                .filter(Files::isRegularFile)
+                .map(path -> BatchConverter.strip(current, base, path))
+                .filter(matcher::matches)
+                .sorted()
+                .map(path -> new Path[] {path, BatchConverter.relativize(prefix, path)})
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Collects files listed in a manifest. A file listed several times is collected once.
+     *  The resulting file of a relative path inside the directory of the manifest has
+     *  the same relative path, and the resulting file of an absolute path (or of a path
+     *  outside the directory) has the path without the root, so that files with equal
+     *  names from different directories are not written to the same file.
+     * @param manifest The manifest file
+     * @return Pairs of paths
+     * @throws IOException If the manifest can not be read
+     */
+    private static List<Path[]> collectFromManifest(final Path manifest) throws IOException {
+        Path folder = manifest.toAbsolutePath().getParent();
+        if (folder == null) {
+            folder = Paths.get("").toAbsolutePath();
+        }
+        final List<Path[]> result = new ArrayList<>(16);
+        final Set<Path> sources = new HashSet<>();
+        for (final String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            final String trimmed = line.trim();
+            if (!trimmed.isEmpty() && trimmed.charAt(0) != '#') {
+                final Path entry = Paths.get(trimmed);
+                final Path source = folder.resolve(entry).normalize();
+                final Path relative;
+                if (entry.isAbsolute() || entry.normalize().startsWith("..")) {
+                    relative = source.getRoot().relativize(source);
+                } else {
+                    relative = entry.normalize();
+                }
+                if (sources.add(source)) {
+                    result.add(new Path[] {folder.resolve(entry), relative});
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes the leading "./" from a path found by walking the current directory.
+     * @param current Flag indicating that the current directory is walked
+     * @param base The walked directory
+     * @param path The path
+     * @return The path as it is written in a glob pattern
+     */
+    private static Path strip(final boolean current, final Path base, final Path path) {
+        final Path result;
+        if (current) {
+            result = base.relativize(path);
+        } else {
+            result = path;
+        }
+        return result;
+    }
+
+    /**
+     * Computes the path relative to the base directory.
+     * @param base The base directory, or {@code null} if it is the current directory
+     * @param path The path
+     * @return The relative path, or the file name if the path is not inside the base
+     */
+    private static Path relativize(final Path base, final Path path) {
+        final Path result;
+        if (base == null) {
+            result = path;
+        } else if (path.startsWith(base)) {
+            result = base.relativize(path);
+        } else {
+            result = path.getFileName();
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether a string is a glob pattern.
+     * @param input The string
+     * @return Checking result
+     */
+    private static boolean isGlob(final String input) {
+        boolean result = false;
+        for (int index = 0; !result && index < input.length(); index = index + 1) {
+            result = BatchConverter.GLOB.indexOf(input.charAt(index)) >= 0;
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether a file contains a syntax tree, judging by its extension.
+     * @param path The path to the file
+     * @return Checking result
+     */
+    private static boolean isTree(final Path path) {
+        final String name = String.valueOf(path.getFileName());
+        boolean result = false;
+        for (final String ext : BatchConverter.EXTENSIONS) {
+            result = result || name.endsWith(ext);
+        }
+        return result;
+    }
+}
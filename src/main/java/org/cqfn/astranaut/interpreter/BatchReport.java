@@ -0,0 +1,409 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.interpreter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Report of a batch conversion: per-file timings and failures, and aggregate throughput.
+ *
+ * @since 0.2.22
+ */
+public final class BatchReport {
+    /**
+     * The number of nanoseconds in a second.
+     */
+    private static final double NANOS = 1e9;
+
+    /**
+     * The number of bytes in a megabyte.
+     */
+    private static final double MEGABYTE = 1024.0 * 1024.0;
+
+    /**
+     * Per-file entries, in the order of source files.
+     */
+    private final List<Entry> entries;
+
+    /**
+     * The wall-clock time of the whole batch, in nanoseconds.
+     */
+    private final long elapsed;
+
+    /**
+     * Constructor.
+     * @param entries Per-file entries
+     * @param elapsed The wall-clock time of the whole batch, in nanoseconds
+     */
+    BatchReport(final List<Entry> entries, final long elapsed) {
+        this.entries = Collections.unmodifiableList(entries);
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * Returns per-file entries, in the order of source files.
+     * @return The list of entries
+     */
+    public List<Entry> getEntries() {
+        return this.entries;
+    }
+
+    /**
+     * Returns the number of files that were skipped because they were converted
+     *  by a previous run.
+     * @return The number of skipped files
+     */
+    public int getSkippedCount() {
+        int count = 0;
+        for (final Entry entry : this.entries) {
+            if (entry.skipped) {
+                count = count + 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of files that were not converted.
+     * @return The number of failures
+     */
+    public int getFailureCount() {
+        int count = 0;
+        for (final Entry entry : this.entries) {
+            if (!entry.isSuccessful()) {
+                count = count + 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the total number of nodes in converted source trees.
+     * @return The number of nodes
+     */
+    public long getNodeCount() {
+        long count = 0;
+        for (final Entry entry : this.entries) {
+            count = count + entry.nodes;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the total size of converted source files.
+     * @return The size, in bytes
+     */
+    public long getByteCount() {
+        long count = 0;
+        for (final Entry entry : this.entries) {
+            if (entry.isSuccessful()) {
+                count = count + entry.bytes;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the wall-clock time of the whole batch.
+     * @return The time, in milliseconds
+     */
+    public long getElapsedMillis() {
+        return this.elapsed / 1_000_000L;
+    }
+
+    /**
+     * Returns the aggregate throughput in nodes.
+     * @return The number of nodes converted per second
+     */
+    public double getNodesPerSecond() {
+        return this.getNodeCount() * BatchReport.NANOS / Math.max(1L, this.elapsed);
+    }
+
+    /**
+     * Returns the aggregate throughput in bytes of source files.
+     * @return The number of megabytes converted per second
+     */
+    public double getMegabytesPerSecond() {
+        return this.getByteCount() / BatchReport.MEGABYTE * BatchReport.NANOS
+            / Math.max(1L, this.elapsed);
+    }
+
+    /**
+     * Saves entries to a file, one entry per line, fields are separated by tabs.
+     * @param path The path to the file
+     * @throws IOException If the file can not be written
+     */
+    void write(final Path path) throws IOException {
+        final List<String> lines = new ArrayList<>(this.entries.size());
+        for (final Entry entry : this.entries) {
+            String error = "";
+            if (entry.error != null) {
+                error = entry.error.replaceAll("[\\t\\r\\n]", " ");
+            }
+            lines.add(
+                String.join(
+                    "\t",
+                    entry.source.toString(),
+                    String.valueOf(entry.destination),
+                    Long.toString(entry.time),
+                    Integer.toString(entry.nodes),
+                    Long.toString(entry.bytes),
+                    error
+                )
+            );
+        }
+        Files.write(path, lines, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Loads entries saved by the {@link BatchReport#write(Path)} method.
+     * @param path The path to the file
+     * @return The list of entries
+     * @throws IOException If the file can not be read or has a wrong format
+     */
+    static List<Entry> read(final Path path) throws IOException {
+        final List<Entry> list = new ArrayList<>(16);
+        for (final String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            final String[] fields = line.split("\t", -1);
+            if (fields.length != 6) {
+                throw new IOException(String.format("Malformed report: %s", path));
+            }
+            String error = null;
+            if (!fields[5].isEmpty()) {
+                error = fields[5];
+            }
+            try {
+                list.add(
+                    new Entry(
+                        Paths.get(fields[0]),
+                        Paths.get(fields[1]),
+                        Long.parseLong(fields[2]),
+                        Integer.parseInt(fields[3]),
+                        Long.parseLong(fields[4]),
+                        error
+                    )
+                );
+            } catch (final NumberFormatException exception) {
+                throw new IOException(String.format("Malformed report: %s", path), exception);
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder(128);
+        for (final Entry entry : this.entries) {
+            builder.append(entry).append(System.lineSeparator());
+        }
+        builder.append(
+            String.format(
+                Locale.ROOT,
+                "Converted %d of %d files in %d ms: %d nodes, %.0f nodes/s, %.2f MB/s",
+                this.entries.size() - this.getFailureCount(),
+                this.entries.size(),
+                this.getElapsedMillis(),
+                this.getNodeCount(),
+                this.getNodesPerSecond(),
+                this.getMegabytesPerSecond()
+            )
+        );
+        final int skipped = this.getSkippedCount();
+        if (skipped > 0) {
+            builder.append(String.format(", %d files skipped as already converted", skipped));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Result of the conversion of one file.
+     *
+     * @since 0.2.22
+     */
+    public static final class Entry {
+        /**
+         * The source file.
+         */
+        private final Path source;
+
+        /**
+         * The destination file.
+         */
+        private final Path destination;
+
+        /**
+         * The time of the conversion, in nanoseconds.
+         */
+        private final long time;
+
+        /**
+         * The number of nodes in the source tree.
+         */
+        private final int nodes;
+
+        /**
+         * The size of the source file, in bytes.
+         */
+        private final long bytes;
+
+        /**
+         * The error message, or {@code null} if the file is converted.
+         */
+        private final String error;
+
+        /**
+         * Flag indicating that the file was converted by a previous run.
+         */
+        private final boolean skipped;
+
+        /**
+         * Constructor.
+         * @param source The source file
+         * @param destination The destination file
+         * @param time The time of the conversion, in nanoseconds
+         * @param nodes The number of nodes in the source tree
+         * @param bytes The size of the source file, in bytes
+         * @param error The error message, or {@code null} if the file is converted
+         */
+        Entry(final Path source, final Path destination, final long time, final int nodes,
+            final long bytes, final String error) {
+            this(source, destination, time, nodes, bytes, error, false);
+        }
+
+        /**
+         * Constructor.
+         * @param source The source file
+         * @param destination The destination file
+         * @param time The time of the conversion, in nanoseconds
+         * @param nodes The number of nodes in the source tree
+         * @param bytes The size of the source file, in bytes
+         * @param error The error message, or {@code null} if the file is converted
+         * @param skipped Flag indicating that the file was converted by a previous run
+         */
+        private Entry(final Path source, final Path destination, final long time,
+            final int nodes, final long bytes, final String error, final boolean skipped) {
+            this.source = source;
+            this.destination = destination;
+            this.time = time;
+            this.nodes = nodes;
+            this.bytes = bytes;
+            this.error = error;
+            this.skipped = skipped;
+        }
+
+        /**
+         * Creates the entry of a file that is skipped because it was converted
+         *  by a previous run.
+         * @param source The source file
+         * @param destination The destination file
+         * @return The entry
+         */
+        static Entry skipped(final Path source, final Path destination) {
+            return new Entry(source, destination, 0, 0, 0, null, true);
+        }
+
+        /**
+         * Returns the source file.
+         * @return The path
+         */
+        public Path getSource() {
+            return this.source;
+        }
+
+        /**
+         * Returns the destination file.
+         * @return The path
+         */
+        public Path getDestination() {
+            return this.destination;
+        }
+
+        /**
+         * Returns the time of the conversion.
+         * @return The time, in milliseconds
+         */
+        public long getMillis() {
+            return this.time / 1_000_000L;
+        }
+
+        /**
+         * Returns the number of nodes in the source tree.
+         * @return The number of nodes, zero if the file is not converted
+         */
+        public int getNodeCount() {
+            return this.nodes;
+        }
+
+        /**
+         * Returns the flag indicating that the file is converted.
+         * @return {@code true} if the file is converted
+         */
+        public boolean isSuccessful() {
+            return this.error == null;
+        }
+
+        /**
+         * Returns the flag indicating that the file was converted by a previous run
+         *  (see the journal of the {@link BatchConverter}) and is skipped now.
+         * @return {@code true} if the file is skipped
+         */
+        public boolean isSkipped() {
+            return this.skipped;
+        }
+
+        /**
+         * Returns the error message.
+         * @return The message, or {@code null} if the file is converted
+         */
+        public String getError() {
+            return this.error;
+        }
+
+        @Override
+        public String toString() {
+            final String result;
+            if (this.skipped) {
+                result = String.format("SKIP %s -> %s", this.source, this.destination);
+            } else if (this.error == null) {
+                result = String.format(
+                    "OK   %s -> %s: %d ms, %d nodes, %d bytes",
+                    this.source, this.destination, this.getMillis(), this.nodes, this.bytes
+                );
+            } else {
+                result = String.format(
+                    "FAIL %s: %s (%d ms)", this.source, this.error, this.getMillis()
+                );
+            }
+            return result;
+        }
+    }
+}
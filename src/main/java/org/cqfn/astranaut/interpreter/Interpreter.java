@@ -24,25 +24,60 @@
 package org.cqfn.astranaut.interpreter;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Logger;
+import org.cqfn.astranaut.api.BinaryTreeReader;
+import org.cqfn.astranaut.api.BinaryTreeWriter;
+import org.cqfn.astranaut.api.CancellationToken;
+import org.cqfn.astranaut.api.ColumnarTree;
+import org.cqfn.astranaut.api.CompressedFiles;
+import org.cqfn.astranaut.api.JsonStreamDeserializer;
+import org.cqfn.astranaut.api.JsonStreamSerializer;
+import org.cqfn.astranaut.api.LazyJsonTree;
+import org.cqfn.astranaut.api.ParallelJsonDeserializer;
+import org.cqfn.astranaut.api.ResultCache;
+import org.cqfn.astranaut.api.TreeDelta;
+import org.cqfn.astranaut.api.Watchdog;
 import org.cqfn.astranaut.core.base.DefaultFactory;
 import org.cqfn.astranaut.core.base.Node;
 import org.cqfn.astranaut.core.base.Tree;
-import org.cqfn.astranaut.core.utils.FilesReader;
-import org.cqfn.astranaut.core.utils.JsonDeserializer;
-import org.cqfn.astranaut.core.utils.JsonSerializer;
+import org.cqfn.astranaut.exceptions.ConversionTimedOut;
 import org.cqfn.astranaut.exceptions.DestinationNotSpecified;
 import org.cqfn.astranaut.exceptions.InterpreterCouldNotWriteFile;
 import org.cqfn.astranaut.exceptions.InterpreterException;
 import org.cqfn.astranaut.exceptions.SourceNotSpecified;
+import org.cqfn.astranaut.exceptions.TransformationInterrupted;
 import org.cqfn.astranaut.rules.Program;
+import org.cqfn.astranaut.utils.ContentHash;
+import org.cqfn.astranaut.utils.StringPool;
 
 /**
- * The interpreter that loads the syntax tree in Json format,
+ * The interpreter that loads the syntax tree in JSON or binary format,
  * then applies DSL rules and saves the result to a file.
  *
  * @since 0.1.5
  */
 public class Interpreter {
+    /**
+     * The logger.
+     */
+    private static final Logger LOG = Logger.getLogger(Interpreter.class.getName());
+
+    /**
+     * The extension of files in binary format.
+     */
+    private static final String BINARY = ".astb";
+
+    /**
+     * The maximum number of distinct data strings deduplicated while loading a source tree.
+     */
+    private static final int DATA_POOL_SIZE = 65_536;
+
     /**
      * The name of the source file.
      */
@@ -58,6 +93,53 @@ public class Interpreter {
      */
     private final Program program;
 
+    /**
+     * Flag indicating that a source file in JSON format is loaded lazily.
+     */
+    private boolean lazy;
+
+    /**
+     * Flag indicating that the source tree is kept in the columnar representation.
+     */
+    private boolean columnar;
+
+    /**
+     * The number of threads that read a source file in JSON format.
+     */
+    private int threads;
+
+    /**
+     * Flag indicating that an edit script is written instead of the resulting tree.
+     */
+    private boolean delta;
+
+    /**
+     * The timeout of the transformation, or {@code null} if it is not limited.
+     */
+    private Duration timeout;
+
+    /**
+     * The cache of results, or {@code null} if results are not cached.
+     */
+    private ResultCache cache;
+
+    /**
+     * The digest of the content of the source file, or {@code null} if it is not known
+     *  and is computed when it is needed.
+     */
+    private String hash;
+
+    /**
+     * The number of nodes in the source tree processed by the last run.
+     */
+    private int nodes;
+
+    /**
+     * The estimated number of bytes saved by deduplication of data strings
+     *  of the source tree by the last run.
+     */
+    private long saved;
+
     /**
      * Constructor.
      * @param source The source file
@@ -68,6 +150,98 @@ public class Interpreter {
         this.source = source;
         this.destination = destination;
         this.program = program;
+        this.threads = 1;
+    }
+
+    /**
+     * Sets the lazy mode. In this mode, a source file in JSON format (not compressed)
+     *  is memory-mapped and only indexed, nodes are created on demand, and subtrees
+     *  that were not changed by rules are copied from the source file to the destination
+     *  JSON file byte by byte.
+     * @param value {@code true} to enable the lazy mode
+     */
+    public void setLazy(final boolean value) {
+        this.lazy = value;
+    }
+
+    /**
+     * Sets the columnar mode. In this mode, the source tree is kept in the compact
+     *  columnar representation (see {@link ColumnarTree}) instead of an object per node,
+     *  which takes several times less memory for huge trees. This mode is not applied
+     *  to source files loaded in the lazy mode.
+     * @param value {@code true} to enable the columnar mode
+     */
+    public void setColumnar(final boolean value) {
+        this.columnar = value;
+    }
+
+    /**
+     * Sets the number of threads that read a source file in JSON format. If there
+     *  is more than one thread, a source file that is neither compressed nor loaded
+     *  in the lazy or columnar mode is read by {@link ParallelJsonDeserializer}, which
+     *  maps the file into memory and builds its structural index first, so this pays off
+     *  only for large files; the mapping is released when it is garbage collected.
+     * @param value The number of threads, 1 by default, that is, the file is read
+     *  by {@link JsonStreamDeserializer}
+     */
+    public void setThreads(final int value) {
+        this.threads = Math.max(1, value);
+    }
+
+    /**
+     * Sets the delta mode. In this mode, the destination file contains the edit script
+     *  that turns the source tree into the resulting tree (see {@link TreeDelta})
+     *  instead of the resulting tree.
+     * @param value {@code true} to enable the delta mode
+     */
+    public void setDelta(final boolean value) {
+        this.delta = value;
+    }
+
+    /**
+     * Sets the timeout of the transformation.
+     * @param value The timeout, or {@code null} if the transformation time is not limited
+     */
+    public void setTimeout(final Duration value) {
+        this.timeout = value;
+    }
+
+    /**
+     * Sets the cache of results. If the cache contains the result of the conversion
+     *  of a file with the same content by the same rules, the result is copied from
+     *  the cache, and the source file is neither parsed nor transformed.
+     * @param value The cache, or {@code null} if results are not cached
+     */
+    public void setCache(final ResultCache value) {
+        this.cache = value;
+    }
+
+    /**
+     * Sets the digest of the content of the source file if the caller has already
+     *  computed it, so the file is not read once more to get the key of the cache.
+     * @param value The SHA-256 digest, see {@link ContentHash#sha256(Path)}, or
+     *  {@code null} if it is not known
+     */
+    public void setSourceHash(final String value) {
+        this.hash = value;
+    }
+
+    /**
+     * Returns the number of nodes in the source tree processed by the last run.
+     * @return The number of nodes, zero if the result was taken from the cache
+     */
+    public int getNodeCount() {
+        return this.nodes;
+    }
+
+    /**
+     * Returns the estimated number of heap bytes saved by deduplication of data strings
+     *  while the source tree was loaded by the last run (see {@link StringPool}).
+     * @return The number of bytes, zero if the result was taken from the cache or
+     *  the source tree was loaded in the lazy mode
+     */
+    public long getSavedBytes() {
+        return this.saved;
     }
 
     /**
@@ -81,30 +255,242 @@ public class Interpreter {
         if (this.destination == null) {
             throw DestinationNotSpecified.INSTANCE;
         }
-        final Tree unprocessed = new JsonDeserializer(
-            new FilesReader(this.source.getPath()).readAsString(
-                (FilesReader.CustomExceptionCreator<InterpreterException>) ()
-                    -> new InterpreterException() {
-                        private static final long serialVersionUID = -2486266117492218703L;
-
-                        @Override
-                        public String getErrorMessage() {
-                            return String.format(
-                                "Could not read the file that contains source syntax tree: %s",
-                                Interpreter.this.source.getPath()
-                            );
-                        }
-                    }
-            ),
-            language -> DefaultFactory.EMPTY
-        ).convert();
-        final Adapter adapter = new Adapter(
-            this.program.getTransformations(),
-            DefaultFactory.EMPTY
+        String key = null;
+        boolean cached = false;
+        if (this.cache != null) {
+            key = this.getCacheKey();
+            try {
+                cached = this.cache.load(key, this.destination.toPath());
+            } catch (final IOException exception) {
+                throw new InterpreterCouldNotWriteFile(this.destination.getPath());
+            }
+        }
+        if (cached) {
+            this.nodes = 0;
+            this.saved = 0;
+        } else {
+            this.convert();
+            if (key != null) {
+                this.remember(key);
+            }
+        }
+    }
+
+    /**
+     * Reads the source tree, transforms it and writes the result.
+     * @throws InterpreterException Can't execute the program for some reasons
+     */
+    private void convert() throws InterpreterException {
+        final Tree unprocessed;
+        final StringPool strings = new StringPool(Interpreter.DATA_POOL_SIZE);
+        try {
+            unprocessed = this.read(strings);
+        } catch (final IOException exception) {
+            throw this.couldNotRead();
+        }
+        this.saved = strings.getSavedBytes();
+        Interpreter.LOG.fine(
+            String.format(
+                "%s: %d data strings deduplicated, %d bytes saved",
+                this.source.getPath(),
+                strings.getHits(),
+                this.saved
+            )
         );
-        final Node processed = adapter.convert(unprocessed.getRoot());
-        if (!new JsonSerializer(new Tree(processed)).serializeToFile(this.destination.getPath())) {
+        final Node processed = this.transform(unprocessed.getRoot());
+        try {
+            final Tree result;
+            if (this.delta) {
+                result = TreeDelta.diff(unprocessed.getRoot(), processed);
+            } else {
+                result = new Tree(processed);
+            }
+            this.write(result);
+        } catch (final IOException exception) {
             throw new InterpreterCouldNotWriteFile(this.destination.getPath());
         }
     }
+
+    /**
+     * Computes the key of the result in the cache: the digest of the source file,
+     *  of the transformation rules and of the options that affect the resulting file.
+     * @return The key
+     * @throws InterpreterException If the source file can not be read
+     */
+    private String getCacheKey() throws InterpreterException {
+        String content = this.hash;
+        if (content == null) {
+            try {
+                content = ContentHash.sha256(this.source.toPath());
+            } catch (final IOException exception) {
+                throw this.couldNotRead();
+            }
+        }
+        final Path path = this.destination.toPath();
+        final String options = String.format(
+            "binary=%b;compressed=%b;lazy=%b;delta=%b",
+            CompressedFiles.getUncompressedName(path).endsWith(Interpreter.BINARY),
+            CompressedFiles.isCompressed(path),
+            this.lazy,
+            this.delta
+        );
+        return ResultCache.key(content, this.program.getTransformationsDigest(), options);
+    }
+
+    /**
+     * Stores the resulting file in the cache. A failure is not an error of the conversion,
+     *  since the resulting file is written, so it is only logged.
+     * @param key The key
+     */
+    private void remember(final String key) {
+        try {
+            this.cache.store(key, this.destination.toPath());
+        } catch (final IOException exception) {
+            Interpreter.LOG.warning(
+                String.format("Could not store the result in the cache: %s", exception)
+            );
+        }
+    }
+
+    /**
+     * Creates the exception "Could not read the file that contains source syntax tree".
+     * @return The exception
+     */
+    private InterpreterException couldNotRead() {
+        return new InterpreterException() {
+            private static final long serialVersionUID = -2486266117492218703L;
+
+            @Override
+            public String getErrorMessage() {
+                return String.format(
+                    "Could not read the file that contains source syntax tree: %s",
+                    Interpreter.this.source.getPath()
+                );
+            }
+        };
+    }
+
+    /**
+     * Transforms the tree, with the timeout if it is set.
+     * @param root The root of the source tree
+     * @return The root of the resulting tree
+     * @throws ConversionTimedOut If the timeout has expired
+     */
+    private Node transform(final Node root) throws ConversionTimedOut {
+        final Node result;
+        if (this.timeout == null) {
+            result = new Adapter(this.program.getTransformations(), DefaultFactory.EMPTY)
+                .convert(root);
+        } else {
+            final Watchdog watchdog = new Watchdog(this.timeout, new CancellationToken());
+            try {
+                result = watchdog.watch(
+                    new Adapter(this.program.getTransformations(), DefaultFactory.EMPTY, watchdog),
+                    root
+                );
+            } catch (final TransformationInterrupted exception) {
+                throw new ConversionTimedOut(this.source.getPath(), this.timeout.toMillis());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Counts nodes of a tree.
+     * @param root The root node
+     * @return The number of nodes
+     */
+    private static int count(final Node root) {
+        final Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        int result = 0;
+        while (!stack.isEmpty()) {
+            final Node node = stack.pop();
+            result = result + 1;
+            final int children = node.getChildCount();
+            for (int index = 0; index < children; index = index + 1) {
+                stack.push(node.getChild(index));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads the source tree, the format is selected by the file extension,
+     *  a file with the .gz extension is decompressed, and counts its nodes.
+     *  Nodes of a tree loaded in the lazy mode are counted by its structural index,
+     *  without creating views of them.
+     * @param strings The pool that deduplicates data strings of a file in JSON format
+     * @return The tree
+     * @throws IOException If the file can not be read
+     */
+    private Tree read(final StringPool strings) throws IOException {
+        final Tree tree;
+        final Path path = this.source.toPath();
+        boolean counted = false;
+        if (CompressedFiles.getUncompressedName(path).endsWith(Interpreter.BINARY)) {
+            final BinaryTreeReader reader = new BinaryTreeReader(path);
+            if (this.columnar) {
+                tree = reader.readColumnar(false).toTree();
+            } else {
+                tree = reader.read();
+            }
+        } else if (this.lazy && !CompressedFiles.isCompressed(path)) {
+            final LazyJsonTree lazy = LazyJsonTree.load(path, DefaultFactory.EMPTY);
+            this.nodes = lazy.size();
+            counted = true;
+            tree = lazy.toTree();
+        } else if (this.threads > 1 && !this.columnar && !CompressedFiles.isCompressed(path)) {
+            tree = this.readInParallel(path, strings);
+        } else {
+            final JsonStreamDeserializer deserializer = new JsonStreamDeserializer(path);
+            deserializer.setStringPool(strings);
+            if (this.columnar) {
+                tree = deserializer.deserializeColumnar(false).toTree();
+            } else {
+                tree = deserializer.deserialize();
+            }
+        }
+        if (!counted) {
+            this.nodes = Interpreter.count(tree.getRoot());
+        }
+        return tree;
+    }
+
+    /**
+     * Reads the source tree in JSON format using several threads.
+     * @param path The path to the source file
+     * @param strings The pool that deduplicates data strings
+     * @return The tree
+     * @throws IOException If the file can not be read
+     */
+    private Tree readInParallel(final Path path, final StringPool strings)
+        throws IOException {
+        final ParallelJsonDeserializer deserializer = new ParallelJsonDeserializer(path);
+        deserializer.setStringPool(strings);
+        final ForkJoinPool pool = new ForkJoinPool(this.threads);
+        deserializer.setPool(pool);
+        final Tree tree;
+        try {
+            tree = deserializer.deserialize();
+        } finally {
+            pool.shutdownNow();
+        }
+        return tree;
+    }
+
+    /**
+     * Writes the resulting tree, the format is selected by the file extension,
+     *  a file with the .gz extension is compressed.
+     * @param tree The tree
+     * @throws IOException If the file can not be written
+     */
+    private void write(final Tree tree) throws IOException {
+        final Path path = this.destination.toPath();
+        if (CompressedFiles.getUncompressedName(path).endsWith(Interpreter.BINARY)) {
+            new BinaryTreeWriter(tree).write(path);
+        } else {
+            new JsonStreamSerializer(tree).serialize(path);
+        }
+    }
 }
@@ -0,0 +1,352 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.interpreter;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Journal of a batch conversion that allows a restarted job to skip files that are
+ * already converted. The journal is a text file, one record per line:
+ * <ul>
+ *     <li>{@code S <source> <content hash> <rules hash>}, the conversion of the file
+ *     is started;</li>
+ *     <li>{@code D <source> <content hash> <rules hash>}, the file is converted.</li>
+ * </ul>
+ * A file is skipped if it is recorded as converted with the same content and the same rules.
+ * A file whose conversion was started several times with the same content and the same rules
+ * without completion (because the process crashed, or the conversion failed or timed out)
+ * is quarantined, that is, it is not converted any more until the file or the rules change.
+ * A record of the start is written to the file (but not forced to the storage) before
+ * the conversion starts, so a crash of the process during the conversion is always counted:
+ * the written data is kept by the operating system. Records of converted files are
+ * collected in memory and written by a background thread; all written records are forced
+ * to the storage by this thread with a single {@code fsync} per batch, so the journal does
+ * not slow down the conversion. Records of the last fraction of a second may be lost when
+ * the process is killed or the system fails, in which case a few files are just converted
+ * again or a crash is not counted.
+ *
+ * @since 0.2.22
+ */
+final class Journal implements Closeable {
+    /**
+     * The interval between writes of collected records, in milliseconds.
+     */
+    private static final long INTERVAL = 200;
+
+    /**
+     * The size of collected records that causes an immediate write, in characters.
+     */
+    private static final int THRESHOLD = 65_536;
+
+    /**
+     * The journal file.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Completed files: the source path mapped to the digests of the content and the rules.
+     */
+    private final Map<String, String> completed;
+
+    /**
+     * Started but not completed attempts: the source path mapped to the numbers of attempts
+     *  for each pair of digests of the content and the rules.
+     */
+    private final Map<String, Map<String, Integer>> attempts;
+
+    /**
+     * Records that are not written yet.
+     */
+    private final StringBuilder buffer;
+
+    /**
+     * The thread that writes collected records.
+     */
+    private final ScheduledExecutorService flusher;
+
+    /**
+     * The maximum number of attempts before the file is quarantined.
+     */
+    private final int limit;
+
+    /**
+     * An error of the background write, it is thrown on the next call.
+     */
+    private IOException error;
+
+    /**
+     * Whether some records are written to the file but not forced to the storage yet,
+     *  guarded by the channel.
+     */
+    private boolean unforced;
+
+    /**
+     * Constructor.
+     * @param path The journal file, records of a previous run are loaded from it
+     * @param limit The maximum number of attempts before a file is quarantined
+     * @throws IOException If the journal can not be read or opened for writing
+     */
+    Journal(final Path path, final int limit) throws IOException {
+        this.completed = new HashMap<>();
+        this.attempts = new HashMap<>();
+        this.buffer = new StringBuilder(Journal.THRESHOLD);
+        this.limit = limit;
+        this.load(path);
+        this.channel = FileChannel.open(
+            path,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND
+        );
+        this.flusher = Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+                final Thread thread = new Thread(runnable, "journal-flusher");
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        this.flusher.scheduleWithFixedDelay(
+            this::flushQuietly, Journal.INTERVAL, Journal.INTERVAL, TimeUnit.MILLISECONDS
+        );
+    }
+
+    /**
+     * Checks whether the file is converted with the same content and rules.
+     * @param source The source file
+     * @param hash The digest of the content of the file
+     * @param rules The digest of the rules
+     * @return Checking result
+     */
+    synchronized boolean isCompleted(final Path source, final String hash, final String rules) {
+        return Journal.digests(hash, rules).equals(this.completed.get(Journal.key(source)));
+    }
+
+    /**
+     * Checks whether a previous run started to convert the file and did not complete it,
+     *  whatever the content of the file and the rules were.
+     * @param source The source file
+     * @return Checking result
+     */
+    synchronized boolean isUnfinished(final Path source) {
+        return this.attempts.containsKey(Journal.key(source));
+    }
+
+    /**
+     * Returns the number of attempts to convert the file with the same content and rules
+     *  that were not completed.
+     * @param source The source file
+     * @param hash The digest of the content of the file
+     * @param rules The digest of the rules
+     * @return The number of attempts
+     */
+    synchronized int getAttempts(final Path source, final String hash, final String rules) {
+        return this.attempts
+            .getOrDefault(Journal.key(source), Collections.emptyMap())
+            .getOrDefault(Journal.digests(hash, rules), 0);
+    }
+
+    /**
+     * Checks whether the file with the same content and rules is quarantined.
+     * @param source The source file
+     * @param hash The digest of the content of the file
+     * @param rules The digest of the rules
+     * @return Checking result
+     */
+    synchronized boolean isQuarantined(final Path source, final String hash,
+        final String rules) {
+        return this.getAttempts(source, hash, rules) >= this.limit;
+    }
+
+    /**
+     * Records that the conversion of the file is started. The record is written
+     *  to the file immediately, together with the collected records, and is forced
+     *  to the storage by the background thread.
+     * @param source The source file
+     * @param hash The digest of the content of the file
+     * @param rules The digest of the rules
+     * @throws IOException If the journal can not be written
+     */
+    void started(final Path source, final String hash, final String rules)
+        throws IOException {
+        this.append(
+            String.format("S\t%s\t%s\n", Journal.key(source), Journal.digests(hash, rules))
+        );
+        this.write();
+    }
+
+    /**
+     * Records that the file is converted.
+     * @param source The source file
+     * @param hash The digest of the content of the file
+     * @param rules The digest of the rules
+     * @throws IOException If a previous write failed
+     */
+    void completed(final Path source, final String hash, final String rules)
+        throws IOException {
+        this.append(
+            String.format("D\t%s\t%s\n", Journal.key(source), Journal.digests(hash, rules))
+        );
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.flusher.shutdown();
+        try {
+            this.flusher.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (final InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            this.flush();
+        } finally {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * Appends a record to the buffer, writes the buffer if it is too large.
+     * @param record The record
+     * @throws IOException If a write failed
+     */
+    private void append(final String record) throws IOException {
+        final boolean full;
+        synchronized (this) {
+            if (this.error != null) {
+                throw this.error;
+            }
+            this.buffer.append(record);
+            full = this.buffer.length() >= Journal.THRESHOLD;
+        }
+        if (full) {
+            this.flush();
+        }
+    }
+
+    /**
+     * Writes collected records, errors are stored and thrown by the next call.
+     */
+    private void flushQuietly() {
+        try {
+            this.flush();
+        } catch (final IOException exception) {
+            synchronized (this) {
+                this.error = exception;
+            }
+        }
+    }
+
+    /**
+     * Writes collected records and forces all written records to the storage.
+     * @throws IOException If the journal can not be written
+     */
+    private void flush() throws IOException {
+        synchronized (this.channel) {
+            this.write();
+            if (this.unforced) {
+                this.channel.force(false);
+                this.unforced = false;
+            }
+        }
+    }
+
+    /**
+     * Writes collected records to the file without forcing them to the storage.
+     * @throws IOException If the journal can not be written
+     */
+    private void write() throws IOException {
+        synchronized (this.channel) {
+            final String records;
+            synchronized (this) {
+                records = this.buffer.toString();
+                this.buffer.setLength(0);
+            }
+            if (!records.isEmpty()) {
+                final ByteBuffer bytes = ByteBuffer.wrap(records.getBytes(StandardCharsets.UTF_8));
+                while (bytes.hasRemaining()) {
+                    this.channel.write(bytes);
+                }
+                this.unforced = true;
+            }
+        }
+    }
+
+    /**
+     * Loads records of a previous run.
+     * @param path The journal file
+     * @throws IOException If the journal can not be read
+     */
+    private void load(final Path path) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            while (line != null) {
+                final String[] fields = line.split("\t", -1);
+                if (fields.length == 4 && "S".equals(fields[0])) {
+                    this.attempts
+                        .computeIfAbsent(fields[1], key -> new HashMap<>())
+                        .merge(Journal.digests(fields[2], fields[3]), 1, Integer::sum);
+                } else if (fields.length == 4 && "D".equals(fields[0])) {
+                    this.attempts.remove(fields[1]);
+                    this.completed.put(fields[1], Journal.digests(fields[2], fields[3]));
+                }
+                line = reader.readLine();
+            }
+        } catch (final NoSuchFileException ignored) {
+            this.completed.clear();
+        }
+    }
+
+    /**
+     * Joins the digests of the content and the rules.
+     * @param hash The digest of the content of the file
+     * @param rules The digest of the rules
+     * @return The digests separated by a tab
+     */
+    private static String digests(final String hash, final String rules) {
+        return String.join("\t", hash, rules);
+    }
+
+    /**
+     * Returns the key of a file in the journal.
+     * @param source The source file
+     * @return The absolute normalized path
+     */
+    private static String key(final Path source) {
+        return source.toAbsolutePath().normalize().toString();
+    }
+}
@@ -68,12 +68,15 @@ public final class Matcher implements org.cqfn.astranaut.core.algorithms.convers
     }
 
     /**
-     * Checks the type matches.
+     * Checks the type matches. Type names of descriptors and of loaded nodes are interned,
+     *  so the names are compared by identity first.
      * @param node The node
      * @return Checking result, {@code true} if the type matches
      */
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
     private boolean checkType(final Node node) {
-        return node.belongsToGroup(this.descriptor.getType());
+        final String type = this.descriptor.getType();
+        return node.getTypeName() == type || node.belongsToGroup(type);
     }
 
     /**
@@ -0,0 +1,446 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.interpreter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.cqfn.astranaut.Main;
+import org.cqfn.astranaut.exceptions.CouldNotCollectSources;
+import org.cqfn.astranaut.exceptions.DuplicateDestination;
+import org.cqfn.astranaut.exceptions.InterpreterException;
+import org.cqfn.astranaut.exceptions.SpoolNotAccessible;
+
+/**
+ * Coordinator of the sharded conversion of a large set of files by several processes.
+ * The coordinator splits the set of source files into shards, saves them to the spool
+ * directory and launches local worker processes (see {@link ShardWorker}), each
+ * with its own heap. When all workers exit, shards left claimed by crashed workers
+ * are returned to the queue, and files that failed are collected into new shards;
+ * then workers are launched again, up to the specified number of retries.
+ * Workers record conversions of each shard in its journal, so a shard that is converted
+ * again after a crash skips converted files, and the file that crashed the worker
+ * is quarantined after the specified number of attempts. Launches after crashes
+ * do not count as retries, as long as their number does not exceed the number
+ * of attempts.
+ * Finally, reports of all shards are merged into a single report.
+ * If the spool directory already contains shards, the coordinator does not split
+ * the input again but resumes the interrupted conversion.
+ *
+ * @since 0.2.22
+ */
+public final class ShardCoordinator {
+    /**
+     * The spool directory.
+     */
+    private final Path root;
+
+    /**
+     * The file that contains DSL rules.
+     */
+    private final File rules;
+
+    /**
+     * The output directory.
+     */
+    private final Path output;
+
+    /**
+     * The number of worker processes.
+     */
+    private int workers;
+
+    /**
+     * The number of threads in each worker process.
+     */
+    private int threads;
+
+    /**
+     * The maximum number of files in a shard.
+     */
+    private int size;
+
+    /**
+     * The number of retries of failed files.
+     */
+    private int retries;
+
+    /**
+     * The maximum number of attempts to convert a file before it is quarantined.
+     */
+    private int attempts;
+
+    /**
+     * The directory of the cache of results, or {@code null} if results are not cached.
+     */
+    private Path cache;
+
+    /**
+     * The maximum total size of the cache of results, in megabytes.
+     */
+    private long capacity;
+
+    /**
+     * Additional options passed to worker processes.
+     */
+    private final List<String> options;
+
+    /**
+     * Options of the Java virtual machine of worker processes.
+     */
+    private final List<String> jvm;
+
+    /**
+     * Constructor.
+     * @param spool The spool directory
+     * @param rules The file that contains DSL rules
+     * @param output The output directory
+     */
+    public ShardCoordinator(final Path spool, final File rules, final Path output) {
+        this.root = spool;
+        this.rules = rules;
+        this.output = output;
+        this.workers = 2;
+        this.threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.size = 1000;
+        this.retries = 2;
+        this.attempts = 3;
+        this.options = new ArrayList<>(2);
+        this.jvm = new ArrayList<>(0);
+    }
+
+    /**
+     * Sets the number of worker processes.
+     * @param value The number of processes
+     */
+    public void setWorkers(final int value) {
+        this.workers = Math.max(1, value);
+    }
+
+    /**
+     * Sets the number of threads in each worker process.
+     * @param value The number of threads
+     */
+    public void setThreads(final int value) {
+        this.threads = Math.max(1, value);
+    }
+
+    /**
+     * Sets the maximum number of files in a shard.
+     * @param value The number of files
+     */
+    public void setShardSize(final int value) {
+        this.size = Math.max(1, value);
+    }
+
+    /**
+     * Sets the number of retries of failed files.
+     * @param value The number of retries
+     */
+    public void setRetries(final int value) {
+        this.retries = Math.max(0, value);
+    }
+
+    /**
+     * Sets the maximum number of attempts to convert a file before it is quarantined.
+     * @param value The number of attempts, 3 by default
+     */
+    public void setAttempts(final int value) {
+        this.attempts = Math.max(1, value);
+    }
+
+    /**
+     * Sets the cache of results shared by workers,
+     *  see {@link Interpreter#setCache(org.cqfn.astranaut.api.ResultCache)}.
+     *  Each worker limits the size of its own entries only, so the size is divided
+     *  between workers.
+     * @param directory The directory
+     * @param size The maximum total size of the cache, in megabytes
+     */
+    public void setCache(final Path directory, final long size) {
+        this.cache = directory;
+        this.capacity = size;
+    }
+
+    /**
+     * Sets options of the Java virtual machine of worker processes, for example,
+     *  the maximum size of the heap.
+     * @param values The options
+     */
+    public void setJvmOptions(final List<String> values) {
+        this.jvm.clear();
+        this.jvm.addAll(values);
+    }
+
+    /**
+     * Sets the lazy mode of workers, see {@link Interpreter#setLazy(boolean)}.
+     * @param value {@code true} to enable the lazy mode
+     */
+    public void setLazy(final boolean value) {
+        if (value) {
+            this.options.add("--lazy");
+        }
+    }
+
+    /**
+     * Sets the columnar mode of workers, see {@link Interpreter#setColumnar(boolean)}.
+     * @param value {@code true} to enable the columnar mode
+     */
+    public void setColumnar(final boolean value) {
+        if (value) {
+            this.options.add("--columnar");
+        }
+    }
+
+    /**
+     * Sets the delta mode of workers, see {@link Interpreter#setDelta(boolean)}.
+     * @param value {@code true} to enable the delta mode
+     */
+    public void setDelta(final boolean value) {
+        if (value) {
+            this.options.add("--delta");
+        }
+    }
+
+    /**
+     * Sets the timeout of the transformation of each file.
+     * @param millis The timeout in milliseconds, zero if the transformation time
+     *  is not limited
+     */
+    public void setTimeout(final long millis) {
+        if (millis > 0) {
+            this.options.add("--timeout");
+            this.options.add(Long.toString(millis));
+        }
+    }
+
+    /**
+     * Sets the validation mode, in which workers check the whole DSL program
+     *  and not only transformations.
+     * @param value {@code true} to enable the validation mode
+     */
+    public void setValidate(final boolean value) {
+        if (value) {
+            this.options.add("--validate");
+        }
+    }
+
+    /**
+     * Sets the directory of snapshots of parsed DSL programs, so that workers load
+     *  the program instead of parsing it.
+     * @param directory The directory
+     */
+    public void setSnapshots(final Path directory) {
+        this.options.add("--snapshots");
+        this.options.add(directory.toAbsolutePath().toString());
+    }
+
+    /**
+     * Converts the set of files.
+     * @param input The directory, glob pattern or manifest file, see {@link BatchConverter}
+     * @return The merged report
+     * @throws InterpreterException If the set of source files can not be collected
+     *  or the spool directory can not be accessed
+     */
+    public BatchReport run(final String input) throws InterpreterException {
+        final long start = System.nanoTime();
+        final Spool spool = new Spool(this.root);
+        try {
+            spool.create();
+            if (spool.isStarted()) {
+                spool.requeueClaimed();
+            } else {
+                this.split(spool, input);
+            }
+            int round = 0;
+            int crashes = 0;
+            while (round <= this.retries && !spool.listPending().isEmpty()) {
+                this.launch(spool, Math.min(this.workers, spool.listPending().size()));
+                if (spool.requeueClaimed() > 0 && crashes <= this.attempts) {
+                    crashes = crashes + 1;
+                } else {
+                    if (round < this.retries) {
+                        this.retry(spool, round + 1);
+                    }
+                    round = round + 1;
+                }
+            }
+            return new BatchReport(ShardCoordinator.merge(spool), System.nanoTime() - start);
+        } catch (final IOException exception) {
+            throw new SpoolNotAccessible(this.root.toString());
+        }
+    }
+
+    /**
+     * Splits the set of files into shards.
+     * @param spool The spool
+     * @param input The directory, glob pattern or manifest file
+     * @throws CouldNotCollectSources If the set of source files can not be collected
+     * @throws DuplicateDestination If several source files are converted to the same file
+     * @throws IOException If the spool can not be written
+     */
+    private void split(final Spool spool, final String input)
+        throws CouldNotCollectSources, DuplicateDestination, IOException {
+        final List<Path[]> jobs;
+        try {
+            jobs = BatchConverter.collect(input);
+        } catch (final IOException | InvalidPathException exception) {
+            throw new CouldNotCollectSources(input);
+        }
+        for (int first = 0; first < jobs.size(); first = first + this.size) {
+            final List<Path[]> shard = new ArrayList<>(
+                jobs.subList(first, Math.min(jobs.size(), first + this.size))
+            );
+            for (int index = 0; index < shard.size(); index = index + 1) {
+                final Path[] job = shard.get(index);
+                shard.set(index, new Path[] {job[0].toAbsolutePath(), job[1]});
+            }
+            spool.offer(
+                String.format(Locale.ROOT, "shard-%06d", first / this.size + 1), shard
+            );
+        }
+    }
+
+    /**
+     * Launches worker processes and waits until they exit.
+     * @param spool The spool
+     * @param count The number of processes
+     * @throws IOException If a process can not be launched
+     */
+    private void launch(final Spool spool, final int count) throws IOException {
+        final List<Process> processes = new ArrayList<>(count);
+        try {
+            for (int index = 0; index < count; index = index + 1) {
+                final ProcessBuilder builder = new ProcessBuilder(this.command());
+                builder.redirectErrorStream(true);
+                builder.redirectOutput(
+                    ProcessBuilder.Redirect.appendTo(spool.getLog(index + 1).toFile())
+                );
+                processes.add(builder.start());
+            }
+            for (final Process process : processes) {
+                process.waitFor();
+            }
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for workers", exception);
+        } finally {
+            for (final Process process : processes) {
+                process.destroy();
+            }
+        }
+    }
+
+    /**
+     * Builds the command line of a worker process.
+     * @return The command line
+     */
+    List<String> command() {
+        final List<String> command = new ArrayList<>(16);
+        command.add(
+            Paths.get(System.getProperty("java.home"), "bin", "java").toString()
+        );
+        command.addAll(this.jvm);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(Main.class.getName());
+        command.add("--action");
+        command.add("worker");
+        command.add("--rules");
+        command.add(this.rules.getAbsolutePath());
+        command.add("--spool");
+        command.add(this.root.toAbsolutePath().toString());
+        command.add("--output");
+        command.add(this.output.toAbsolutePath().toString());
+        command.add("--threads");
+        command.add(Integer.toString(this.threads));
+        command.add("--attempts");
+        command.add(Integer.toString(this.attempts));
+        if (this.cache != null) {
+            command.add("--cache");
+            command.add(this.cache.toAbsolutePath().toString());
+            command.add("--cache-size");
+            command.add(Long.toString(Math.max(1, this.capacity / this.workers)));
+        }
+        command.addAll(this.options);
+        return command;
+    }
+
+    /**
+     * Collects files that failed into new shards, removing them from existing reports.
+     * @param spool The spool
+     * @param attempt The number of the attempt
+     * @throws IOException If the spool can not be accessed
+     */
+    private void retry(final Spool spool, final int attempt) throws IOException {
+        final Path base = this.output.toAbsolutePath();
+        for (final String name : spool.listReports()) {
+            final List<BatchReport.Entry> succeeded = new ArrayList<>(16);
+            final List<Path[]> failed = new ArrayList<>(16);
+            for (final BatchReport.Entry entry : spool.readReport(name)) {
+                if (entry.isSuccessful()) {
+                    succeeded.add(entry);
+                } else {
+                    failed.add(
+                        new Path[] {
+                            entry.getSource(),
+                            base.relativize(entry.getDestination().toAbsolutePath()),
+                        }
+                    );
+                }
+            }
+            if (!failed.isEmpty()) {
+                spool.offer(String.format(Locale.ROOT, "%s.r%d", name, attempt), failed);
+                spool.saveReport(name, new BatchReport(succeeded, 0));
+            }
+        }
+    }
+
+    /**
+     * Merges reports of all shards. Files of shards that were never converted
+     *  are listed as failures.
+     * @param spool The spool
+     * @return Entries of the merged report
+     * @throws IOException If the spool can not be read
+     */
+    private static List<BatchReport.Entry> merge(final Spool spool) throws IOException {
+        final List<BatchReport.Entry> entries = new ArrayList<>(1024);
+        for (final String name : spool.listReports()) {
+            entries.addAll(spool.readReport(name));
+        }
+        for (final String name : spool.listPending()) {
+            for (final Path[] job : spool.readPending(name)) {
+                entries.add(
+                    new BatchReport.Entry(job[0], job[1], 0, 0, 0, "not converted")
+                );
+            }
+        }
+        return entries;
+    }
+}
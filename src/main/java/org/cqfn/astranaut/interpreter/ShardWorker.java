@@ -0,0 +1,147 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.interpreter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.cqfn.astranaut.api.ResultCache;
+import org.cqfn.astranaut.exceptions.InterpreterException;
+import org.cqfn.astranaut.exceptions.SpoolNotAccessible;
+import org.cqfn.astranaut.rules.Program;
+
+/**
+ * Worker of the sharded conversion. It claims shards from the spool directory one by one,
+ * converts files of each shard by the {@link BatchConverter} and saves reports to the spool,
+ * until there are no pending shards.
+ * Since shards are small and are claimed on demand, a fast worker takes more shards
+ * and a slow worker does not hold back the rest of the corpus.
+ * Each shard is converted with its journal, so when a shard is converted again after
+ * the worker crashed, files that are already converted are skipped, and a file that
+ * crashes the worker every time is quarantined after the specified number of attempts.
+ *
+ * @since 0.2.22
+ */
+public final class ShardWorker {
+    /**
+     * The spool directory.
+     */
+    private final Path root;
+
+    /**
+     * The converter.
+     */
+    private final BatchConverter converter;
+
+    /**
+     * Constructor.
+     * @param spool The spool directory
+     * @param program The DSL program
+     * @param output The output directory
+     */
+    public ShardWorker(final Path spool, final Program program, final Path output) {
+        this.root = spool;
+        this.converter = new BatchConverter(program, output);
+    }
+
+    /**
+     * Sets the number of threads, see {@link BatchConverter#setThreads(int)}.
+     * @param value The number of threads
+     */
+    public void setThreads(final int value) {
+        this.converter.setThreads(value);
+    }
+
+    /**
+     * Sets the lazy mode, see {@link Interpreter#setLazy(boolean)}.
+     * @param value {@code true} to enable the lazy mode
+     */
+    public void setLazy(final boolean value) {
+        this.converter.setLazy(value);
+    }
+
+    /**
+     * Sets the columnar mode, see {@link Interpreter#setColumnar(boolean)}.
+     * @param value {@code true} to enable the columnar mode
+     */
+    public void setColumnar(final boolean value) {
+        this.converter.setColumnar(value);
+    }
+
+    /**
+     * Sets the delta mode, see {@link Interpreter#setDelta(boolean)}.
+     * @param value {@code true} to enable the delta mode
+     */
+    public void setDelta(final boolean value) {
+        this.converter.setDelta(value);
+    }
+
+    /**
+     * Sets the maximum number of attempts to convert a file before it is quarantined,
+     *  see {@link BatchConverter#setAttempts(int)}.
+     * @param value The number of attempts
+     */
+    public void setAttempts(final int value) {
+        this.converter.setAttempts(value);
+    }
+
+    /**
+     * Sets the cache of results, see {@link BatchConverter#setCache(ResultCache)}.
+     * @param value The cache, or {@code null} if results are not cached
+     */
+    public void setCache(final ResultCache value) {
+        this.converter.setCache(value);
+    }
+
+    /**
+     * Sets the timeout of the transformation of each file,
+     *  see {@link BatchConverter#setTimeout(Duration)}.
+     * @param value The timeout, or {@code null} if the transformation time is not limited
+     */
+    public void setTimeout(final Duration value) {
+        this.converter.setTimeout(value);
+    }
+
+    /**
+     * Converts shards until there are no pending shards.
+     * @return The number of converted shards
+     * @throws InterpreterException If the spool directory can not be accessed
+     */
+    public int run() throws InterpreterException {
+        final Spool spool = new Spool(this.root);
+        int count = 0;
+        try {
+            String name = spool.claim();
+            while (name != null) {
+                this.converter.setJournal(spool.getJournal(name));
+                spool.complete(name, this.converter.convert(spool.read(name)));
+                count = count + 1;
+                name = spool.claim();
+            }
+        } catch (final IOException exception) {
+            throw new SpoolNotAccessible(this.root.toString());
+        }
+        return count;
+    }
+}
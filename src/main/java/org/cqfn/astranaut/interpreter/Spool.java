@@ -0,0 +1,327 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.interpreter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The spool directory that coordinates the sharded conversion between processes.
+ * Shards are text files, one source file per line (the source path and the relative
+ * path of the result, separated by a tab). A shard is claimed by moving it atomically
+ * from the {@code pending} folder to the {@code claimed} folder, so exactly one worker
+ * gets it; after the conversion, the worker saves the report to the {@code done} folder
+ * and removes the claimed shard. Conversions of each shard are recorded in its journal
+ * (see {@link Journal}) in the {@code journals} folder, a shard of retries of failed
+ * files shares the journal with the original shard.
+ *
+ * @since 0.2.22
+ */
+final class Spool {
+    /**
+     * The extension of shard files.
+     */
+    private static final String SHARD = ".txt";
+
+    /**
+     * The extension of report files.
+     */
+    private static final String REPORT = ".tsv";
+
+    /**
+     * Folder with shards that are waiting for a worker.
+     */
+    private final Path pending;
+
+    /**
+     * Folder with shards that are being converted.
+     */
+    private final Path claimed;
+
+    /**
+     * Folder with reports of converted shards.
+     */
+    private final Path done;
+
+    /**
+     * Folder with logs of worker processes.
+     */
+    private final Path logs;
+
+    /**
+     * Folder with journals of shards.
+     */
+    private final Path journals;
+
+    /**
+     * Constructor.
+     * @param root The spool directory
+     */
+    Spool(final Path root) {
+        this.pending = root.resolve("pending");
+        this.claimed = root.resolve("claimed");
+        this.done = root.resolve("done");
+        this.logs = root.resolve("logs");
+        this.journals = root.resolve("journals");
+    }
+
+    /**
+     * Creates the folders of the spool.
+     * @throws IOException If the folders can not be created
+     */
+    void create() throws IOException {
+        Files.createDirectories(this.pending);
+        Files.createDirectories(this.claimed);
+        Files.createDirectories(this.done);
+        Files.createDirectories(this.logs);
+        Files.createDirectories(this.journals);
+    }
+
+    /**
+     * Checks whether the spool contains shards or reports of a previous run.
+     * @return Checking result
+     * @throws IOException If the spool can not be read
+     */
+    boolean isStarted() throws IOException {
+        return !Spool.list(this.pending, Spool.SHARD).isEmpty()
+            || !Spool.list(this.claimed, Spool.SHARD).isEmpty()
+            || !Spool.list(this.done, Spool.REPORT).isEmpty();
+    }
+
+    /**
+     * Adds a shard to the queue.
+     * @param name The name of the shard
+     * @param jobs Pairs of paths: the source file and the relative path of the result
+     * @throws IOException If the shard can not be written
+     */
+    void offer(final String name, final List<Path[]> jobs) throws IOException {
+        final List<String> lines = new ArrayList<>(jobs.size());
+        for (final Path[] job : jobs) {
+            lines.add(String.join("\t", job[0].toString(), job[1].toString()));
+        }
+        final Path temp = this.pending.resolve(name.concat(".tmp"));
+        Files.write(temp, lines, StandardCharsets.UTF_8);
+        Files.move(
+            temp, this.pending.resolve(name.concat(Spool.SHARD)), StandardCopyOption.ATOMIC_MOVE
+        );
+    }
+
+    /**
+     * Claims the next pending shard.
+     * @return The name of the shard, or {@code null} if there are no pending shards
+     * @throws IOException If the spool can not be read
+     */
+    String claim() throws IOException {
+        final List<String> names = Spool.list(this.pending, Spool.SHARD);
+        String result = null;
+        for (int index = 0; result == null && index < names.size(); index = index + 1) {
+            final String name = names.get(index);
+            try {
+                Files.move(
+                    this.pending.resolve(name.concat(Spool.SHARD)),
+                    this.claimed.resolve(name.concat(Spool.SHARD)),
+                    StandardCopyOption.ATOMIC_MOVE
+                );
+                result = name;
+            } catch (final NoSuchFileException ignored) {
+                result = null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads a claimed shard.
+     * @param name The name of the shard
+     * @return Pairs of paths: the source file and the relative path of the result
+     * @throws IOException If the shard can not be read
+     */
+    List<Path[]> read(final String name) throws IOException {
+        return Spool.readShard(this.claimed.resolve(name.concat(Spool.SHARD)));
+    }
+
+    /**
+     * Reads a pending shard.
+     * @param name The name of the shard
+     * @return Pairs of paths: the source file and the relative path of the result
+     * @throws IOException If the shard can not be read
+     */
+    List<Path[]> readPending(final String name) throws IOException {
+        return Spool.readShard(this.pending.resolve(name.concat(Spool.SHARD)));
+    }
+
+    /**
+     * Returns names of pending shards.
+     * @return Sorted list of names
+     * @throws IOException If the spool can not be read
+     */
+    List<String> listPending() throws IOException {
+        return Spool.list(this.pending, Spool.SHARD);
+    }
+
+    /**
+     * Saves the report of a claimed shard and removes the shard from the claimed ones.
+     * @param name The name of the shard
+     * @param report The report
+     * @throws IOException If the report can not be written
+     */
+    void complete(final String name, final BatchReport report) throws IOException {
+        this.saveReport(name, report);
+        Files.delete(this.claimed.resolve(name.concat(Spool.SHARD)));
+    }
+
+    /**
+     * Saves the report of a shard, replacing the previous one.
+     * @param name The name of the shard
+     * @param report The report
+     * @throws IOException If the report can not be written
+     */
+    void saveReport(final String name, final BatchReport report) throws IOException {
+        final Path temp = this.done.resolve(name.concat(".tmp"));
+        report.write(temp);
+        Files.move(
+            temp,
+            this.done.resolve(name.concat(Spool.REPORT)),
+            StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING
+        );
+    }
+
+    /**
+     * Returns shards claimed by workers that are no longer running to the queue.
+     * @return The number of returned shards
+     * @throws IOException If the spool can not be modified
+     */
+    int requeueClaimed() throws IOException {
+        final List<String> names = Spool.list(this.claimed, Spool.SHARD);
+        for (final String name : names) {
+            Files.move(
+                this.claimed.resolve(name.concat(Spool.SHARD)),
+                this.pending.resolve(name.concat(Spool.SHARD)),
+                StandardCopyOption.ATOMIC_MOVE
+            );
+        }
+        return names.size();
+    }
+
+    /**
+     * Returns names of shards that have reports.
+     * @return Sorted list of names
+     * @throws IOException If the spool can not be read
+     */
+    List<String> listReports() throws IOException {
+        return Spool.list(this.done, Spool.REPORT);
+    }
+
+    /**
+     * Reads the report of a shard.
+     * @param name The name of the shard
+     * @return Entries of the report
+     * @throws IOException If the report can not be read
+     */
+    List<BatchReport.Entry> readReport(final String name) throws IOException {
+        return BatchReport.read(this.done.resolve(name.concat(Spool.REPORT)));
+    }
+
+    /**
+     * Returns the path to the log file of a worker.
+     * @param worker The index of the worker
+     * @return The path
+     */
+    Path getLog(final int worker) {
+        return this.logs.resolve(String.format("worker-%d.log", worker));
+    }
+
+    /**
+     * Returns the path to the journal of a shard.
+     * @param name The name of the shard
+     * @return The path
+     */
+    Path getJournal(final String name) {
+        final int dot = name.indexOf('.');
+        final String base;
+        if (dot > 0) {
+            base = name.substring(0, dot);
+        } else {
+            base = name;
+        }
+        return this.journals.resolve(base.concat(".journal"));
+    }
+
+    /**
+     * Reads a shard file.
+     * @param file The path to the file
+     * @return Pairs of paths: the source file and the relative path of the result
+     * @throws IOException If the file can not be read
+     */
+    private static List<Path[]> readShard(final Path file) throws IOException {
+        final List<Path[]> jobs = new ArrayList<>(16);
+        for (final String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            final int tab = line.indexOf('\t');
+            if (tab > 0) {
+                jobs.add(
+                    new Path[] {
+                        Paths.get(line.substring(0, tab)),
+                        Paths.get(line.substring(tab + 1)),
+                    }
+                );
+            }
+        }
+        return jobs;
+    }
+
+    /**
+     * Lists names of files with the given extension in a folder.
+     * @param folder The folder
+     * @param extension The extension
+     * @return Sorted list of file names without the extension
+     * @throws IOException If the folder can not be read
+     */
+    private static List<String> list(final Path folder, final String extension)
+        throws IOException {
+        final List<String> result;
+        if (Files.isDirectory(folder)) {
+            try (Stream<Path> stream = Files.list(folder)) {
+                result = stream
+                    .map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(extension))
+                    .map(name -> name.substring(0, name.length() - extension.length()))
+                    .sorted()
+                    .collect(Collectors.toList());
+            }
+        } else {
+            result = new ArrayList<>(0);
+        }
+        return result;
+    }
+}
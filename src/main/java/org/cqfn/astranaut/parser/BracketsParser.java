@@ -28,6 +28,7 @@ import org.cqfn.astranaut.exceptions.BracketsDoNotMatch;
 import org.cqfn.astranaut.exceptions.NotClosedBracket;
 import org.cqfn.astranaut.exceptions.ParserException;
 import org.cqfn.astranaut.scanner.Bracket;
+import org.cqfn.astranaut.scanner.PackedTokens;
 import org.cqfn.astranaut.scanner.Token;
 import org.cqfn.astranaut.scanner.TokenList;
 import org.cqfn.astranaut.scanner.TokenListBuilder;
@@ -55,10 +56,18 @@ public class BracketsParser {
      * Parses source token list.
      * @return A new tokens list, where brackets and also tokens inside brackets
      *  combined into non-terminals.
+     *  A packed list without brackets is returned as is.
      * @throws ParserException Parser exception
      */
     public TokenList parse() throws ParserException {
-        return this.parse(this.source.iterator(), '\0', '\0');
+        final TokenList result;
+        if (this.source instanceof PackedTokens
+            && !((PackedTokens) this.source).contains(PackedTokens.Kind.BRACKET)) {
+            result = this.source;
+        } else {
+            result = this.parse(this.source.iterator(), '\0', '\0');
+        }
+        return result;
     }
 
     /**
@@ -68,6 +77,7 @@ public class BracketsParser {
      * @param closing Closing bracket
      * @return A new tokens list, where brackets and also tokens inside brackets
      *  combined into non-terminals.
+     *  A packed list without brackets is returned as is.
      * @throws ParserException Parser exception
      */
     private TokenList parse(final Iterator<Token> tokens,
@@ -58,6 +58,32 @@ public class InstructionParser {
         this.language = "";
     }
 
+    /**
+     * Parses a statement found by {@link StatementReader}.
+     * @param statement The statement
+     * @throws ParserException If the statement can't be parsed.
+     */
+    public void parse(final Statement statement) throws ParserException {
+        this.language = statement.getLanguage();
+        switch (statement.getKind()) {
+            case NODE:
+                this.addNode(new NodeParser(statement.getLeft(), statement.getRight()).parse());
+                break;
+            case LITERAL:
+                this.addLiteral(
+                    new LiteralParser(statement.getLeft(), statement.getRight()).parse()
+                );
+                break;
+            case TRANSFORMATION:
+                this.addTransformation(
+                    new TransformationParser(statement.getLeft(), statement.getRight()).parse()
+                );
+                break;
+            default:
+                throw BadRuleSyntax.INSTANCE;
+        }
+    }
+
     /**
      * Parses line of code.
      * @param source The source line
@@ -85,25 +111,42 @@ public class InstructionParser {
     protected void parseDsl(final String source) throws ParserException {
         if (source.contains("<-")) {
             if (source.contains("$")) {
-                final Literal literal = new LiteralParser(source).parse();
-                this.program.addLiteralInstruction(
-                    new Instruction<Literal>(literal, this.language)
-                );
-                this.program.addVertexInstruction(
-                    new Instruction<Vertex>(literal, this.language)
-                );
+                this.addLiteral(new LiteralParser(source).parse());
             } else {
-                final Node node = new NodeParser(source).parse();
-                this.program.addNodeInstruction(new Instruction<Node>(node, this.language));
-                this.program.addVertexInstruction(new Instruction<Vertex>(node, this.language));
+                this.addNode(new NodeParser(source).parse());
             }
         } else if (source.contains("->")) {
-            final Transformation rule = new TransformationParser(source).parse();
-            this.program.addTransformInstruction(
-                new Instruction<Transformation>(rule, this.language)
-            );
+            this.addTransformation(new TransformationParser(source).parse());
         } else {
             throw BadRuleSyntax.INSTANCE;
         }
     }
+
+    /**
+     * Adds a node descriptor to the program.
+     * @param node The node descriptor
+     */
+    private void addNode(final Node node) {
+        this.program.addNodeInstruction(new Instruction<Node>(node, this.language));
+        this.program.addVertexInstruction(new Instruction<Vertex>(node, this.language));
+    }
+
+    /**
+     * Adds a literal descriptor to the program.
+     * @param literal The literal descriptor
+     */
+    private void addLiteral(final Literal literal) {
+        this.program.addLiteralInstruction(new Instruction<Literal>(literal, this.language));
+        this.program.addVertexInstruction(new Instruction<Vertex>(literal, this.language));
+    }
+
+    /**
+     * Adds a transformation descriptor to the program.
+     * @param rule The transformation descriptor
+     */
+    private void addTransformation(final Transformation rule) {
+        this.program.addTransformInstruction(
+            new Instruction<Transformation>(rule, this.language)
+        );
+    }
 }
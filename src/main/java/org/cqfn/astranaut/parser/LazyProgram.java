@@ -0,0 +1,421 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.parser;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import org.cqfn.astranaut.core.base.CoreException;
+import org.cqfn.astranaut.exceptions.ExceptionWithLineNumber;
+import org.cqfn.astranaut.exceptions.ParserException;
+import org.cqfn.astranaut.rules.Instruction;
+import org.cqfn.astranaut.rules.Literal;
+import org.cqfn.astranaut.rules.Node;
+import org.cqfn.astranaut.rules.Program;
+import org.cqfn.astranaut.rules.Rule;
+import org.cqfn.astranaut.rules.Transformation;
+import org.cqfn.astranaut.rules.Vertex;
+
+/**
+ * The DSL program whose statements are parsed on demand. The code is scanned once
+ * by {@link StatementReader} for statement boundaries and language sections,
+ * and a statement is parsed when the rules of its kind are requested for the first
+ * time: for example, a conversion that needs only transformations does not parse
+ * node and literal descriptors. Lists of rules and the digest of transformations are
+ * built once, when they are requested for the first time.
+ * Errors are reported with the same line numbers as {@link ProgramParser} does,
+ * either by the {@code parse...} methods and {@link LazyProgram#validate()}, or,
+ * when a getter is called, as an {@link IllegalStateException} with the same message.
+ * The lazy program is read-only; it is not a {@link Program}, but provides a program
+ * that contains its transformations, see {@link LazyProgram#parseTransformationProgram()}.
+ *
+ * @since 0.2.22
+ */
+public final class LazyProgram {
+    /**
+     * Statements in the order of the DSL code.
+     */
+    private final List<Entry> statements;
+
+    /**
+     * Names of all languages mentioned in the program.
+     */
+    private final Set<String> languages;
+
+    /**
+     * All rules, or {@code null} if they are not collected yet.
+     */
+    private List<Instruction<Rule>> rules;
+
+    /**
+     * Node descriptors, or {@code null} if they are not collected yet.
+     */
+    private List<Instruction<Node>> nodes;
+
+    /**
+     * Literal descriptors, or {@code null} if they are not collected yet.
+     */
+    private List<Instruction<Literal>> literals;
+
+    /**
+     * Node and literal descriptors, or {@code null} if they are not collected yet.
+     */
+    private List<Instruction<Vertex>> vertices;
+
+    /**
+     * Transformation descriptors, or {@code null} if they are not collected yet.
+     */
+    private List<Instruction<Transformation>> transformations;
+
+    /**
+     * The digest of transformations, or {@code null} if it is not computed yet.
+     */
+    private String digest;
+
+    /**
+     * Constructor.
+     * @param source The source string
+     */
+    public LazyProgram(final String source) {
+        this.statements = LazyProgram.scan(source);
+        final Set<String> names = new TreeSet<>();
+        for (final Entry statement : this.statements) {
+            if (!statement.language.isEmpty()) {
+                names.add(statement.language);
+            }
+        }
+        this.languages = Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * Returns the number of statements of the program.
+     * @return The number of statements
+     */
+    public int getStatementCount() {
+        return this.statements.size();
+    }
+
+    /**
+     * Returns the number of statements parsed so far.
+     * @return The number of parsed statements
+     */
+    public synchronized int getParsedStatementCount() {
+        int count = 0;
+        for (final Entry statement : this.statements) {
+            if (statement.parsed != null) {
+                count = count + 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Parses all statements, that is, validates the whole program.
+     * @throws CoreException If a statement can't be parsed, the error contains
+     *  the number of the first such statement
+     */
+    public synchronized void validate() throws CoreException {
+        for (final Entry statement : this.statements) {
+            this.parse(statement);
+        }
+    }
+
+    /**
+     * Parses transformation statements, as well as statements whose kind is unknown
+     *  (they are errors).
+     * @return Transformation descriptors
+     * @throws CoreException If a statement can't be parsed
+     */
+    public synchronized List<Instruction<Transformation>> parseTransformations()
+        throws CoreException {
+        if (this.transformations == null) {
+            this.transformations = this.collect(Program::getTransformations, false, true);
+        }
+        return this.transformations;
+    }
+
+    /**
+     * Parses transformation statements of one language section and statements common
+     *  for all languages, other sections are not parsed.
+     * @param language The name of the language
+     * @return Transformation descriptors
+     * @throws CoreException If a statement can't be parsed
+     */
+    public synchronized List<Instruction<Transformation>> parseTransformations(
+        final String language) throws CoreException {
+        final List<Instruction<Transformation>> result = new ArrayList<>(0);
+        for (final Entry statement : this.statements) {
+            final boolean selected = statement.language.isEmpty()
+                || statement.language.equals(language);
+            if (selected && statement.isTransformation()) {
+                result.addAll(this.parse(statement).getTransformations());
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Parses transformation statements and creates the program that contains them.
+     *  The program does not contain node and literal descriptors, so it is suitable
+     *  for conversions, but not for code generation.
+     * @return The new program
+     * @throws CoreException If a statement can't be parsed
+     */
+    public Program parseTransformationProgram() throws CoreException {
+        final Program program = new Program();
+        for (final Instruction<Transformation> instruction : this.parseTransformations()) {
+            program.addTransformInstruction(instruction);
+        }
+        return program;
+    }
+
+    /**
+     * Returns all rules, parsing all statements.
+     * @return The list of rules
+     */
+    public synchronized List<Instruction<Rule>> getAllRules() {
+        if (this.rules == null) {
+            this.rules = LazyProgram.unchecked(
+                () -> this.collect(Program::getAllRules, true, true)
+            );
+        }
+        return this.rules;
+    }
+
+    /**
+     * Returns node descriptors, parsing all statements except transformations.
+     * @return The list of node descriptors
+     */
+    public synchronized List<Instruction<Node>> getNodes() {
+        if (this.nodes == null) {
+            this.nodes = LazyProgram.unchecked(
+                () -> this.collect(Program::getNodes, true, false)
+            );
+        }
+        return this.nodes;
+    }
+
+    /**
+     * Returns literal descriptors, parsing all statements except transformations.
+     * @return The list of literal descriptors
+     */
+    public synchronized List<Instruction<Literal>> getLiterals() {
+        if (this.literals == null) {
+            this.literals = LazyProgram.unchecked(
+                () -> this.collect(Program::getLiterals, true, false)
+            );
+        }
+        return this.literals;
+    }
+
+    /**
+     * Returns node and literal descriptors, parsing all statements except transformations.
+     * @return The list of descriptors
+     */
+    public synchronized List<Instruction<Vertex>> getVertices() {
+        if (this.vertices == null) {
+            this.vertices = LazyProgram.unchecked(
+                () -> this.collect(Program::getVertices, true, false)
+            );
+        }
+        return this.vertices;
+    }
+
+    /**
+     * Returns transformation descriptors, parsing transformation statements.
+     * @return The list of transformation descriptors
+     */
+    public List<Instruction<Transformation>> getTransformations() {
+        return LazyProgram.unchecked(this::parseTransformations);
+    }
+
+    /**
+     * Returns the digest of transformations, see {@link Program#getTransformationsDigest()}.
+     * @return The digest
+     */
+    public synchronized String getTransformationsDigest() {
+        if (this.digest == null) {
+            this.digest = Program.getDigest(this.getTransformations());
+        }
+        return this.digest;
+    }
+
+    /**
+     * Returns names of all languages mentioned in the program.
+     * @return The set of names
+     */
+    public Set<String> getNamesOfAllLanguages() {
+        return this.languages;
+    }
+
+    /**
+     * Collects instructions of statements of the requested kinds, parsing them.
+     * @param getter The function that extracts instructions from the program of a statement
+     * @param vertices Flag indicating that node and literal statements are required
+     * @param transformations Flag indicating that transformation statements are required
+     * @param <T> Type of instructions
+     * @return The list of instructions
+     * @throws CoreException If a statement can't be parsed
+     */
+    private <T> List<T> collect(final Function<Program, List<T>> getter,
+        final boolean vertices, final boolean transformations) throws CoreException {
+        final List<T> result = new ArrayList<>(0);
+        for (final Entry statement : this.statements) {
+            final boolean required;
+            if (statement.kind == Statement.Kind.TRANSFORMATION) {
+                required = transformations;
+            } else if (statement.kind == Statement.Kind.UNKNOWN) {
+                required = true;
+            } else {
+                required = vertices;
+            }
+            if (required) {
+                result.addAll(getter.apply(this.parse(statement)));
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Parses a statement if it is not parsed yet.
+     * @param statement The statement
+     * @return The program that contains instructions of the statement
+     * @throws CoreException If the statement can't be parsed
+     */
+    private Program parse(final Entry statement) throws CoreException {
+        if (statement.parsed == null) {
+            final Program program = new Program();
+            try {
+                new InstructionParser(program).parse(statement.statement);
+            } catch (final ParserException error) {
+                throw new ExceptionWithLineNumber(error, statement.statement.getLine());
+            }
+            statement.parsed = program;
+        }
+        return statement.parsed;
+    }
+
+    /**
+     * Collects instructions, reporting a parsing error as an unchecked exception.
+     * @param collector The function that collects instructions
+     * @param <T> Type of instructions
+     * @return The list of instructions
+     */
+    private static <T> List<T> unchecked(final Collector<T> collector) {
+        try {
+            return collector.collect();
+        } catch (final CoreException exception) {
+            throw new IllegalStateException(exception.getErrorMessage(), exception);
+        }
+    }
+
+    /**
+     * Reads all statements of the code.
+     * @param source The source string
+     * @return The list of statements
+     */
+    private static List<Entry> scan(final String source) {
+        final List<Entry> result = new ArrayList<>(0);
+        final StatementReader reader = new StatementReader(new StringReader(source));
+        try {
+            Statement statement = reader.next();
+            while (statement != null) {
+                result.add(new Entry(statement));
+                statement = reader.next();
+            }
+        } catch (final IOException exception) {
+            throw new IllegalStateException(exception);
+        }
+        return result;
+    }
+
+    /**
+     * A statement of the DSL code and the result of its parsing.
+     *
+     * @since 0.2.22
+     */
+    private static final class Entry {
+        /**
+         * The statement.
+         */
+        private final Statement statement;
+
+        /**
+         * The language section the statement belongs to.
+         */
+        private final String language;
+
+        /**
+         * The kind of statement.
+         */
+        private final Statement.Kind kind;
+
+        /**
+         * The program that contains instructions of the statement,
+         *  or {@code null} if it is not parsed yet.
+         */
+        private Program parsed;
+
+        /**
+         * Constructor.
+         * @param statement The statement
+         */
+        Entry(final Statement statement) {
+            this.statement = statement;
+            this.language = statement.getLanguage();
+            this.kind = statement.getKind();
+        }
+
+        /**
+         * Checks whether the statement is required to get transformations, that is,
+         *  it is a transformation or its kind is unknown (so it is an error).
+         * @return Checking result
+         */
+        boolean isTransformation() {
+            return this.kind == Statement.Kind.TRANSFORMATION
+                || this.kind == Statement.Kind.UNKNOWN;
+        }
+    }
+
+    /**
+     * The function that collects instructions and can fail with a parsing error.
+     *
+     * @param <T> Type of instructions
+     * @since 0.2.22
+     */
+    @FunctionalInterface
+    private interface Collector<T> {
+        /**
+         * Collects instructions.
+         * @return The list of instructions
+         * @throws CoreException If a statement can't be parsed
+         */
+        List<T> collect() throws CoreException;
+    }
+}
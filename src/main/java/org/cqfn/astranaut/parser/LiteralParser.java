@@ -42,16 +42,33 @@ public class LiteralParser {
     private static final int EXPECTED_COUNT = 3;
 
     /**
-     * Source string.
+     * Parts of the source string on both sides of the operator.
      */
-    private final String source;
+    private final String[] pair;
 
     /**
      * Constructor.
      * @param source Source string
      */
     public LiteralParser(final String source) {
-        this.source = source;
+        this(source.split("<-"));
+    }
+
+    /**
+     * Constructor.
+     * @param left The part of the source string before the operator
+     * @param right The part of the source string after the operator
+     */
+    public LiteralParser(final String left, final String right) {
+        this(new String[] {left, right});
+    }
+
+    /**
+     * Constructor.
+     * @param pair Parts of the source string on both sides of the operator
+     */
+    private LiteralParser(final String[] pair) {
+        this.pair = pair;
     }
 
     /**
@@ -60,13 +77,11 @@ public class LiteralParser {
      * @throws ParserException If the source string can't be parsed as a literal descriptor
      */
     public Literal parse() throws ParserException {
-        assert this.source.contains("<-");
-        final String[] pair = this.source.split("<-");
-        if (pair.length > 2) {
+        if (this.pair.length != 2) {
             throw BadRuleSyntax.INSTANCE;
         }
-        final String left = new NodeNameParser(pair[0]).parse();
-        final List<String> right = new LiteralParametersParser(pair[1]).parse();
+        final String left = new NodeNameParser(this.pair[0]).parse();
+        final List<String> right = new LiteralParametersParser(this.pair[1]).parse();
         assert right.size() >= LiteralParser.EXPECTED_COUNT;
         final Iterator<String> iterator = right.iterator();
         final Literal.Builder builder = new Literal.Builder();
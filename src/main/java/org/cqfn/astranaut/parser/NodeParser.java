@@ -37,16 +37,33 @@ import org.cqfn.astranaut.rules.Node;
  */
 public class NodeParser {
     /**
-     * Source string.
+     * Parts of the source string on both sides of the operator.
      */
-    private final String source;
+    private final String[] pair;
 
     /**
      * Constructor.
      * @param source Source string
      */
     public NodeParser(final String source) {
-        this.source = source;
+        this(source.split("<-"));
+    }
+
+    /**
+     * Constructor.
+     * @param left The part of the source string before the operator
+     * @param right The part of the source string after the operator
+     */
+    public NodeParser(final String left, final String right) {
+        this(new String[] {left, right});
+    }
+
+    /**
+     * Constructor.
+     * @param pair Parts of the source string on both sides of the operator
+     */
+    private NodeParser(final String[] pair) {
+        this.pair = pair;
     }
 
     /**
@@ -55,13 +72,11 @@ public class NodeParser {
      * @throws ParserException If the source string can't be parsed as a node descriptor
      */
     public Node parse() throws ParserException {
-        assert this.source.contains("<-");
-        final String[] pair = this.source.split("<-");
-        if (pair.length > 2) {
+        if (this.pair.length != 2) {
             throw BadRuleSyntax.INSTANCE;
         }
-        final String left = new NodeNameParser(pair[0]).parse();
-        final List<Child> right = new ChildrenListParser(pair[1]).parse();
+        final String left = new NodeNameParser(this.pair[0]).parse();
+        final List<Child> right = new ChildrenListParser(this.pair[1]).parse();
         return new Node(left, right);
     }
 }
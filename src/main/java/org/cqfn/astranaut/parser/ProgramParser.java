@@ -23,11 +23,22 @@
  */
 package org.cqfn.astranaut.parser;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.cqfn.astranaut.core.base.CoreException;
 import org.cqfn.astranaut.exceptions.ExceptionWithLineNumber;
 import org.cqfn.astranaut.exceptions.ParserException;
 import org.cqfn.astranaut.rules.Program;
-import org.cqfn.astranaut.utils.CommentsRemover;
 
 /**
  * Parses the whole DSL program.
@@ -36,40 +47,261 @@ import org.cqfn.astranaut.utils.CommentsRemover;
  */
 public class ProgramParser {
     /**
-     * Source string.
+     * The minimum number of statements parsed by one task in the parallel mode.
      */
-    private final String source;
+    private static final int CHUNK_SIZE = 64;
+
+    /**
+     * The minimum number of statements parsed in parallel, smaller programs are parsed
+     *  sequentially even if several threads are set.
+     */
+    private static final int PARALLEL_THRESHOLD = 1024;
+
+    /**
+     * The number of tasks per thread in the parallel mode.
+     */
+    private static final int TASKS_PER_THREAD = 4;
+
+    /**
+     * Source.
+     */
+    private final Reader source;
+
+    /**
+     * The number of threads.
+     */
+    private int threads;
 
     /**
      * Constructor.
      * @param source The source string.
      */
     public ProgramParser(final String source) {
+        this(new StringReader(source));
+    }
+
+    /**
+     * Constructor.
+     * @param source The source, it is read in a single pass and is not closed by the parser
+     */
+    public ProgramParser(final Reader source) {
         this.source = source;
+        this.threads = 1;
+    }
+
+    /**
+     * Sets the number of threads. If it is greater than one, statements are found
+     *  by a sequential scan and then, if there are many of them (typical rule files are
+     *  too small to benefit), parsed in parallel; the resulting program is the same
+     *  as in the sequential mode. If several statements contain errors, the error
+     *  of the first one (by line) is reported, as in the sequential mode.
+     * @param value The number of threads
+     */
+    public void setThreads(final int value) {
+        this.threads = Math.max(1, value);
     }
 
     /**
      * Parses the whole DSL program.
      * @return Parsed program.
-     * @throws CoreException If source can't be parsed
+     * @throws CoreException If source can't be parsed or read
      */
     public Program parse() throws CoreException {
-        final String code = new CommentsRemover(this.source).remove();
-        final String[] lines = code.split(";");
+        final StatementReader reader = new StatementReader(this.source);
+        final Program program;
+        if (this.threads > 1) {
+            final List<Statement> statements = new ArrayList<>(0);
+            Statement statement = ProgramParser.next(reader);
+            while (statement != null) {
+                statements.add(statement);
+                statement = ProgramParser.next(reader);
+            }
+            if (statements.size() < ProgramParser.PARALLEL_THRESHOLD) {
+                program = new Program();
+                final InstructionParser parser = new InstructionParser(program);
+                for (final Statement item : statements) {
+                    ProgramParser.parse(parser, item);
+                }
+            } else {
+                program = this.parse(statements);
+            }
+        } else {
+            program = new Program();
+            final InstructionParser parser = new InstructionParser(program);
+            Statement statement = ProgramParser.next(reader);
+            while (statement != null) {
+                ProgramParser.parse(parser, statement);
+                statement = ProgramParser.next(reader);
+            }
+        }
+        return program;
+    }
+
+    /**
+     * Parses one statement.
+     * @param parser The parser that adds instructions to the program
+     * @param statement The statement
+     * @throws CoreException If the statement can't be parsed, the error contains
+     *  the number of its line
+     */
+    private static void parse(final InstructionParser parser, final Statement statement)
+        throws CoreException {
+        try {
+            parser.parse(statement);
+        } catch (final ParserException error) {
+            throw new ExceptionWithLineNumber(error, statement.getLine());
+        }
+    }
+
+    /**
+     * Parses statements in parallel. Statements are divided into consecutive chunks,
+     *  each chunk is parsed into a separate program, then the programs are merged
+     *  in the original order.
+     * @param statements The statements
+     * @return Parsed program
+     * @throws CoreException If a statement can't be parsed
+     */
+    private Program parse(final List<Statement> statements) throws CoreException {
+        final int count = statements.size();
+        final int size = Math.max(
+            ProgramParser.CHUNK_SIZE,
+            (count + this.threads * ProgramParser.TASKS_PER_THREAD - 1)
+                / (this.threads * ProgramParser.TASKS_PER_THREAD)
+        );
+        final AtomicInteger failed = new AtomicInteger(Integer.MAX_VALUE);
+        final List<Callable<Chunk>> tasks = new ArrayList<>(count / size + 1);
+        for (int start = 0; start < count; start = start + size) {
+            final List<Statement> part = statements.subList(start, Math.min(start + size, count));
+            final int index = tasks.size();
+            tasks.add(() -> ProgramParser.parse(part, index, failed));
+        }
         final Program program = new Program();
-        final InstructionParser parser = new InstructionParser(program);
-        int number = 1;
-        for (final String line : lines) {
-            final String dsl = line.trim();
-            if (!dsl.isEmpty()) {
-                try {
-                    parser.parse(dsl);
-                } catch (final ParserException error) {
-                    throw new ExceptionWithLineNumber(error, number);
+        final ExecutorService pool =
+            Executors.newFixedThreadPool(Math.max(1, Math.min(this.threads, tasks.size())));
+        try {
+            for (final Future<Chunk> future : pool.invokeAll(tasks)) {
+                final Chunk chunk = ProgramParser.await(future);
+                if (chunk.error != null) {
+                    throw chunk.error;
                 }
+                program.addAll(chunk.program);
             }
-            number = number + 1;
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw ProgramParser.couldNotParse("interrupted");
+        } finally {
+            pool.shutdownNow();
         }
         return program;
     }
+
+    /**
+     * Parses a chunk of statements. Parsing stops at the first error, or if an error
+     *  is found in a previous chunk, since such error is reported anyway.
+     * @param statements The statements
+     * @param index The index of the chunk
+     * @param failed The smallest index of a chunk that contains an error
+     * @return The result
+     */
+    private static Chunk parse(final List<Statement> statements, final int index,
+        final AtomicInteger failed) {
+        final Program program = new Program();
+        final InstructionParser parser = new InstructionParser(program);
+        final Iterator<Statement> iterator = statements.iterator();
+        CoreException error = null;
+        while (error == null && failed.get() > index && iterator.hasNext()) {
+            final Statement statement = iterator.next();
+            try {
+                parser.parse(statement);
+            } catch (final ParserException exception) {
+                error = new ExceptionWithLineNumber(exception, statement.getLine());
+                failed.accumulateAndGet(index, Math::min);
+            }
+        }
+        return new Chunk(program, error);
+    }
+
+    /**
+     * Waits for the result of parsing a chunk.
+     * @param future The result
+     * @return The parsed chunk
+     * @throws InterruptedException If the thread is interrupted
+     */
+    private static Chunk await(final Future<Chunk> future) throws InterruptedException {
+        final Chunk chunk;
+        try {
+            chunk = future.get();
+        } catch (final ExecutionException exception) {
+            final Throwable cause = exception.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        return chunk;
+    }
+
+    /**
+     * Reads the next statement.
+     * @param reader The reader of statements
+     * @return The statement, or {@code null} if there are no more statements
+     * @throws CoreException If the source can't be read
+     */
+    private static Statement next(final StatementReader reader) throws CoreException {
+        final Statement statement;
+        try {
+            statement = reader.next();
+        } catch (final IOException exception) {
+            throw ProgramParser.couldNotParse(exception.getMessage());
+        }
+        return statement;
+    }
+
+    /**
+     * Creates the exception "Could not parse DSL code".
+     * @param reason The reason
+     * @return The exception
+     */
+    private static CoreException couldNotParse(final String reason) {
+        return new CoreException() {
+            private static final long serialVersionUID = -4367280453152349707L;
+
+            @Override
+            public String getInitiator() {
+                return "ProgramParser";
+            }
+
+            @Override
+            public String getErrorMessage() {
+                return String.format("Could not parse DSL code: %s", reason);
+            }
+        };
+    }
+
+    /**
+     * The result of parsing a chunk of statements.
+     *
+     * @since 0.2.22
+     */
+    private static final class Chunk {
+        /**
+         * The program that contains parsed statements.
+         */
+        private final Program program;
+
+        /**
+         * The first error, or {@code null} if there are no errors.
+         */
+        private final CoreException error;
+
+        /**
+         * Constructor.
+         * @param program The program that contains parsed statements
+         * @param error The first error
+         */
+        Chunk(final Program program, final CoreException error) {
+            this.program = program;
+            this.error = error;
+        }
+    }
 }
@@ -0,0 +1,130 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.parser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import org.cqfn.astranaut.core.base.CoreException;
+import org.cqfn.astranaut.rules.Program;
+import org.cqfn.astranaut.rules.ProgramSnapshot;
+import org.cqfn.astranaut.utils.ContentHash;
+
+/**
+ * Parses the whole DSL program using snapshots of programs parsed before
+ * (see {@link ProgramSnapshot}). Snapshots are stored in a directory, the name of a snapshot
+ * file is the digest of the DSL code. If there is no snapshot or it is stale, the code
+ * is parsed by {@link ProgramParser} and a new snapshot is written.
+ *
+ * @since 0.2.22
+ */
+public class SnapshotParser {
+    /**
+     * Source string.
+     */
+    private final String source;
+
+    /**
+     * The directory of snapshots.
+     */
+    private final Path directory;
+
+    /**
+     * Flag indicating that the last parsed program was loaded from a snapshot.
+     */
+    private boolean loaded;
+
+    /**
+     * Constructor.
+     * @param source The source string
+     * @param directory The directory of snapshots, it is created if it does not exist
+     */
+    public SnapshotParser(final String source, final Path directory) {
+        this.source = source;
+        this.directory = directory;
+    }
+
+    /**
+     * Parses the whole DSL program or loads its snapshot.
+     * @return Parsed program
+     * @throws CoreException If source can't be parsed
+     */
+    public Program parse() throws CoreException {
+        final String digest = ContentHash.sha256(this.source);
+        final Path file = this.directory.resolve(digest.concat(ProgramSnapshot.EXTENSION));
+        Program program = null;
+        if (Files.isRegularFile(file)) {
+            try {
+                program = ProgramSnapshot.decode(Files.readAllBytes(file), digest);
+            } catch (final IOException ignored) {
+                program = null;
+            }
+        }
+        this.loaded = program != null;
+        if (program == null) {
+            program = new ProgramParser(this.source).parse();
+            this.store(file, ProgramSnapshot.encode(program, digest));
+        }
+        return program;
+    }
+
+    /**
+     * Checks whether the last parsed program was loaded from a snapshot.
+     * @return {@code true} if the program was loaded from a snapshot
+     */
+    public boolean isLoaded() {
+        return this.loaded;
+    }
+
+    /**
+     * Writes a snapshot. The snapshot is written to a temporary file which is then renamed,
+     *  so other processes never read a partially written snapshot. A snapshot that can not
+     *  be written is not an error: the program is already parsed.
+     * @param file The snapshot file
+     * @param snapshot The snapshot
+     * @return {@code true} if the snapshot was written
+     */
+    private boolean store(final Path file, final byte[] snapshot) {
+        boolean stored;
+        Path temp = null;
+        try {
+            Files.createDirectories(this.directory);
+            temp = Files.createTempFile(this.directory, "snapshot", ".tmp");
+            Files.write(temp, snapshot);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            stored = true;
+        } catch (final IOException ignored) {
+            stored = false;
+        }
+        if (!stored && temp != null) {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (final IOException ignored) {
+                stored = false;
+            }
+        }
+        return stored;
+    }
+}
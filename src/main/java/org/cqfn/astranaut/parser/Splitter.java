@@ -23,7 +23,7 @@
  */
 package org.cqfn.astranaut.parser;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import org.cqfn.astranaut.scanner.Token;
 import org.cqfn.astranaut.scanner.TokenList;
@@ -54,7 +54,7 @@ public class Splitter {
      * @return Array of lists of tokens (at least 1 element)
      */
     public TokenList[] split(final SplitCriteria criteria) {
-        final List<TokenList> result = new LinkedList<>();
+        final List<TokenList> result = new ArrayList<>(4);
         TokenListBuilder sequence = new TokenListBuilder();
         for (final Token token : this.source) {
             if (criteria.satisfies(token)) {
@@ -69,8 +69,6 @@ public class Splitter {
         if (!sequence.isEmpty()) {
             result.add(sequence.createList());
         }
-        final TokenList[] array = new TokenList[result.size()];
-        result.toArray(array);
-        return array;
+        return result.toArray(new TokenList[0]);
     }
 }
@@ -0,0 +1,171 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.parser;
+
+/**
+ * A statement of the DSL program found by {@link StatementReader}: the parts
+ * on both sides of the operator ({@code <-} or {@code ->}), the language section
+ * and the position of the statement in the source.
+ *
+ * @since 0.2.22
+ */
+public final class Statement {
+    /**
+     * The kind of statement.
+     */
+    private final Kind kind;
+
+    /**
+     * The language section.
+     */
+    private final String language;
+
+    /**
+     * The part of the statement before the operator, or the whole statement
+     *  if its kind is unknown.
+     */
+    private final String left;
+
+    /**
+     * The part of the statement after the operator.
+     */
+    private final String right;
+
+    /**
+     * The line number of the first symbol of the statement, starting from 1.
+     */
+    private final int line;
+
+    /**
+     * The column number of the first symbol of the statement, starting from 1.
+     */
+    private final int column;
+
+    /**
+     * Constructor.
+     * @param kind The kind of statement
+     * @param language The language section
+     * @param left The part before the operator
+     * @param right The part after the operator
+     * @param line The line number
+     * @param column The column number
+     */
+    Statement(final Kind kind, final String language, final String left, final String right,
+        final int line, final int column) {
+        this.kind = kind;
+        this.language = language;
+        this.left = left;
+        this.right = right;
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * Returns the kind of statement.
+     * @return The kind
+     */
+    public Kind getKind() {
+        return this.kind;
+    }
+
+    /**
+     * Returns the language section the statement belongs to.
+     * @return The name of the language, or an empty string for rules common
+     *  for all languages
+     */
+    public String getLanguage() {
+        return this.language;
+    }
+
+    /**
+     * Returns the part of the statement before the operator.
+     * @return The code, or the whole statement if its kind is unknown
+     */
+    public String getLeft() {
+        return this.left;
+    }
+
+    /**
+     * Returns the part of the statement after the operator.
+     * @return The code, empty if the kind of statement is unknown
+     */
+    public String getRight() {
+        return this.right;
+    }
+
+    /**
+     * Returns the line number of the first symbol of the statement.
+     * @return The line number, starting from 1
+     */
+    public int getLine() {
+        return this.line;
+    }
+
+    /**
+     * Returns the column number of the first symbol of the statement.
+     * @return The column number, starting from 1
+     */
+    public int getColumn() {
+        return this.column;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append(this.left);
+        if (this.kind == Kind.TRANSFORMATION) {
+            builder.append(" -> ").append(this.right);
+        } else if (this.kind != Kind.UNKNOWN) {
+            builder.append(" <- ").append(this.right);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Kind of statement, known from its operator.
+     *
+     * @since 0.2.22
+     */
+    public enum Kind {
+        /**
+         * Node descriptor.
+         */
+        NODE,
+
+        /**
+         * Literal descriptor, that is, a descriptor that contains native code.
+         */
+        LITERAL,
+
+        /**
+         * Transformation.
+         */
+        TRANSFORMATION,
+
+        /**
+         * Statement without an operator or with several operators.
+         */
+        UNKNOWN
+    }
+}
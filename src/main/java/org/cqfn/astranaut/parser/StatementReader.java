@@ -0,0 +1,374 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads statements of the DSL program from a stream in a single pass. Comments
+ * ({@code //} to the end of the line and {@code /* ... *}{@code /}) are skipped as they
+ * are met, except inside string literals and native code, statements are separated
+ * by semicolons, and a name followed by a colon starts a language section.
+ * The reader also finds the operator of each statement and tracks line and column
+ * numbers, so the source is neither copied nor searched again.
+ *
+ * @since 0.2.22
+ */
+public final class StatementReader {
+    /**
+     * The size of the read buffer.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * The source.
+     */
+    private final Reader reader;
+
+    /**
+     * The read buffer.
+     */
+    private final char[] buffer;
+
+    /**
+     * The text of the current part of the statement.
+     */
+    private final StringBuilder part;
+
+    /**
+     * Position of the next character in the buffer.
+     */
+    private int position;
+
+    /**
+     * The number of characters in the buffer.
+     */
+    private int limit;
+
+    /**
+     * The current line number.
+     */
+    private int line;
+
+    /**
+     * The current column number.
+     */
+    private int column;
+
+    /**
+     * The current language section.
+     */
+    private String language;
+
+    /**
+     * Constructor.
+     * @param reader The source, it is not closed by this object
+     */
+    public StatementReader(final Reader reader) {
+        this.reader = reader;
+        this.buffer = new char[StatementReader.BUFFER_SIZE];
+        this.part = new StringBuilder(128);
+        this.line = 1;
+        this.column = 1;
+        this.language = "";
+    }
+
+    /**
+     * Reads the next statement.
+     * @return The statement, or {@code null} if there are no more statements
+     * @throws IOException If the source can not be read
+     */
+    public Statement next() throws IOException {
+        final Scan scan = new Scan();
+        Statement statement = null;
+        boolean done = false;
+        while (!done) {
+            final int symbol = this.take();
+            if (symbol < 0 || symbol == ';') {
+                statement = scan.complete();
+                done = symbol < 0 || statement != null;
+                scan.reset();
+            } else {
+                this.process((char) symbol, scan);
+            }
+        }
+        return statement;
+    }
+
+    /**
+     * Processes a character outside of comments, strings and native code.
+     * @param symbol The character
+     * @param scan The state of the statement
+     * @throws IOException If the source can not be read
+     */
+    private void process(final char symbol, final Scan scan) throws IOException {
+        final int following = this.peek();
+        if (symbol == '/' && following == '/') {
+            this.skipLine();
+        } else if (symbol == '/' && following == '*') {
+            this.take();
+            this.skipComment();
+        } else if ((symbol == '<' && following == '-') || (symbol == '-' && following == '>')) {
+            this.take();
+            scan.operator(symbol == '-');
+        } else if (symbol == ':' && scan.operators == 0) {
+            this.language = StatementReader.text(this.part);
+            scan.reset();
+        } else if (!Character.isWhitespace(symbol) || this.part.length() > 0) {
+            if (this.part.length() == 0 && scan.line == 0) {
+                scan.line = this.line;
+                scan.column = this.column - 1;
+            }
+            this.part.append(symbol);
+            if (symbol == '"') {
+                this.copyString();
+            } else if (symbol == '$') {
+                scan.literal = true;
+                this.copyNativeCode();
+            }
+        }
+    }
+
+    /**
+     * Copies the rest of a string literal, escape sequences are kept as is.
+     * @throws IOException If the source can not be read
+     */
+    private void copyString() throws IOException {
+        int symbol = this.take();
+        while (symbol >= 0 && symbol != '"') {
+            this.part.append((char) symbol);
+            if (symbol == '\\') {
+                symbol = this.take();
+                if (symbol >= 0) {
+                    this.part.append((char) symbol);
+                }
+            }
+            symbol = this.take();
+        }
+        if (symbol >= 0) {
+            this.part.append('"');
+        }
+    }
+
+    /**
+     * Copies the rest of native code.
+     * @throws IOException If the source can not be read
+     */
+    private void copyNativeCode() throws IOException {
+        int symbol = this.take();
+        while (symbol >= 0 && symbol != '$') {
+            this.part.append((char) symbol);
+            symbol = this.take();
+        }
+        if (symbol >= 0) {
+            this.part.append('$');
+        }
+    }
+
+    /**
+     * Skips a single-line comment, the line break is not skipped.
+     * @throws IOException If the source can not be read
+     */
+    private void skipLine() throws IOException {
+        int symbol = this.peek();
+        while (symbol >= 0 && symbol != '\n') {
+            this.take();
+            symbol = this.peek();
+        }
+    }
+
+    /**
+     * Skips the rest of a multi-line comment.
+     * @throws IOException If the source can not be read
+     */
+    private void skipComment() throws IOException {
+        int previous = 0;
+        int symbol = this.take();
+        while (symbol >= 0 && !(previous == '*' && symbol == '/')) {
+            previous = symbol;
+            symbol = this.take();
+        }
+    }
+
+    /**
+     * Returns the next character without taking it.
+     * @return The character, or -1 at the end of the source
+     * @throws IOException If the source can not be read
+     */
+    private int peek() throws IOException {
+        int result = -1;
+        if (this.fill()) {
+            result = this.buffer[this.position];
+        }
+        return result;
+    }
+
+    /**
+     * Takes the next character, updating the line and column numbers.
+     * @return The character, or -1 at the end of the source
+     * @throws IOException If the source can not be read
+     */
+    private int take() throws IOException {
+        int result = -1;
+        if (this.fill()) {
+            result = this.buffer[this.position];
+            this.position = this.position + 1;
+            if (result == '\n') {
+                this.line = this.line + 1;
+                this.column = 1;
+            } else {
+                this.column = this.column + 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Fills the buffer if all its characters are taken.
+     * @return {@code true} if there is at least one character in the buffer
+     * @throws IOException If the source can not be read
+     */
+    private boolean fill() throws IOException {
+        if (this.position == this.limit) {
+            this.position = 0;
+            this.limit = Math.max(0, this.reader.read(this.buffer));
+        }
+        return this.position < this.limit;
+    }
+
+    /**
+     * Returns the text of the builder without trailing whitespace and clears the builder.
+     * @param builder The builder
+     * @return The text
+     */
+    private static String text(final StringBuilder builder) {
+        int length = builder.length();
+        while (length > 0 && Character.isWhitespace(builder.charAt(length - 1))) {
+            length = length - 1;
+        }
+        builder.setLength(length);
+        final String result = builder.toString();
+        builder.setLength(0);
+        return result;
+    }
+
+    /**
+     * The state of the statement being read.
+     *
+     * @since 0.2.22
+     */
+    private final class Scan {
+        /**
+         * The part before the operator, or {@code null} if there is no operator yet.
+         */
+        private String left;
+
+        /**
+         * The number of operators.
+         */
+        private int operators;
+
+        /**
+         * Flag indicating that the operator is {@code ->}.
+         */
+        private boolean transformation;
+
+        /**
+         * Flag indicating that the statement contains native code.
+         */
+        private boolean literal;
+
+        /**
+         * The line number of the first symbol, zero if there are no symbols yet.
+         */
+        private int line;
+
+        /**
+         * The column number of the first symbol.
+         */
+        private int column;
+
+        /**
+         * Processes an operator.
+         * @param arrow Flag indicating that the operator is {@code ->}
+         */
+        void operator(final boolean arrow) {
+            if (this.operators == 0) {
+                this.left = StatementReader.text(StatementReader.this.part);
+                this.transformation = arrow;
+            }
+            this.operators = this.operators + 1;
+            if (this.line == 0) {
+                this.line = StatementReader.this.line;
+                this.column = StatementReader.this.column - 2;
+            }
+        }
+
+        /**
+         * Creates the statement.
+         * @return The statement, or {@code null} if the statement is empty
+         */
+        Statement complete() {
+            final String right = StatementReader.text(StatementReader.this.part);
+            Statement statement = null;
+            if (this.operators == 1) {
+                final Statement.Kind kind;
+                if (this.transformation) {
+                    kind = Statement.Kind.TRANSFORMATION;
+                } else if (this.literal) {
+                    kind = Statement.Kind.LITERAL;
+                } else {
+                    kind = Statement.Kind.NODE;
+                }
+                statement = new Statement(
+                    kind, StatementReader.this.language, this.left, right, this.line, this.column
+                );
+            } else if (this.operators > 1 || !right.isEmpty()) {
+                String code = right;
+                if (this.left != null) {
+                    code = this.left;
+                }
+                statement = new Statement(
+                    Statement.Kind.UNKNOWN, StatementReader.this.language, code, "",
+                    this.line, this.column
+                );
+            }
+            return statement;
+        }
+
+        /**
+         * Resets the state.
+         */
+        void reset() {
+            this.left = null;
+            this.operators = 0;
+            this.transformation = false;
+            this.literal = false;
+            this.line = 0;
+            this.column = 0;
+            StatementReader.this.part.setLength(0);
+        }
+    }
+}
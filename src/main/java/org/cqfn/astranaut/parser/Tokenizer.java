@@ -24,11 +24,8 @@
 package org.cqfn.astranaut.parser;
 
 import org.cqfn.astranaut.exceptions.ParserException;
-import org.cqfn.astranaut.scanner.Null;
-import org.cqfn.astranaut.scanner.Scanner;
-import org.cqfn.astranaut.scanner.Token;
+import org.cqfn.astranaut.scanner.PackedTokens;
 import org.cqfn.astranaut.scanner.TokenList;
-import org.cqfn.astranaut.scanner.TokenListBuilder;
 
 /**
  * Class that transform string into list of tokens.
@@ -55,13 +52,6 @@ public class Tokenizer {
      * @throws ParserException Any exception thrown by the parser
      */
     public TokenList getTokens() throws ParserException {
-        final TokenListBuilder result = new TokenListBuilder();
-        final Scanner scanner = new Scanner(this.source);
-        Token token = scanner.getToken();
-        while (!(token instanceof Null)) {
-            result.addToken(token);
-            token = scanner.getToken();
-        }
-        return result.createList();
+        return PackedTokens.scan(this.source);
     }
 }
@@ -47,9 +47,9 @@ import org.cqfn.astranaut.utils.LabelFactory;
  */
 public class TransformationParser {
     /**
-     * Source string.
+     * Parts of the source string on both sides of the operator.
      */
-    private final String source;
+    private final String[] pair;
 
     /**
      * Label factory.
@@ -61,7 +61,24 @@ public class TransformationParser {
      * @param source Source string
      */
     public TransformationParser(final String source) {
-        this.source = source;
+        this(source.split("->"));
+    }
+
+    /**
+     * Constructor.
+     * @param left The part of the source string before the operator
+     * @param right The part of the source string after the operator
+     */
+    public TransformationParser(final String left, final String right) {
+        this(new String[] {left, right});
+    }
+
+    /**
+     * Constructor.
+     * @param pair Parts of the source string on both sides of the operator
+     */
+    private TransformationParser(final String[] pair) {
+        this.pair = pair;
         this.labels = new LabelFactory();
     }
 
@@ -71,13 +88,11 @@ public class TransformationParser {
      * @throws ParserException If the source string can't be parsed as a transformation descriptor
      */
     public Transformation parse() throws ParserException {
-        assert this.source.contains("->");
-        final String[] pair = this.source.split("->");
-        if (pair.length > 2) {
+        if (this.pair.length != 2) {
             throw BadRuleSyntax.INSTANCE;
         }
-        final Descriptor left =  this.parsePart(pair[0]);
-        final Descriptor right =  this.parsePart(pair[1]);
+        final Descriptor left =  this.parsePart(this.pair[0]);
+        final Descriptor right =  this.parsePart(this.pair[1]);
         TransformationRuleValidator.checkDescriptors(left, right);
         return new Transformation(
             left,
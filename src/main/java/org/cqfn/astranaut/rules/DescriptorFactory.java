@@ -27,6 +27,7 @@ import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
+import org.cqfn.astranaut.utils.StringPool;
 
 /**
  * The factory for descriptors composing.
@@ -73,7 +74,7 @@ public class DescriptorFactory {
         this.attribute = DescriptorAttribute.NONE;
         this.tag = "";
         this.label = label;
-        this.type = Objects.requireNonNull(type);
+        this.type = StringPool.intern(Objects.requireNonNull(type));
         this.parameters = new LinkedList<>();
         this.data = InvalidData.INSTANCE;
     }
@@ -94,7 +95,7 @@ public class DescriptorFactory {
         if (this.tag.isEmpty()) {
             this.tag = this.type;
         }
-        this.type = value;
+        this.type = StringPool.intern(value);
     }
 
     /**
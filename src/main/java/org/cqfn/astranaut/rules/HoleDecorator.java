@@ -75,6 +75,14 @@ public final class HoleDecorator extends Descriptor {
         return InvalidData.INSTANCE;
     }
 
+    /**
+     * Returns the decorated hole.
+     * @return The hole
+     */
+    public Hole getHole() {
+        return this.hole;
+    }
+
     @Override
     public int getHoleNumber() {
         return this.hole.getValue();
@@ -29,6 +29,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import org.cqfn.astranaut.utils.ContentHash;
 
 /**
  * The set of DSL rules with addition data.
@@ -61,6 +62,12 @@ public class Program {
      */
     private final List<Instruction<Transformation>> transforms;
 
+    /**
+     * The digest of transformation rules, or {@code null} if it is not computed yet
+     *  or the rules were changed after that.
+     */
+    private String digest;
+
     /**
      * Constructor.
      */
@@ -112,6 +119,36 @@ public class Program {
         return Collections.unmodifiableList(this.transforms);
     }
 
+    /**
+     * Computes the digest of transformation rules. Programs whose transformations
+     *  are the same (regardless of formatting and comments of the DSL code) have
+     *  the same digest, so it can be used as a part of keys of caches of results.
+     *  The digest is computed once and recomputed only if transformations are added.
+     * @return The SHA-256 digest as a string of hexadecimal digits
+     */
+    public String getTransformationsDigest() {
+        String result = this.digest;
+        if (result == null) {
+            result = Program.getDigest(this.transforms);
+            this.digest = result;
+        }
+        return result;
+    }
+
+    /**
+     * Computes the digest of a list of transformation rules,
+     *  see {@link Program#getTransformationsDigest()}.
+     * @param transformations The list of transformation rules
+     * @return The SHA-256 digest as a string of hexadecimal digits
+     */
+    public static String getDigest(final List<Instruction<Transformation>> transformations) {
+        final StringBuilder builder = new StringBuilder();
+        for (final Instruction<Transformation> instruction : transformations) {
+            builder.append(instruction.toString()).append('\n');
+        }
+        return ContentHash.sha256(builder.toString());
+    }
+
     /**
      * Adds vertex descriptor with addition data.
      * @param instruction The node descriptor
@@ -145,6 +182,20 @@ public class Program {
     public void addTransformInstruction(final Instruction<Transformation> instruction) {
         this.all.add(instruction.toRuleInstruction());
         this.transforms.add(instruction);
+        this.digest = null;
+    }
+
+    /**
+     * Appends all rules of another program, keeping their order.
+     * @param other The other program
+     */
+    public void addAll(final Program other) {
+        this.all.addAll(other.all);
+        this.nodes.addAll(other.nodes);
+        this.literals.addAll(other.literals);
+        this.vertices.addAll(other.vertices);
+        this.transforms.addAll(other.transforms);
+        this.digest = null;
     }
 
     /**
@@ -0,0 +1,650 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.rules;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary snapshot of a parsed DSL program. Loading a snapshot replaces comment
+ * removal, parsing and validation of the DSL code, which is the most expensive part
+ * of the start of a short conversion.
+ * A snapshot stores the digest of the DSL code and the version of the tool that created it;
+ * a snapshot whose digest or version differs from the expected ones is stale and is not
+ * loaded, so the code is parsed again.
+ * Format: the signature "ASTP", the format version, the version of the tool, the digest,
+ * the dictionary of strings, then all instructions in the order of the DSL code.
+ * Numbers are unsigned variable-length integers, strings are referenced by dictionary
+ * indexes.
+ *
+ * @since 0.2.22
+ */
+public final class ProgramSnapshot {
+    /**
+     * The extension of snapshot files.
+     */
+    public static final String EXTENSION = ".astp";
+
+    /**
+     * The signature of a snapshot.
+     */
+    private static final byte[] SIGNATURE = {'A', 'S', 'T', 'P'};
+
+    /**
+     * The version of the format, it changes when the format or the structure
+     *  of rules changes.
+     */
+    private static final int FORMAT = 1;
+
+    /**
+     * The version of the tool used if the version is not specified in the manifest.
+     */
+    private static final String DEVELOPMENT = "development";
+
+    /**
+     * Instruction kind: node descriptor.
+     */
+    private static final int NODE = 0;
+
+    /**
+     * Instruction kind: literal descriptor.
+     */
+    private static final int LITERAL = 1;
+
+    /**
+     * Instruction kind: transformation.
+     */
+    private static final int TRANSFORMATION = 2;
+
+    /**
+     * Descriptor kind: the empty descriptor.
+     */
+    private static final int EMPTY = 0;
+
+    /**
+     * Descriptor kind: the extension.
+     */
+    private static final int EXTENSION_MARK = 1;
+
+    /**
+     * Descriptor kind: the hole.
+     */
+    private static final int HOLE = 2;
+
+    /**
+     * Descriptor kind: an ordinary descriptor.
+     */
+    private static final int ORDINARY = 3;
+
+    /**
+     * Child or parameter kind: a descriptor.
+     */
+    private static final int DESCRIPTOR = 0;
+
+    /**
+     * Child kind: a disjunction; parameter kind: a hole.
+     */
+    private static final int OTHER = 1;
+
+    /**
+     * Data kind: no data.
+     */
+    private static final int NO_DATA = 0;
+
+    /**
+     * Data kind: a string.
+     */
+    private static final int STRING_DATA = 1;
+
+    /**
+     * Data kind: a hole.
+     */
+    private static final int HOLE_DATA = 2;
+
+    /**
+     * Private constructor.
+     */
+    private ProgramSnapshot() {
+    }
+
+    /**
+     * Returns the version of the tool stored in snapshots.
+     * @return The version
+     */
+    public static String getToolVersion() {
+        String version = ProgramSnapshot.class.getPackage().getImplementationVersion();
+        if (version == null) {
+            version = ProgramSnapshot.DEVELOPMENT;
+        }
+        return version;
+    }
+
+    /**
+     * Encodes the program.
+     * @param program The program
+     * @param digest The digest of the DSL code of the program
+     * @return The snapshot
+     */
+    public static byte[] encode(final Program program, final String digest) {
+        final Encoder body = new Encoder();
+        final List<Instruction<Rule>> all = program.getAllRules();
+        body.number(all.size());
+        for (final Instruction<Rule> instruction : all) {
+            final Rule rule = instruction.getRule();
+            if (rule instanceof Node) {
+                body.number(ProgramSnapshot.NODE);
+                body.string(instruction.getLanguage());
+                body.node((Node) rule);
+            } else if (rule instanceof Literal) {
+                body.number(ProgramSnapshot.LITERAL);
+                body.string(instruction.getLanguage());
+                body.literal((Literal) rule);
+            } else {
+                body.number(ProgramSnapshot.TRANSFORMATION);
+                body.string(instruction.getLanguage());
+                final Transformation transformation = (Transformation) rule;
+                body.descriptor(transformation.getLeft());
+                body.descriptor(transformation.getRight());
+            }
+        }
+        final Encoder header = new Encoder();
+        header.stream.write(ProgramSnapshot.SIGNATURE, 0, ProgramSnapshot.SIGNATURE.length);
+        header.number(ProgramSnapshot.FORMAT);
+        header.raw(ProgramSnapshot.getToolVersion());
+        header.raw(digest);
+        header.number(body.strings.size());
+        for (final String string : body.strings.keySet()) {
+            header.raw(string);
+        }
+        final byte[] tail = body.stream.toByteArray();
+        header.stream.write(tail, 0, tail.length);
+        return header.stream.toByteArray();
+    }
+
+    /**
+     * Decodes the program.
+     * @param snapshot The snapshot
+     * @param digest The digest of the DSL code of the expected program
+     * @return The program, or {@code null} if the snapshot is malformed, belongs to another
+     *  DSL code or was created by another version of the tool
+     */
+    public static Program decode(final byte[] snapshot, final String digest) {
+        Program program;
+        try {
+            final Decoder decoder = new Decoder(snapshot);
+            for (final byte expected : ProgramSnapshot.SIGNATURE) {
+                if (decoder.next() != (expected & 0xff)) {
+                    throw Stale.INSTANCE;
+                }
+            }
+            if (decoder.number() != ProgramSnapshot.FORMAT
+                || !ProgramSnapshot.getToolVersion().equals(decoder.raw())
+                || !digest.equals(decoder.raw())) {
+                throw Stale.INSTANCE;
+            }
+            final int count = decoder.number();
+            for (int index = 0; index < count; index = index + 1) {
+                decoder.strings.add(decoder.raw());
+            }
+            program = decoder.program();
+            if (decoder.position != snapshot.length) {
+                throw Stale.INSTANCE;
+            }
+        } catch (final Stale ignored) {
+            program = null;
+        }
+        return program;
+    }
+
+    /**
+     * Writer of a snapshot.
+     *
+     * @since 0.2.22
+     */
+    private static final class Encoder {
+        /**
+         * The output.
+         */
+        private final ByteArrayOutputStream stream;
+
+        /**
+         * The dictionary of strings, a string is mapped to its index.
+         */
+        private final Map<String, Integer> strings;
+
+        /**
+         * Constructor.
+         */
+        Encoder() {
+            this.stream = new ByteArrayOutputStream();
+            this.strings = new LinkedHashMap<>();
+        }
+
+        /**
+         * Writes a node descriptor.
+         * @param node The node descriptor
+         */
+        void node(final Node node) {
+            this.string(node.getType());
+            final List<Child> composition = node.getComposition();
+            this.number(composition.size());
+            for (final Child child : composition) {
+                if (child instanceof Disjunction) {
+                    this.number(ProgramSnapshot.OTHER);
+                    final List<Descriptor> descriptors = ((Disjunction) child).getDescriptors();
+                    this.number(descriptors.size());
+                    for (final Descriptor descriptor : descriptors) {
+                        this.descriptor(descriptor);
+                    }
+                } else {
+                    this.number(ProgramSnapshot.DESCRIPTOR);
+                    this.descriptor((Descriptor) child);
+                }
+            }
+        }
+
+        /**
+         * Writes a literal descriptor.
+         * @param literal The literal descriptor
+         */
+        void literal(final Literal literal) {
+            this.string(literal.getType());
+            this.string(literal.getKlass());
+            this.string(literal.getStringifier());
+            this.string(literal.getParser());
+            this.string(literal.getException());
+        }
+
+        /**
+         * Writes a descriptor.
+         * @param descriptor The descriptor
+         */
+        void descriptor(final Descriptor descriptor) {
+            if (descriptor == Empty.INSTANCE) {
+                this.number(ProgramSnapshot.EMPTY);
+            } else if (descriptor == Extension.INSTANCE) {
+                this.number(ProgramSnapshot.EXTENSION_MARK);
+            } else if (descriptor instanceof HoleDecorator) {
+                this.number(ProgramSnapshot.HOLE);
+                this.hole(((HoleDecorator) descriptor).getHole());
+            } else {
+                this.number(ProgramSnapshot.ORDINARY);
+                this.number(descriptor.getAttribute().ordinal());
+                this.string(descriptor.getTag());
+                this.string(descriptor.getLabel());
+                this.string(descriptor.getType());
+                final List<Parameter> parameters = descriptor.getParameters();
+                this.number(parameters.size());
+                for (final Parameter parameter : parameters) {
+                    if (parameter instanceof Hole) {
+                        this.number(ProgramSnapshot.OTHER);
+                        this.hole((Hole) parameter);
+                    } else {
+                        this.number(ProgramSnapshot.DESCRIPTOR);
+                        this.descriptor((Descriptor) parameter);
+                    }
+                }
+                final Data data = descriptor.getData();
+                if (data instanceof StringData) {
+                    this.number(ProgramSnapshot.STRING_DATA);
+                    this.string(((StringData) data).getValue());
+                } else if (data instanceof Hole) {
+                    this.number(ProgramSnapshot.HOLE_DATA);
+                    this.hole((Hole) data);
+                } else {
+                    this.number(ProgramSnapshot.NO_DATA);
+                }
+            }
+        }
+
+        /**
+         * Writes a hole.
+         * @param hole The hole
+         */
+        void hole(final Hole hole) {
+            this.number(hole.getValue());
+            this.number(hole.getAttribute().ordinal());
+            this.string(hole.getType());
+        }
+
+        /**
+         * Writes a reference to a string of the dictionary.
+         * @param value The string
+         */
+        void string(final String value) {
+            Integer index = this.strings.get(value);
+            if (index == null) {
+                index = this.strings.size();
+                this.strings.put(value, index);
+            }
+            this.number(index);
+        }
+
+        /**
+         * Writes a string itself.
+         * @param value The string
+         */
+        void raw(final String value) {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            this.number(bytes.length);
+            this.stream.write(bytes, 0, bytes.length);
+        }
+
+        /**
+         * Writes an unsigned variable-length integer.
+         * @param value The value
+         */
+        void number(final int value) {
+            int rest = value;
+            while ((rest & ~0x7f) != 0) {
+                this.stream.write(rest & 0x7f | 0x80);
+                rest = rest >>> 7;
+            }
+            this.stream.write(rest);
+        }
+    }
+
+    /**
+     * Reader of a snapshot.
+     *
+     * @since 0.2.22
+     */
+    private static final class Decoder {
+        /**
+         * The snapshot.
+         */
+        private final byte[] bytes;
+
+        /**
+         * The dictionary of strings.
+         */
+        private final List<String> strings;
+
+        /**
+         * Position of the next byte.
+         */
+        private int position;
+
+        /**
+         * Constructor.
+         * @param bytes The snapshot
+         */
+        Decoder(final byte[] bytes) {
+            this.bytes = bytes;
+            this.strings = new ArrayList<>(64);
+        }
+
+        /**
+         * Reads all instructions.
+         * @return The program
+         * @throws Stale If the snapshot is malformed
+         */
+        Program program() throws Stale {
+            final Program program = new Program();
+            final int count = this.number();
+            for (int index = 0; index < count; index = index + 1) {
+                final int kind = this.number();
+                final String language = this.string();
+                if (kind == ProgramSnapshot.NODE) {
+                    final Node node = this.node();
+                    program.addNodeInstruction(new Instruction<>(node, language));
+                    program.addVertexInstruction(new Instruction<>(node, language));
+                } else if (kind == ProgramSnapshot.LITERAL) {
+                    final Literal literal = this.literal();
+                    program.addLiteralInstruction(new Instruction<>(literal, language));
+                    program.addVertexInstruction(new Instruction<>(literal, language));
+                } else if (kind == ProgramSnapshot.TRANSFORMATION) {
+                    final Descriptor left = this.descriptor();
+                    final Descriptor right = this.descriptor();
+                    program.addTransformInstruction(
+                        new Instruction<>(new Transformation(left, right), language)
+                    );
+                } else {
+                    throw Stale.INSTANCE;
+                }
+            }
+            return program;
+        }
+
+        /**
+         * Reads a node descriptor.
+         * @return The node descriptor
+         * @throws Stale If the snapshot is malformed
+         */
+        private Node node() throws Stale {
+            final String type = this.string();
+            final int count = this.number();
+            final List<Child> composition = new ArrayList<>(count);
+            for (int index = 0; index < count; index = index + 1) {
+                if (this.number() == ProgramSnapshot.OTHER) {
+                    final int size = this.number();
+                    final List<Descriptor> descriptors = new ArrayList<>(size);
+                    for (int item = 0; item < size; item = item + 1) {
+                        descriptors.add(this.descriptor());
+                    }
+                    composition.add(new Disjunction(descriptors));
+                } else {
+                    composition.add(this.descriptor());
+                }
+            }
+            return new Node(type, composition);
+        }
+
+        /**
+         * Reads a literal descriptor.
+         * @return The literal descriptor
+         * @throws Stale If the snapshot is malformed
+         */
+        private Literal literal() throws Stale {
+            final Literal.Builder builder = new Literal.Builder();
+            builder.setType(this.string());
+            builder.setKlass(this.string());
+            builder.setStringifier(this.string());
+            builder.setParser(this.string());
+            builder.setException(this.string());
+            if (!builder.isValid()) {
+                throw Stale.INSTANCE;
+            }
+            return builder.build();
+        }
+
+        /**
+         * Reads a descriptor.
+         * @return The descriptor
+         * @throws Stale If the snapshot is malformed
+         */
+        private Descriptor descriptor() throws Stale {
+            final int kind = this.number();
+            final Descriptor result;
+            if (kind == ProgramSnapshot.EMPTY) {
+                result = Empty.INSTANCE;
+            } else if (kind == ProgramSnapshot.EXTENSION_MARK) {
+                result = Extension.INSTANCE;
+            } else if (kind == ProgramSnapshot.HOLE) {
+                result = new HoleDecorator(this.hole());
+            } else if (kind == ProgramSnapshot.ORDINARY) {
+                result = this.ordinary();
+            } else {
+                throw Stale.INSTANCE;
+            }
+            return result;
+        }
+
+        /**
+         * Reads an ordinary descriptor.
+         * @return The descriptor
+         * @throws Stale If the snapshot is malformed
+         */
+        private Descriptor ordinary() throws Stale {
+            final DescriptorAttribute attribute =
+                Decoder.element(DescriptorAttribute.values(), this.number());
+            final String tag = this.string();
+            final String label = this.string();
+            final String type = this.string();
+            final DescriptorFactory factory;
+            if (tag.isEmpty()) {
+                factory = new DescriptorFactory(label, type);
+            } else {
+                factory = new DescriptorFactory(label, tag);
+                factory.replaceType(type);
+            }
+            factory.setAttribute(attribute);
+            final int count = this.number();
+            for (int index = 0; index < count; index = index + 1) {
+                if (this.number() == ProgramSnapshot.OTHER) {
+                    factory.addParameter(this.hole());
+                } else {
+                    factory.addParameter(this.descriptor());
+                }
+            }
+            final int data = this.number();
+            if (data == ProgramSnapshot.STRING_DATA) {
+                factory.setData(new StringData(this.string()));
+            } else if (data == ProgramSnapshot.HOLE_DATA) {
+                factory.setData(this.hole());
+            } else if (data != ProgramSnapshot.NO_DATA) {
+                throw Stale.INSTANCE;
+            }
+            return factory.createDescriptor();
+        }
+
+        /**
+         * Reads a hole.
+         * @return The hole
+         * @throws Stale If the snapshot is malformed
+         */
+        private Hole hole() throws Stale {
+            final int value = this.number();
+            final HoleAttribute attribute =
+                Decoder.element(HoleAttribute.values(), this.number());
+            return new Hole(value, attribute, this.string());
+        }
+
+        /**
+         * Reads a reference to a string of the dictionary.
+         * @return The string
+         * @throws Stale If the snapshot is malformed
+         */
+        private String string() throws Stale {
+            final int index = this.number();
+            if (index >= this.strings.size()) {
+                throw Stale.INSTANCE;
+            }
+            return this.strings.get(index);
+        }
+
+        /**
+         * Reads a string itself.
+         * @return The string
+         * @throws Stale If the snapshot is malformed
+         */
+        private String raw() throws Stale {
+            final int length = this.number();
+            if (length > this.bytes.length - this.position) {
+                throw Stale.INSTANCE;
+            }
+            final String result =
+                new String(this.bytes, this.position, length, StandardCharsets.UTF_8);
+            this.position = this.position + length;
+            return result;
+        }
+
+        /**
+         * Reads an unsigned variable-length integer.
+         * @return The value
+         * @throws Stale If the snapshot is malformed
+         */
+        private int number() throws Stale {
+            int value = 0;
+            int shift = 0;
+            int chunk = 0x80;
+            while ((chunk & 0x80) != 0) {
+                if (shift > 28) {
+                    throw Stale.INSTANCE;
+                }
+                chunk = this.next();
+                value = value | (chunk & 0x7f) << shift;
+                shift = shift + 7;
+            }
+            if (value < 0) {
+                throw Stale.INSTANCE;
+            }
+            return value;
+        }
+
+        /**
+         * Reads the next byte.
+         * @return The byte (as an unsigned number)
+         * @throws Stale If there are no more bytes
+         */
+        private int next() throws Stale {
+            if (this.position == this.bytes.length) {
+                throw Stale.INSTANCE;
+            }
+            final int value = this.bytes[this.position] & 0xff;
+            this.position = this.position + 1;
+            return value;
+        }
+
+        /**
+         * Returns an element of an array.
+         * @param array The array
+         * @param index The index
+         * @param <T> The type of elements
+         * @return The element
+         * @throws Stale If the index is out of bounds
+         */
+        private static <T> T element(final T[] array, final int index) throws Stale {
+            if (index >= array.length) {
+                throw Stale.INSTANCE;
+            }
+            return array[index];
+        }
+    }
+
+    /**
+     * Signal that the snapshot is malformed or stale. It is caught inside the class.
+     *
+     * @since 0.2.22
+     */
+    private static final class Stale extends Exception {
+        /**
+         * The instance.
+         */
+        private static final Stale INSTANCE = new Stale();
+
+        private static final long serialVersionUID = -1960224305283511617L;
+
+        /**
+         * Constructor.
+         */
+        private Stale() {
+            super(null, null, false, false);
+        }
+    }
+}
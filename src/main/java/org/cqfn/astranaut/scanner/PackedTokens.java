@@ -0,0 +1,531 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.scanner;
+
+import java.util.Arrays;
+import org.cqfn.astranaut.exceptions.ExpectedNumber;
+import org.cqfn.astranaut.exceptions.IncorrectEllipsis;
+import org.cqfn.astranaut.exceptions.ParserException;
+import org.cqfn.astranaut.exceptions.UnclosedNativeCode;
+import org.cqfn.astranaut.exceptions.UnclosedString;
+import org.cqfn.astranaut.exceptions.UnknownSymbol;
+import org.cqfn.astranaut.rules.HoleAttribute;
+
+/**
+ * The list of tokens packed into parallel arrays of kinds, start offsets and lengths
+ * over the source text. Scanning does not create token objects or copy the text,
+ * a {@link Token} object is created only when {@link PackedTokens#get(int)} is called
+ * (tokens without content, such as brackets and commas, are singletons). Tokens are
+ * the same as {@link Scanner} produces, errors are reported by the same exceptions.
+ *
+ * @since 0.2.22
+ */
+public final class PackedTokens extends TokenList {
+    /**
+     * Kinds of tokens by their ordinal numbers.
+     */
+    private static final Kind[] KINDS = Kind.values();
+
+    /**
+     * The source text.
+     */
+    private final CharSequence source;
+
+    /**
+     * Ordinal numbers of kinds of tokens.
+     */
+    private int[] kinds;
+
+    /**
+     * Start offsets of tokens in the source text.
+     */
+    private int[] starts;
+
+    /**
+     * Lengths of tokens.
+     */
+    private int[] lengths;
+
+    /**
+     * The number of tokens.
+     */
+    private int count;
+
+    /**
+     * Constructor.
+     * @param source The source text
+     */
+    private PackedTokens(final CharSequence source) {
+        this.source = source;
+        final int capacity = Math.max(4, source.length() / 4);
+        this.kinds = new int[capacity];
+        this.starts = new int[capacity];
+        this.lengths = new int[capacity];
+    }
+
+    /**
+     * Splits the source text into tokens.
+     * @param source The source text
+     * @return The list of tokens
+     * @throws ParserException If the text contains a symbol that can not start a token,
+     *  or a string, native code or hole marker is malformed
+     */
+    public static PackedTokens scan(final CharSequence source) throws ParserException {
+        final PackedTokens tokens = new PackedTokens(source);
+        new Packer(tokens).run();
+        return tokens;
+    }
+
+    @Override
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * Checks whether the list contains a token of the kind.
+     * @param kind The kind
+     * @return Checking result
+     */
+    public boolean contains(final Kind kind) {
+        final int ordinal = kind.ordinal();
+        boolean result = false;
+        for (int index = 0; !result && index < this.count; index = index + 1) {
+            result = this.kinds[index] == ordinal;
+        }
+        return result;
+    }
+
+    @Override
+    public Token get(final int index) throws IndexOutOfBoundsException {
+        final Token token;
+        switch (this.getKind(index)) {
+            case IDENTIFIER:
+                token = new Identifier(this.getText(index));
+                break;
+            case HOLE_MARKER:
+                token = this.createHoleMarker(index);
+                break;
+            case STRING:
+                token = new StringToken(this.getText(index));
+                break;
+            case NATIVE_CODE:
+                token = new NativeCode(this.getText(index));
+                break;
+            case BRACKET:
+                token = BracketFactory.INSTANCE.getObject(this.source.charAt(this.starts[index]));
+                break;
+            case COMMA:
+                token = Comma.INSTANCE;
+                break;
+            case AT_SIGN:
+                token = AtSign.INSTANCE;
+                break;
+            case VERTICAL_BAR:
+                token = VerticalBar.INSTANCE;
+                break;
+            case AMPERSAND:
+                token = Ampersand.INSTANCE;
+                break;
+            default:
+                token = EmptySymbol.INSTANCE;
+                break;
+        }
+        return token;
+    }
+
+    /**
+     * Returns the kind of token.
+     * @param index The index of token
+     * @return The kind
+     */
+    private Kind getKind(final int index) {
+        return PackedTokens.KINDS[this.kinds[this.check(index)]];
+    }
+
+    /**
+     * Returns the text of token: the name of an identifier, the value of a string
+     *  (escape sequences are decoded), the code of native code, or the text of
+     *  another token as it is in the source.
+     * @param index The index of token
+     * @return The text
+     */
+    private String getText(final int index) {
+        final String result;
+        if (this.getKind(index) == Kind.STRING) {
+            result = this.unescape(this.starts[index], this.lengths[index]);
+        } else {
+            result = this.source
+                .subSequence(this.starts[index], this.starts[index] + this.lengths[index])
+                .toString();
+        }
+        return result;
+    }
+
+    /**
+     * Checks the index of token.
+     * @param index The index
+     * @return The same index
+     * @throws IndexOutOfBoundsException If there is no token with such index
+     */
+    private int check(final int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= this.count) {
+            throw new IndexOutOfBoundsException(
+                String.format("Index: %d, size: %d", index, this.count)
+            );
+        }
+        return index;
+    }
+
+    /**
+     * Creates a hole marker token.
+     * @param index The index of token
+     * @return The token
+     */
+    private HoleMarker createHoleMarker(final int index) {
+        final int start = this.starts[index];
+        final int end = start + this.lengths[index];
+        int sharp = start;
+        while (this.source.charAt(sharp) != '#') {
+            sharp = sharp + 1;
+        }
+        int value = 0;
+        int position = sharp + 1;
+        while (position < end && Char.isDigit(this.source.charAt(position))) {
+            value = Math.addExact(
+                Math.multiplyExact(value, 10),
+                this.source.charAt(position) - '0'
+            );
+            position = position + 1;
+        }
+        final String type = this.source.subSequence(start, sharp).toString();
+        final HoleAttribute attribute;
+        if (!type.isEmpty()) {
+            attribute = HoleAttribute.TYPED;
+        } else if (position < end) {
+            attribute = HoleAttribute.ELLIPSIS;
+        } else {
+            attribute = HoleAttribute.NONE;
+        }
+        return new HoleMarker(value, attribute, type);
+    }
+
+    /**
+     * Decodes escape sequences of a string.
+     * @param start The start offset of the string
+     * @param length The length of the string
+     * @return The value of the string
+     */
+    private String unescape(final int start, final int length) {
+        final StringBuilder builder = new StringBuilder(length);
+        final int end = start + length;
+        int position = start;
+        while (position < end) {
+            char symbol = this.source.charAt(position);
+            if (symbol == '\\' && position + 1 < end) {
+                position = position + 1;
+                symbol = this.source.charAt(position);
+                if (symbol == 'n') {
+                    symbol = '\n';
+                } else if (symbol == 'r') {
+                    symbol = '\r';
+                } else if (symbol == 't') {
+                    symbol = '\t';
+                }
+            }
+            builder.append(symbol);
+            position = position + 1;
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Adds a token.
+     * @param kind The kind of token
+     * @param start The start offset
+     * @param length The length
+     */
+    private void add(final Kind kind, final int start, final int length) {
+        if (this.count == this.kinds.length) {
+            final int capacity = this.count * 2;
+            this.kinds = Arrays.copyOf(this.kinds, capacity);
+            this.starts = Arrays.copyOf(this.starts, capacity);
+            this.lengths = Arrays.copyOf(this.lengths, capacity);
+        }
+        this.kinds[this.count] = kind.ordinal();
+        this.starts[this.count] = start;
+        this.lengths[this.count] = length;
+        this.count = this.count + 1;
+    }
+
+    /**
+     * Kind of token.
+     *
+     * @since 0.2.22
+     */
+    public enum Kind {
+        /**
+         * Identifier, see {@link Identifier}.
+         */
+        IDENTIFIER,
+
+        /**
+         * Hole marker, see {@link HoleMarker}.
+         */
+        HOLE_MARKER,
+
+        /**
+         * String literal, see {@link StringToken}.
+         */
+        STRING,
+
+        /**
+         * Native code, see {@link NativeCode}.
+         */
+        NATIVE_CODE,
+
+        /**
+         * Opening or closing bracket, see {@link Bracket}.
+         */
+        BRACKET,
+
+        /**
+         * Comma, see {@link Comma}.
+         */
+        COMMA,
+
+        /**
+         * At sign, see {@link AtSign}.
+         */
+        AT_SIGN,
+
+        /**
+         * Vertical bar, see {@link VerticalBar}.
+         */
+        VERTICAL_BAR,
+
+        /**
+         * Ampersand, see {@link Ampersand}.
+         */
+        AMPERSAND,
+
+        /**
+         * Empty symbol, see {@link EmptySymbol}.
+         */
+        EMPTY
+    }
+
+    /**
+     * Scanner that fills the arrays.
+     *
+     * @since 0.2.22
+     */
+    private static final class Packer {
+        /**
+         * The list of tokens.
+         */
+        private final PackedTokens tokens;
+
+        /**
+         * The source text.
+         */
+        private final CharSequence source;
+
+        /**
+         * The current offset.
+         */
+        private int index;
+
+        /**
+         * Constructor.
+         * @param tokens The list of tokens
+         */
+        Packer(final PackedTokens tokens) {
+            this.tokens = tokens;
+            this.source = tokens.source;
+        }
+
+        /**
+         * Scans the whole source.
+         * @throws ParserException If the source can't be split into tokens
+         */
+        void run() throws ParserException {
+            char symbol = this.current();
+            while (symbol != 0) {
+                if (Char.isSpace(symbol)) {
+                    this.index = this.index + 1;
+                } else if (Char.isLetter(symbol)) {
+                    this.identifier();
+                } else if (Char.isBracket(symbol)) {
+                    this.single(Kind.BRACKET);
+                } else {
+                    this.other(symbol);
+                }
+                symbol = this.current();
+            }
+        }
+
+        /**
+         * Scans a token by its first symbol, that is not a letter or a bracket.
+         * @param symbol The first symbol
+         * @throws ParserException If the token can't be scanned
+         */
+        private void other(final char symbol) throws ParserException {
+            switch (symbol) {
+                case '#':
+                    this.holeMarker(this.index);
+                    break;
+                case '\"':
+                    this.string();
+                    break;
+                case '$':
+                    this.nativeCode();
+                    break;
+                case ',':
+                    this.single(Kind.COMMA);
+                    break;
+                case '@':
+                    this.single(Kind.AT_SIGN);
+                    break;
+                case '|':
+                    this.single(Kind.VERTICAL_BAR);
+                    break;
+                case '&':
+                    this.single(Kind.AMPERSAND);
+                    break;
+                case '0':
+                    this.single(Kind.EMPTY);
+                    break;
+                default:
+                    throw new UnknownSymbol(symbol);
+            }
+        }
+
+        /**
+         * Scans a token of one symbol.
+         * @param kind The kind of token
+         */
+        private void single(final Kind kind) {
+            this.tokens.add(kind, this.index, 1);
+            this.index = this.index + 1;
+        }
+
+        /**
+         * Scans an identifier, or a typed hole marker.
+         * @throws ParserException If the hole marker is malformed
+         */
+        private void identifier() throws ParserException {
+            final int start = this.index;
+            char symbol = this.current();
+            while (Char.isLetter(symbol) || Char.isDigit(symbol)) {
+                this.index = this.index + 1;
+                symbol = this.current();
+            }
+            if (symbol == '#') {
+                this.holeMarker(start);
+            } else {
+                this.tokens.add(Kind.IDENTIFIER, start, this.index - start);
+            }
+        }
+
+        /**
+         * Scans a hole marker, the current symbol is the sharp sign.
+         * @param start The start offset of the token, including the type
+         * @throws ParserException If the hole marker is malformed
+         */
+        private void holeMarker(final int start) throws ParserException {
+            this.index = this.index + 1;
+            final int digits = this.index;
+            while (Char.isDigit(this.current())) {
+                this.index = this.index + 1;
+            }
+            if (this.index == digits) {
+                throw ExpectedNumber.INSTANCE;
+            }
+            final int dots = this.index;
+            while (this.current() == '.') {
+                this.index = this.index + 1;
+            }
+            final int ellipsis = this.index - dots;
+            if (ellipsis != 0 && ellipsis != 3) {
+                throw IncorrectEllipsis.INSTANCE;
+            }
+            this.tokens.add(Kind.HOLE_MARKER, start, this.index - start);
+        }
+
+        /**
+         * Scans a string literal, the current symbol is the opening quote.
+         * @throws ParserException If the string is not closed
+         */
+        private void string() throws ParserException {
+            this.index = this.index + 1;
+            final int start = this.index;
+            char symbol = this.current();
+            while (symbol != '\"' && symbol != 0) {
+                if (symbol == '\\') {
+                    this.index = this.index + 1;
+                }
+                this.index = Math.min(this.index + 1, this.source.length());
+                symbol = this.current();
+            }
+            if (symbol == 0) {
+                throw new UnclosedString(this.tokens.unescape(start, this.index - start));
+            }
+            this.tokens.add(Kind.STRING, start, this.index - start);
+            this.index = this.index + 1;
+        }
+
+        /**
+         * Scans native code, the current symbol is the dollar sign.
+         * @throws ParserException If native code is not closed
+         */
+        private void nativeCode() throws ParserException {
+            this.index = this.index + 1;
+            final int start = this.index;
+            char symbol = this.current();
+            while (symbol != '$') {
+                if (symbol == 0) {
+                    throw new UnclosedNativeCode(
+                        this.source.subSequence(start, this.index).toString()
+                    );
+                }
+                this.index = this.index + 1;
+                symbol = this.current();
+            }
+            this.tokens.add(Kind.NATIVE_CODE, start, this.index - start);
+            this.index = this.index + 1;
+        }
+
+        /**
+         * Returns the current symbol.
+         * @return The symbol, or 0 at the end of the source
+         */
+        private char current() {
+            char result = 0;
+            if (this.index < this.source.length()) {
+                result = this.source.charAt(this.index);
+            }
+            return result;
+        }
+    }
+}
@@ -23,7 +23,7 @@
  */
 package org.cqfn.astranaut.scanner;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -41,7 +41,7 @@ public class TokenListBuilder {
      * Constructor.
      */
     public TokenListBuilder() {
-        this.list = new LinkedList<>();
+        this.list = new ArrayList<>(8);
     }
 
     /**
@@ -65,8 +65,7 @@ public class TokenListBuilder {
      * @return A list of tokens
      */
     public TokenList createList() {
-        final Token[] array = new Token[this.list.size()];
-        this.list.toArray(array);
+        final Token[] array = this.list.toArray(new Token[0]);
         return new TokenList() {
             @Override
             public int size() {
@@ -0,0 +1,180 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Thin client for the {@link ConversionServer}.
+ *
+ * @since 0.2.22
+ */
+public final class ConversionClient {
+    /**
+     * The size of the read buffer.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * The port the server listens on.
+     */
+    private final int port;
+
+    /**
+     * The access token of the server.
+     */
+    private final String token;
+
+    /**
+     * Constructor.
+     * @param port The port the server listens on
+     * @param token The access token of the server (see {@link ConversionServer#getToken()})
+     */
+    public ConversionClient(final int port, final String token) {
+        this.port = port;
+        this.token = token;
+    }
+
+    /**
+     * Converts a tree.
+     * @param rules The DSL file
+     * @param tree The tree in JSON format
+     * @return The converted tree in compact JSON format
+     * @throws IOException If the server is not available or the tree can not be converted
+     */
+    public String convert(final Path rules, final String tree) throws IOException {
+        return this.request(
+            String.format("/convert?rules=%s", ConversionClient.encode(rules)),
+            tree.getBytes(StandardCharsets.UTF_8)
+        );
+    }
+
+    /**
+     * Converts a file, the file is read and the result is written by the server.
+     * @param rules The DSL file
+     * @param source The source file
+     * @param destination The destination file
+     * @return The response of the server
+     * @throws IOException If the server is not available or the file can not be converted
+     */
+    public String convert(final Path rules, final Path source, final Path destination)
+        throws IOException {
+        return this.request(
+            String.format(
+                "/convert?rules=%s&source=%s&destination=%s",
+                ConversionClient.encode(rules),
+                ConversionClient.encode(source),
+                ConversionClient.encode(destination)
+            ),
+            new byte[0]
+        );
+    }
+
+    /**
+     * Requests the status of the server.
+     * @return The status in JSON format
+     * @throws IOException If the server is not available
+     */
+    public String status() throws IOException {
+        return this.request("/status", null);
+    }
+
+    /**
+     * Sends a request.
+     * @param path The path and the query
+     * @param body The request body, or {@code null} for a GET request
+     * @return The response body
+     * @throws IOException If the server is not available or responds with an error
+     */
+    private String request(final String path, final byte[] body) throws IOException {
+        final URL url = new URL(
+            "http",
+            InetAddress.getLoopbackAddress().getHostAddress(),
+            this.port,
+            path
+        );
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            connection.setRequestProperty("Authorization", "Bearer ".concat(this.token));
+            if (body != null) {
+                connection.setRequestMethod("POST");
+                connection.setDoOutput(true);
+                connection.setFixedLengthStreamingMode(body.length);
+                try (OutputStream stream = connection.getOutputStream()) {
+                    stream.write(body);
+                }
+            }
+            final int code = connection.getResponseCode();
+            final String response;
+            if (code == HttpURLConnection.HTTP_OK) {
+                response = ConversionClient.readAll(connection.getInputStream());
+            } else {
+                throw new IOException(ConversionClient.readAll(connection.getErrorStream()));
+            }
+            return response;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Encodes the absolute path of a file as a query parameter.
+     * @param path The path
+     * @return The encoded path
+     * @throws IOException Never
+     */
+    private static String encode(final Path path) throws IOException {
+        return URLEncoder.encode(path.toAbsolutePath().toString(), "UTF-8");
+    }
+
+    /**
+     * Reads the whole stream.
+     * @param stream The stream, may be {@code null}
+     * @return The content
+     * @throws IOException If the stream can not be read
+     */
+    private static String readAll(final InputStream stream) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        if (stream != null) {
+            try (InputStream input = stream) {
+                final byte[] buffer = new byte[ConversionClient.BUFFER_SIZE];
+                int count = input.read(buffer);
+                while (count > 0) {
+                    output.write(buffer, 0, count);
+                    count = input.read(buffer);
+                }
+            }
+        }
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,509 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.cqfn.astranaut.api.JsonStreamDeserializer;
+import org.cqfn.astranaut.api.JsonStreamSerializer;
+import org.cqfn.astranaut.api.TreeCache;
+import org.cqfn.astranaut.core.base.CoreException;
+import org.cqfn.astranaut.core.base.DefaultFactory;
+import org.cqfn.astranaut.core.base.EmptyTree;
+import org.cqfn.astranaut.core.base.Node;
+import org.cqfn.astranaut.core.base.Tree;
+import org.cqfn.astranaut.interpreter.Adapter;
+import org.cqfn.astranaut.interpreter.Interpreter;
+import org.cqfn.astranaut.rules.Program;
+import org.cqfn.astranaut.utils.ContentHash;
+
+/**
+ * Long-running conversion server that listens on a local HTTP port.
+ * Parsed DSL programs are kept in a cache keyed by the digest of the DSL code,
+ * so a request costs only the conversion itself, without JVM startup and DSL parsing.
+ * Requests are processed concurrently.
+ * The server listens only on the loopback interface. Since a web page opened
+ * in a browser can still send requests to a local port, each request must also
+ * pass these checks:
+ * <ul>
+ *     <li>the request carries the access token generated when the server is created
+ *      (see {@link #getToken()}) in the {@code Authorization: Bearer} header;</li>
+ *     <li>the {@code Host} header names the loopback interface (this rejects
+ *      DNS rebinding), and there is no {@code Origin} header (browsers send it
+ *      with cross-site requests);</li>
+ *     <li>all files (DSL files, source and destination files) are inside the root
+ *      directory of the server.</li>
+ * </ul>
+ * Protocol:
+ * <ul>
+ *     <li>{@code POST /convert?rules=<DSL file>}, the body is a tree in JSON format,
+ *      the response is the converted tree in compact JSON format;</li>
+ *     <li>{@code POST /convert?rules=<DSL file>&source=<file>&destination=<file>},
+ *      the server converts the file like the interpreter does, the response contains
+ *      the number of nodes of the source tree;</li>
+ *     <li>{@code GET /status}, the response contains the number of cached programs
+ *      and statistics of the caches of programs and of trees.</li>
+ * </ul>
+ * Results of conversions of trees passed in request bodies are kept in memory
+ * (see {@link TreeCache}), so a tree that is sent again is not converted again.
+ * The paths of files are resolved against the root directory of the server.
+ * Errors are reported with the status code 400 (bad request), 403 (the request
+ * fails the checks listed above) or 422 (the DSL code or the tree can not
+ * be processed) and a message in the body.
+ *
+ * @since 0.2.22
+ */
+public final class ConversionServer {
+    /**
+     * The default port.
+     */
+    public static final int DEFAULT_PORT = 7731;
+
+    /**
+     * Status code "OK".
+     */
+    private static final int OK = 200;
+
+    /**
+     * Status code "Bad request".
+     */
+    private static final int BAD_REQUEST = 400;
+
+    /**
+     * Status code "Forbidden".
+     */
+    private static final int FORBIDDEN = 403;
+
+    /**
+     * Status code "Unprocessable entity".
+     */
+    private static final int UNPROCESSABLE = 422;
+
+    /**
+     * Status code "Internal server error".
+     */
+    private static final int INTERNAL_ERROR = 500;
+
+    /**
+     * The maximum estimated size of cached resulting trees, in bytes.
+     */
+    private static final long TREE_CACHE_SIZE = 64L << 20;
+
+    /**
+     * The number of random bytes of the access token.
+     */
+    private static final int TOKEN_SIZE = 32;
+
+    /**
+     * The prefix of the value of the authorization header.
+     */
+    private static final String BEARER = "Bearer ";
+
+    /**
+     * The response to a request without the access token.
+     */
+    private static final String NO_TOKEN = "Expected the access token of the server";
+
+    /**
+     * The response to a request that is not addressed to the loopback interface
+     *  or is sent by a web page.
+     */
+    private static final String NOT_LOCAL =
+        "Expected a request to the loopback interface without Origin";
+
+    /**
+     * The cache of parsed programs.
+     */
+    private final RuleSetCache cache;
+
+    /**
+     * The cache of resulting trees.
+     */
+    private final TreeCache trees;
+
+    /**
+     * The HTTP server.
+     */
+    private final HttpServer server;
+
+    /**
+     * The pool of threads that process requests.
+     */
+    private final ExecutorService pool;
+
+    /**
+     * The directory that contains all files the server reads and writes (real path).
+     */
+    private final Path root;
+
+    /**
+     * The access token.
+     */
+    private final String token;
+
+    /**
+     * Constructor.
+     * @param port The port, 0 to choose a free port
+     * @param threads The number of threads that process requests
+     * @param capacity The maximum number of cached programs
+     * @param root The directory that contains all files the server reads and writes
+     * @throws IOException If the port can not be opened or the root directory
+     *  does not exist
+     */
+    public ConversionServer(final int port, final int threads, final int capacity,
+        final Path root) throws IOException {
+        this.root = root.toRealPath();
+        final byte[] random = new byte[ConversionServer.TOKEN_SIZE];
+        new SecureRandom().nextBytes(random);
+        this.token = ContentHash.toHex(random);
+        this.cache = new RuleSetCache(capacity);
+        this.trees = new TreeCache(ConversionServer.TREE_CACHE_SIZE);
+        this.server = HttpServer.create(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0
+        );
+        this.pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        this.server.setExecutor(this.pool);
+        this.server.createContext("/convert", this::convert);
+        this.server.createContext("/status", this::status);
+    }
+
+    /**
+     * Parses the DSL code and puts the program into the cache in advance.
+     * @param code The DSL code
+     * @throws CoreException If the code can not be parsed
+     */
+    public void preload(final String code) throws CoreException {
+        this.cache.get(code);
+    }
+
+    /**
+     * Starts the server, requests are processed in background threads.
+     */
+    public void start() {
+        this.server.start();
+    }
+
+    /**
+     * Stops the server.
+     */
+    public void stop() {
+        this.server.stop(0);
+        this.pool.shutdownNow();
+    }
+
+    /**
+     * Returns the port the server listens on.
+     * @return The port
+     */
+    public int getPort() {
+        return this.server.getAddress().getPort();
+    }
+
+    /**
+     * Returns the access token, clients pass it in the {@code Authorization: Bearer} header.
+     * @return The token
+     */
+    public String getToken() {
+        return this.token;
+    }
+
+    /**
+     * Handles a conversion request.
+     * @param exchange The request and the response
+     * @throws IOException If the response can not be sent
+     */
+    private void convert(final HttpExchange exchange) throws IOException {
+        int code = ConversionServer.OK;
+        String response;
+        try {
+            final Map<String, String> params =
+                ConversionServer.parseQuery(exchange.getRequestURI().getRawQuery());
+            final String rules = params.get("rules");
+            final String rejection = this.check(exchange);
+            if (rejection != null) {
+                code = ConversionServer.FORBIDDEN;
+                response = rejection;
+            } else if (rules == null || !"POST".equals(exchange.getRequestMethod())) {
+                code = ConversionServer.BAD_REQUEST;
+                response = "Expected POST request with the 'rules' parameter";
+            } else {
+                final RuleSetCache.Entry entry = this.cache.get(
+                    new String(Files.readAllBytes(this.resolve(rules)), StandardCharsets.UTF_8)
+                );
+                final String source = params.get("source");
+                final String destination = params.get("destination");
+                if (source != null && destination != null) {
+                    response = ConversionServer.convertFiles(
+                        entry.getProgram(), this.resolve(source), this.resolve(destination)
+                    );
+                } else {
+                    response = this.convertTree(entry, exchange.getRequestBody());
+                }
+            }
+        } catch (final CoreException exception) {
+            code = ConversionServer.UNPROCESSABLE;
+            response = exception.getErrorMessage();
+        } catch (final IllegalArgumentException exception) {
+            code = ConversionServer.UNPROCESSABLE;
+            response = exception.getMessage();
+        } catch (final SecurityException exception) {
+            code = ConversionServer.FORBIDDEN;
+            response = exception.getMessage();
+        } catch (final IOException exception) {
+            code = ConversionServer.BAD_REQUEST;
+            response = exception.toString();
+        } catch (final RuntimeException exception) {
+            code = ConversionServer.INTERNAL_ERROR;
+            response = exception.toString();
+        }
+        ConversionServer.respond(exchange, code, response);
+    }
+
+    /**
+     * Handles a status request.
+     * @param exchange The request and the response
+     * @throws IOException If the response can not be sent
+     */
+    private void status(final HttpExchange exchange) throws IOException {
+        final String rejection = this.check(exchange);
+        if (rejection == null) {
+            this.respondStatus(exchange);
+        } else {
+            ConversionServer.respond(exchange, ConversionServer.FORBIDDEN, rejection);
+        }
+    }
+
+    /**
+     * Sends the status of the server.
+     * @param exchange The request and the response
+     * @throws IOException If the response can not be sent
+     */
+    private void respondStatus(final HttpExchange exchange) throws IOException {
+        final String response = String.format(
+            Locale.ROOT,
+            "{\"programs\":%d,\"hits\":%d,\"misses\":%d,\"trees\":{\"hits\":%d,"
+                + "\"misses\":%d,\"evictions\":%d,\"entries\":%d,\"bytes\":%d}}",
+            this.cache.size(),
+            this.cache.getHits(),
+            this.cache.getMisses(),
+            this.trees.getHits(),
+            this.trees.getMisses(),
+            this.trees.getEvictions(),
+            this.trees.getEntryCount(),
+            this.trees.getSize()
+        );
+        ConversionServer.respond(exchange, ConversionServer.OK, response);
+    }
+
+    /**
+     * Checks that the request carries the access token and is sent to the loopback
+     *  interface not by a web page.
+     * @param exchange The request
+     * @return The reason to reject the request, or {@code null} if it passes the checks
+     */
+    private String check(final HttpExchange exchange) {
+        final String result;
+        if (!this.isAuthorized(exchange)) {
+            result = ConversionServer.NO_TOKEN;
+        } else if (ConversionServer.isLocal(exchange)) {
+            result = null;
+        } else {
+            result = ConversionServer.NOT_LOCAL;
+        }
+        return result;
+    }
+
+    /**
+     * Checks that the request carries the access token.
+     * @param exchange The request
+     * @return Checking result
+     */
+    private boolean isAuthorized(final HttpExchange exchange) {
+        final String header = exchange.getRequestHeaders().getFirst("Authorization");
+        final String expected = ConversionServer.BEARER.concat(this.token);
+        return header != null && MessageDigest.isEqual(
+            header.getBytes(StandardCharsets.UTF_8), expected.getBytes(StandardCharsets.UTF_8)
+        );
+    }
+
+    /**
+     * Checks that the request is addressed to the loopback interface and is not sent
+     *  by a web page: the host name is a loopback address or "localhost" and there
+     *  is no Origin header. The host name is never resolved.
+     * @param exchange The request
+     * @return Checking result
+     */
+    private static boolean isLocal(final HttpExchange exchange) {
+        final String header = exchange.getRequestHeaders().getFirst("Host");
+        boolean result = false;
+        if (header != null && exchange.getRequestHeaders().getFirst("Origin") == null) {
+            String host = header.trim();
+            if (host.startsWith("[")) {
+                host = host.substring(1, Math.max(1, host.indexOf(']')));
+            } else if (host.indexOf(':') >= 0) {
+                host = host.substring(0, host.indexOf(':'));
+            }
+            if ("localhost".equalsIgnoreCase(host)) {
+                result = true;
+            } else if (host.matches("[0-9.]+|[0-9a-fA-F:]*:[0-9a-fA-F:.]*")) {
+                try {
+                    result = InetAddress.getByName(host).isLoopbackAddress();
+                } catch (final UnknownHostException ignored) {
+                    result = false;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Resolves a path passed in a request against the root directory. The path
+     *  (after resolving symbolic links of its existing part) must be inside the root.
+     *  Dangling symbolic links are rejected since the file would be created at their
+     *  target, wherever it is.
+     * @param value The path passed in the request
+     * @return The absolute path
+     * @throws IOException If the existing part of the path can not be resolved
+     * @throws SecurityException If the path is outside the root directory
+     */
+    private Path resolve(final String value) throws IOException {
+        final Path path = this.root.resolve(value).normalize();
+        Path existing = path;
+        while (existing != null && !Files.exists(existing, LinkOption.NOFOLLOW_LINKS)) {
+            existing = existing.getParent();
+        }
+        if (!path.startsWith(this.root) || existing == null || !Files.exists(existing)
+            || !existing.toRealPath().startsWith(this.root)) {
+            throw new SecurityException(
+                String.format("The file is outside the root directory: '%s'", value)
+            );
+        }
+        return path;
+    }
+
+    /**
+     * Converts a tree passed in the request body.
+     * @param rules The program with the digest of its transformation rules
+     * @param body The request body
+     * @return The converted tree in compact JSON format
+     * @throws IOException If the body can not be read
+     */
+    private String convertTree(final RuleSetCache.Entry rules, final InputStream body)
+        throws IOException {
+        final Tree tree = new JsonStreamDeserializer(
+            new InputStreamReader(body, StandardCharsets.UTF_8)
+        ).deserialize();
+        if (tree instanceof EmptyTree) {
+            throw new IllegalArgumentException("The request body is not a valid tree");
+        }
+        final Adapter adapter =
+            new Adapter(rules.getProgram().getTransformations(), DefaultFactory.EMPTY);
+        final Node result = this.trees.computeIfAbsent(
+            rules.getDigest(), DefaultFactory.EMPTY, tree.getRoot(), adapter::convert
+        );
+        final JsonStreamSerializer serializer = new JsonStreamSerializer(new Tree(result));
+        serializer.setPretty(false);
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        serializer.serialize(output);
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Converts a file.
+     * @param program The program
+     * @param source The source file
+     * @param destination The destination file
+     * @return Response with the number of nodes of the source tree
+     * @throws CoreException If the file can not be converted
+     */
+    private static String convertFiles(final Program program, final Path source,
+        final Path destination) throws CoreException {
+        final Interpreter interpreter =
+            new Interpreter(source.toFile(), destination.toFile(), program);
+        interpreter.run();
+        return String.format(Locale.ROOT, "{\"nodes\":%d}", interpreter.getNodeCount());
+    }
+
+    /**
+     * Sends a response.
+     * @param exchange The request and the response
+     * @param code The status code
+     * @param response The response body
+     * @throws IOException If the response can not be sent
+     */
+    private static void respond(final HttpExchange exchange, final int code,
+        final String response) throws IOException {
+        final byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream stream = exchange.getResponseBody()) {
+            stream.write(bytes);
+        }
+        exchange.close();
+    }
+
+    /**
+     * Parses a query string.
+     * @param query The raw query string, may be {@code null}
+     * @return Decoded parameters
+     * @throws UnsupportedEncodingException Never
+     */
+    private static Map<String, String> parseQuery(final String query)
+        throws UnsupportedEncodingException {
+        final Map<String, String> params = new HashMap<>();
+        if (query != null) {
+            for (final String pair : query.split("&")) {
+                final int equals = pair.indexOf('=');
+                if (equals > 0) {
+                    params.put(
+                        URLDecoder.decode(pair.substring(0, equals), "UTF-8"),
+                        URLDecoder.decode(pair.substring(equals + 1), "UTF-8")
+                    );
+                }
+            }
+        }
+        return params;
+    }
+}
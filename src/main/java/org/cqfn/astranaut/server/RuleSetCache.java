@@ -0,0 +1,165 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.server;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.cqfn.astranaut.core.base.CoreException;
+import org.cqfn.astranaut.parser.ProgramParser;
+import org.cqfn.astranaut.rules.Program;
+import org.cqfn.astranaut.utils.ContentHash;
+
+/**
+ * Cache of parsed DSL programs. Programs are keyed by the SHA-256 digest of the DSL code,
+ * so that a changed file is parsed again, and the least recently used program is evicted
+ * when the cache is full. Each program is stored together with the digest of its
+ * transformation rules, so the digest is not computed for each request. The cache is
+ * thread-safe; parsing is performed outside the lock, so a slow parsing does not block
+ * requests that use other programs.
+ *
+ * @since 0.2.22
+ */
+final class RuleSetCache {
+    /**
+     * The programs, in access order.
+     */
+    private final Map<String, Entry> programs;
+
+    /**
+     * The number of requests for which the program was found in the cache.
+     */
+    private long hits;
+
+    /**
+     * The number of requests for which the program was parsed.
+     */
+    private long misses;
+
+    /**
+     * Constructor.
+     * @param capacity The maximum number of programs
+     */
+    RuleSetCache(final int capacity) {
+        this.programs = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 6112043379415283507L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+                return this.size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the parsed program, parses it if it is not in the cache.
+     * @param code The DSL code
+     * @return The program with the digest of its transformation rules
+     * @throws CoreException If the code can not be parsed
+     */
+    Entry get(final String code) throws CoreException {
+        final String key = ContentHash.sha256(code);
+        Entry entry;
+        synchronized (this) {
+            entry = this.programs.get(key);
+            if (entry == null) {
+                this.misses = this.misses + 1;
+            } else {
+                this.hits = this.hits + 1;
+            }
+        }
+        if (entry == null) {
+            entry = new Entry(new ProgramParser(code).parse());
+            synchronized (this) {
+                this.programs.put(key, entry);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the number of programs in the cache.
+     * @return The number of programs
+     */
+    synchronized int size() {
+        return this.programs.size();
+    }
+
+    /**
+     * Returns the number of requests for which the program was found in the cache.
+     * @return The number of hits
+     */
+    synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Returns the number of requests for which the program was parsed.
+     * @return The number of misses
+     */
+    synchronized long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * A parsed program with the digest of its transformation rules.
+     *
+     * @since 0.2.22
+     */
+    static final class Entry {
+        /**
+         * The program.
+         */
+        private final Program program;
+
+        /**
+         * The digest of the transformation rules.
+         */
+        private final String digest;
+
+        /**
+         * Constructor.
+         * @param program The program
+         */
+        Entry(final Program program) {
+            this.program = program;
+            this.digest = program.getTransformationsDigest();
+        }
+
+        /**
+         * Returns the program.
+         * @return The program
+         */
+        Program getProgram() {
+            return this.program;
+        }
+
+        /**
+         * Returns the digest of the transformation rules.
+         * @return The digest
+         */
+        String getDigest() {
+            return this.digest;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Computes SHA-256 digests of contents, such as DSL code or serialized trees,
+ * to be used as keys of caches.
+ *
+ * @since 0.2.22
+ */
+public final class ContentHash {
+    /**
+     * Hexadecimal digits.
+     */
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * The size of the read buffer.
+     */
+    private static final int BUFFER_SIZE = 65_536;
+
+    /**
+     * Private constructor.
+     */
+    private ContentHash() {
+    }
+
+    /**
+     * Computes the digest of a string encoded in UTF-8.
+     * @param content The string
+     * @return The digest as a string of 64 hexadecimal digits
+     */
+    public static String sha256(final String content) {
+        return ContentHash.sha256(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Computes the digest of an array of bytes.
+     * @param content The array
+     * @return The digest as a string of 64 hexadecimal digits
+     */
+    public static String sha256(final byte[] content) {
+        return ContentHash.toHex(ContentHash.digest().digest(content));
+    }
+
+    /**
+     * Computes the digest of the content of a file, the file is read by chunks.
+     * @param path The path to the file
+     * @return The digest as a string of 64 hexadecimal digits
+     * @throws IOException If the file can not be read
+     */
+    public static String sha256(final Path path) throws IOException {
+        final MessageDigest digest = ContentHash.digest();
+        try (InputStream stream = Files.newInputStream(path)) {
+            final byte[] buffer = new byte[ContentHash.BUFFER_SIZE];
+            int count = stream.read(buffer);
+            while (count > 0) {
+                digest.update(buffer, 0, count);
+                count = stream.read(buffer);
+            }
+        }
+        return ContentHash.toHex(digest.digest());
+    }
+
+    /**
+     * Creates a SHA-256 digest.
+     * @return The digest
+     */
+    public static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Converts bytes to a hexadecimal string.
+     * @param bytes The bytes
+     * @return The string
+     */
+    public static String toHex(final byte[] bytes) {
+        final char[] chars = new char[bytes.length * 2];
+        for (int index = 0; index < bytes.length; index = index + 1) {
+            chars[index * 2] = ContentHash.DIGITS[bytes[index] >> 4 & 0xf];
+            chars[index * 2 + 1] = ContentHash.DIGITS[bytes[index] & 0xf];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of strings that replaces equal strings with a single instance.
+ * The static {@link StringPool#intern(String)} method keeps canonical type names:
+ * names of types of nodes that are loaded from files and names of types that are
+ * used in DSL rules are the same instances (and they are the same instances as
+ * compile-time constants, i.e. names of generated types), so they can be compared
+ * by identity before calling {@code equals}.
+ * Instances of the pool deduplicate data of nodes, such a pool keeps a limited
+ * number of strings, and the strings that do not fit are returned as is.
+ * The pool is thread-safe.
+ *
+ * @since 0.2.22
+ */
+public final class StringPool {
+    /**
+     * Canonical type names.
+     */
+    private static final Map<String, String> TYPES = new ConcurrentHashMap<>();
+
+    /**
+     * The maximum number of canonical type names that are kept in the table.
+     */
+    private static final int MAX_TYPES = 16_384;
+
+    /**
+     * The maximum length of a string that is deduplicated.
+     */
+    private static final int MAX_LENGTH = 256;
+
+    /**
+     * The canonical strings.
+     */
+    private final Map<String, String> strings;
+
+    /**
+     * The maximum number of strings in the pool.
+     */
+    private final int capacity;
+
+    /**
+     * The number of strings that were replaced with instances from the pool.
+     */
+    private final AtomicLong hits;
+
+    /**
+     * The number of strings that were not replaced.
+     */
+    private final AtomicLong misses;
+
+    /**
+     * The estimated number of bytes saved by the replacement.
+     */
+    private final AtomicLong saved;
+
+    /**
+     * Constructor.
+     * @param capacity The maximum number of strings in the pool
+     */
+    public StringPool(final int capacity) {
+        this.strings = new ConcurrentHashMap<>();
+        this.capacity = capacity;
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.saved = new AtomicLong();
+    }
+
+    /**
+     * Returns the canonical instance of a type name.
+     *  The table of canonical names is bounded: when it is full (which happens only
+     *  if files contain garbage instead of type names), names that are not in the table
+     *  are interned without caching.
+     * @param name The type name
+     * @return The canonical instance, it is equal to the {@link String#intern()} result
+     */
+    public static String intern(final String name) {
+        String result = StringPool.TYPES.get(name);
+        if (result == null) {
+            if (StringPool.TYPES.size() < StringPool.MAX_TYPES) {
+                result = StringPool.TYPES.computeIfAbsent(name, String::intern);
+            } else {
+                result = name.intern();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the instance of a string that is stored in the pool. If the pool does not
+     *  contain an equal string yet, the string is added if the pool is not full.
+     *  Long strings are never added.
+     * @param str The string
+     * @return The string from the pool or the passed string
+     */
+    public String deduplicate(final String str) {
+        String result = str;
+        if (str.length() <= StringPool.MAX_LENGTH) {
+            final String existing = this.strings.get(str);
+            if (existing != null) {
+                result = existing;
+                this.hits.incrementAndGet();
+                this.saved.addAndGet(StringPool.footprint(str));
+            } else if (this.strings.size() < this.capacity) {
+                result = this.strings.computeIfAbsent(str, key -> key);
+                this.misses.incrementAndGet();
+            } else {
+                this.misses.incrementAndGet();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of strings stored in the pool.
+     * @return The number of strings
+     */
+    public int size() {
+        return this.strings.size();
+    }
+
+    /**
+     * Returns the number of strings that were replaced with instances from the pool.
+     * @return The number of replaced strings
+     */
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    /**
+     * Returns the number of strings that were not replaced, i.e. added to the pool
+     *  or passed over because the pool is full.
+     * @return The number of strings
+     */
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    /**
+     * Returns the estimated number of heap bytes saved by replacing strings,
+     *  i.e. the total size of the string instances that can be garbage collected.
+     * @return The number of bytes
+     */
+    public long getSavedBytes() {
+        return this.saved.get();
+    }
+
+    /**
+     * Estimates the size of a string instance with its array of characters,
+     *  assuming compact strings and 8-byte alignment.
+     * @param str The string
+     * @return The size, in bytes
+     */
+    private static long footprint(final String str) {
+        int width = 1;
+        final int length = str.length();
+        for (int index = 0; width == 1 && index < length; index = index + 1) {
+            if (str.charAt(index) > 0xff) {
+                width = 2;
+            }
+        }
+        return 24 + (16 + (long) length * width + 7 & ~7L);
+    }
+}
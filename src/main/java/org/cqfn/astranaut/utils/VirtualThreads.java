@@ -0,0 +1,88 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.utils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Access to virtual threads (Java 21 and later) from code compiled for Java 8.
+ * The executor is obtained by reflection, so on older runtimes it is simply not available.
+ *
+ * @since 0.2.22
+ */
+public final class VirtualThreads {
+    /**
+     * The method that creates an executor with a virtual thread per task,
+     *  or {@code null} if the runtime does not support virtual threads.
+     */
+    private static final Method FACTORY = VirtualThreads.findFactory();
+
+    /**
+     * Private constructor.
+     */
+    private VirtualThreads() {
+    }
+
+    /**
+     * Checks whether the runtime supports virtual threads.
+     * @return {@code true} if virtual threads are available
+     */
+    public static boolean isAvailable() {
+        return VirtualThreads.FACTORY != null;
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for each task.
+     * The executor should be shut down when it is no longer needed.
+     * @return The executor, or {@code null} if the runtime does not support virtual threads
+     */
+    public static ExecutorService newExecutor() {
+        ExecutorService result = null;
+        if (VirtualThreads.FACTORY != null) {
+            try {
+                result = (ExecutorService) VirtualThreads.FACTORY.invoke(null);
+            } catch (final IllegalAccessException | InvocationTargetException ignored) {
+                result = null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Looks for the method that creates an executor with a virtual thread per task.
+     * @return The method, or {@code null} if there is no such method
+     */
+    private static Method findFactory() {
+        Method method;
+        try {
+            method = Class.forName("java.util.concurrent.Executors")
+                .getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (final ClassNotFoundException | NoSuchMethodException ignored) {
+            method = null;
+        }
+        return method;
+    }
+}
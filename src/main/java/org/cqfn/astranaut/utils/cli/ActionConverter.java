@@ -61,6 +61,24 @@ public class ActionConverter implements IStringConverter<Action> {
             case "convert":
                 result = Action.CONVERT;
                 break;
+            case "batch":
+                result = Action.BATCH;
+                break;
+            case "stream":
+                result = Action.STREAM;
+                break;
+            case "serve":
+                result = Action.SERVE;
+                break;
+            case "client":
+                result = Action.CLIENT;
+                break;
+            case "coordinate":
+                result = Action.COORDINATE;
+                break;
+            case "worker":
+                result = Action.WORKER;
+                break;
             default:
                 throw new ParameterException(
                     String.format(
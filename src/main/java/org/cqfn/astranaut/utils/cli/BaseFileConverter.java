@@ -27,7 +27,6 @@ import com.beust.jcommander.IStringConverter;
 import com.beust.jcommander.ParameterException;
 import java.io.File;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * Base implementation of CLI file parameter converter.
@@ -93,19 +92,19 @@ public abstract class BaseFileConverter implements IStringConverter<File> {
     public abstract boolean fileMustExist();
 
     /**
-     * Checks if an input file extension is txt.
+     * Checks if an input file has one of valid extensions. An extension may consist
+     *  of several parts, for example, {@code json.gz}.
      *
      * @param value A path to file
      * @return A boolean {@code true} if a file has a valid extension or
      *  {@code false} otherwise
      */
     private boolean isValidFileExtension(final String value) {
-        final Optional<String> ext = Optional.ofNullable(value)
-            .filter(f -> f.contains("."))
-            .map(f -> f.substring(value.lastIndexOf('.') + 1));
         boolean valid = false;
-        if (ext.isPresent()) {
-            valid = this.getValidExtensions().contains(ext.get());
+        if (value != null) {
+            for (final String ext : this.getValidExtensions()) {
+                valid = valid || value.endsWith(".".concat(ext));
+            }
         }
         return valid;
     }
@@ -23,7 +23,7 @@
  */
 package org.cqfn.astranaut.utils.cli;
 
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -35,7 +35,9 @@ public final class DestinationFileConverter extends BaseFileConverter {
     /**
      * The list of valid file extensions.
      */
-    private static final List<String> VALID_EXT = Collections.singletonList("json");
+    private static final List<String> VALID_EXT = Arrays.asList(
+        "json", "astb", "ndjson", "json.gz", "astb.gz", "ndjson.gz"
+    );
 
     /**
      * Constructor.
@@ -0,0 +1,163 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.cqfn.astranaut.core.base.Node;
+
+/**
+ * Reactive processor that transforms a published stream of trees.
+ * The processor requests a limited number of trees from the upstream publisher and
+ * transforms them concurrently on the executor; a new tree is requested when a result
+ * is placed into the buffers of subscribers, and placing it blocks while a buffer
+ * is full. So the number of trees being transformed is bounded by the window, and
+ * the number of results waiting for slow subscribers is bounded by their buffers.
+ * If the executor rejects a transformation (for example, because it is shut down),
+ * the subscription is cancelled and subscribers receive the error.
+ * Results are published in the order of completion, and a failure of one transformation
+ * is published as a result (see {@link TransformResult}) instead of terminating the stream.
+ * This class requires Java 9 or later, it is placed in the versioned part
+ * of the multi-release jar.
+ *
+ * @since 0.2.22
+ */
+public final class TreeFlowProcessor extends SubmissionPublisher<TransformResult>
+    implements Flow.Processor<Node, TransformResult> {
+    /**
+     * The processor that transforms trees.
+     */
+    private final TreeProcessor processor;
+
+    /**
+     * The executor that performs transformations.
+     */
+    private final Executor executor;
+
+    /**
+     * The maximum number of trees being transformed at the same time.
+     */
+    private final int window;
+
+    /**
+     * The number of trees being transformed.
+     */
+    private final AtomicInteger pending;
+
+    /**
+     * The subscription to the upstream publisher. It is set by the upstream thread
+     *  and used by threads of the executor that request next items.
+     */
+    private volatile Flow.Subscription subscription;
+
+    /**
+     * The index of the next received tree.
+     */
+    private int index;
+
+    /**
+     * Flag indicating that the upstream publisher has completed.
+     */
+    private volatile boolean completed;
+
+    /**
+     * Constructor.
+     * @param processor The processor that transforms trees
+     * @param executor The executor that performs transformations, for example,
+     *  {@link org.cqfn.astranaut.utils.VirtualThreads#newExecutor()}
+     * @param window The maximum number of trees being transformed at the same time
+     */
+    public TreeFlowProcessor(final TreeProcessor processor, final Executor executor,
+        final int window) {
+        super();
+        this.processor = processor;
+        this.executor = executor;
+        this.window = Math.max(1, window);
+        this.pending = new AtomicInteger();
+    }
+
+    @Override
+    public void onSubscribe(final Flow.Subscription value) {
+        if (this.subscription == null) {
+            this.subscription = value;
+            value.request(this.window);
+        } else {
+            value.cancel();
+        }
+    }
+
+    @Override
+    public void onNext(final Node tree) {
+        final int position = this.index;
+        this.index = position + 1;
+        this.pending.incrementAndGet();
+        try {
+            this.executor.execute(() -> this.transform(position, tree));
+        } catch (final RejectedExecutionException exception) {
+            this.pending.decrementAndGet();
+            this.subscription.cancel();
+            this.onError(exception);
+        }
+    }
+
+    @Override
+    public void onError(final Throwable error) {
+        this.closeExceptionally(error);
+    }
+
+    @Override
+    public void onComplete() {
+        this.completed = true;
+        if (this.pending.get() == 0) {
+            this.close();
+        }
+    }
+
+    /**
+     * Transforms a tree and publishes the result. The method blocks while subscribers
+     *  have no space for the result, so the upstream is not asked for more trees than
+     *  subscribers can accept.
+     * @param position The index of the tree in the stream
+     * @param tree The tree
+     */
+    private void transform(final int position, final Node tree) {
+        final TransformResult result = this.processor.transform(position, tree);
+        boolean published;
+        try {
+            this.submit(result);
+            published = true;
+        } catch (final IllegalStateException ignored) {
+            published = false;
+        }
+        final int remaining = this.pending.decrementAndGet();
+        if (published && !this.completed) {
+            this.subscription.request(1);
+        } else if (remaining == 0 && this.completed) {
+            this.close();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.cqfn.astranaut.core.base.DraftNode;
+import org.cqfn.astranaut.core.base.EmptyTree;
+import org.cqfn.astranaut.core.base.Node;
+import org.cqfn.astranaut.core.base.Tree;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link BinaryTreeReader} class.
+ *
+ * @since 0.2.22
+ */
+class BinaryTreeReaderTest {
+    /**
+     * Test for reading a tree written by the writer to a file.
+     * @param temp A temporary directory
+     */
+    @Test
+    void testRoundTripViaFile(@TempDir final Path temp) {
+        final Tree tree = BinaryTreeReaderTest.createSampleTree();
+        final Path file = temp.resolve("tree.astb");
+        boolean oops = false;
+        Tree result = EmptyTree.INSTANCE;
+        try {
+            new BinaryTreeWriter(tree).write(file);
+            result = new BinaryTreeReader(file).read();
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertTrue(tree.deepCompare(result));
+    }
+
+    /**
+     * Test for reading a very deep tree with long strings.
+     */
+    @Test
+    void testDeepTreeWithLongStrings() {
+        final StringBuilder builder = new StringBuilder(100_000);
+        for (int index = 0; index < 10_000; index = index + 1) {
+            builder.append("Жé€😀xyz");
+        }
+        Node node = BinaryTreeReaderTest.createNode("Leaf", builder.toString());
+        for (int index = 0; index < 100_000; index = index + 1) {
+            final DraftNode.Constructor ctor = new DraftNode.Constructor();
+            ctor.setName("Node");
+            ctor.setData(Integer.toString(index % 300));
+            ctor.setChildrenList(Collections.singletonList(node));
+            node = ctor.createNode();
+        }
+        final Tree tree = new Tree(node);
+        final Tree result = BinaryTreeReaderTest.roundTrip(tree);
+        Node actual = result.getRoot();
+        while (actual.getChildCount() > 0) {
+            actual = actual.getChild(0);
+        }
+        Assertions.assertEquals(builder.toString(), actual.getData());
+    }
+
+    /**
+     * Test for reading malformed data.
+     */
+    @Test
+    void testMalformedData() {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        boolean oops = false;
+        try {
+            new BinaryTreeWriter(BinaryTreeReaderTest.createSampleTree()).write(stream);
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        final byte[] bytes = stream.toByteArray();
+        final List<byte[]> samples = new ArrayList<>(3);
+        samples.add(new byte[0]);
+        samples.add(new byte[] {'A', 'S', 'T', 'X', 1});
+        final byte[] truncated = new byte[bytes.length - 1];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        samples.add(truncated);
+        for (final byte[] sample : samples) {
+            Tree result = null;
+            try {
+                result = new BinaryTreeReader(new ByteArrayInputStream(sample)).read();
+            } catch (final IOException exception) {
+                oops = true;
+            }
+            Assertions.assertFalse(oops);
+            Assertions.assertSame(EmptyTree.INSTANCE, result);
+        }
+    }
+
+    /**
+     * Writes a tree and reads it back.
+     * @param tree The tree
+     * @return The tree read
+     */
+    private static Tree roundTrip(final Tree tree) {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        boolean oops = false;
+        Tree result = EmptyTree.INSTANCE;
+        try {
+            new BinaryTreeWriter(tree).write(stream);
+            result = new BinaryTreeReader(new ByteArrayInputStream(stream.toByteArray())).read();
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        return result;
+    }
+
+    /**
+     * Creates a tree for testing.
+     * @return Tree
+     */
+    static Tree createSampleTree() {
+        final List<Node> statements = new ArrayList<>(100);
+        for (int index = 0; index < 100; index = index + 1) {
+            final DraftNode.Constructor assignment = new DraftNode.Constructor();
+            assignment.setName("Assignment");
+            final List<Node> children = new ArrayList<>(2);
+            children.add(BinaryTreeReaderTest.createNode("Identifier", "x"));
+            children.add(
+                BinaryTreeReaderTest.createNode("IntegerLiteral", Integer.toString(index))
+            );
+            assignment.setChildrenList(children);
+            statements.add(assignment.createNode());
+        }
+        final DraftNode.Constructor root = new DraftNode.Constructor();
+        root.setName("Program");
+        root.setChildrenList(statements);
+        return new Tree(root.createNode());
+    }
+
+    /**
+     * Creates a node without children.
+     * @param type The type name
+     * @param data The data
+     * @return The node
+     */
+    private static Node createNode(final String type, final String data) {
+        final DraftNode.Constructor ctor = new DraftNode.Constructor();
+        ctor.setName(type);
+        ctor.setData(data);
+        return ctor.createNode();
+    }
+}
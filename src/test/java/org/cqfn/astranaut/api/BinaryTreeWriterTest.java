@@ -0,0 +1,60 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.cqfn.astranaut.core.base.Tree;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link BinaryTreeWriter} class.
+ *
+ * @since 0.2.22
+ */
+class BinaryTreeWriterTest {
+    /**
+     * Test for the header and the size of the binary output.
+     */
+    @Test
+    void testOutputIsCompact() {
+        final Tree tree = BinaryTreeReaderTest.createSampleTree();
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        boolean oops = false;
+        try {
+            new BinaryTreeWriter(tree).write(stream);
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        final byte[] bytes = stream.toByteArray();
+        Assertions.assertEquals("ASTB", new String(bytes, 0, 4, StandardCharsets.US_ASCII));
+        Assertions.assertEquals(1, bytes[4]);
+        final int json = new JsonSerializer(tree).serializeToJsonString()
+            .getBytes(StandardCharsets.UTF_8).length;
+        Assertions.assertTrue(bytes.length * 10 < json);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Paths;
+import org.cqfn.astranaut.core.base.Node;
+import org.cqfn.astranaut.core.base.Tree;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link ColumnarTree} class.
+ *
+ * @since 0.2.22
+ */
+class ColumnarTreeTest {
+    /**
+     * The folder with test resources.
+     */
+    private static final String TESTS_PATH = "src/test/resources/api/";
+
+    /**
+     * Test for loading a columnar tree from a JSON file.
+     */
+    @Test
+    void testDeserialization() {
+        boolean oops = false;
+        ColumnarTree columnar = null;
+        Tree expected = null;
+        try {
+            final JsonStreamDeserializer deserializer = new JsonStreamDeserializer(
+                Paths.get(ColumnarTreeTest.TESTS_PATH, "test_3_source.json")
+            );
+            columnar = deserializer.deserializeColumnar(false);
+            expected = deserializer.deserialize();
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertEquals(3, columnar.size());
+        final Node root = columnar.getRoot();
+        Assertions.assertEquals("Addition", root.getTypeName());
+        Assertions.assertEquals(2, root.getChildCount());
+        Assertions.assertEquals("2", root.getChild(0).getData());
+        Assertions.assertEquals(root.getChild(1), root.getChild(1));
+        Assertions.assertTrue(expected.deepCompare(columnar.toTree()));
+    }
+
+    /**
+     * Test for an off-heap copy of a tree that is written by the serializer.
+     */
+    @Test
+    void testOffHeapCopy() {
+        final Tree tree = BinaryTreeReaderTest.createSampleTree();
+        final ColumnarTree columnar = ColumnarTree.copyOf(tree.getRoot(), true);
+        Assertions.assertEquals(301, columnar.size());
+        Assertions.assertTrue(columnar.getColumnsSize() < 301 * 20);
+        Assertions.assertEquals(
+            new JsonSerializer(tree).serializeToJsonString(),
+            this.serialize(columnar.toTree())
+        );
+    }
+
+    /**
+     * Test for the transformation of a columnar tree.
+     */
+    @Test
+    void testTransformation() {
+        final String source = String.join(
+            "",
+            "{\"root\": {\"type\": \"Addition\", \"children\": [",
+            "{\"type\": \"IntegerLiteral\", \"data\": \"2\"}, ",
+            "{\"type\": \"IntegerLiteral\", \"data\": \"3\"}]}}"
+        );
+        boolean oops = false;
+        ColumnarTree columnar = null;
+        try {
+            columnar = new JsonStreamDeserializer(new StringReader(source))
+                .deserializeColumnar(false);
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        final TreeProcessor processor = new TreeProcessor();
+        processor.loadRulesFromString("Addition(#1, #2) -> Subtraction(#1, #2);");
+        final Node result = processor.transform(columnar.getRoot());
+        Assertions.assertEquals("Subtraction", result.getTypeName());
+        Assertions.assertEquals("3", result.getChild(1).getData());
+    }
+
+    /**
+     * Test for a malformed source.
+     */
+    @Test
+    void testMalformedSource() {
+        boolean oops = false;
+        ColumnarTree columnar = null;
+        try {
+            columnar = new JsonStreamDeserializer(new StringReader("{\"root\": {]}"))
+                .deserializeColumnar(true);
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertEquals(0, columnar.size());
+    }
+
+    /**
+     * Serializes a tree to a string.
+     * @param tree The tree
+     * @return The JSON string
+     */
+    private String serialize(final Tree tree) {
+        final StringWriter writer = new StringWriter();
+        boolean oops = false;
+        try {
+            new JsonStreamSerializer(tree).serialize(writer);
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        return writer.toString();
+    }
+}
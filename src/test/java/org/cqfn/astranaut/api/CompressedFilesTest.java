@@ -0,0 +1,157 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import org.cqfn.astranaut.core.base.EmptyTree;
+import org.cqfn.astranaut.core.base.Tree;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link CompressedFiles} class.
+ *
+ * @since 0.2.22
+ */
+class CompressedFilesTest {
+    /**
+     * Test for writing and reading trees in compressed files.
+     * @param temp A temporary directory
+     */
+    @Test
+    void testTrees(@TempDir final Path temp) {
+        final Tree tree = BinaryTreeReaderTest.createSampleTree();
+        final Path json = temp.resolve("tree.json.gz");
+        final Path binary = temp.resolve("tree.astb.gz");
+        boolean oops = false;
+        Tree first = EmptyTree.INSTANCE;
+        Tree second = EmptyTree.INSTANCE;
+        byte[] header = new byte[0];
+        try {
+            new JsonStreamSerializer(tree).serialize(json);
+            new BinaryTreeWriter(tree).write(binary);
+            first = new JsonStreamDeserializer(json).deserialize();
+            second = new BinaryTreeReader(binary).read();
+            header = Arrays.copyOf(Files.readAllBytes(json), 2);
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertArrayEquals(new byte[] {0x1f, (byte) 0x8b}, header);
+        Assertions.assertTrue(tree.deepCompare(first));
+        Assertions.assertTrue(tree.deepCompare(second));
+    }
+
+    /**
+     * Test for closing a compressed stream after the compressing thread failed:
+     *  the error is reported and the thread is finished.
+     */
+    @Test
+    void testWriteFailure() {
+        final Path full = Paths.get("/dev/full");
+        Assumptions.assumeTrue(Files.isWritable(full));
+        final byte[] data = new byte[1 << 16];
+        new Random(1).nextBytes(data);
+        boolean failed = false;
+        boolean reported = false;
+        AsyncGzipOutputStream stream = null;
+        try {
+            stream = new AsyncGzipOutputStream(full);
+            for (int index = 0; !failed && index < 1024; index = index + 1) {
+                try {
+                    stream.write(data);
+                } catch (final IOException ignored) {
+                    failed = true;
+                }
+            }
+            stream.close();
+        } catch (final IOException ignored) {
+            reported = true;
+        }
+        Assertions.assertTrue(failed);
+        Assertions.assertTrue(reported);
+        final boolean alive = Thread.getAllStackTraces().keySet().stream()
+            .anyMatch(thread -> "gzip-writer-full".equals(thread.getName()));
+        Assertions.assertFalse(alive);
+    }
+
+    /**
+     * Test for streams with data that spans many chunks.
+     * @param temp A temporary directory
+     */
+    @Test
+    void testLargeData(@TempDir final Path temp) {
+        final byte[] data = new byte[1_000_003];
+        new Random(1).nextBytes(data);
+        final Path file = temp.resolve("data.bin.gz");
+        boolean oops = false;
+        final byte[] result = new byte[data.length];
+        int extra = 0;
+        try {
+            try (OutputStream stream = CompressedFiles.newOutputStream(file)) {
+                stream.write(data[0]);
+                stream.write(data, 1, data.length - 1);
+            }
+            try (InputStream stream = CompressedFiles.newInputStream(file)) {
+                result[0] = (byte) stream.read();
+                int size = 1;
+                while (size < result.length) {
+                    size = size + stream.read(result, size, result.length - size);
+                }
+                extra = stream.read();
+            }
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertArrayEquals(data, result);
+        Assertions.assertEquals(-1, extra);
+    }
+
+    /**
+     * Test for reading a corrupted compressed file.
+     * @param temp A temporary directory
+     */
+    @Test
+    void testCorruptedFile(@TempDir final Path temp) {
+        final Path file = temp.resolve("tree.json.gz");
+        boolean oops = false;
+        try {
+            Files.write(file, new byte[] {0x1f, (byte) 0x8b, 8, 0, 1, 2, 3});
+            new JsonStreamDeserializer(file).deserialize();
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertTrue(oops);
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.cqfn.astranaut.core.base.EmptyTree;
+import org.cqfn.astranaut.core.base.Node;
+import org.cqfn.astranaut.core.base.Tree;
+import org.cqfn.astranaut.core.utils.FilesReader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link JsonStreamDeserializer} class.
+ *
+ * @since 0.2.22
+ */
+class JsonStreamDeserializerTest {
+    /**
+     * The folder with test resources.
+     */
+    private static final String TESTS_PATH = "src/test/resources/api/";
+
+    /**
+     * Test for a tree deserialization from a file.
+     */
+    @Test
+    void testDeserializationFromFile() {
+        final Path path = Paths.get(JsonStreamDeserializerTest.TESTS_PATH, "test_3_source.json");
+        boolean oops = false;
+        Tree tree = EmptyTree.INSTANCE;
+        Tree expected = EmptyTree.INSTANCE;
+        try {
+            tree = new JsonStreamDeserializer(path).deserialize();
+            expected = new JsonDeserializer(
+                new FilesReader(path.toString()).readAsString()
+            ).deserialize();
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        final Node root = tree.getRoot();
+        Assertions.assertEquals("Addition", root.getTypeName());
+        Assertions.assertEquals(2, root.getChildCount());
+        Assertions.assertEquals("3", root.getChild(1).getData());
+        Assertions.assertTrue(expected.deepCompare(tree));
+    }
+
+    /**
+     * Test for a deserialization of escape sequences and unknown keys.
+     */
+    @Test
+    void testEscapesAndUnknownKeys() {
+        final String source = String.join(
+            "",
+            "{\"version\": [1, {\"x\": null}], \"root\": {\"type\": \"StringLiteral\", ",
+            "\"extra\": {\"a\": [true, false, -1.5e3]}, ",
+            "\"data\": \"a\\\"b\\\\c\\n\\u0416\\/\"}, \"language\": \"java\"}"
+        );
+        final Tree tree = this.deserialize(source);
+        Assertions.assertEquals("StringLiteral", tree.getRoot().getTypeName());
+        Assertions.assertEquals("a\"b\\c\n\u0416/", tree.getRoot().getData());
+    }
+
+    /**
+     * Test for a deserialization of a very deep tree, that would overflow the stack
+     *  of a recursive parser.
+     */
+    @Test
+    void testDeepTree() {
+        final int depth = 100_000;
+        final StringBuilder source = new StringBuilder(depth * 40).append("{\"root\":");
+        for (int index = 0; index < depth; index = index + 1) {
+            source.append("{\"type\":\"Node\",\"children\":[");
+        }
+        source.append("{\"type\":\"Leaf\"}");
+        for (int index = 0; index < depth; index = index + 1) {
+            source.append("]}");
+        }
+        source.append('}');
+        Node node = this.deserialize(source.toString()).getRoot();
+        int count = 0;
+        while (node.getChildCount() > 0) {
+            node = node.getChild(0);
+            count = count + 1;
+        }
+        Assertions.assertEquals(depth, count);
+        Assertions.assertEquals("Leaf", node.getTypeName());
+    }
+
+    /**
+     * Test for a deserialization from a byte stream.
+     */
+    @Test
+    void testDeserializationFromStream() {
+        final byte[] bytes = "{\"root\": {\"type\": \"Name\", \"data\": \"\u00e9t\u00e9\"}}"
+            .getBytes(StandardCharsets.UTF_8);
+        boolean oops = false;
+        Tree tree = EmptyTree.INSTANCE;
+        try {
+            tree = new JsonStreamDeserializer(new ByteArrayInputStream(bytes)).deserialize();
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertEquals("\u00e9t\u00e9", tree.getRoot().getData());
+    }
+
+    /**
+     * Test for deserialization of malformed documents.
+     */
+    @Test
+    void testMalformedDocuments() {
+        final String[] sources = {
+            "",
+            "{}",
+            "{\"root\": {\"type\": \"A\"}",
+            "{\"root\": {\"type\": \"A\", \"children\": [{\"type\": \"B\"},]}}",
+            "{\"root\": {\"type\": \"A\" \"data\": \"x\"}}",
+            "{\"root\": {\"type\": \"A\"}} garbage",
+            "{\"root\": {\"type\": \"A\", \"data\": \"\\q\"}}",
+        };
+        for (final String source : sources) {
+            Assertions.assertSame(EmptyTree.INSTANCE, this.deserialize(source), source);
+        }
+    }
+
+    /**
+     * Deserializes a tree from a string.
+     * @param source The source string
+     * @return The tree
+     */
+    private Tree deserialize(final String source) {
+        boolean oops = false;
+        Tree tree = EmptyTree.INSTANCE;
+        try {
+            tree = new JsonStreamDeserializer(new StringReader(source)).deserialize();
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        return tree;
+    }
+}
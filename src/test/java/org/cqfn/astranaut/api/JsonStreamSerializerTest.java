@@ -0,0 +1,204 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import org.cqfn.astranaut.core.base.DraftNode;
+import org.cqfn.astranaut.core.base.Hole;
+import org.cqfn.astranaut.core.base.Node;
+import org.cqfn.astranaut.core.base.Tree;
+import org.cqfn.astranaut.core.base.Type;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link JsonStreamSerializer} class.
+ *
+ * @since 0.2.22
+ */
+class JsonStreamSerializerTest {
+    /**
+     * The type IntegerLiteral.
+     */
+    private static final String INT_LITERAL = "IntegerLiteral";
+
+    /**
+     * Test that the pretty output is the same as the output of the string serializer.
+     */
+    @Test
+    void testPrettyOutputToStream() {
+        final Tree tree = this.createSampleTree();
+        final String expected = new JsonSerializer(tree).serializeToJsonString();
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        boolean oops = false;
+        try {
+            new JsonStreamSerializer(tree).serialize(stream);
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertEquals(expected, new String(stream.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Test that the output to a writer and to a channel are the same
+     *  as the output of the string serializer.
+     */
+    @Test
+    void testPrettyOutputToWriterAndChannel() {
+        final Tree tree = new Tree(new Hole(this.createSampleTree().getRoot(), 7));
+        final String expected = new JsonSerializer(tree).serializeToJsonString();
+        final JsonStreamSerializer serializer = new JsonStreamSerializer(tree);
+        final StringWriter writer = new StringWriter();
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        boolean oops = false;
+        try {
+            serializer.serialize(writer);
+            serializer.serialize(Channels.newChannel(stream));
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertEquals(expected, writer.toString());
+        Assertions.assertEquals(expected, new String(stream.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Test for the compact output that contains the language of the tree.
+     */
+    @Test
+    void testCompactOutputWithLanguage() {
+        final Node leaf = this.createNode(JsonStreamSerializerTest.INT_LITERAL, "1");
+        final Node root = new Node() {
+            @Override
+            public Type getType() {
+                return leaf.getType();
+            }
+
+            @Override
+            public String getData() {
+                return "";
+            }
+
+            @Override
+            public Map<String, String> getProperties() {
+                return Collections.singletonMap("language", "java");
+            }
+
+            @Override
+            public int getChildCount() {
+                return 1;
+            }
+
+            @Override
+            public Node getChild(final int index) {
+                return leaf;
+            }
+        };
+        final JsonStreamSerializer serializer = new JsonStreamSerializer(new Tree(root));
+        serializer.setPretty(false);
+        final StringWriter writer = new StringWriter();
+        boolean oops = false;
+        try {
+            serializer.serialize(writer);
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertEquals(
+            String.join(
+                "",
+                "{\"root\":{\"type\":\"IntegerLiteral\",\"children\":[",
+                "{\"type\":\"IntegerLiteral\",\"data\":\"1\"}]},\"language\":\"java\"}"
+            ),
+            writer.toString()
+        );
+    }
+
+    /**
+     * Test for serialization of a very deep tree.
+     */
+    @Test
+    void testDeepTree() {
+        final int depth = 100_000;
+        Node node = this.createNode("Leaf", "");
+        for (int index = 0; index < depth; index = index + 1) {
+            final DraftNode.Constructor ctor = new DraftNode.Constructor();
+            ctor.setName("Node");
+            ctor.setChildrenList(Collections.singletonList(node));
+            node = ctor.createNode();
+        }
+        final JsonStreamSerializer serializer = new JsonStreamSerializer(new Tree(node));
+        serializer.setPretty(false);
+        final StringWriter writer = new StringWriter();
+        boolean oops = false;
+        try {
+            serializer.serialize(writer);
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        final String result = writer.toString();
+        Assertions.assertTrue(result.contains("[{\"type\":\"Leaf\"}]}]}"));
+        Assertions.assertTrue(result.endsWith("]}]}}"));
+        Assertions.assertEquals(depth + 1, result.split("\"type\"").length - 1);
+    }
+
+    /**
+     * Create a tree for testing that contains special characters.
+     * @return Tree
+     */
+    private Tree createSampleTree() {
+        final DraftNode.Constructor addition = new DraftNode.Constructor();
+        addition.setName("Addition");
+        addition.setChildrenList(
+            Arrays.asList(
+                this.createNode(JsonStreamSerializerTest.INT_LITERAL, "2"),
+                this.createNode("StringLiteral", "\"a\\b\"\n\t\u0001é€😀/"),
+                this.createNode("Empty", "")
+            )
+        );
+        return new Tree(addition.createNode());
+    }
+
+    /**
+     * Creates a node without children.
+     * @param type The type name
+     * @param data The data
+     * @return The node
+     */
+    private Node createNode(final String type, final String data) {
+        final DraftNode.Constructor ctor = new DraftNode.Constructor();
+        ctor.setName(type);
+        ctor.setData(data);
+        return ctor.createNode();
+    }
+}
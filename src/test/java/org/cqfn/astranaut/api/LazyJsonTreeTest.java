@@ -0,0 +1,176 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.cqfn.astranaut.core.base.DefaultFactory;
+import org.cqfn.astranaut.core.base.Node;
+import org.cqfn.astranaut.core.base.Tree;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link LazyJsonTree} class.
+ *
+ * @since 0.2.22
+ */
+class LazyJsonTreeTest {
+    /**
+     * The node that is not changed by the rule, written in unusual formatting.
+     */
+    private static final String VARIABLE = "{ \"type\" :\"Variable\",\"data\" : \"x\" }";
+
+    /**
+     * The source tree.
+     */
+    private static final String SOURCE = String.join(
+        "",
+        "{\"root\": {\"type\": \"Program\", \"children\": [",
+        "{\"type\": \"Addition\", \"children\": [",
+        "{\"type\": \"IntegerLiteral\", \"data\": \"2\"}, ",
+        "{\"type\": \"IntegerLiteral\", \"data\": \"3\"}]}, ",
+        LazyJsonTreeTest.VARIABLE,
+        "]}}"
+    );
+
+    /**
+     * Test for loading a tree.
+     * @param temp A temporary directory
+     */
+    @Test
+    void testLoading(@TempDir final Path temp) {
+        final LazyJsonTree lazy = this.load(temp, LazyJsonTreeTest.SOURCE);
+        Assertions.assertEquals(5, lazy.size());
+        final Node root = lazy.getRoot();
+        Assertions.assertEquals("Program", root.getTypeName());
+        Assertions.assertEquals(2, root.getChildCount());
+        Assertions.assertEquals("3", root.getChild(0).getChild(1).getData());
+        Assertions.assertEquals("x", root.getChild(1).getData());
+        Assertions.assertEquals(root.getChild(1), root.getChild(1));
+        boolean oops = false;
+        Tree expected = null;
+        try {
+            expected = new JsonStreamDeserializer(
+                new StringReader(LazyJsonTreeTest.SOURCE)
+            ).deserialize();
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertTrue(expected.deepCompare(lazy.toTree()));
+    }
+
+    /**
+     * Test for the transformation of a lazy tree: unchanged subtrees are copied as is.
+     * @param temp A temporary directory
+     */
+    @Test
+    void testPassthrough(@TempDir final Path temp) {
+        final LazyJsonTree lazy = this.load(temp, LazyJsonTreeTest.SOURCE);
+        final TreeProcessor processor = new TreeProcessor();
+        processor.loadRulesFromString("Addition(#1, #2) -> Subtraction(#1, #2);");
+        final Node root = lazy.getRoot();
+        final Node result = processor.transform(root);
+        Assertions.assertSame(root.getChild(1), result.getChild(1));
+        final String json = this.serialize(new Tree(result));
+        Assertions.assertTrue(json.contains(LazyJsonTreeTest.VARIABLE));
+        Assertions.assertTrue(json.contains("\"Subtraction\""));
+        boolean oops = false;
+        Tree copy = null;
+        try {
+            copy = new JsonStreamDeserializer(new StringReader(json)).deserialize();
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertTrue(new Tree(result).deepCompare(copy));
+    }
+
+    /**
+     * Test for decoding of escaped data.
+     * @param temp A temporary directory
+     */
+    @Test
+    void testEscapedData(@TempDir final Path temp) {
+        final LazyJsonTree lazy = this.load(
+            temp,
+            "{\"root\": {\"type\": \"StringLiteral\", \"data\": \"\\\"a\\\\b\\n\\u0041é\"}}"
+        );
+        Assertions.assertEquals("\"a\\b\nAé", lazy.getRoot().getData());
+    }
+
+    /**
+     * Test for a malformed source.
+     * @param temp A temporary directory
+     */
+    @Test
+    void testMalformedSource(@TempDir final Path temp) {
+        final LazyJsonTree lazy = this.load(temp, "{\"root\": {\"type\": \"A\", ]}");
+        Assertions.assertEquals(0, lazy.size());
+        Assertions.assertEquals(0, lazy.getRoot().getChildCount());
+    }
+
+    /**
+     * Writes a document to a file and loads it.
+     * @param temp A temporary directory
+     * @param content The document
+     * @return The lazy tree
+     */
+    private LazyJsonTree load(final Path temp, final String content) {
+        boolean oops = false;
+        LazyJsonTree tree = null;
+        try {
+            final Path file = temp.resolve("tree.json");
+            Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+            tree = LazyJsonTree.load(file, DefaultFactory.EMPTY);
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        return tree;
+    }
+
+    /**
+     * Serializes a tree to a string.
+     * @param tree The tree
+     * @return The JSON string
+     */
+    private String serialize(final Tree tree) {
+        final StringWriter writer = new StringWriter();
+        boolean oops = false;
+        try {
+            new JsonStreamSerializer(tree).serialize(writer);
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        return writer.toString();
+    }
+}
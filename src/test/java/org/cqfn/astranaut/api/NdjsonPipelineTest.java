@@ -0,0 +1,196 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import org.cqfn.astranaut.core.base.Tree;
+import org.cqfn.astranaut.exceptions.ProcessorException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link NdjsonPipeline} class.
+ *
+ * @since 0.2.22
+ */
+class NdjsonPipelineTest {
+    /**
+     * The path to test resources.
+     */
+    private static final String PATH = "src/test/resources/interpreter/test_0";
+
+    /**
+     * Testing the conversion of several documents, including an empty line
+     * and a malformed document.
+     */
+    @Test
+    void conversionTest() {
+        boolean oops = false;
+        String[] lines = new String[0];
+        String expected = "";
+        long count = 0;
+        try {
+            final String source = NdjsonPipelineTest.compact("_source_tree.json");
+            expected = NdjsonPipelineTest.compact("_result.json");
+            final String input = String.join(
+                "\n", source, "", source, "{\"root\": [1, 2]}", source
+            );
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            final NdjsonPipeline pipeline = new NdjsonPipeline(
+                NdjsonPipelineTest.processor()::transform
+            );
+            pipeline.setThreads(3);
+            count = pipeline.run(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)),
+                output
+            );
+            lines = new String(output.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        } catch (final IOException ignored) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertEquals(4, count);
+        Assertions.assertEquals(4, lines.length);
+        Assertions.assertEquals(expected, lines[0]);
+        Assertions.assertEquals(expected, lines[1]);
+        Assertions.assertEquals("{\"error\":\"malformed document\",\"line\":4}", lines[2]);
+        Assertions.assertEquals(expected, lines[3]);
+    }
+
+    /**
+     * Testing that results are written in the input order when the queues are short.
+     */
+    @Test
+    void orderTest() {
+        final int total = 500;
+        final StringBuilder input = new StringBuilder();
+        for (int index = 0; index < total; index = index + 1) {
+            input.append("{\"root\":{\"type\":\"Number\",\"data\":\"")
+                .append(index)
+                .append("\"}}\n");
+        }
+        final NdjsonPipeline pipeline = new NdjsonPipeline(node -> node);
+        pipeline.setThreads(4);
+        pipeline.setCapacity(2);
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        boolean oops = false;
+        try {
+            pipeline.run(
+                new ByteArrayInputStream(input.toString().getBytes(StandardCharsets.UTF_8)),
+                output
+            );
+        } catch (final IOException ignored) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        final String[] lines =
+            new String(output.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        Assertions.assertEquals(total, lines.length);
+        for (int index = 0; index < total; index = index + 1) {
+            Assertions.assertTrue(lines[index].contains(String.format("\"%d\"", index)));
+        }
+    }
+
+    /**
+     * Testing the errors of the converter: a stack overflow is reported as a failed
+     *  document, and other errors are rethrown instead of blocking the writer.
+     */
+    @Test
+    void errorTest() {
+        final String input = String.join(
+            "\n",
+            "{\"root\":{\"type\":\"Number\",\"data\":\"1\"}}",
+            "{\"root\":{\"type\":\"Number\",\"data\":\"deep\"}}",
+            "{\"root\":{\"type\":\"Number\",\"data\":\"fatal\"}}",
+            "{\"root\":{\"type\":\"Number\",\"data\":\"4\"}}"
+        );
+        final NdjsonPipeline pipeline = new NdjsonPipeline(
+            node -> {
+                if ("deep".equals(node.getData())) {
+                    throw new StackOverflowError();
+                }
+                if ("fatal".equals(node.getData())) {
+                    throw new AssertionError("fatal");
+                }
+                return node;
+            }
+        );
+        pipeline.setThreads(2);
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final AssertionError error = Assertions.assertTimeoutPreemptively(
+            Duration.ofSeconds(10),
+            () -> Assertions.assertThrows(
+                AssertionError.class,
+                () -> pipeline.run(
+                    new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)),
+                    output
+                )
+            )
+        );
+        Assertions.assertEquals("fatal", error.getMessage());
+        final String[] lines =
+            new String(output.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        Assertions.assertEquals(2, lines.length);
+        Assertions.assertEquals("{\"error\":\"conversion failed\",\"line\":2}", lines[1]);
+    }
+
+    /**
+     * Creates a tree processor with test rules.
+     * @return The processor
+     */
+    private static TreeProcessor processor() {
+        final TreeProcessor processor = new TreeProcessor();
+        boolean loaded;
+        try {
+            loaded = processor.loadRules(NdjsonPipelineTest.PATH.concat("_rules.dsl"));
+        } catch (final ProcessorException ignored) {
+            loaded = false;
+        }
+        Assertions.assertTrue(loaded);
+        return processor;
+    }
+
+    /**
+     * Reads a test tree and writes it in compact JSON.
+     * @param suffix The suffix of the file name
+     * @return The tree as a single line
+     * @throws IOException If the file can not be read
+     */
+    private static String compact(final String suffix) throws IOException {
+        final Tree tree = new JsonStreamDeserializer(
+            Paths.get(NdjsonPipelineTest.PATH.concat(suffix))
+        ).deserialize();
+        final JsonStreamSerializer serializer = new JsonStreamSerializer(tree);
+        serializer.setPretty(false);
+        final StringWriter writer = new StringWriter();
+        serializer.serialize(writer);
+        return writer.toString();
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.cqfn.astranaut.core.base.DraftNode;
+import org.cqfn.astranaut.core.base.EmptyTree;
+import org.cqfn.astranaut.core.base.Node;
+import org.cqfn.astranaut.core.base.Tree;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link ParallelJsonDeserializer} class.
+ *
+ * @since 0.2.22
+ */
+class ParallelJsonDeserializerTest {
+    /**
+     * Test for reading a small tree split into tiny chunks.
+     */
+    @Test
+    void testTinyChunks() {
+        final Path file = Paths.get("src/test/resources/api/test_3_source.json");
+        boolean oops = false;
+        Tree expected = EmptyTree.INSTANCE;
+        final List<Tree> results = new ArrayList<>(4);
+        try {
+            expected = new JsonStreamDeserializer(file).deserialize();
+            for (final int size : new int[] {1, 3, 7, 4096}) {
+                final ParallelJsonDeserializer deserializer = new ParallelJsonDeserializer(file);
+                deserializer.setChunkSize(size);
+                results.add(deserializer.deserialize());
+            }
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertEquals("Addition", expected.getRoot().getTypeName());
+        for (final Tree result : results) {
+            Assertions.assertTrue(expected.deepCompare(result));
+        }
+    }
+
+    /**
+     * Test for reading a tree whose subtrees are built by separate tasks.
+     * @param temp A temporary directory
+     */
+    @Test
+    void testLargeTree(@TempDir final Path temp) {
+        final List<Node> blocks = new ArrayList<>(4);
+        for (int block = 0; block < 4; block = block + 1) {
+            final List<Node> programs = new ArrayList<>(5);
+            for (int program = 0; program < 5; program = program + 1) {
+                programs.add(BinaryTreeReaderTest.createSampleTree().getRoot());
+            }
+            programs.add(ParallelJsonDeserializerTest.createNode("String", "\"a\\\\\"{[,:]}"));
+            programs.add(ParallelJsonDeserializerTest.createNode("String", "Жé€😀"));
+            blocks.add(ParallelJsonDeserializerTest.createNode("Block", "", programs));
+        }
+        final Tree tree = new Tree(ParallelJsonDeserializerTest.createNode("Module", "", blocks));
+        final Path file = temp.resolve("tree.json");
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        boolean oops = false;
+        Tree result = EmptyTree.INSTANCE;
+        try {
+            new JsonStreamSerializer(tree).serialize(file);
+            final ParallelJsonDeserializer deserializer = new ParallelJsonDeserializer(file);
+            deserializer.setPool(pool);
+            deserializer.setChunkSize(4096);
+            result = deserializer.deserialize();
+        } catch (final IOException exception) {
+            oops = true;
+        } finally {
+            pool.shutdown();
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertTrue(tree.deepCompare(result));
+    }
+
+    /**
+     * Test for unknown keys and malformed documents.
+     * @param temp A temporary directory
+     */
+    @Test
+    void testMalformedDocuments(@TempDir final Path temp) {
+        final Tree valid = this.deserialize(
+            temp,
+            "{\"root\": {\"type\": \"A\", \"n\": 12, \"x\": {\"y\": [1, \"}\"]}, \"f\": true}}"
+        );
+        Assertions.assertEquals("A", valid.getRoot().getTypeName());
+        final List<String> samples = Arrays.asList(
+            "",
+            "{\"root\": {\"type\": \"A\"]}",
+            "{\"root\": {\"type\": \"A\", x}}",
+            "{\"root\": {\"type\": \"A\"}} x",
+            "{\"root\": {\"type\": \"A\", \"data\": \"B}}",
+            "{\"root\": {\"type\": \"A\", \"children\": [1]}}",
+            "{\"tree\": {\"type\": \"A\"}}"
+        );
+        for (final String sample : samples) {
+            Assertions.assertSame(EmptyTree.INSTANCE, this.deserialize(temp, sample), sample);
+        }
+    }
+
+    /**
+     * Writes a document to a file and reads it.
+     * @param temp A temporary directory
+     * @param content The document
+     * @return The tree
+     */
+    private Tree deserialize(final Path temp, final String content) {
+        boolean oops = false;
+        Tree tree = null;
+        try {
+            final Path file = temp.resolve("tree.json");
+            Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+            final ParallelJsonDeserializer deserializer = new ParallelJsonDeserializer(file);
+            deserializer.setChunkSize(5);
+            tree = deserializer.deserialize();
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        return tree;
+    }
+
+    /**
+     * Creates a node without children.
+     * @param type The type name
+     * @param data The data
+     * @return The node
+     */
+    private static Node createNode(final String type, final String data) {
+        return ParallelJsonDeserializerTest.createNode(type, data, new ArrayList<>(0));
+    }
+
+    /**
+     * Creates a node.
+     * @param type The type name
+     * @param data The data
+     * @param children The children
+     * @return The node
+     */
+    private static Node createNode(final String type, final String data,
+        final List<Node> children) {
+        final DraftNode.Constructor ctor = new DraftNode.Constructor();
+        ctor.setName(type);
+        ctor.setData(data);
+        ctor.setChildrenList(children);
+        return ctor.createNode();
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link ResultCache} class.
+ *
+ * @since 0.2.22
+ */
+class ResultCacheTest {
+    /**
+     * Test for storing and loading entries.
+     * @param temp A temporary directory
+     */
+    @Test
+    void testStoreAndLoad(@TempDir final Path temp) {
+        final String key = ResultCache.key("source", "rules", "json");
+        boolean oops = false;
+        byte[] first = null;
+        byte[] second = null;
+        boolean copied = false;
+        String content = "";
+        ResultCache cache = null;
+        try {
+            cache = new ResultCache(temp.resolve("cache"), 1024);
+            first = cache.load(key);
+            cache.store(key, "{}".getBytes(StandardCharsets.UTF_8));
+            second = cache.load(key);
+            final Path target = temp.resolve("result.json");
+            copied = cache.load(key, target);
+            content = new String(Files.readAllBytes(target), StandardCharsets.UTF_8);
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertNull(first);
+        Assertions.assertArrayEquals("{}".getBytes(StandardCharsets.UTF_8), second);
+        Assertions.assertTrue(copied);
+        Assertions.assertEquals("{}", content);
+        Assertions.assertEquals(2, cache.getHits());
+        Assertions.assertEquals(1, cache.getMisses());
+        Assertions.assertEquals(1, cache.getEntryCount());
+        Assertions.assertEquals(2, cache.getSize());
+    }
+
+    /**
+     * Test for eviction of least recently used entries.
+     * @param temp A temporary directory
+     */
+    @Test
+    void testEviction(@TempDir final Path temp) {
+        final byte[] data = new byte[40];
+        boolean oops = false;
+        ResultCache cache = null;
+        try {
+            cache = new ResultCache(temp, 100);
+            cache.store("a", data);
+            cache.store("b", data);
+            cache.load("a");
+            cache.store("c", data);
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertEquals(1, cache.getEvictions());
+        Assertions.assertEquals(2, cache.getEntryCount());
+        Assertions.assertEquals(80, cache.getSize());
+        Assertions.assertNotNull(cache.load("a"));
+        Assertions.assertNull(cache.load("b"));
+        Assertions.assertNotNull(cache.load("c"));
+    }
+
+    /**
+     * Test for reusing entries stored by a previous instance.
+     * @param temp A temporary directory
+     */
+    @Test
+    void testPersistence(@TempDir final Path temp) {
+        final String key = ResultCache.key("source", "rules", "astb");
+        boolean oops = false;
+        byte[] content = null;
+        ResultCache cache = null;
+        try {
+            new ResultCache(temp, 1024).store(key, new byte[] {1, 2, 3});
+            cache = new ResultCache(temp, 1024);
+            content = cache.load(key);
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertArrayEquals(new byte[] {1, 2, 3}, content);
+        Assertions.assertEquals(1, cache.getEntryCount());
+        Assertions.assertEquals(3, cache.getSize());
+        Assertions.assertTrue(cache.toString().startsWith("Result cache: 1 hits, 0 misses"));
+    }
+}
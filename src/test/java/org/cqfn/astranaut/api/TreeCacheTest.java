@@ -0,0 +1,163 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.cqfn.astranaut.core.base.DefaultFactory;
+import org.cqfn.astranaut.core.base.DraftNode;
+import org.cqfn.astranaut.core.base.Factory;
+import org.cqfn.astranaut.core.base.Node;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link TreeCache} class.
+ *
+ * @since 0.2.22
+ */
+class TreeCacheTest {
+    /**
+     * Test for finding results of structurally equal trees.
+     */
+    @Test
+    void testHitsAndMisses() {
+        final TreeCache cache = new TreeCache(1 << 20);
+        final AtomicInteger calls = new AtomicInteger();
+        final Node first = cache.computeIfAbsent(
+            "rules",
+            BinaryTreeReaderTest.createSampleTree().getRoot(),
+            tree -> TreeCacheTest.createLeaf(Integer.toString(calls.incrementAndGet()))
+        );
+        final Node second = cache.computeIfAbsent(
+            "rules",
+            BinaryTreeReaderTest.createSampleTree().getRoot(),
+            tree -> TreeCacheTest.createLeaf(Integer.toString(calls.incrementAndGet()))
+        );
+        final Node other = cache.get(
+            "other rules", BinaryTreeReaderTest.createSampleTree().getRoot()
+        );
+        Assertions.assertSame(first, second);
+        Assertions.assertNull(other);
+        Assertions.assertEquals(1, calls.get());
+        Assertions.assertEquals(1, cache.getHits());
+        Assertions.assertEquals(2, cache.getMisses());
+        Assertions.assertEquals(1, cache.getEntryCount());
+        Assertions.assertTrue(cache.getSize() > 0);
+    }
+
+    /**
+     * Test for the distinction between trees with the same shape and different data.
+     */
+    @Test
+    void testDifferentData() {
+        final TreeCache cache = new TreeCache(1 << 20);
+        final Node result = TreeCacheTest.createLeaf("result");
+        cache.put("rules", TreeCacheTest.createLeaf("a"), result);
+        Assertions.assertSame(result, cache.get("rules", TreeCacheTest.createLeaf("a")));
+        Assertions.assertNull(cache.get("rules", TreeCacheTest.createLeaf("b")));
+    }
+
+    /**
+     * Test for the distinction between results obtained with different node factories.
+     */
+    @Test
+    void testDifferentFactories() {
+        final TreeCache cache = new TreeCache(1 << 20);
+        final Factory factory = new DefaultFactory(Collections.emptyMap());
+        final Node result = TreeCacheTest.createLeaf("result");
+        cache.put("rules", factory, TreeCacheTest.createLeaf("a"), result);
+        Assertions.assertSame(
+            result, cache.get("rules", factory, TreeCacheTest.createLeaf("a"))
+        );
+        Assertions.assertNull(cache.get("rules", TreeCacheTest.createLeaf("a")));
+        Assertions.assertNull(
+            cache.get(
+                "rules", new DefaultFactory(Collections.emptyMap()), TreeCacheTest.createLeaf("a")
+            )
+        );
+    }
+
+    /**
+     * Test for eviction of entries when the size limit is exceeded.
+     */
+    @Test
+    void testEviction() {
+        final long capacity = 16_000;
+        final TreeCache cache = new TreeCache(capacity);
+        final int count = 1000;
+        for (int index = 0; index < count; index = index + 1) {
+            final Node leaf = TreeCacheTest.createLeaf(Integer.toString(index));
+            cache.put("rules", leaf, leaf);
+        }
+        Assertions.assertTrue(cache.getEvictions() > 0);
+        Assertions.assertTrue(cache.getSize() <= capacity);
+        Assertions.assertEquals(count, cache.getEntryCount() + cache.getEvictions());
+        Assertions.assertNotNull(
+            cache.get("rules", TreeCacheTest.createLeaf(Integer.toString(count - 1)))
+        );
+    }
+
+    /**
+     * Test for finding the result of a tree that is too deep to be compared recursively.
+     */
+    @Test
+    void testDeepTree() {
+        final TreeCache cache = new TreeCache(1L << 30);
+        final Node result = TreeCacheTest.createLeaf("result");
+        final int depth = 100_000;
+        cache.put("rules", TreeCacheTest.createChain(depth, "a"), result);
+        Assertions.assertSame(result, cache.get("rules", TreeCacheTest.createChain(depth, "a")));
+        Assertions.assertNull(cache.get("rules", TreeCacheTest.createChain(depth, "b")));
+    }
+
+    /**
+     * Creates a chain of nodes, each node except the last one has a single child.
+     * @param depth The number of nodes
+     * @param data The data of the last node
+     * @return The first node
+     */
+    private static Node createChain(final int depth, final String data) {
+        Node node = TreeCacheTest.createLeaf(data);
+        for (int index = 1; index < depth; index = index + 1) {
+            final DraftNode.Constructor ctor = new DraftNode.Constructor();
+            ctor.setName("Link");
+            ctor.setChildrenList(Collections.singletonList(node));
+            node = ctor.createNode();
+        }
+        return node;
+    }
+
+    /**
+     * Creates a node without children.
+     * @param data The data
+     * @return The node
+     */
+    private static Node createLeaf(final String data) {
+        final DraftNode.Constructor ctor = new DraftNode.Constructor();
+        ctor.setName("Leaf");
+        ctor.setData(data);
+        return ctor.createNode();
+    }
+}
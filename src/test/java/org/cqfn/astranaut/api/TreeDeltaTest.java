@@ -0,0 +1,99 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import org.cqfn.astranaut.core.base.DraftNode;
+import org.cqfn.astranaut.core.base.Node;
+import org.cqfn.astranaut.core.base.Tree;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link TreeDelta} class.
+ *
+ * @since 0.2.22
+ */
+class TreeDeltaTest {
+    /**
+     * Test for the edit script of a transformation that changes a single subtree.
+     */
+    @Test
+    void testSingleChange() {
+        final Tree source = BinaryTreeReaderTest.createSampleTree();
+        final TreeProcessor processor = new TreeProcessor();
+        processor.loadRulesFromString("IntegerLiteral<\"57\"> -> StringLiteral<\"fifty-seven\">;");
+        final Node result = processor.transform(source.getRoot());
+        final Tree delta = TreeDelta.diff(source.getRoot(), result);
+        final Node root = delta.getRoot();
+        Assertions.assertEquals(TreeDelta.DELTA, root.getTypeName());
+        Assertions.assertEquals(1, root.getChildCount());
+        Assertions.assertEquals("57/1", root.getChild(0).getData());
+        Assertions.assertEquals("fifty-seven", root.getChild(0).getChild(0).getData());
+        final Node applied = TreeDelta.apply(source.getRoot(), delta);
+        Assertions.assertTrue(new Tree(result).deepCompare(new Tree(applied)));
+        Assertions.assertSame(source.getRoot().getChild(3), applied.getChild(3));
+    }
+
+    /**
+     * Test for the edit script of identical trees and of trees with different roots.
+     */
+    @Test
+    void testWholeTree() {
+        final Tree source = BinaryTreeReaderTest.createSampleTree();
+        final Tree same = TreeDelta.diff(source.getRoot(), source.getRoot());
+        Assertions.assertEquals(0, same.getRoot().getChildCount());
+        Assertions.assertTrue(
+            source.deepCompare(new Tree(TreeDelta.apply(source.getRoot(), same)))
+        );
+        final DraftNode.Constructor ctor = new DraftNode.Constructor();
+        ctor.setName("Empty");
+        final Node other = ctor.createNode();
+        final Tree replaced = TreeDelta.diff(source.getRoot(), other);
+        Assertions.assertEquals("", replaced.getRoot().getChild(0).getData());
+        Assertions.assertSame(other, TreeDelta.apply(source.getRoot(), replaced));
+    }
+
+    /**
+     * Test for an edit script that does not match the source tree.
+     */
+    @Test
+    void testMismatch() {
+        final Tree source = BinaryTreeReaderTest.createSampleTree();
+        final DraftNode.Constructor edit = new DraftNode.Constructor();
+        edit.setName(TreeDelta.EDIT);
+        edit.setData("100/0");
+        edit.addChild(source.getRoot().getChild(0));
+        final DraftNode.Constructor delta = new DraftNode.Constructor();
+        delta.setName(TreeDelta.DELTA);
+        delta.addChild(edit.createNode());
+        final Tree script = new Tree(delta.createNode());
+        boolean caught = false;
+        try {
+            TreeDelta.apply(source.getRoot(), script);
+        } catch (final IllegalArgumentException exception) {
+            caught = true;
+        }
+        Assertions.assertTrue(caught);
+    }
+}
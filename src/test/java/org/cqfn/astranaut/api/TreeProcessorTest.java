@@ -23,9 +23,21 @@
  */
 package org.cqfn.astranaut.api;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.cqfn.astranaut.core.base.Builder;
 import org.cqfn.astranaut.core.base.ChildDescriptor;
 import org.cqfn.astranaut.core.base.CoreException;
@@ -40,8 +52,10 @@ import org.cqfn.astranaut.core.base.Tree;
 import org.cqfn.astranaut.core.base.Type;
 import org.cqfn.astranaut.core.utils.FilesReader;
 import org.cqfn.astranaut.exceptions.ProcessorException;
+import org.cqfn.astranaut.exceptions.TransformationInterrupted;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * Test for {@link TreeProcessor} class.
@@ -124,6 +138,207 @@ class TreeProcessorTest {
         Assertions.assertEquals(0, result.getChildCount());
     }
 
+    /**
+     * Test for a tree transformation that uses the cache of results.
+     * @param temp A temporary directory
+     */
+    @Test
+    void testTreeTransformationWithCache(@TempDir final Path temp) {
+        final TreeProcessor processor = new TreeProcessor();
+        processor.loadRulesFromString(
+            "Addition(IntegerLiteral<\"2\">, IntegerLiteral<\"3\">) -> IntegerLiteral<\"5\"> ;"
+        );
+        boolean oops = false;
+        ResultCache cache = null;
+        try {
+            cache = new ResultCache(temp, 1 << 20);
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        processor.setResultCache(cache);
+        final Node first = processor.transform(this.createSampleTree());
+        final Node second = processor.transform(this.createSampleTree());
+        Assertions.assertEquals(1, cache.getHits());
+        Assertions.assertEquals(1, cache.getMisses());
+        Assertions.assertTrue(first.deepCompare(second));
+        Assertions.assertEquals(TreeProcessorTest.INT_LITERAL, second.getTypeName());
+        Assertions.assertEquals("5", second.getData());
+    }
+
+    /**
+     * Test for a tree transformation that uses the in-memory cache of results.
+     */
+    @Test
+    void testTreeTransformationWithTreeCache() {
+        final TreeProcessor processor = new TreeProcessor();
+        processor.loadRulesFromString(
+            "Addition(IntegerLiteral<\"2\">, IntegerLiteral<\"3\">) -> IntegerLiteral<\"5\"> ;"
+        );
+        final TreeCache cache = new TreeCache(1 << 20);
+        processor.setTreeCache(cache);
+        final Node first = processor.transform(this.createSampleTree());
+        final Node second = processor.transform(this.createSampleTree());
+        processor.loadRulesFromString(TreeProcessorTest.RULE);
+        processor.transform(this.createSampleTree());
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals("5", second.getData());
+        Assertions.assertEquals(1, cache.getHits());
+        Assertions.assertEquals(2, cache.getMisses());
+    }
+
+    /**
+     * Test for replacing rules with a new version.
+     */
+    @Test
+    void testReloadRules() {
+        final TreeProcessor processor = new TreeProcessor();
+        Assertions.assertEquals(0, processor.getRuleSet().getVersion());
+        processor.loadRulesFromString(TreeProcessorTest.RULE);
+        final TransformResult first = processor.transformVersioned(this.createSampleTree());
+        Assertions.assertTrue(
+            processor.reloadRulesFromString("Addition(#1, #2) -> Multiplication(#1, #2);")
+        );
+        Assertions.assertFalse(processor.reloadRulesFromString("Addition(#1 -> "));
+        final TransformResult second = processor.transformVersioned(this.createSampleTree());
+        Assertions.assertEquals(1, first.getRuleSetVersion());
+        Assertions.assertEquals(TreeProcessorTest.SUBTRACTION, first.getResult().getTypeName());
+        Assertions.assertEquals(2, second.getRuleSetVersion());
+        Assertions.assertEquals("Multiplication", second.getResult().getTypeName());
+        Assertions.assertEquals(1, processor.countRules());
+    }
+
+    /**
+     * Test for replacing rules while trees are transformed in other threads.
+     */
+    @Test
+    void testReloadRulesConcurrently() {
+        final TreeProcessor processor = new TreeProcessor();
+        processor.loadRulesFromString(TreeProcessorTest.RULE);
+        final List<Node> trees = new ArrayList<>(1000);
+        for (int index = 0; index < 1000; index = index + 1) {
+            trees.add(this.createSampleTree());
+        }
+        final CompletableFuture<List<TransformResult>> future =
+            CompletableFuture.supplyAsync(() -> processor.transformAll(trees));
+        processor.reloadRulesFromString("Addition(#1, #2) -> Multiplication(#1, #2);");
+        for (final TransformResult result : future.join()) {
+            final String expected;
+            if (result.getRuleSetVersion() == 1) {
+                expected = TreeProcessorTest.SUBTRACTION;
+            } else {
+                expected = "Multiplication";
+            }
+            Assertions.assertEquals(expected, result.getResult().getTypeName());
+        }
+    }
+
+    /**
+     * Test for the asynchronous transformation.
+     */
+    @Test
+    void testTransformAsync() {
+        final TreeProcessor processor = new TreeProcessor();
+        processor.loadRulesFromString(TreeProcessorTest.RULE);
+        final CompletableFuture<Node> success = processor.transformAsync(this.createSampleTree());
+        final CompletableFuture<Node> failure =
+            processor.transformAsync(TreeProcessorTest.createBrokenNode());
+        Assertions.assertEquals(TreeProcessorTest.SUBTRACTION, success.join().getTypeName());
+        final CompletionException thrown =
+            Assertions.assertThrows(CompletionException.class, failure::join);
+        Assertions.assertTrue(thrown.getCause() instanceof IllegalStateException);
+    }
+
+    /**
+     * Test for the parallel transformation of a collection of trees.
+     */
+    @Test
+    void testTransformAll() {
+        final TreeProcessor processor = new TreeProcessor();
+        processor.loadRulesFromString(
+            "Addition(IntegerLiteral<\"2\">, IntegerLiteral<\"3\">) -> IntegerLiteral<\"5\"> ;"
+        );
+        final List<Node> trees = new ArrayList<>(10);
+        for (int index = 0; index < 10; index = index + 1) {
+            trees.add(this.createSampleTree());
+        }
+        trees.set(TreeProcessorTest.THREE, TreeProcessorTest.createBrokenNode());
+        final List<TransformResult> results = processor.transformAll(trees);
+        Assertions.assertEquals(10, results.size());
+        for (int index = 0; index < 10; index = index + 1) {
+            final TransformResult result = results.get(index);
+            Assertions.assertEquals(index, result.getIndex());
+            Assertions.assertSame(trees.get(index), result.getInput());
+            if (index == TreeProcessorTest.THREE) {
+                Assertions.assertFalse(result.isSuccessful());
+                Assertions.assertNull(result.getResult());
+                Assertions.assertTrue(result.getFailure() instanceof IllegalStateException);
+            } else {
+                Assertions.assertTrue(result.isSuccessful());
+                Assertions.assertEquals("5", result.getResult().getData());
+            }
+        }
+        Assertions.assertEquals(
+            9,
+            processor.transformAll(trees.stream()).filter(TransformResult::isSuccessful).count()
+        );
+    }
+
+    /**
+     * Test for the parallel transformation of an endless stream of trees, which is read
+     *  only as far as results are taken.
+     */
+    @Test
+    void testTransformEndlessStream() {
+        final TreeProcessor processor = new TreeProcessor();
+        processor.loadRulesFromString(
+            "Addition(IntegerLiteral<\"2\">, IntegerLiteral<\"3\">) -> IntegerLiteral<\"5\"> ;"
+        );
+        final AtomicInteger taken = new AtomicInteger();
+        final List<TransformResult> results = processor.transformAll(
+            Stream.generate(
+                () -> {
+                    taken.incrementAndGet();
+                    return this.createSampleTree();
+                }
+            )
+        ).limit(10).collect(Collectors.toList());
+        Assertions.assertEquals(10, results.size());
+        for (int index = 0; index < 10; index = index + 1) {
+            Assertions.assertEquals(index, results.get(index).getIndex());
+            Assertions.assertEquals("5", results.get(index).getResult().getData());
+        }
+        Assertions.assertTrue(
+            taken.get() <= 10 + 2 * Runtime.getRuntime().availableProcessors()
+        );
+    }
+
+    /**
+     * Test for the parallel transformation of a collection of trees with results returned
+     *  in the order of completion.
+     */
+    @Test
+    void testTransformAsCompleted() {
+        final TreeProcessor processor = new TreeProcessor();
+        processor.loadRulesFromString(TreeProcessorTest.RULE);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        processor.setExecutor(executor);
+        final List<Node> trees = new ArrayList<>(100);
+        for (int index = 0; index < 100; index = index + 1) {
+            trees.add(this.createSampleTree());
+        }
+        final Set<Integer> indexes;
+        try {
+            indexes = processor.transformAsCompleted(trees)
+                .filter(TransformResult::isSuccessful)
+                .map(TransformResult::getIndex)
+                .collect(Collectors.toSet());
+        } finally {
+            executor.shutdown();
+        }
+        Assertions.assertEquals(100, indexes.size());
+    }
+
     /**
      * Test for a tree transformation with customized factory.
      */
@@ -297,6 +512,100 @@ class TreeProcessorTest {
         Assertions.assertEquals(TreeProcessorTest.ADDITION, first.getTypeName());
     }
 
+    /**
+     * Test for a transformation that is finished before the deadline.
+     */
+    @Test
+    void testTransformationWithinDeadline() {
+        final Node tree = this.createSampleTree();
+        final TreeProcessor processor = new TreeProcessor();
+        processor.loadRulesFromString(TreeProcessorTest.RULE);
+        boolean oops = false;
+        Node result = DummyNode.INSTANCE;
+        try {
+            result = processor.transform(
+                tree, Duration.ofMinutes(1), new CancellationToken()
+            );
+        } catch (final TransformationInterrupted exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertEquals(TreeProcessorTest.SUBTRACTION, result.getTypeName());
+    }
+
+    /**
+     * Test for a transformation that is stopped by the expired deadline.
+     */
+    @Test
+    void testTransformationDeadlineExceeded() {
+        final Tree initial = this.loadSampleTreeFromJson();
+        final TreeProcessor processor = new TreeProcessor();
+        processor.loadRulesFromString(TreeProcessorTest.RULE);
+        TransformationInterrupted thrown = null;
+        try {
+            processor.transform(initial.getRoot(), Duration.ZERO);
+        } catch (final TransformationInterrupted exception) {
+            thrown = exception;
+        }
+        Assertions.assertNotNull(thrown);
+        Assertions.assertFalse(thrown.isCancelled());
+        Assertions.assertEquals(0, thrown.getProcessedNodes());
+        Assertions.assertEquals(
+            "Transformation deadline exceeded after processing 0 nodes",
+            thrown.getErrorMessage()
+        );
+    }
+
+    /**
+     * Test for a transformation that is cancelled.
+     */
+    @Test
+    void testTransformationCancelled() {
+        final Tree initial = this.loadSampleTreeFromJson();
+        final TreeProcessor processor = new TreeProcessor();
+        processor.loadRulesFromString(TreeProcessorTest.RULE);
+        final CancellationToken token = new CancellationToken();
+        token.cancel();
+        TransformationInterrupted thrown = null;
+        try {
+            processor.transform(initial.getRoot(), token);
+        } catch (final TransformationInterrupted exception) {
+            thrown = exception;
+        }
+        Assertions.assertNotNull(thrown);
+        Assertions.assertTrue(thrown.isCancelled());
+        Assertions.assertEquals(0, thrown.getProcessedNodes());
+    }
+
+    /**
+     * Creates a node that can not be transformed, it throws an exception
+     *  when its type is requested.
+     * @return The node
+     */
+    private static Node createBrokenNode() {
+        return new Node() {
+            @Override
+            public Type getType() {
+                throw new IllegalStateException("Broken node");
+            }
+
+            @Override
+            public String getData() {
+                return "";
+            }
+
+            @Override
+            public int getChildCount() {
+                return 0;
+            }
+
+            @Override
+            public Node getChild(final int index) {
+                return null;
+            }
+        };
+    }
+
     /**
      * Create a simple tree for testing.
      * @return Tree
@@ -0,0 +1,345 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.interpreter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.cqfn.astranaut.api.JsonStreamDeserializer;
+import org.cqfn.astranaut.core.base.CoreException;
+import org.cqfn.astranaut.core.base.Tree;
+import org.cqfn.astranaut.core.utils.FilesReader;
+import org.cqfn.astranaut.exceptions.InterpreterException;
+import org.cqfn.astranaut.parser.ProgramParser;
+import org.cqfn.astranaut.rules.Program;
+import org.cqfn.astranaut.utils.ContentHash;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test that covers {@link BatchConverter} class.
+ *
+ * @since 0.2.22
+ */
+class BatchConverterTest {
+    /**
+     * The path to test resources.
+     */
+    private static final String PATH = "src/test/resources/interpreter/test_0";
+
+    /**
+     * Testing the conversion of all files in a folder.
+     * @param temp A temporary directory
+     */
+    @Test
+    void directoryTest(@TempDir final Path temp) {
+        final Path input = temp.resolve("input");
+        final Path output = temp.resolve("output");
+        boolean oops = false;
+        BatchReport report = null;
+        try {
+            final Path source = Paths.get(BatchConverterTest.PATH.concat("_source_tree.json"));
+            Files.createDirectories(input.resolve("nested"));
+            Files.copy(source, input.resolve("first.json"));
+            Files.copy(source, input.resolve("nested").resolve("second.json"));
+            Files.write(input.resolve("readme.txt"), "text".getBytes(StandardCharsets.UTF_8));
+            final BatchConverter converter =
+                new BatchConverter(BatchConverterTest.parse(), output);
+            converter.setThreads(2);
+            report = converter.convert(input.toString());
+        } catch (final CoreException | IOException ignored) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertEquals(2, report.getEntries().size());
+        Assertions.assertEquals(0, report.getFailureCount());
+        Assertions.assertTrue(report.getNodeCount() > 0);
+        Assertions.assertTrue(BatchConverterTest.check(output.resolve("first.json")));
+        Assertions.assertTrue(
+            BatchConverterTest.check(output.resolve("nested").resolve("second.json"))
+        );
+    }
+
+    /**
+     * Testing the conversion of files listed in a manifest, one of which does not exist.
+     * @param temp A temporary directory
+     */
+    @Test
+    void manifestTest(@TempDir final Path temp) {
+        final Path output = temp.resolve("output");
+        boolean oops = false;
+        BatchReport report = null;
+        try {
+            Files.copy(
+                Paths.get(BatchConverterTest.PATH.concat("_source_tree.json")),
+                temp.resolve("tree.json")
+            );
+            final List<String> lines = Arrays.asList("# sources", "tree.json", "", "absent.json");
+            final Path manifest = temp.resolve("manifest.txt");
+            Files.write(manifest, lines, StandardCharsets.UTF_8);
+            report = new BatchConverter(BatchConverterTest.parse(), output)
+                .convert(manifest.toString());
+        } catch (final CoreException | IOException ignored) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertEquals(2, report.getEntries().size());
+        Assertions.assertEquals(1, report.getFailureCount());
+        Assertions.assertTrue(report.getEntries().get(0).isSuccessful());
+        Assertions.assertFalse(report.getEntries().get(1).isSuccessful());
+        Assertions.assertTrue(BatchConverterTest.check(output.resolve("tree.json")));
+        Assertions.assertTrue(report.toString().contains("Converted 1 of 2 files"));
+    }
+
+    /**
+     * Testing the paths of resulting files of a manifest that lists files with equal names
+     *  from different directories and the same file twice.
+     * @param temp A temporary directory
+     */
+    @Test
+    void manifestDestinationsTest(@TempDir final Path temp) {
+        boolean oops = false;
+        List<Path[]> jobs = null;
+        final Path first = temp.resolve("first").resolve("tree.json").toAbsolutePath();
+        final Path second = temp.resolve("second").resolve("tree.json").toAbsolutePath();
+        try {
+            final Path manifest = temp.resolve("list").resolve("manifest.txt");
+            Files.createDirectories(manifest.getParent());
+            final List<String> lines = Arrays.asList(
+                first.toString(), "../second/tree.json", "tree.json", first.toString()
+            );
+            Files.write(manifest, lines, StandardCharsets.UTF_8);
+            jobs = BatchConverter.collect(manifest.toString());
+        } catch (final CoreException | IOException ignored) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertEquals(3, jobs.size());
+        Assertions.assertEquals(first.getRoot().relativize(first), jobs.get(0)[1]);
+        Assertions.assertEquals(second.getRoot().relativize(second), jobs.get(1)[1]);
+        Assertions.assertEquals(Paths.get("tree.json"), jobs.get(2)[1]);
+    }
+
+    /**
+     * Testing the exception thrown when several source files are converted to the same file.
+     * @param temp A temporary directory
+     */
+    @Test
+    void duplicateDestinationTest(@TempDir final Path temp) {
+        String message = "";
+        try {
+            final Path manifest = temp.resolve("manifest.txt");
+            final Path absolute = temp.toAbsolutePath();
+            final String relative = absolute.getRoot().relativize(absolute)
+                .resolve("tree.json").toString();
+            Files.write(
+                manifest,
+                Arrays.asList(relative, absolute.resolve("tree.json").toString()),
+                StandardCharsets.UTF_8
+            );
+            new BatchConverter(BatchConverterTest.parse(), temp.resolve("output"))
+                .convert(manifest.toString());
+        } catch (final InterpreterException exception) {
+            message = exception.getErrorMessage();
+        } catch (final CoreException | IOException ignored) {
+            message = "";
+        }
+        Assertions.assertTrue(
+            message.startsWith("Several source files are converted to the same file")
+        );
+    }
+
+    /**
+     * Testing the conversion of files that match a glob pattern.
+     * @param temp A temporary directory
+     */
+    @Test
+    void globTest(@TempDir final Path temp) {
+        final Path output = temp.resolve("output");
+        boolean oops = false;
+        BatchReport report = null;
+        try {
+            final Path source = Paths.get(BatchConverterTest.PATH.concat("_source_tree.json"));
+            Files.copy(source, temp.resolve("a.json"));
+            Files.copy(source, temp.resolve("b.json"));
+            Files.copy(source, temp.resolve("c.astb"));
+            report = new BatchConverter(BatchConverterTest.parse(), output)
+                .convert(temp.toString().concat("/*.json"));
+        } catch (final CoreException | IOException ignored) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertEquals(2, report.getEntries().size());
+        Assertions.assertEquals(0, report.getFailureCount());
+        Assertions.assertTrue(BatchConverterTest.check(output.resolve("b.json")));
+    }
+
+    /**
+     * Testing the journal: converted files are skipped by a restarted conversion,
+     * and a file that fails repeatedly is quarantined.
+     * @param temp A temporary directory
+     */
+    @Test
+    void journalTest(@TempDir final Path temp) {
+        final Path output = temp.resolve("output");
+        final Path journal = temp.resolve("journal.txt");
+        boolean oops = false;
+        final BatchReport[] reports = new BatchReport[3];
+        try {
+            Files.copy(
+                Paths.get(BatchConverterTest.PATH.concat("_source_tree.json")),
+                temp.resolve("tree.json")
+            );
+            final Path manifest = temp.resolve("manifest.txt");
+            Files.write(
+                manifest, Arrays.asList("tree.json", "absent.json"), StandardCharsets.UTF_8
+            );
+            final Program program = BatchConverterTest.parse();
+            for (int index = 0; index < reports.length; index = index + 1) {
+                final BatchConverter converter = new BatchConverter(program, output);
+                converter.setJournal(journal);
+                converter.setAttempts(2);
+                reports[index] = converter.convert(manifest.toString());
+            }
+        } catch (final CoreException | IOException ignored) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertEquals(0, reports[0].getSkippedCount());
+        Assertions.assertTrue(reports[0].getNodeCount() > 0);
+        Assertions.assertEquals(1, reports[1].getSkippedCount());
+        Assertions.assertEquals(1, reports[1].getFailureCount());
+        Assertions.assertTrue(reports[2].getEntries().get(0).isSkipped());
+        Assertions.assertEquals(
+            "quarantined after 2 failed attempts",
+            reports[2].getEntries().get(1).getError()
+        );
+        Assertions.assertTrue(BatchConverterTest.check(output.resolve("tree.json")));
+    }
+
+    /**
+     * Testing the journal: a quarantined file is converted again after its content changes,
+     * and the start of each conversion is written before the conversion.
+     * @param temp A temporary directory
+     */
+    @Test
+    void journalContentTest(@TempDir final Path temp) {
+        final Path output = temp.resolve("output");
+        final Path journal = temp.resolve("journal.txt");
+        final Path source = temp.resolve("tree.json");
+        boolean oops = false;
+        final BatchReport[] reports = new BatchReport[2];
+        List<String> records = Collections.emptyList();
+        try {
+            Files.write(source, "{}".getBytes(StandardCharsets.UTF_8));
+            final Program program = BatchConverterTest.parse();
+            final String rules = program.getTransformationsDigest();
+            final String record = String.format(
+                "S\t%s\t%s\t%s",
+                source.toAbsolutePath().normalize(), ContentHash.sha256(source), rules
+            );
+            Files.write(journal, Arrays.asList(record, record), StandardCharsets.UTF_8);
+            final Path manifest = temp.resolve("manifest.txt");
+            Files.write(manifest, Collections.singletonList("tree.json"), StandardCharsets.UTF_8);
+            final BatchConverter converter = new BatchConverter(program, output);
+            converter.setJournal(journal);
+            converter.setAttempts(2);
+            reports[0] = converter.convert(manifest.toString());
+            Files.copy(
+                Paths.get(BatchConverterTest.PATH.concat("_source_tree.json")),
+                source,
+                StandardCopyOption.REPLACE_EXISTING
+            );
+            reports[1] = converter.convert(manifest.toString());
+            records = Files.readAllLines(journal, StandardCharsets.UTF_8);
+        } catch (final CoreException | IOException ignored) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertEquals(
+            "quarantined after 2 failed attempts",
+            reports[0].getEntries().get(0).getError()
+        );
+        Assertions.assertTrue(reports[1].getEntries().get(0).isSuccessful());
+        Assertions.assertEquals(4, records.size());
+        Assertions.assertTrue(records.get(2).startsWith("S\t"));
+        Assertions.assertTrue(records.get(3).startsWith("D\t"));
+        Assertions.assertTrue(BatchConverterTest.check(output.resolve("tree.json")));
+    }
+
+    /**
+     * Testing the exception thrown when the set of files can not be collected.
+     * @param temp A temporary directory
+     */
+    @Test
+    void missingManifestTest(@TempDir final Path temp) {
+        String message = "";
+        try {
+            new BatchConverter(BatchConverterTest.parse(), temp)
+                .convert(temp.resolve("absent.txt").toString());
+        } catch (final InterpreterException exception) {
+            message = exception.getErrorMessage();
+        } catch (final CoreException | IOException ignored) {
+            message = "";
+        }
+        Assertions.assertTrue(message.startsWith("Could not collect source files"));
+    }
+
+    /**
+     * Parses the DSL program.
+     * @return The program
+     * @throws CoreException If the program can not be parsed
+     * @throws IOException If the file can not be read
+     */
+    private static Program parse() throws CoreException, IOException {
+        final String code =
+            new FilesReader(BatchConverterTest.PATH.concat("_rules.dsl")).readAsString();
+        return new ProgramParser(code).parse();
+    }
+
+    /**
+     * Checks that the file contains the expected result.
+     * @param path The path to the file
+     * @return Checking result
+     */
+    private static boolean check(final Path path) {
+        boolean result;
+        try {
+            final Tree expected = new JsonStreamDeserializer(
+                Paths.get(BatchConverterTest.PATH.concat("_result.json"))
+            ).deserialize();
+            result = expected.deepCompare(new JsonStreamDeserializer(path).deserialize());
+        } catch (final IOException ignored) {
+            result = false;
+        }
+        return result;
+    }
+}
@@ -25,14 +25,31 @@ package org.cqfn.astranaut.interpreter;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import org.cqfn.astranaut.Main;
+import org.cqfn.astranaut.api.BinaryTreeReader;
+import org.cqfn.astranaut.api.BinaryTreeWriter;
+import org.cqfn.astranaut.api.JsonStreamDeserializer;
+import org.cqfn.astranaut.api.JsonStreamSerializer;
+import org.cqfn.astranaut.api.ResultCache;
+import org.cqfn.astranaut.api.TreeDelta;
 import org.cqfn.astranaut.core.base.CoreException;
+import org.cqfn.astranaut.core.base.Node;
+import org.cqfn.astranaut.core.base.Tree;
 import org.cqfn.astranaut.core.utils.FilesReader;
 import org.cqfn.astranaut.exceptions.DestinationNotSpecified;
 import org.cqfn.astranaut.exceptions.InterpreterException;
 import org.cqfn.astranaut.parser.ProgramParser;
 import org.cqfn.astranaut.rules.Program;
+import org.cqfn.astranaut.utils.ContentHash;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -93,6 +110,389 @@ class InterpreterTest {
         Assertions.assertTrue(result);
     }
 
+    /**
+     * Testing the conversion with the result written in binary format.
+     * @param temp A temporary directory
+     */
+    @Test
+    void binaryFormatTest(@TempDir final Path temp) {
+        final String path = "src/test/resources/interpreter/test_0";
+        final Path dst = temp.resolve("result.astb");
+        final String[] args = {
+            "--action",
+            "convert",
+            "--rules",
+            path.concat("_rules.dsl"),
+            "--source",
+            path.concat("_source_tree.json"),
+            "--destination",
+            dst.toString(),
+        };
+        boolean oops = false;
+        String expected = "";
+        final StringWriter actual = new StringWriter();
+        try {
+            Main.main(args);
+            expected = new FilesReader(path.concat("_result.json")).readAsString();
+            new JsonStreamSerializer(new BinaryTreeReader(dst).read()).serialize(actual);
+        } catch (final CoreException | IOException ignored) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertEquals(expected, actual.toString());
+    }
+
+    /**
+     * Testing the conversion of a compressed file to a compressed file.
+     * @param temp A temporary directory
+     */
+    @Test
+    void compressedFilesTest(@TempDir final Path temp) {
+        final String path = "src/test/resources/interpreter/test_0";
+        final Path src = temp.resolve("source.json.gz");
+        final Path dst = temp.resolve("result.json.gz");
+        final String[] args = {
+            "--action",
+            "convert",
+            "--rules",
+            path.concat("_rules.dsl"),
+            "--source",
+            src.toString(),
+            "--destination",
+            dst.toString(),
+        };
+        boolean oops = false;
+        String expected = "";
+        final StringWriter actual = new StringWriter();
+        try {
+            new JsonStreamSerializer(
+                new JsonStreamDeserializer(Paths.get(path.concat("_source_tree.json")))
+                    .deserialize()
+            ).serialize(src);
+            Main.main(args);
+            expected = new FilesReader(path.concat("_result.json")).readAsString();
+            new JsonStreamSerializer(new JsonStreamDeserializer(dst).deserialize())
+                .serialize(actual);
+        } catch (final CoreException | IOException ignored) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertEquals(expected, actual.toString());
+    }
+
+    /**
+     * Testing the conversion with the edit script saved instead of the result.
+     * @param temp A temporary directory
+     */
+    @Test
+    void deltaTest(@TempDir final Path temp) {
+        final String path = "src/test/resources/interpreter/test_2";
+        final Path dst = temp.resolve("delta.json");
+        final String[] args = {
+            "--action",
+            "convert",
+            "--rules",
+            path.concat("_rules.dsl"),
+            "--source",
+            path.concat("_source_tree.json"),
+            "--destination",
+            dst.toString(),
+            "--delta",
+        };
+        boolean oops = false;
+        Tree expected = null;
+        Node actual = null;
+        try {
+            Main.main(args);
+            expected = new JsonStreamDeserializer(Paths.get(path.concat("_result.json")))
+                .deserialize();
+            actual = TreeDelta.apply(
+                new JsonStreamDeserializer(Paths.get(path.concat("_source_tree.json")))
+                    .deserialize().getRoot(),
+                new JsonStreamDeserializer(dst).deserialize()
+            );
+        } catch (final CoreException | IOException ignored) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertTrue(expected.deepCompare(new Tree(actual)));
+    }
+
+    /**
+     * Testing the conversion in the lazy mode.
+     * @param temp A temporary directory
+     */
+    @Test
+    void lazyModeTest(@TempDir final Path temp) {
+        final String path = "src/test/resources/interpreter/test_1";
+        final Path dst = temp.resolve("result.json");
+        final String[] args = {
+            "--action",
+            "convert",
+            "--rules",
+            path.concat("_rules.dsl"),
+            "--source",
+            path.concat("_source_tree.json"),
+            "--destination",
+            dst.toString(),
+            "--lazy",
+        };
+        boolean oops = false;
+        Tree expected = null;
+        Tree actual = null;
+        try {
+            Main.main(args);
+            expected = new JsonStreamDeserializer(Paths.get(path.concat("_result.json")))
+                .deserialize();
+            actual = new JsonStreamDeserializer(dst).deserialize();
+        } catch (final CoreException | IOException ignored) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertTrue(expected.deepCompare(actual));
+    }
+
+    /**
+     * Testing that nodes of a tree loaded in the lazy mode are counted as in
+     *  the regular mode.
+     * @param temp A temporary directory
+     */
+    @Test
+    void lazyNodeCountTest(@TempDir final Path temp) {
+        final String source = "src/test/resources/interpreter/test_0_source_tree.json";
+        boolean oops = false;
+        int regular = -1;
+        int lazy = -2;
+        try {
+            final Interpreter first =
+                this.createInterpreter(source, temp.resolve("first.json").toFile());
+            first.run();
+            regular = first.getNodeCount();
+            final Interpreter second =
+                this.createInterpreter(source, temp.resolve("second.json").toFile());
+            second.setLazy(true);
+            second.run();
+            lazy = second.getNodeCount();
+        } catch (final InterpreterException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertTrue(regular > 0);
+        Assertions.assertEquals(regular, lazy);
+    }
+
+    /**
+     * Testing the conversion in the columnar mode, from files in JSON and binary formats.
+     * @param temp A temporary directory
+     */
+    @Test
+    void columnarModeTest(@TempDir final Path temp) {
+        final String path = "src/test/resources/interpreter/test_1";
+        final Path binary = temp.resolve("source.astb");
+        boolean oops = false;
+        String expected = "";
+        final List<String> actual = new ArrayList<>(2);
+        try {
+            new BinaryTreeWriter(
+                new JsonStreamDeserializer(Paths.get(path.concat("_source_tree.json")))
+                    .deserialize()
+            ).write(binary);
+            final String[] sources = {path.concat("_source_tree.json"), binary.toString()};
+            for (final String source : sources) {
+                final Path dst = temp.resolve(String.format("result%d.json", actual.size()));
+                final String[] args = {
+                    "--action",
+                    "convert",
+                    "--rules",
+                    path.concat("_rules.dsl"),
+                    "--source",
+                    source,
+                    "--destination",
+                    dst.toString(),
+                    "--columnar",
+                };
+                Main.main(args);
+                actual.add(new FilesReader(dst.toString()).readAsString());
+            }
+            expected = new FilesReader(path.concat("_result.json")).readAsString();
+        } catch (final CoreException | IOException ignored) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertEquals(Arrays.asList(expected, expected), actual);
+    }
+
+    /**
+     * Testing the conversion with the source file read by several threads.
+     * @param temp A temporary directory
+     */
+    @Test
+    void parallelReadTest(@TempDir final Path temp) {
+        final String path = "src/test/resources/interpreter/test_1";
+        final Path dst = temp.resolve("result.json");
+        final String[] args = {
+            "--action",
+            "convert",
+            "--rules",
+            path.concat("_rules.dsl"),
+            "--source",
+            path.concat("_source_tree.json"),
+            "--destination",
+            dst.toString(),
+            "--parallel-read",
+            "--threads",
+            "4",
+        };
+        boolean oops = false;
+        String expected = "";
+        String actual = null;
+        try {
+            Main.main(args);
+            expected = new FilesReader(path.concat("_result.json")).readAsString();
+            actual = new FilesReader(dst.toString()).readAsString();
+        } catch (final CoreException | IOException ignored) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertEquals(expected, actual);
+    }
+
+    /**
+     * Testing the streaming conversion of newline-delimited JSON documents.
+     * @param temp A temporary directory
+     */
+    @Test
+    void streamTest(@TempDir final Path temp) {
+        final String path = "src/test/resources/interpreter/test_0";
+        final Path src = temp.resolve("source.ndjson");
+        final Path dst = temp.resolve("result.ndjson");
+        final String[] args = {
+            "--action",
+            "stream",
+            "--rules",
+            path.concat("_rules.dsl"),
+            "--source",
+            src.toString(),
+            "--destination",
+            dst.toString(),
+        };
+        boolean oops = false;
+        Tree expected = null;
+        final List<Tree> actual = new ArrayList<>(2);
+        try {
+            final StringWriter compact = new StringWriter();
+            final JsonStreamSerializer serializer = new JsonStreamSerializer(
+                new JsonStreamDeserializer(Paths.get(path.concat("_source_tree.json")))
+                    .deserialize()
+            );
+            serializer.setPretty(false);
+            serializer.serialize(compact);
+            Files.write(src, Arrays.asList(compact.toString(), compact.toString()));
+            Main.main(args);
+            expected = new JsonStreamDeserializer(Paths.get(path.concat("_result.json")))
+                .deserialize();
+            for (final String line : Files.readAllLines(dst)) {
+                actual.add(new JsonStreamDeserializer(new StringReader(line)).deserialize());
+            }
+        } catch (final CoreException | IOException ignored) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertEquals(2, actual.size());
+        for (final Tree tree : actual) {
+            Assertions.assertTrue(expected.deepCompare(tree));
+        }
+    }
+
+    /**
+     * Testing the transformation that exceeds the timeout.
+     * @param temp A temporary directory
+     */
+    @Test
+    void timeoutTest(@TempDir final Path temp) {
+        final Interpreter interpreter = this.createInterpreter(
+            "src/test/resources/interpreter/test_0_source_tree.json",
+            temp.resolve("result.json").toFile()
+        );
+        interpreter.setTimeout(Duration.ofNanos(1));
+        String message = "";
+        try {
+            interpreter.run();
+        } catch (final InterpreterException exception) {
+            message = exception.getErrorMessage();
+        }
+        Assertions.assertTrue(message.contains("timed out"));
+    }
+
+    /**
+     * Testing the conversion that takes the result from the cache.
+     * @param temp A temporary directory
+     */
+    @Test
+    void cacheTest(@TempDir final Path temp) {
+        final String source = "src/test/resources/interpreter/test_0_source_tree.json";
+        final Path first = temp.resolve("first.json");
+        final Path second = temp.resolve("second.json");
+        boolean oops = false;
+        ResultCache cache = null;
+        int nodes = -1;
+        byte[] expected = new byte[0];
+        byte[] actual = new byte[0];
+        try {
+            cache = new ResultCache(temp.resolve("cache"), 1 << 20);
+            final Interpreter interpreter = this.createInterpreter(source, first.toFile());
+            interpreter.setCache(cache);
+            interpreter.run();
+            final Interpreter cached = this.createInterpreter(source, second.toFile());
+            cached.setCache(cache);
+            cached.run();
+            nodes = cached.getNodeCount();
+            expected = Files.readAllBytes(first);
+            actual = Files.readAllBytes(second);
+        } catch (final InterpreterException | IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertEquals(1, cache.getHits());
+        Assertions.assertEquals(1, cache.getMisses());
+        Assertions.assertEquals(0, nodes);
+        Assertions.assertArrayEquals(expected, actual);
+    }
+
+    /**
+     * Testing that the digest of the source file passed to the interpreter is used
+     *  as a part of the key of the cache.
+     * @param temp A temporary directory
+     */
+    @Test
+    void sourceHashTest(@TempDir final Path temp) {
+        final String source = "src/test/resources/interpreter/test_0_source_tree.json";
+        boolean oops = false;
+        ResultCache cache = null;
+        try {
+            cache = new ResultCache(temp.resolve("cache"), 1 << 20);
+            final Interpreter first =
+                this.createInterpreter(source, temp.resolve("first.json").toFile());
+            first.setCache(cache);
+            first.setSourceHash(ContentHash.sha256(Paths.get(source)));
+            first.run();
+            final Interpreter second =
+                this.createInterpreter(source, temp.resolve("second.json").toFile());
+            second.setCache(cache);
+            second.run();
+            final Interpreter third =
+                this.createInterpreter(source, temp.resolve("third.json").toFile());
+            third.setCache(cache);
+            third.setSourceHash("other");
+            third.run();
+        } catch (final InterpreterException | IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertEquals(1, cache.getHits());
+        Assertions.assertEquals(2, cache.getMisses());
+    }
+
     /**
      * Testing running interpreter without a destination specified.
      */
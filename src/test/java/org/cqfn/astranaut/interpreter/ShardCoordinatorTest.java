@@ -0,0 +1,234 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.interpreter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.cqfn.astranaut.api.JsonStreamDeserializer;
+import org.cqfn.astranaut.core.base.CoreException;
+import org.cqfn.astranaut.core.base.Tree;
+import org.cqfn.astranaut.core.utils.FilesReader;
+import org.cqfn.astranaut.parser.ProgramParser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test that covers {@link ShardCoordinator} and {@link ShardWorker} classes.
+ *
+ * @since 0.2.22
+ */
+class ShardCoordinatorTest {
+    /**
+     * The path to test resources.
+     */
+    private static final String PATH = "src/test/resources/interpreter/test_0";
+
+    /**
+     * Testing a worker that converts shards from the spool in the current process.
+     * @param temp A temporary directory
+     */
+    @Test
+    void workerTest(@TempDir final Path temp) {
+        final Path source = Paths.get(ShardCoordinatorTest.PATH.concat("_source_tree.json"));
+        final Path output = temp.resolve("output");
+        final Spool spool = new Spool(temp.resolve("spool"));
+        boolean oops = false;
+        int shards = 0;
+        List<BatchReport.Entry> first = Collections.emptyList();
+        try {
+            spool.create();
+            spool.offer(
+                "shard-000001",
+                Arrays.asList(
+                    new Path[] {source, Paths.get("a.json")},
+                    new Path[] {source, Paths.get("b.json")}
+                )
+            );
+            spool.offer(
+                "shard-000002",
+                Collections.singletonList(new Path[] {source, Paths.get("c.json")})
+            );
+            final String code =
+                new FilesReader(ShardCoordinatorTest.PATH.concat("_rules.dsl")).readAsString();
+            final ShardWorker worker = new ShardWorker(
+                temp.resolve("spool"), new ProgramParser(code).parse(), output
+            );
+            worker.setThreads(2);
+            shards = worker.run();
+            first = spool.readReport("shard-000001");
+        } catch (final CoreException | IOException ignored) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertEquals(2, shards);
+        Assertions.assertEquals(2, first.size());
+        Assertions.assertTrue(first.get(0).isSuccessful());
+        Assertions.assertTrue(first.get(0).getNodeCount() > 0);
+        Assertions.assertTrue(ShardCoordinatorTest.check(output.resolve("c.json")));
+    }
+
+    /**
+     * Testing the conversion by worker processes, including a file that
+     * can not be converted even after retries.
+     * @param temp A temporary directory
+     */
+    @Test
+    void coordinatorTest(@TempDir final Path temp) {
+        final Path output = temp.resolve("output");
+        boolean oops = false;
+        BatchReport report = null;
+        try {
+            final Path source = Paths.get(ShardCoordinatorTest.PATH.concat("_source_tree.json"));
+            Files.copy(source, temp.resolve("first.json"));
+            Files.copy(source, temp.resolve("second.json"));
+            Files.copy(source, temp.resolve("third.json"));
+            final Path manifest = temp.resolve("manifest.txt");
+            Files.write(
+                manifest,
+                Arrays.asList("first.json", "second.json", "absent.json", "third.json"),
+                StandardCharsets.UTF_8
+            );
+            final ShardCoordinator coordinator = new ShardCoordinator(
+                temp.resolve("spool"),
+                new File(ShardCoordinatorTest.PATH.concat("_rules.dsl")),
+                output
+            );
+            coordinator.setWorkers(2);
+            coordinator.setThreads(1);
+            coordinator.setShardSize(2);
+            coordinator.setRetries(1);
+            report = coordinator.run(manifest.toString());
+        } catch (final CoreException | IOException ignored) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertEquals(4, report.getEntries().size());
+        Assertions.assertEquals(1, report.getFailureCount());
+        Assertions.assertTrue(ShardCoordinatorTest.check(output.resolve("first.json")));
+        Assertions.assertTrue(ShardCoordinatorTest.check(output.resolve("third.json")));
+    }
+
+    /**
+     * Testing that the size of the shared cache of results is divided between workers.
+     * @param temp A temporary directory
+     */
+    @Test
+    void cacheSizeTest(@TempDir final Path temp) {
+        final ShardCoordinator coordinator = new ShardCoordinator(
+            temp.resolve("spool"),
+            new File(ShardCoordinatorTest.PATH.concat("_rules.dsl")),
+            temp.resolve("output")
+        );
+        coordinator.setWorkers(4);
+        coordinator.setCache(temp.resolve("cache"), 1024);
+        final List<String> command = coordinator.command();
+        final int index = command.indexOf("--cache-size");
+        Assertions.assertTrue(index > 0);
+        Assertions.assertEquals("256", command.get(index + 1));
+    }
+
+    /**
+     * Testing the conversion by worker processes, including a file that crashes
+     * the worker every time, so it is quarantined and the rest of the files are converted.
+     * @param temp A temporary directory
+     */
+    @Test
+    void crashingWorkerTest(@TempDir final Path temp) {
+        final Path output = temp.resolve("output");
+        boolean oops = false;
+        BatchReport report = null;
+        try {
+            final Path source = Paths.get(ShardCoordinatorTest.PATH.concat("_source_tree.json"));
+            Files.copy(source, temp.resolve("first.json"));
+            Files.copy(source, temp.resolve("third.json"));
+            final StringBuilder builder = new StringBuilder(16_000_000);
+            builder.append("{\"root\":{\"type\":\"A\",\"children\":[");
+            for (int index = 0; index < 1_000_000; index = index + 1) {
+                if (index > 0) {
+                    builder.append(',');
+                }
+                builder.append("{\"type\":\"A\"}");
+            }
+            builder.append("]}}");
+            Files.write(temp.resolve("second.json"), builder.toString().getBytes());
+            final Path manifest = temp.resolve("manifest.txt");
+            Files.write(
+                manifest,
+                Arrays.asList("first.json", "second.json", "third.json"),
+                StandardCharsets.UTF_8
+            );
+            final ShardCoordinator coordinator = new ShardCoordinator(
+                temp.resolve("spool"),
+                new File(ShardCoordinatorTest.PATH.concat("_rules.dsl")),
+                output
+            );
+            coordinator.setWorkers(1);
+            coordinator.setThreads(1);
+            coordinator.setShardSize(3);
+            coordinator.setRetries(0);
+            coordinator.setAttempts(2);
+            coordinator.setJvmOptions(Arrays.asList("-Xmx32m", "-XX:+ExitOnOutOfMemoryError"));
+            report = coordinator.run(manifest.toString());
+        } catch (final CoreException | IOException ignored) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertEquals(3, report.getEntries().size());
+        Assertions.assertEquals(1, report.getFailureCount());
+        for (final BatchReport.Entry entry : report.getEntries()) {
+            if (!entry.isSuccessful()) {
+                Assertions.assertEquals("second.json", entry.getSource().getFileName().toString());
+                Assertions.assertEquals("quarantined after 2 failed attempts", entry.getError());
+            }
+        }
+        Assertions.assertTrue(ShardCoordinatorTest.check(output.resolve("first.json")));
+        Assertions.assertTrue(ShardCoordinatorTest.check(output.resolve("third.json")));
+    }
+
+    /**
+     * Checks that the file contains the expected result.
+     * @param path The path to the file
+     * @return Checking result
+     */
+    private static boolean check(final Path path) {
+        boolean result;
+        try {
+            final Tree expected = new JsonStreamDeserializer(
+                Paths.get(ShardCoordinatorTest.PATH.concat("_result.json"))
+            ).deserialize();
+            result = expected.deepCompare(new JsonStreamDeserializer(path).deserialize());
+        } catch (final IOException ignored) {
+            result = false;
+        }
+        return result;
+    }
+}
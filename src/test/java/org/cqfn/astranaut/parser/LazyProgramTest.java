@@ -0,0 +1,155 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.parser;
+
+import java.util.List;
+import org.cqfn.astranaut.core.base.CoreException;
+import org.cqfn.astranaut.rules.Instruction;
+import org.cqfn.astranaut.rules.Program;
+import org.cqfn.astranaut.rules.Transformation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link LazyProgram} class.
+ *
+ * @since 0.2.22
+ */
+class LazyProgramTest {
+    /**
+     * The DSL code.
+     */
+    private static final String CODE = String.join(
+        "\n",
+        "Addition <- Expression, Expression;",
+        "IntegerLiteral <- $int$, $String.valueOf(#)$, $Integer.parseInt(#)$;",
+        "Addition(IntegerLiteral<\"2\">, IntegerLiteral<\"3\">) -> IntegerLiteral<\"5\">;",
+        "java:",
+        "Synchronized <- Expression, StatementBlock;",
+        "Return(#1) -> #1;",
+        "python:",
+        "Pass -> Nop;"
+    );
+
+    /**
+     * Testing that only transformations are parsed when only they are requested,
+     *  and that the lazy program is equivalent to the parsed one.
+     * @throws CoreException If the code can not be parsed
+     */
+    @Test
+    void parseOnDemand() throws CoreException {
+        final LazyProgram lazy = new LazyProgram(LazyProgramTest.CODE);
+        Assertions.assertEquals(6, lazy.getStatementCount());
+        Assertions.assertEquals(0, lazy.getParsedStatementCount());
+        final Program full = new ProgramParser(LazyProgramTest.CODE).parse();
+        Assertions.assertEquals(
+            full.getTransformations().toString(),
+            lazy.parseTransformations().toString()
+        );
+        Assertions.assertEquals(3, lazy.getParsedStatementCount());
+        Assertions.assertEquals(full.getNodes().toString(), lazy.getNodes().toString());
+        Assertions.assertEquals(full.getVertices().toString(), lazy.getVertices().toString());
+        Assertions.assertEquals(full.getAllRules().toString(), lazy.getAllRules().toString());
+        Assertions.assertEquals(
+            full.getTransformationsDigest(),
+            lazy.getTransformationsDigest()
+        );
+        Assertions.assertEquals(
+            full.getNamesOfAllLanguages(),
+            lazy.getNamesOfAllLanguages()
+        );
+    }
+
+    /**
+     * Testing that lists of rules and the digest are built once, and that the program
+     *  of transformations contains only transformations.
+     * @throws CoreException If the code can not be parsed
+     */
+    @Test
+    void buildOnce() throws CoreException {
+        final LazyProgram lazy = new LazyProgram(LazyProgramTest.CODE);
+        Assertions.assertSame(lazy.getTransformations(), lazy.parseTransformations());
+        Assertions.assertSame(lazy.getNodes(), lazy.getNodes());
+        Assertions.assertSame(lazy.getAllRules(), lazy.getAllRules());
+        Assertions.assertSame(lazy.getTransformationsDigest(), lazy.getTransformationsDigest());
+        final Program program = new LazyProgram(LazyProgramTest.CODE)
+            .parseTransformationProgram();
+        Assertions.assertEquals(
+            lazy.getTransformations().toString(),
+            program.getTransformations().toString()
+        );
+        Assertions.assertTrue(program.getNodes().isEmpty());
+        Assertions.assertEquals(
+            lazy.getTransformationsDigest(),
+            program.getTransformationsDigest()
+        );
+    }
+
+    /**
+     * Testing that transformations of one language section are selected.
+     * @throws CoreException If the code can not be parsed
+     */
+    @Test
+    void parseOneLanguage() throws CoreException {
+        final LazyProgram lazy = new LazyProgram(LazyProgramTest.CODE);
+        final List<Instruction<Transformation>> list = lazy.parseTransformations("java");
+        Assertions.assertEquals(2, list.size());
+        Assertions.assertEquals("java", list.get(1).getLanguage());
+        Assertions.assertEquals(2, lazy.getParsedStatementCount());
+    }
+
+    /**
+     * Testing that errors have the same numbers as errors of the full parser,
+     *  and an error in a descriptor is found only by validation.
+     */
+    @Test
+    void reportErrors() {
+        final String source = String.join(
+            "\n",
+            "Addition <- Expression, Expression;",
+            "expression <- Addition | Subtraction;",
+            "Addition(A, B) -> Subtraction(A, B);"
+        );
+        final LazyProgram lazy = new LazyProgram(source);
+        boolean oops = false;
+        try {
+            Assertions.assertEquals(1, lazy.parseTransformations().size());
+            lazy.validate();
+        } catch (final CoreException error) {
+            Assertions.assertEquals(
+                "2: Node names must start with a capital letter: 'Expression'",
+                error.getErrorMessage()
+            );
+            oops = true;
+        }
+        Assertions.assertTrue(oops);
+        final IllegalStateException exception = Assertions.assertThrows(
+            IllegalStateException.class,
+            lazy::getNodes
+        );
+        Assertions.assertTrue(exception.getMessage().startsWith("2: "));
+        final LazyProgram broken = new LazyProgram("A(B) -- C;");
+        Assertions.assertThrows(CoreException.class, broken::parseTransformations);
+    }
+}
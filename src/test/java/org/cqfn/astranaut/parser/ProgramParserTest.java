@@ -38,6 +38,15 @@ import org.junit.jupiter.api.Test;
  * @since 0.1.5
  */
 class ProgramParserTest {
+    /**
+     * Templates of statements of generated DSL code.
+     */
+    private static final String[] TEMPLATES = {
+        "Node%d <- Expression, Expression;",
+        "Literal%d <- $int$, $String.valueOf(#)$, $Integer.parseInt(#)$;",
+        "Node%d(Literal%<d<#1>, #2) -> Literal%<d<#1>;",
+    };
+
     /**
      * Test parsed 2 instructions.
      */
@@ -87,6 +96,111 @@ class ProgramParserTest {
         Assertions.assertTrue(oops);
     }
 
+    /**
+     * Test that errors contain the line number of the statement.
+     */
+    @Test
+    void parseCodeWithErrorOnSomeLine() {
+        final String source = String.join(
+            "\n",
+            "Addition <- Expression,",
+            "    Expression;",
+            "// Subtraction <- Expression, Expression;",
+            "",
+            "Addition(#1, #2) -> Subtraction(#1, #3);"
+        );
+        final CoreException error = Assertions.assertThrows(
+            CoreException.class,
+            () -> new ProgramParser(source).parse()
+        );
+        Assertions.assertTrue(error.getErrorMessage().startsWith("5: "));
+    }
+
+    /**
+     * Test that the parallel mode gives the same program as the sequential mode.
+     * @throws CoreException If the code can not be parsed
+     */
+    @Test
+    void parseInParallel() throws CoreException {
+        final String source = ProgramParserTest.generate(1000, -1, -1);
+        final Program expected = new ProgramParser(source).parse();
+        final ProgramParser parser = new ProgramParser(source);
+        parser.setThreads(4);
+        final Program actual = parser.parse();
+        Assertions.assertEquals(3000, actual.getAllRules().size());
+        Assertions.assertEquals(expected.getAllRules().toString(), actual.getAllRules().toString());
+        Assertions.assertEquals(expected.getVertices().toString(), actual.getVertices().toString());
+        Assertions.assertEquals(
+            expected.getNamesOfAllLanguages(),
+            actual.getNamesOfAllLanguages()
+        );
+    }
+
+    /**
+     * Test that a small program is parsed sequentially, with the same result,
+     *  even if several threads are set.
+     * @throws CoreException If the code can not be parsed
+     */
+    @Test
+    void parseSmallProgramWithThreads() throws CoreException {
+        final String source = ProgramParserTest.generate(10, -1, -1);
+        final ProgramParser parser = new ProgramParser(source);
+        parser.setThreads(4);
+        final Program actual = parser.parse();
+        Assertions.assertEquals(30, actual.getAllRules().size());
+        Assertions.assertEquals(
+            new ProgramParser(source).parse().getAllRules().toString(),
+            actual.getAllRules().toString()
+        );
+    }
+
+    /**
+     * Test that the parallel mode reports the error in the first statement that contains
+     *  an error, as the sequential mode does.
+     */
+    @Test
+    void parseWithErrorsInParallel() {
+        final String source = ProgramParserTest.generate(1000, 2500, 1200);
+        final ProgramParser parser = new ProgramParser(source);
+        parser.setThreads(8);
+        final CoreException error = Assertions.assertThrows(CoreException.class, parser::parse);
+        Assertions.assertEquals(
+            "1200: Node names must start with a capital letter: 'Expression'",
+            error.getErrorMessage()
+        );
+        final CoreException expected = Assertions.assertThrows(
+            CoreException.class,
+            () -> new ProgramParser(source).parse()
+        );
+        Assertions.assertEquals(expected.getErrorMessage(), error.getErrorMessage());
+    }
+
+    /**
+     * Generates DSL code, three statements per group, a statement per line.
+     * @param groups The number of groups
+     * @param first The line of the first error, or -1
+     * @param second The line of the second error, or -1
+     * @return The code
+     */
+    private static String generate(final int groups, final int first, final int second) {
+        final StringBuilder builder = new StringBuilder();
+        int line = 1;
+        for (int index = 0; index < groups; index = index + 1) {
+            if (index == groups / 2) {
+                builder.append("java: ");
+            }
+            for (final String template : ProgramParserTest.TEMPLATES) {
+                if (line == first || line == second) {
+                    builder.append("expression <- Addition | Subtraction;\n");
+                } else {
+                    builder.append(String.format(template, index)).append('\n');
+                }
+                line = line + 1;
+            }
+        }
+        return builder.toString();
+    }
+
     /**
      * Test parsed literal.
      */
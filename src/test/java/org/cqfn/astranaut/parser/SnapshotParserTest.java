@@ -0,0 +1,66 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.parser;
+
+import java.nio.file.Path;
+import org.cqfn.astranaut.core.base.CoreException;
+import org.cqfn.astranaut.rules.Program;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link SnapshotParser} class.
+ *
+ * @since 0.2.22
+ */
+class SnapshotParserTest {
+    /**
+     * Testing that the program is parsed once and then loaded from the snapshot.
+     * @param temp The temporary directory
+     * @throws CoreException If the code can not be parsed
+     */
+    @Test
+    void parseAndLoad(@TempDir final Path temp) throws CoreException {
+        final String source = String.join(
+            "\n",
+            "Addition <- Expression, Expression;",
+            "Addition(IntegerLiteral<\"2\">, IntegerLiteral<\"3\">) -> IntegerLiteral<\"5\">;"
+        );
+        final Path directory = temp.resolve("snapshots");
+        final SnapshotParser first = new SnapshotParser(source, directory);
+        final Program parsed = first.parse();
+        Assertions.assertFalse(first.isLoaded());
+        final SnapshotParser second = new SnapshotParser(source, directory);
+        final Program loaded = second.parse();
+        Assertions.assertTrue(second.isLoaded());
+        Assertions.assertEquals(parsed.getAllRules().toString(), loaded.getAllRules().toString());
+        final SnapshotParser other = new SnapshotParser(
+            source.concat("\nSubtraction <- Expression, Expression;"),
+            directory
+        );
+        other.parse();
+        Assertions.assertFalse(other.isLoaded());
+    }
+}
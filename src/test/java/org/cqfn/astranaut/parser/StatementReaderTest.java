@@ -0,0 +1,169 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.parser;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.cqfn.astranaut.core.utils.FilesReader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link StatementReader} class.
+ *
+ * @since 0.2.22
+ */
+class StatementReaderTest {
+    /**
+     * The folder with test resources.
+     */
+    private static final String TESTS_PATH = "src/test/resources/comments/";
+
+    /**
+     * Testing kinds, parts, languages and positions of statements.
+     * @throws IOException If the source can not be read
+     */
+    @Test
+    void readStatements() throws IOException {
+        final List<Statement> list = StatementReaderTest.read(
+            String.join(
+                "\n",
+                "Addition <- left@Expression, right@Expression;",
+                "  IntegerLiteral <- $int$, $String.valueOf(#)$, $Integer.parseInt(#)$;",
+                "java:",
+                "  Return(#1)",
+                "    -> #1;;",
+                "Wrong"
+            )
+        );
+        Assertions.assertEquals(4, list.size());
+        final Statement node = list.get(0);
+        Assertions.assertEquals(Statement.Kind.NODE, node.getKind());
+        Assertions.assertEquals("Addition", node.getLeft());
+        Assertions.assertEquals("left@Expression, right@Expression", node.getRight());
+        Assertions.assertEquals("", node.getLanguage());
+        Assertions.assertEquals(1, node.getLine());
+        Assertions.assertEquals(1, node.getColumn());
+        final Statement literal = list.get(1);
+        Assertions.assertEquals(Statement.Kind.LITERAL, literal.getKind());
+        Assertions.assertEquals(2, literal.getLine());
+        Assertions.assertEquals(3, literal.getColumn());
+        final Statement transformation = list.get(2);
+        Assertions.assertEquals(Statement.Kind.TRANSFORMATION, transformation.getKind());
+        Assertions.assertEquals("java", transformation.getLanguage());
+        Assertions.assertEquals("Return(#1) -> #1", transformation.toString());
+        Assertions.assertEquals(4, transformation.getLine());
+        Assertions.assertEquals(3, transformation.getColumn());
+        final Statement unknown = list.get(3);
+        Assertions.assertEquals(Statement.Kind.UNKNOWN, unknown.getKind());
+        Assertions.assertEquals("Wrong", unknown.getLeft());
+        Assertions.assertEquals("java", unknown.getLanguage());
+        Assertions.assertEquals(6, unknown.getLine());
+    }
+
+    /**
+     * Testing that comments are skipped, except inside strings and native code.
+     * @throws IOException If the source can not be read
+     */
+    @Test
+    void skipComments() throws IOException {
+        final List<Statement> list = StatementReaderTest.read(
+            String.join(
+                "\n",
+                "/* A <- B;",
+                "   C <- D; */ E <- F; // G <- H;",
+                "X(Y<\"a//b;c/*d\">) -> Z; /* unclosed ",
+                "K <- L;"
+            )
+        );
+        Assertions.assertEquals(2, list.size());
+        Assertions.assertEquals("E <- F", list.get(0).toString());
+        Assertions.assertEquals(2, list.get(0).getLine());
+        Assertions.assertEquals(15, list.get(0).getColumn());
+        Assertions.assertEquals("X(Y<\"a//b;c/*d\">) -> Z", list.get(1).toString());
+        final List<Statement> natives = StatementReaderTest.read(
+            "N <- $a//b$, $x;y$, $z$;"
+        );
+        Assertions.assertEquals(1, natives.size());
+        Assertions.assertEquals("$a//b$, $x;y$, $z$", natives.get(0).getRight());
+    }
+
+    /**
+     * Testing that files with comments give the same statements as files without them.
+     * @throws IOException If the source can not be read
+     */
+    @Test
+    void compareWithExpected() throws IOException {
+        final String[] names = {"multi_line_comments", "single_line_comments", "tokens_in_data"};
+        for (final String name : names) {
+            final List<Statement> source = StatementReaderTest.read(
+                new FilesReader(
+                    StatementReaderTest.TESTS_PATH.concat(name).concat("_source.dsl")
+                ).readAsString()
+            );
+            final List<Statement> expected = StatementReaderTest.read(
+                new FilesReader(
+                    StatementReaderTest.TESTS_PATH.concat(name).concat("_expected.dsl")
+                ).readAsString()
+            );
+            Assertions.assertEquals(expected.toString(), source.toString());
+        }
+    }
+
+    /**
+     * Testing a source that is longer than the read buffer.
+     * @throws IOException If the source can not be read
+     */
+    @Test
+    void readLongSource() throws IOException {
+        final StringBuilder builder = new StringBuilder();
+        final int count = 5000;
+        for (int index = 0; index < count; index = index + 1) {
+            builder.append("Node").append(index).append(" <- Child").append(index).append(";\n");
+        }
+        final List<Statement> list = StatementReaderTest.read(builder.toString());
+        Assertions.assertEquals(count, list.size());
+        Assertions.assertEquals("Node4999", list.get(count - 1).getLeft());
+        Assertions.assertEquals(count, list.get(count - 1).getLine());
+    }
+
+    /**
+     * Reads all statements.
+     * @param source The source
+     * @return The list of statements
+     * @throws IOException If the source can not be read
+     */
+    private static List<Statement> read(final String source) throws IOException {
+        final StatementReader reader = new StatementReader(new StringReader(source));
+        final List<Statement> list = new ArrayList<>(0);
+        Statement statement = reader.next();
+        while (statement != null) {
+            list.add(statement);
+            statement = reader.next();
+        }
+        return list;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.rules;
+
+import java.util.Arrays;
+import org.cqfn.astranaut.core.base.CoreException;
+import org.cqfn.astranaut.parser.ProgramParser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link ProgramSnapshot} class.
+ *
+ * @since 0.2.22
+ */
+class ProgramSnapshotTest {
+    /**
+     * The DSL code.
+     */
+    private static final String CODE = String.join(
+        "\n",
+        "Expression <- Addition | IntegerLiteral;",
+        "Addition <- left@Expression, right@Expression;",
+        "IntegerLiteral <- $int$, $String.valueOf(#)$, $Integer.parseInt(#)$;",
+        "StatementBlock <- {Expression};",
+        "Return <- [Expression];",
+        "java:",
+        "Expression <- & | Synchronized;",
+        "Synchronized <- Expression, StatementBlock;",
+        "Addition(IntegerLiteral<\"2\">, IntegerLiteral<\"3\">) -> IntegerLiteral<\"5\">;",
+        "Return(#1) -> #1;",
+        "Variable<#1> -> Name<#1>;"
+    );
+
+    /**
+     * The digest of the DSL code.
+     */
+    private static final String DIGEST = "0123456789abcdef";
+
+    /**
+     * Testing that a program restored from a snapshot is the same as the parsed one.
+     * @throws CoreException If the code can not be parsed
+     */
+    @Test
+    void roundTrip() throws CoreException {
+        final Program original = new ProgramParser(ProgramSnapshotTest.CODE).parse();
+        final byte[] snapshot = ProgramSnapshot.encode(original, ProgramSnapshotTest.DIGEST);
+        final Program restored = ProgramSnapshot.decode(snapshot, ProgramSnapshotTest.DIGEST);
+        Assertions.assertNotNull(restored);
+        Assertions.assertEquals(
+            original.getAllRules().toString(),
+            restored.getAllRules().toString()
+        );
+        Assertions.assertEquals(original.getNodes().toString(), restored.getNodes().toString());
+        Assertions.assertEquals(
+            original.getLiterals().toString(),
+            restored.getLiterals().toString()
+        );
+        Assertions.assertEquals(
+            original.getVertices().toString(),
+            restored.getVertices().toString()
+        );
+        Assertions.assertEquals(
+            original.getTransformations().toString(),
+            restored.getTransformations().toString()
+        );
+        Assertions.assertEquals(
+            original.getTransformationsDigest(),
+            restored.getTransformationsDigest()
+        );
+    }
+
+    /**
+     * Testing that a snapshot of other code or a damaged snapshot is not restored.
+     * @throws CoreException If the code can not be parsed
+     */
+    @Test
+    void staleSnapshot() throws CoreException {
+        final Program original = new ProgramParser(ProgramSnapshotTest.CODE).parse();
+        final byte[] snapshot = ProgramSnapshot.encode(original, ProgramSnapshotTest.DIGEST);
+        Assertions.assertNull(ProgramSnapshot.decode(snapshot, "fedcba9876543210"));
+        Assertions.assertNull(
+            ProgramSnapshot.decode(
+                Arrays.copyOf(snapshot, snapshot.length / 2),
+                ProgramSnapshotTest.DIGEST
+            )
+        );
+        Assertions.assertNull(ProgramSnapshot.decode(new byte[0], ProgramSnapshotTest.DIGEST));
+    }
+}
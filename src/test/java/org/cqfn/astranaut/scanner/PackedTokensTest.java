@@ -0,0 +1,97 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.scanner;
+
+import org.cqfn.astranaut.exceptions.ParserException;
+import org.cqfn.astranaut.rules.Hole;
+import org.cqfn.astranaut.rules.HoleAttribute;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link PackedTokens} class.
+ *
+ * @since 0.2.22
+ */
+class PackedTokensTest {
+    /**
+     * Testing that packed tokens are the same as tokens created by {@link Scanner}.
+     * @throws ParserException If the source can't be scanned
+     */
+    @Test
+    void sameAsScanner() throws ParserException {
+        final String[] sources = {
+            "{aaa,[bbb123<\"ccc\">],(#456)}",
+            "Addition(#1, Modifier#2, #3...) & | 0 @",
+            "  $String.valueOf(#)$ , \"a\\\"b\\nc\"  ",
+            "",
+        };
+        for (final String source : sources) {
+            final PackedTokens packed = PackedTokens.scan(source);
+            final Scanner scanner = new Scanner(source);
+            int index = 0;
+            Token token = scanner.getToken();
+            while (!(token instanceof Null)) {
+                Assertions.assertEquals(token.toString(), packed.get(index).toString());
+                Assertions.assertEquals(token.getClass(), packed.get(index).getClass());
+                index = index + 1;
+                token = scanner.getToken();
+            }
+            Assertions.assertEquals(index, packed.size());
+        }
+    }
+
+    /**
+     * Testing tokens and kinds.
+     * @throws ParserException If the source can't be scanned
+     */
+    @Test
+    void tokens() throws ParserException {
+        final PackedTokens tokens = PackedTokens.scan("Name<\"x\\ty\">, Type#12, #3..., $a$");
+        Assertions.assertEquals(10, tokens.size());
+        Assertions.assertEquals("Name", ((Identifier) tokens.get(0)).getValue());
+        Assertions.assertEquals(new StringToken("x\ty").toString(), tokens.get(2).toString());
+        final Hole typed = ((HoleMarker) tokens.get(5)).createHole();
+        Assertions.assertEquals(12, typed.getValue());
+        Assertions.assertEquals(HoleAttribute.TYPED, typed.getAttribute());
+        final Hole ellipsis = ((HoleMarker) tokens.get(7)).createHole();
+        Assertions.assertEquals(HoleAttribute.ELLIPSIS, ellipsis.getAttribute());
+        Assertions.assertEquals("a", ((NativeCode) tokens.get(9)).getCode());
+        Assertions.assertSame(Comma.INSTANCE, tokens.get(4));
+        Assertions.assertTrue(tokens.contains(PackedTokens.Kind.NATIVE_CODE));
+        Assertions.assertFalse(tokens.contains(PackedTokens.Kind.AMPERSAND));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> tokens.get(10));
+    }
+
+    /**
+     * Testing errors.
+     */
+    @Test
+    void errors() {
+        final String[] sources = {"example^123", "#abc", "#0..,", "\"abc", "$abc", "a\tb"};
+        for (final String source : sources) {
+            Assertions.assertThrows(ParserException.class, () -> PackedTokens.scan(source));
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.cqfn.astranaut.api.JsonStreamDeserializer;
+import org.cqfn.astranaut.core.base.Tree;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test for {@link ConversionServer} and {@link ConversionClient} classes.
+ *
+ * @since 0.2.22
+ */
+class ConversionServerTest {
+    /**
+     * The path to test resources.
+     */
+    private static final String PATH = "src/test/resources/interpreter/test_0";
+
+    /**
+     * Testing the conversion of a tree passed in the request and of a file.
+     * @param temp A temporary directory
+     */
+    @Test
+    void conversionTest(@TempDir final Path temp) {
+        final Path rules = temp.resolve("rules.dsl");
+        final Path source = temp.resolve("source.json");
+        final Path destination = temp.resolve("result.json");
+        boolean oops = false;
+        Tree expected = null;
+        Tree inline = null;
+        Tree file = null;
+        String status = "";
+        ConversionServer server = null;
+        try {
+            Files.copy(Paths.get(ConversionServerTest.PATH.concat("_rules.dsl")), rules);
+            Files.copy(Paths.get(ConversionServerTest.PATH.concat("_source_tree.json")), source);
+            server = new ConversionServer(0, 2, 4, temp);
+            server.start();
+            final ConversionClient client =
+                new ConversionClient(server.getPort(), server.getToken());
+            final String json = new String(Files.readAllBytes(source), "UTF-8");
+            client.convert(rules, json);
+            final String response = client.convert(rules, json);
+            inline = new JsonStreamDeserializer(new StringReader(response)).deserialize();
+            client.convert(rules, source, destination);
+            file = new JsonStreamDeserializer(destination).deserialize();
+            status = client.status();
+            expected = new JsonStreamDeserializer(
+                Paths.get(ConversionServerTest.PATH.concat("_result.json"))
+            ).deserialize();
+        } catch (final IOException ignored) {
+            oops = true;
+        } finally {
+            if (server != null) {
+                server.stop();
+            }
+        }
+        Assertions.assertFalse(oops);
+        Assertions.assertTrue(expected.deepCompare(inline));
+        Assertions.assertTrue(expected.deepCompare(file));
+        Assertions.assertTrue(
+            status.startsWith(
+                "{\"programs\":1,\"hits\":2,\"misses\":1,\"trees\":{\"hits\":1,\"misses\":1,"
+            )
+        );
+    }
+
+    /**
+     * Testing errors reported by the server.
+     * @param temp A temporary directory
+     */
+    @Test
+    void errorTest(@TempDir final Path temp) {
+        final Path rules = temp.resolve("wrong.dsl");
+        String message = "";
+        ConversionServer server = null;
+        try {
+            Files.write(rules, "Addition(#1, #2 -> ".getBytes("UTF-8"));
+            server = new ConversionServer(0, 1, 4, temp);
+            server.start();
+            new ConversionClient(server.getPort(), server.getToken()).convert(rules, "{}");
+        } catch (final IOException exception) {
+            message = exception.getMessage();
+        } finally {
+            if (server != null) {
+                server.stop();
+            }
+        }
+        Assertions.assertFalse(message.isEmpty());
+        Assertions.assertFalse(message.contains("Connection"));
+    }
+
+    /**
+     * Testing requests rejected by the server: without the token, with files outside
+     *  the root directory, to a host name other than the loopback one and from a web page.
+     * @param temp A temporary directory
+     */
+    @Test
+    void securityTest(@TempDir final Path temp) {
+        final Path rules = Paths.get(ConversionServerTest.PATH.concat("_rules.dsl"));
+        final String[] messages = new String[2];
+        final int[] codes = new int[3];
+        ConversionServer server = null;
+        try {
+            final Path inside = temp.resolve("inside");
+            Files.createDirectories(inside);
+            Files.copy(rules, inside.resolve("rules.dsl"));
+            server = new ConversionServer(0, 1, 4, inside);
+            server.start();
+            final int port = server.getPort();
+            messages[0] = ConversionServerTest.fail(
+                new ConversionClient(port, "wrong"), inside.resolve("rules.dsl")
+            );
+            messages[1] = ConversionServerTest.fail(
+                new ConversionClient(port, server.getToken()), rules
+            );
+            final String auth = "Authorization: Bearer ".concat(server.getToken());
+            codes[0] = ConversionServerTest.send(
+                port, "Host: 127.0.0.1", auth
+            );
+            codes[1] = ConversionServerTest.send(
+                port, String.format("Host: rebound.example:%d", port), auth
+            );
+            codes[2] = ConversionServerTest.send(
+                port, "Host: localhost", auth, "Origin: http://rebound.example"
+            );
+        } catch (final IOException ignored) {
+            messages[0] = "";
+        } finally {
+            if (server != null) {
+                server.stop();
+            }
+        }
+        Assertions.assertEquals("Expected the access token of the server", messages[0]);
+        Assertions.assertTrue(messages[1].startsWith("The file is outside the root directory"));
+        Assertions.assertArrayEquals(new int[] {200, 403, 403}, codes);
+    }
+
+    /**
+     * Testing that a dangling symbolic link inside the root directory can't be used
+     *  to write a file outside it.
+     * @param temp A temporary directory
+     */
+    @Test
+    void danglingLinkTest(@TempDir final Path temp) {
+        final Path outside = temp.resolve("outside.json");
+        String message = "";
+        ConversionServer server = null;
+        try {
+            final Path inside = temp.resolve("inside");
+            Files.createDirectories(inside);
+            final Path rules = inside.resolve("rules.dsl");
+            final Path source = inside.resolve("source.json");
+            Files.copy(Paths.get(ConversionServerTest.PATH.concat("_rules.dsl")), rules);
+            Files.copy(Paths.get(ConversionServerTest.PATH.concat("_source_tree.json")), source);
+            final Path link = Files.createSymbolicLink(inside.resolve("link.json"), outside);
+            server = new ConversionServer(0, 1, 4, inside);
+            server.start();
+            new ConversionClient(server.getPort(), server.getToken())
+                .convert(rules, source, link);
+        } catch (final IOException exception) {
+            message = exception.getMessage();
+        } finally {
+            if (server != null) {
+                server.stop();
+            }
+        }
+        Assertions.assertTrue(message.startsWith("The file is outside the root directory"));
+        Assertions.assertFalse(Files.exists(outside));
+    }
+
+    /**
+     * Sends a conversion request that must fail.
+     * @param client The client
+     * @param rules The DSL file
+     * @return The error message
+     */
+    private static String fail(final ConversionClient client, final Path rules) {
+        String message = "";
+        try {
+            client.convert(rules, "{}");
+        } catch (final IOException exception) {
+            message = exception.getMessage();
+        }
+        return message;
+    }
+
+    /**
+     * Sends a status request with the specified headers over a plain socket.
+     * @param port The port
+     * @param headers The headers
+     * @return The status code of the response
+     * @throws IOException If the request can not be sent
+     */
+    private static int send(final int port, final String... headers) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            final StringBuilder request = new StringBuilder("GET /status HTTP/1.1\r\n");
+            for (final String header : headers) {
+                request.append(header).append("\r\n");
+            }
+            request.append("Connection: close\r\n\r\n");
+            socket.getOutputStream().write(request.toString().getBytes(StandardCharsets.UTF_8));
+            final String line = new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8)
+            ).readLine();
+            return Integer.parseInt(line.split(" ")[1]);
+        }
+    }
+}
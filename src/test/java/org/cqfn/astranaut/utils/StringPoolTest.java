@@ -0,0 +1,107 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.utils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import org.cqfn.astranaut.api.JsonStreamDeserializer;
+import org.cqfn.astranaut.core.base.Node;
+import org.cqfn.astranaut.core.base.Tree;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link StringPool} class.
+ *
+ * @since 0.2.22
+ */
+class StringPoolTest {
+    /**
+     * Test for interning of type names.
+     */
+    @Test
+    void testIntern() {
+        final String name = new StringBuilder("Addi").append("tion").toString();
+        Assertions.assertSame("Addition", StringPool.intern(name));
+    }
+
+    /**
+     * Test for interning of more type names than the table keeps.
+     */
+    @Test
+    void testInternManyNames() {
+        for (int index = 0; index < 20_000; index = index + 1) {
+            final String name = String.format("Garbage%d", index);
+            Assertions.assertSame(name.intern(), StringPool.intern(new String(name)));
+        }
+    }
+
+    /**
+     * Test for bounded deduplication.
+     */
+    @Test
+    void testDeduplicate() {
+        final StringPool pool = new StringPool(1);
+        final String first = new String(new char[] {'a', 'b'});
+        final String second = new String(new char[] {'a', 'b'});
+        final String other = new String(new char[] {'c'});
+        Assertions.assertSame(first, pool.deduplicate(first));
+        Assertions.assertSame(first, pool.deduplicate(second));
+        Assertions.assertSame(other, pool.deduplicate(other));
+        Assertions.assertNotSame(other, pool.deduplicate(new String(new char[] {'c'})));
+        Assertions.assertEquals(1, pool.size());
+        Assertions.assertEquals(1, pool.getHits());
+        Assertions.assertEquals(3, pool.getMisses());
+        Assertions.assertEquals(48, pool.getSavedBytes());
+    }
+
+    /**
+     * Test for deduplication of data strings while loading a tree.
+     */
+    @Test
+    void testLoading() {
+        final String source = String.join(
+            "",
+            "{\"root\": {\"type\": \"Addition\", \"children\": [",
+            "{\"type\": \"Identifier\", \"data\": \"x\"}, ",
+            "{\"type\": \"Identifier\", \"data\": \"x\"}]}}"
+        );
+        final StringPool pool = new StringPool(100);
+        final JsonStreamDeserializer deserializer =
+            new JsonStreamDeserializer(new StringReader(source));
+        deserializer.setStringPool(pool);
+        boolean oops = false;
+        Tree tree = null;
+        try {
+            tree = deserializer.deserialize();
+        } catch (final IOException exception) {
+            oops = true;
+        }
+        Assertions.assertFalse(oops);
+        final Node root = tree.getRoot();
+        Assertions.assertSame("Addition", root.getTypeName());
+        Assertions.assertSame(root.getChild(0).getData(), root.getChild(1).getData());
+        Assertions.assertEquals(1, pool.getHits());
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2024 Ivan Kniazkov
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.cqfn.astranaut.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.cqfn.astranaut.core.base.DraftNode;
+import org.cqfn.astranaut.core.base.Node;
+import org.cqfn.astranaut.core.base.Type;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link TreeFlowProcessor} class. The test requires Java 9 or later,
+ * it is compiled together with the versioned part of the multi-release jar.
+ *
+ * @since 0.2.22
+ */
+class TreeFlowProcessorTest {
+    /**
+     * The number of published trees.
+     */
+    private static final int COUNT = 20;
+
+    /**
+     * The index of the tree that can not be transformed.
+     */
+    private static final int BROKEN = 7;
+
+    /**
+     * Test for the transformation of a published stream of trees.
+     * @throws Exception If the results are not received in time
+     */
+    @Test
+    void testTransform() throws Exception {
+        final TreeProcessor processor = new TreeProcessor();
+        processor.loadRulesFromString(
+            "Addition(IntegerLiteral<\"2\">, IntegerLiteral<\"3\">) -> IntegerLiteral<\"5\"> ;"
+        );
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final List<TransformResult> results =
+            Collections.synchronizedList(new ArrayList<>(TreeFlowProcessorTest.COUNT));
+        try (SubmissionPublisher<Node> upstream = new SubmissionPublisher<>()) {
+            final TreeFlowProcessor flow = new TreeFlowProcessor(processor, executor, 2);
+            final CompletableFuture<Void> done = flow.consume(results::add);
+            upstream.subscribe(flow);
+            for (int index = 0; index < TreeFlowProcessorTest.COUNT; index = index + 1) {
+                if (index == TreeFlowProcessorTest.BROKEN) {
+                    upstream.submit(TreeFlowProcessorTest.createBrokenNode());
+                } else {
+                    upstream.submit(TreeFlowProcessorTest.createSampleTree());
+                }
+            }
+            upstream.close();
+            done.get(1, TimeUnit.MINUTES);
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(TreeFlowProcessorTest.COUNT, results.size());
+        final boolean[] indexes = new boolean[TreeFlowProcessorTest.COUNT];
+        for (final TransformResult result : results) {
+            indexes[result.getIndex()] = true;
+            if (result.getIndex() == TreeFlowProcessorTest.BROKEN) {
+                Assertions.assertFalse(result.isSuccessful());
+                Assertions.assertTrue(result.getFailure() instanceof IllegalStateException);
+            } else {
+                Assertions.assertEquals("5", result.getResult().getData());
+            }
+        }
+        for (final boolean received : indexes) {
+            Assertions.assertTrue(received);
+        }
+    }
+
+    /**
+     * Test for the error that is published when the executor rejects a transformation.
+     * The exception must not be thrown to the upstream, which cancels the subscription
+     * instead.
+     * @throws Exception If the subscriber is not notified in time
+     */
+    @Test
+    void testRejectedExecution() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.shutdown();
+        final TreeFlowProcessor flow = new TreeFlowProcessor(new TreeProcessor(), executor, 2);
+        final CompletableFuture<Void> done = flow.consume(result -> { });
+        final AtomicLong requested = new AtomicLong();
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        flow.onSubscribe(
+            new Flow.Subscription() {
+                @Override
+                public void request(final long count) {
+                    requested.addAndGet(count);
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled.set(true);
+                }
+            }
+        );
+        Assertions.assertDoesNotThrow(
+            () -> flow.onNext(TreeFlowProcessorTest.createSampleTree())
+        );
+        Throwable cause = null;
+        try {
+            done.get(1, TimeUnit.MINUTES);
+        } catch (final ExecutionException exception) {
+            cause = exception.getCause();
+        } catch (final TimeoutException ignored) {
+            cause = null;
+        }
+        Assertions.assertTrue(cause instanceof RejectedExecutionException);
+        Assertions.assertEquals(2, requested.get());
+        Assertions.assertTrue(cancelled.get());
+    }
+
+    /**
+     * Creates a node that can not be transformed, it throws an exception
+     *  when its type is requested.
+     * @return The node
+     */
+    private static Node createBrokenNode() {
+        return new Node() {
+            @Override
+            public Type getType() {
+                throw new IllegalStateException("Broken node");
+            }
+
+            @Override
+            public String getData() {
+                return "";
+            }
+
+            @Override
+            public int getChildCount() {
+                return 0;
+            }
+
+            @Override
+            public Node getChild(final int index) {
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Creates the tree {@code Addition(IntegerLiteral<"2">, IntegerLiteral<"3">)}.
+     * @return The tree
+     */
+    private static Node createSampleTree() {
+        final DraftNode.Constructor addition = new DraftNode.Constructor();
+        addition.setName("Addition");
+        final DraftNode.Constructor left = new DraftNode.Constructor();
+        left.setName("IntegerLiteral");
+        left.setData("2");
+        final DraftNode.Constructor right = new DraftNode.Constructor();
+        right.setName("IntegerLiteral");
+        right.setData("3");
+        addition.setChildrenList(Arrays.asList(left.createNode(), right.createNode()));
+        return addition.createNode();
+    }
+}